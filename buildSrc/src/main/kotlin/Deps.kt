@@ -33,4 +33,10 @@ object Deps {
 
         val core = "org.mockito:mockito-core:${Versions.mockito}"
     }
+
+    object Jmh {
+
+        val core = "org.openjdk.jmh:jmh-core:${Versions.jmh}"
+        val annprocess = "org.openjdk.jmh:jmh-generator-annprocess:${Versions.jmh}"
+    }
 }
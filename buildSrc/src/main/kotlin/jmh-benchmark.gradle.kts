@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+apply(plugin = "java-common")
+
+dependencies {
+    val implementation: Configuration by configurations
+    val annotationProcessor: Configuration by configurations
+
+    implementation(Deps.Jmh.core)
+    annotationProcessor(Deps.Jmh.annprocess)
+}
+
+tasks {
+    val libPath: String by rootProject.extra
+    val execPath: String by rootProject.extra
+
+    // Benchmarks are not published as a Maven artifact
+    withType<AbstractPublishToMaven>() {
+        enabled = false
+    }
+
+    // Usage: ./gradlew :theta-benchmarks:jmh [-PjmhArgs="<JMH options, e.g., a benchmark regex>"]
+    val jmh by creating(JavaExec::class) {
+        group = "benchmark"
+        description = "Runs the JMH benchmarks and writes the results as JSON."
+
+        val resultFile = buildDir.resolve("reports/jmh/results.json")
+        val sourceSets = project.extensions.getByType<SourceSetContainer>()
+        classpath = sourceSets["main"].runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        args("-rf", "json", "-rff", resultFile.absolutePath)
+        if (project.hasProperty("jmhArgs")) {
+            args(project.property("jmhArgs").toString().split(" ").filter { it.isNotBlank() })
+        }
+        environment["PATH"] = execPath
+        environment["LD_LIBRARY_PATH"] = libPath
+
+        outputs.file(resultFile)
+        outputs.upToDateWhen { false }
+        doFirst {
+            resultFile.parentFile.mkdirs()
+        }
+    }
+}
@@ -17,6 +17,7 @@ rootProject.name = "theta"
 
 include(
     "common/analysis",
+    "common/benchmarks",
     "common/common",
     "common/core",
 
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.cfa.analysis;
+
+import hu.bme.mit.theta.analysis.algorithm.bmc.MonolithicExpr;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.StmtUnfoldResult;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.NonDetStmt;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory.indexing;
+
+/**
+ * Encodes a CFA as a {@link MonolithicExpr} for bounded model checking. Locations are numbered and
+ * stored in an auxiliary integer variable, each edge becomes a branch of a single nondeterministic
+ * statement guarded by its source location, and a second auxiliary variable records the edge that
+ * was taken, so that counterexamples can be mapped back to CFA states and actions.
+ */
+public final class CfaToMonolithicExpr {
+
+    private final CFA cfa;
+    private final VarDecl<IntType> locVar;
+    private final VarDecl<IntType> edgeVar;
+    private final List<CFA.Loc> locs;
+    private final List<CFA.Edge> edges;
+    private final MonolithicExpr monolithicExpr;
+
+    private CfaToMonolithicExpr(final CFA cfa, final CFA.Loc errLoc) {
+        this.cfa = checkNotNull(cfa);
+        checkArgument(cfa.getLocs().contains(errLoc), "Error location is not in the CFA");
+        this.locVar = Var("__cfa_loc_", Int());
+        this.edgeVar = Var("__cfa_edge_", Int());
+        this.locs = new ArrayList<>(cfa.getLocs());
+        this.edges = new ArrayList<>(cfa.getEdges());
+
+        final Map<CFA.Loc, Integer> locIds = new HashMap<>();
+        for (int i = 0; i < locs.size(); i++) {
+            locIds.put(locs.get(i), i);
+        }
+
+        final List<Stmt> branches = new ArrayList<>(edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            final CFA.Edge edge = edges.get(i);
+            branches.add(SequenceStmt(List.of(
+                    Assume(Eq(locVar.getRef(), Int(locIds.get(edge.getSource())))),
+                    edge.getStmt(),
+                    Assign(locVar, Int(locIds.get(edge.getTarget()))),
+                    Assign(edgeVar, Int(i)))));
+        }
+
+        final var initExpr = Eq(locVar.getRef(), Int(locIds.get(cfa.getInitLoc())));
+        final var propExpr = Neq(locVar.getRef(), Int(locIds.get(errLoc)));
+        if (branches.isEmpty()) {
+            monolithicExpr = MonolithicExpr.create(initExpr, False(), propExpr, indexing(0));
+        } else {
+            final StmtUnfoldResult result = StmtUtils.toExpr(NonDetStmt(branches), indexing(0));
+            monolithicExpr = MonolithicExpr.create(initExpr, And(result.getExprs()), propExpr,
+                    result.getIndexing());
+        }
+    }
+
+    public static CfaToMonolithicExpr create(final CFA cfa, final CFA.Loc errLoc) {
+        return new CfaToMonolithicExpr(cfa, errLoc);
+    }
+
+    public MonolithicExpr getMonolithicExpr() {
+        return monolithicExpr;
+    }
+
+    /**
+     * Maps a valuation of the encoding back to a CFA state, dropping the auxiliary variables.
+     */
+    public CfaState<ExplState> getState(final Valuation valuation) {
+        final CFA.Loc loc = locs.get(getInt(valuation, locVar));
+        final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+        for (final Map.Entry<Decl<?>, LitExpr<?>> entry : valuation.toMap().entrySet()) {
+            if (cfa.getVars().contains(entry.getKey())) {
+                builder.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return CfaState.of(loc, ExplState.of(builder.build()));
+    }
+
+    /**
+     * Gets the action leading from the first valuation to the second one.
+     */
+    public CfaAction getAction(final Valuation source, final Valuation target) {
+        return CfaAction.create(edges.get(getInt(target, edgeVar)));
+    }
+
+    private static int getInt(final Valuation valuation, final VarDecl<IntType> var) {
+        final var value = valuation.eval(var);
+        checkArgument(value.isPresent(), "No value for %s", var.getName());
+        return ((IntLitExpr) value.get()).getValue().intValue();
+    }
+}
@@ -20,6 +20,7 @@ import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.common.AnalysisBudget;
 
 public final class CfaConfig<S extends State, A extends Action, P extends Prec> {
 
@@ -40,4 +41,8 @@ public final class CfaConfig<S extends State, A extends Action, P extends Prec>
         return checker.check(initPrec);
     }
 
+    public SafetyResult<S, A> check(final AnalysisBudget budget) {
+        return checker.check(initPrec, budget);
+    }
+
 }
@@ -23,20 +23,24 @@ import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.bmc.BoundedChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.ParallelAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
+import hu.bme.mit.theta.analysis.expl.ExplStmtTransFunc;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
 import hu.bme.mit.theta.analysis.expl.VarsRefToExplPrec;
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceIncrementalSeqItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceNewtonChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUCBChecker;
@@ -48,14 +52,17 @@ import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.analysis.expr.refinement.Refutation;
 import hu.bme.mit.theta.analysis.expr.refinement.RefutationToPrec;
 import hu.bme.mit.theta.analysis.expr.refinement.SingleExprTraceRefiner;
+import hu.bme.mit.theta.analysis.impl.CachingAnalysis;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters.ExprSplitter;
 import hu.bme.mit.theta.analysis.pred.ItpRefToPredPrec;
+import hu.bme.mit.theta.analysis.pred.PredAbstractorCache;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors;
 import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
 import hu.bme.mit.theta.analysis.pred.PredPrec;
 import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
 import hu.bme.mit.theta.cfa.CFA;
 import hu.bme.mit.theta.cfa.analysis.CfaAction;
@@ -63,6 +70,7 @@ import hu.bme.mit.theta.cfa.analysis.CfaAnalysis;
 import hu.bme.mit.theta.cfa.analysis.CfaInitPrecs;
 import hu.bme.mit.theta.cfa.analysis.CfaPrec;
 import hu.bme.mit.theta.cfa.analysis.CfaState;
+import hu.bme.mit.theta.cfa.analysis.CfaToMonolithicExpr;
 import hu.bme.mit.theta.cfa.analysis.DistToErrComparator;
 import hu.bme.mit.theta.cfa.analysis.lts.CfaCachedLts;
 import hu.bme.mit.theta.cfa.analysis.lts.CfaLbeLts;
@@ -72,6 +80,7 @@ import hu.bme.mit.theta.cfa.analysis.prec.GlobalCfaPrec;
 import hu.bme.mit.theta.cfa.analysis.prec.GlobalCfaPrecRefiner;
 import hu.bme.mit.theta.cfa.analysis.prec.LocalCfaPrec;
 import hu.bme.mit.theta.cfa.analysis.prec.LocalCfaPrecRefiner;
+import hu.bme.mit.theta.common.TriFunction;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
 import hu.bme.mit.theta.core.decl.VarDecl;
@@ -87,12 +96,17 @@ import hu.bme.mit.theta.solver.SolverFactory;
 import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
 public class CfaConfigBuilder {
 
+    public enum Algorithm {
+        CEGAR, BMC, KINDUCTION
+    }
+
     public enum Domain {
         EXPL, PRED_BOOL, PRED_CART, PRED_SPLIT
     }
@@ -200,6 +214,8 @@ public class CfaConfigBuilder {
     }
 
     private Logger logger = NullLogger.getInstance();
+    private Algorithm algorithm = Algorithm.CEGAR;
+    private int maxBound = -1;
     private final SolverFactory abstractionSolverFactory;
     private final SolverFactory refinementSolverFactory;
     private final Domain domain;
@@ -211,6 +227,10 @@ public class CfaConfigBuilder {
     private int maxEnum = 0;
     private InitPrec initPrec = InitPrec.EMPTY;
     private PruneStrategy pruneStrategy = PruneStrategy.LAZY;
+    private int abstractionThreads = 1;
+    private int refinementThreads = 1;
+    private int successorCacheSize = 0;
+    private PredAbstractorCache predAbstractorCache = null;
 
     public CfaConfigBuilder(final Domain domain, final Refinement refinement,
                             final SolverFactory solverFactory) {
@@ -233,6 +253,19 @@ public class CfaConfigBuilder {
         return this;
     }
 
+    public CfaConfigBuilder algorithm(final Algorithm algorithm) {
+        this.algorithm = algorithm;
+        return this;
+    }
+
+    /**
+     * Maximal bound for BMC and k-induction (-1: unbounded)
+     */
+    public CfaConfigBuilder maxBound(final int maxBound) {
+        this.maxBound = maxBound;
+        return this;
+    }
+
     public CfaConfigBuilder search(final Search search) {
         this.search = search;
         return this;
@@ -268,23 +301,56 @@ public class CfaConfigBuilder {
         return this;
     }
 
+    public CfaConfigBuilder abstractionThreads(final int abstractionThreads) {
+        this.abstractionThreads = abstractionThreads;
+        return this;
+    }
+
+    /**
+     * Number of threads checking counterexamples in parallel, each with its own interpolating
+     * solver (only used by MULTI_SEQ refinement)
+     */
+    public CfaConfigBuilder refinementThreads(final int refinementThreads) {
+        this.refinementThreads = refinementThreads;
+        return this;
+    }
+
+    /**
+     * Cache at most the given number of abstract successors, so that they can be reused when the
+     * pruned part of the ARG is expanded again after a refinement (0: no caching)
+     */
+    public CfaConfigBuilder successorCacheSize(final int successorCacheSize) {
+        this.successorCacheSize = successorCacheSize;
+        return this;
+    }
+
+    /**
+     * Look up the results of predicate abstraction in the given cache before computing them. The
+     * cache is kept for the whole run, and it can also be shared between configurations of the
+     * same predicate domain (null: no caching)
+     */
+    public CfaConfigBuilder predAbstractorCache(final PredAbstractorCache predAbstractorCache) {
+        this.predAbstractorCache = predAbstractorCache;
+        return this;
+    }
+
     public CfaConfig<? extends State, ? extends Action, ? extends Prec> build(final CFA cfa,
                                                                               final CFA.Loc errLoc) {
-        final CfaLts lts = encoding.getLts(errLoc);
+        if (algorithm != Algorithm.CEGAR) {
+            return buildBounded(cfa, errLoc);
+        }
 
         if (domain == Domain.EXPL) {
-            final Analysis<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> analysis = CfaAnalysis
-                    .create(cfa.getInitLoc(),
-                            ExplStmtAnalysis.create(abstractionSolverFactory.createSolver(), True(),
-                                    maxEnum));
-            final ArgBuilder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> argBuilder = ArgBuilder.create(
-                    lts,
-                    analysis, s -> s.getLoc().equals(errLoc), true);
-            final Abstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor = BasicAbstractor
-                    .builder(argBuilder).projection(CfaState::getLoc)
-                    .waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
-                    .stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
-                            : StopCriterions.firstCex()).logger(logger).build();
+            final Function<Solver, ArgBuilder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>>> argBuilderFactory = solver -> {
+                final Analysis<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> analysis = CfaAnalysis
+                        .create(cfa.getInitLoc(), withSuccessorCache(
+                                ExplStmtAnalysis.create(solver, True(), maxEnum),
+                                ExplStmtTransFunc::getRelevantPrec));
+                return ArgBuilder.create(encoding.getLts(errLoc), analysis,
+                        s -> s.getLoc().equals(errLoc), true);
+            };
+            final Abstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor = createAbstractor(
+                    cfa, errLoc, argBuilderFactory);
 
             Refiner<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> refiner;
 
@@ -312,8 +378,8 @@ public class CfaConfigBuilder {
                     break;
                 case MULTI_SEQ:
                     refiner = MultiExprTraceRefiner.create(
-                            ExprTraceSeqItpChecker.create(True(), True(),
-                                    refinementSolverFactory.createItpSolver()),
+                            () -> ExprTraceIncrementalSeqItpChecker.create(True(), True(),
+                                    refinementSolverFactory.createItpSolver()), refinementThreads,
                             precGranularity.createRefiner(new ItpRefToExplPrec()), pruneStrategy,
                             logger);
                     break;
@@ -432,32 +498,17 @@ public class CfaConfigBuilder {
 
         } else if (domain == Domain.PRED_BOOL || domain == Domain.PRED_CART
                 || domain == Domain.PRED_SPLIT) {
-            final Solver analysisSolver = abstractionSolverFactory.createSolver();
-            PredAbstractor predAbstractor;
-            switch (domain) {
-                case PRED_BOOL:
-                    predAbstractor = PredAbstractors.booleanAbstractor(analysisSolver);
-                    break;
-                case PRED_SPLIT:
-                    predAbstractor = PredAbstractors.booleanSplitAbstractor(analysisSolver);
-                    break;
-                case PRED_CART:
-                    predAbstractor = PredAbstractors.cartesianAbstractor(analysisSolver);
-                    break;
-                default:
-                    throw new UnsupportedOperationException(domain + " domain is not supported.");
-            }
-            final Analysis<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> analysis = CfaAnalysis
-                    .create(cfa.getInitLoc(),
-                            PredAnalysis.create(analysisSolver, predAbstractor, True()));
-            final ArgBuilder<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> argBuilder = ArgBuilder.create(
-                    lts,
-                    analysis, s -> s.getLoc().equals(errLoc), true);
-            final Abstractor<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> abstractor = BasicAbstractor
-                    .builder(argBuilder).projection(CfaState::getLoc)
-                    .waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
-                    .stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
-                            : StopCriterions.firstCex()).logger(logger).build();
+            final Function<Solver, ArgBuilder<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>>> argBuilderFactory = analysisSolver -> {
+                final Analysis<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> analysis = CfaAnalysis
+                        .create(cfa.getInitLoc(), withSuccessorCache(
+                                PredAnalysis.<CfaAction>create(analysisSolver,
+                                        createPredAbstractor(analysisSolver), True()),
+                                (state, action, prec) -> prec));
+                return ArgBuilder.create(encoding.getLts(errLoc), analysis,
+                        s -> s.getLoc().equals(errLoc), true);
+            };
+            final Abstractor<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> abstractor = createAbstractor(
+                    cfa, errLoc, argBuilderFactory);
 
             ExprTraceChecker<ItpRefutation> exprTraceChecker;
             switch (refinement) {
@@ -474,8 +525,8 @@ public class CfaConfigBuilder {
                             refinementSolverFactory.createItpSolver());
                     break;
                 case MULTI_SEQ:
-                    exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(),
-                            refinementSolverFactory.createItpSolver());
+                    // A separate checker is created for each refinement thread
+                    exprTraceChecker = null;
                     break;
                 case UCB:
                     exprTraceChecker = ExprTraceUCBChecker.create(True(), True(),
@@ -521,7 +572,9 @@ public class CfaConfigBuilder {
             Refiner<CfaState<PredState>, CfaAction, CfaPrec<PredPrec>> refiner;
 
             if (refinement == Refinement.MULTI_SEQ) {
-                refiner = MultiExprTraceRefiner.create(exprTraceChecker,
+                refiner = MultiExprTraceRefiner.create(
+                        () -> ExprTraceIncrementalSeqItpChecker.create(True(), True(),
+                                refinementSolverFactory.createItpSolver()), refinementThreads,
                         precGranularity.createRefiner(refToPrec), pruneStrategy, logger);
             } else {
                 refiner = SingleExprTraceRefiner.create(exprTraceChecker,
@@ -564,6 +617,73 @@ public class CfaConfigBuilder {
         }
     }
 
+    private CfaConfig<CfaState<ExplState>, CfaAction, UnitPrec> buildBounded(final CFA cfa,
+                                                                             final CFA.Loc errLoc) {
+        final CfaToMonolithicExpr encoding = CfaToMonolithicExpr.create(cfa, errLoc);
+        final SafetyChecker<CfaState<ExplState>, CfaAction, UnitPrec> checker;
+        if (algorithm == Algorithm.KINDUCTION) {
+            checker = BoundedChecker.create(encoding.getMonolithicExpr(),
+                    abstractionSolverFactory.createSolver(), refinementSolverFactory.createSolver(),
+                    encoding::getState, encoding::getAction, maxBound, logger);
+        } else {
+            checker = BoundedChecker.create(encoding.getMonolithicExpr(),
+                    abstractionSolverFactory.createSolver(), encoding::getState,
+                    encoding::getAction, maxBound, logger);
+        }
+        return CfaConfig.create(checker, UnitPrec.getInstance());
+    }
+
+    private <S extends State, A extends Action, P extends Prec> Analysis<S, A, P> withSuccessorCache(
+            final Analysis<S, A, P> analysis,
+            final TriFunction<? super S, ? super A, ? super P, ?> precProjection) {
+        if (successorCacheSize > 0) {
+            return CachingAnalysis.create(analysis, precProjection, successorCacheSize);
+        } else {
+            return analysis;
+        }
+    }
+
+    private PredAbstractor createPredAbstractor(final Solver analysisSolver) {
+        final PredAbstractor predAbstractor;
+        switch (domain) {
+            case PRED_BOOL:
+                predAbstractor = PredAbstractors.booleanAbstractor(analysisSolver);
+                break;
+            case PRED_SPLIT:
+                predAbstractor = PredAbstractors.booleanSplitAbstractor(analysisSolver);
+                break;
+            case PRED_CART:
+                predAbstractor = PredAbstractors.cartesianAbstractor(analysisSolver);
+                break;
+            default:
+                throw new UnsupportedOperationException(domain + " domain is not supported.");
+        }
+        if (predAbstractorCache != null) {
+            return PredAbstractors.cachingAbstractor(predAbstractor, predAbstractorCache);
+        } else {
+            return predAbstractor;
+        }
+    }
+
+    private <S extends ExprState, P extends Prec> Abstractor<CfaState<S>, CfaAction, CfaPrec<P>> createAbstractor(
+            final CFA cfa, final CFA.Loc errLoc,
+            final Function<Solver, ArgBuilder<CfaState<S>, CfaAction, CfaPrec<P>>> argBuilderFactory) {
+        if (abstractionThreads > 1) {
+            return ParallelAbstractor.builder(abstractionSolverFactory, argBuilderFactory)
+                    .workers(abstractionThreads).projection(CfaState::getLoc)
+                    .waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
+                    .stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+                            : StopCriterions.firstCex()).logger(logger).build();
+        } else {
+            return BasicAbstractor
+                    .builder(argBuilderFactory.apply(abstractionSolverFactory.createSolver()))
+                    .projection(CfaState::getLoc)
+                    .waitlist(PriorityWaitlist.create(search.getComp(cfa, errLoc)))
+                    .stopCriterion(refinement == Refinement.MULTI_SEQ ? StopCriterions.fullExploration()
+                            : StopCriterions.firstCex()).logger(logger).build();
+        }
+    }
+
     /////////////// TODO put these somewhere more appropriate
 
     // TODO won't work well, if an assume is removed in the XCFA passes when it goes directly into the final location
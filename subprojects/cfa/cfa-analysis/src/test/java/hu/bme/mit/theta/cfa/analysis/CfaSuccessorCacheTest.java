@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.cfa.analysis;
+
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
+import hu.bme.mit.theta.analysis.expl.ExplStmtTransFunc;
+import hu.bme.mit.theta.analysis.impl.CachingAnalysis;
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.cfa.CFA.Loc;
+import hu.bme.mit.theta.cfa.analysis.prec.LocalCfaPrec;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+
+public class CfaSuccessorCacheTest {
+
+    private final VarDecl<IntType> x = Var("x", Int());
+    private final VarDecl<IntType> y = Var("y", Int());
+
+    @Test
+    public void testRefinedTargetLocation() {
+        final CFA.Builder builder = CFA.builder();
+        final Loc l0 = builder.createLoc("L0");
+        final Loc l1 = builder.createLoc("L1");
+        builder.setInitLoc(l0);
+        final CfaAction action = CfaAction.create(
+                builder.createEdge(l0, l1, Assign(x, Add(x.getRef(), Int(1)))));
+        builder.build();
+
+        final Analysis<ExplState, CfaAction, ExplPrec> cachingAnalysis = CachingAnalysis.create(
+                ExplStmtAnalysis.create(Z3SolverFactory.getInstance().createSolver(), True(), 0),
+                ExplStmtTransFunc::getRelevantPrec, 100);
+        final TransFunc<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> transFunc =
+                CfaAnalysis.create(l0, cachingAnalysis).getTransFunc();
+        final CfaState<ExplState> state = CfaState.of(l0, ExplState.of(
+                ImmutableValuation.builder().put(x, Int(1)).put(y, Int(2)).build()));
+
+        // y is tracked in the source location, but not in the target location
+        final LocalCfaPrec<ExplPrec> prec = LocalCfaPrec.create(
+                Map.of(l0, ExplPrec.of(Set.of(x, y)), l1, ExplPrec.of(Set.of(x))));
+        final Collection<? extends CfaState<ExplState>> succStates =
+                transFunc.getSuccStates(state, action, prec);
+        assertEquals(List.of(CfaState.of(l1, ExplState.of(
+                ImmutableValuation.builder().put(x, Int(2)).build()))), List.copyOf(succStates));
+
+        // After refining the target location, y must be kept (y is not used by the action)
+        final LocalCfaPrec<ExplPrec> refinedPrec = prec.refine(
+                Map.of(l1, ExplPrec.of(Set.of(x, y))));
+        final Collection<? extends CfaState<ExplState>> refinedSuccStates =
+                transFunc.getSuccStates(state, action, refinedPrec);
+        assertEquals(List.of(CfaState.of(l1, ExplState.of(
+                        ImmutableValuation.builder().put(x, Int(2)).put(y, Int(2)).build()))),
+                List.copyOf(refinedSuccStates));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.cfa.analysis;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.cfa.CFA;
+import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder;
+import hu.bme.mit.theta.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.SolverManager;
+import hu.bme.mit.theta.solver.z3.Z3SolverManager;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.FileInputStream;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain.EXPL;
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain.PRED_BOOL;
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain.PRED_CART;
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Refinement.BW_BIN_ITP;
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Refinement.MULTI_SEQ;
+import static hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Refinement.SEQ_ITP;
+
+/**
+ * Checks that the parallel abstractor gives the same verdict as the sequential one.
+ */
+@RunWith(value = Parameterized.class)
+public class ParallelAbstractorTest {
+
+    private static final int THREADS = 4;
+
+    @Parameterized.Parameter(value = 0)
+    public String filePath;
+
+    @Parameterized.Parameter(value = 1)
+    public CfaConfigBuilder.Domain domain;
+
+    @Parameterized.Parameter(value = 2)
+    public CfaConfigBuilder.Refinement refinement;
+
+    @Parameterized.Parameters(name = "{index}: {0}, {1}, {2}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+
+                {"src/test/resources/arithmetic-bool00.cfa", PRED_CART, SEQ_ITP},
+
+                {"src/test/resources/arithmetic-bool11.cfa", PRED_BOOL, BW_BIN_ITP},
+
+                {"src/test/resources/arithmetic-int.cfa", EXPL, SEQ_ITP},
+
+                {"src/test/resources/arithmetic-mod.cfa", PRED_CART, SEQ_ITP},
+
+                {"src/test/resources/arrays.cfa", EXPL, SEQ_ITP},
+
+                {"src/test/resources/counter5_true.cfa", PRED_BOOL, SEQ_ITP},
+
+                {"src/test/resources/counter5_true.cfa", EXPL, MULTI_SEQ},
+
+                {"src/test/resources/ifelse.cfa", PRED_CART, MULTI_SEQ},
+
+                {"src/test/resources/locking.cfa", PRED_CART, SEQ_ITP},
+
+        });
+    }
+
+    @Test
+    public void test() throws Exception {
+        final SolverFactory solverFactory;
+        try {
+            SolverManager.registerSolverManager(Z3SolverManager.create());
+            solverFactory = SolverManager.resolveSolverFactory("Z3");
+        } catch (Exception e) {
+            Assume.assumeNoException(e);
+            return;
+        }
+
+        try {
+            final CFA cfa = CfaDslManager.createCfa(new FileInputStream(filePath));
+            final SafetyResult<?, ?> sequential = check(cfa, solverFactory, 1);
+            final SafetyResult<?, ?> parallel = check(cfa, solverFactory, THREADS);
+
+            Assert.assertEquals(sequential.isSafe(), parallel.isSafe());
+            if (parallel.isUnsafe()) {
+                // The counterexample may differ due to the exploration order, but it must be real
+                final Trace<CfaState<ExplState>, CfaAction> trace = CfaTraceConcretizer.concretize(
+                        (Trace<CfaState<?>, CfaAction>) parallel.asUnsafe().getTrace(),
+                        solverFactory);
+                Assert.assertTrue(trace.length() > 0);
+            }
+        } finally {
+            SolverManager.closeAll();
+        }
+    }
+
+    private SafetyResult<? extends State, ? extends Action> check(final CFA cfa,
+                                                                 final SolverFactory solverFactory,
+                                                                 final int threads) {
+        return new CfaConfigBuilder(domain, refinement, solverFactory)
+                .abstractionThreads(threads)
+                .build(cfa, cfa.getErrorLoc().get())
+                .check();
+    }
+}
@@ -29,19 +29,24 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 import com.google.common.base.Stopwatch;
+import com.google.common.cache.CacheStats;
 
 import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unsafe;
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+import hu.bme.mit.theta.analysis.algorithm.bmc.BoundedStatistics;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
 import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
+import hu.bme.mit.theta.analysis.pred.PredAbstractorCache;
 import hu.bme.mit.theta.cfa.CFA;
 import hu.bme.mit.theta.cfa.analysis.CfaAction;
 import hu.bme.mit.theta.cfa.analysis.CfaState;
 import hu.bme.mit.theta.cfa.analysis.CfaTraceConcretizer;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfig;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder;
+import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Algorithm;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Domain;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.Encoding;
 import hu.bme.mit.theta.cfa.analysis.config.CfaConfigBuilder.InitPrec;
@@ -60,9 +65,12 @@ import hu.bme.mit.theta.common.logging.NullLogger;
 import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
 import hu.bme.mit.theta.common.visualization.Graph;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
 import hu.bme.mit.theta.common.visualization.writer.GraphvizWriter;
+import hu.bme.mit.theta.core.utils.ExprInterner;
 import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.SolverManager;
+import hu.bme.mit.theta.solver.metrics.MetricsSolverWrapperFactory;
 import hu.bme.mit.theta.solver.smtlib.SmtLibSolverManager;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 import hu.bme.mit.theta.solver.z3.Z3SolverManager;
@@ -77,6 +85,13 @@ public class CfaCli {
     private static final String JAR_NAME = "theta-cfa-cli.jar";
     private final String[] args;
     private final TableWriter writer;
+    private final MetricRegistry metricRegistry = MetricRegistry.create();
+
+    @Parameter(names = "--algorithm", description = "Verification algorithm")
+    Algorithm algorithm = Algorithm.CEGAR;
+
+    @Parameter(names = "--maxbound", description = "Maximal bound for BMC and k-induction (-1: unbounded)")
+    int maxBound = -1;
 
     @Parameter(names = "--domain", description = "Abstract domain")
     Domain domain = Domain.PRED_CART;
@@ -123,6 +138,24 @@ public class CfaCli {
     @Parameter(names = "--prunestrategy", description = "Strategy for pruning the ARG after refinement")
     PruneStrategy pruneStrategy = PruneStrategy.LAZY;
 
+    @Parameter(names = "--abstraction-threads", description = "Number of threads expanding the ARG in parallel (1: sequential abstraction)")
+    Integer abstractionThreads = 1;
+
+    @Parameter(names = "--refinement-threads", description = "Number of threads checking counterexamples in parallel (only for MULTI_SEQ refinement)")
+    Integer refinementThreads = 1;
+
+    @Parameter(names = "--successor-cache", description = "Number of abstract successors cached for reuse across refinements (0: no caching)")
+    Integer successorCacheSize = 0;
+
+    @Parameter(names = "--pred-cache", description = "Number of predicate abstraction results cached for the whole run (0: no caching)")
+    Integer predCacheSize = 0;
+
+    @Parameter(names = "--pred-cache-weight", description = "Maximal total number of predicates in the cached predicate abstraction results, instead of limiting the number of results (0: no limit)")
+    Long predCacheWeight = 0L;
+
+    @Parameter(names = "--hash-cons", description = "Intern expressions (hash-consing), so that structurally equal expressions built during the analysis are shared")
+    boolean hashCons = false;
+
     @Parameter(names = "--loglevel", description = "Detailedness of logging")
     Logger.Level logLevel = Level.SUBSTEP;
 
@@ -141,6 +174,9 @@ public class CfaCli {
     @Parameter(names = "--metrics", description = "Print metrics about the CFA without running the algorithm")
     boolean metrics = false;
 
+    @Parameter(names = "--metrics-out", description = "Write hot-path metrics (solver calls, coverage checks, refinement) to this file (CSV if it ends with .csv, JSON otherwise), also in benchmark mode, whose table has fixed columns")
+    String metricsOut = null;
+
     @Parameter(names = "--stacktrace", description = "Print full stack trace in case of exception")
     boolean stacktrace = false;
 
@@ -180,6 +216,10 @@ public class CfaCli {
             return;
         }
 
+        if (hashCons) {
+            ExprInterner.enable();
+        }
+
         try {
             SolverManager.registerSolverManager(Z3SolverManager.create());
             if (OsHelper.getOs().equals(OsHelper.OperatingSystem.LINUX)) {
@@ -231,11 +271,29 @@ public class CfaCli {
                 refinementSolverFactory = SolverManager.resolveSolverFactory(solver);
             }
 
+            PredAbstractorCache predAbstractorCache = null;
+            if (predCacheSize > 0 || predCacheWeight > 0) {
+                final PredAbstractorCache.Builder cacheBuilder = PredAbstractorCache.builder()
+                        .maximumWeight(predCacheWeight).softValues(true);
+                if (predCacheSize > 0) {
+                    cacheBuilder.maximumSize(predCacheSize);
+                }
+                predAbstractorCache = cacheBuilder.build();
+            }
             final CfaConfig<?, ?, ?> configuration = buildConfiguration(cfa, errLoc,
-                    abstractionSolverFactory, refinementSolverFactory);
+                    withMetrics(abstractionSolverFactory), withMetrics(refinementSolverFactory),
+                    predAbstractorCache);
             final SafetyResult<?, ?> status = check(configuration);
             sw.stop();
+            if (predAbstractorCache != null) {
+                final CacheStats cacheStats = predAbstractorCache.getStats();
+                logger.write(Level.MAINSTEP, "Predicate abstraction cache: %d hits, %d misses (hit rate %.2f)%n",
+                        cacheStats.hitCount(), cacheStats.missCount(), cacheStats.hitRate());
+            }
             printResult(status, sw.elapsed(TimeUnit.MILLISECONDS));
+            if (metricsOut != null) {
+                metricRegistry.writeTo(Path.of(metricsOut));
+            }
             if (status.isUnsafe() && cexfile != null) {
                 writeCex(status.asUnsafe());
             }
@@ -262,14 +320,19 @@ public class CfaCli {
     }
 
     private CfaConfig<?, ?, ?> buildConfiguration(final CFA cfa, final CFA.Loc errLoc,
-                                                  final SolverFactory abstractionSolverFactory, final SolverFactory refinementSolverFactory)
+                                                  final SolverFactory abstractionSolverFactory, final SolverFactory refinementSolverFactory,
+                                                  final PredAbstractorCache predAbstractorCache)
             throws Exception {
         try {
             return new CfaConfigBuilder(domain, refinement, abstractionSolverFactory,
                     refinementSolverFactory)
+                    .algorithm(algorithm).maxBound(maxBound)
                     .precGranularity(precGranularity).search(search)
                     .predSplit(predSplit).encoding(encoding).maxEnum(maxEnum).initPrec(initPrec)
-                    .pruneStrategy(pruneStrategy).logger(logger).build(cfa, errLoc);
+                    .pruneStrategy(pruneStrategy).abstractionThreads(abstractionThreads)
+                    .refinementThreads(refinementThreads)
+                    .successorCacheSize(successorCacheSize).predAbstractorCache(predAbstractorCache)
+                    .logger(logger).build(cfa, errLoc);
         } catch (final Exception ex) {
             throw new Exception("Could not create configuration: " + ex.getMessage(), ex);
         }
@@ -277,7 +340,7 @@ public class CfaCli {
 
     private SafetyResult<?, ?> check(CfaConfig<?, ?, ?> configuration) throws Exception {
         try {
-            return configuration.check();
+            return metricRegistry.call(configuration::check);
         } catch (final Exception ex) {
             String message = ex.getMessage() == null ? "(no message)" : ex.getMessage();
             throw new Exception(
@@ -286,18 +349,35 @@ public class CfaCli {
         }
     }
 
+    private SolverFactory withMetrics(final SolverFactory solverFactory) {
+        return metricsOut != null ? MetricsSolverWrapperFactory.create(solverFactory) : solverFactory;
+    }
+
     private void printResult(final SafetyResult<?, ?> status, final long totalTimeMs) {
-        final CegarStatistics stats = (CegarStatistics) status.getStats().get();
+        final Statistics stats = status.getStats().get();
         if (benchmarkMode) {
             writer.cell(status.isSafe());
             writer.cell(totalTimeMs);
-            writer.cell(stats.getAlgorithmTimeMs());
-            writer.cell(stats.getAbstractorTimeMs());
-            writer.cell(stats.getRefinerTimeMs());
-            writer.cell(stats.getIterations());
-            writer.cell(status.getArg().size());
-            writer.cell(status.getArg().getDepth());
-            writer.cell(status.getArg().getMeanBranchingFactor());
+            if (stats instanceof BoundedStatistics) {
+                // Bounded checkers report the time of the BMC and induction checks, and build no ARG
+                final BoundedStatistics boundedStats = (BoundedStatistics) stats;
+                writer.cell(boundedStats.getAlgorithmTimeMs());
+                writer.cell(boundedStats.getBmcTimeMs());
+                writer.cell(boundedStats.getInductionTimeMs());
+                writer.cell(boundedStats.getBound());
+                writer.cell("");
+                writer.cell("");
+                writer.cell("");
+            } else {
+                final CegarStatistics cegarStats = (CegarStatistics) stats;
+                writer.cell(cegarStats.getAlgorithmTimeMs());
+                writer.cell(cegarStats.getAbstractorTimeMs());
+                writer.cell(cegarStats.getRefinerTimeMs());
+                writer.cell(cegarStats.getIterations());
+                writer.cell(status.getArg().size());
+                writer.cell(status.getArg().getDepth());
+                writer.cell(status.getArg().getMeanBranchingFactor());
+            }
             if (status.isUnsafe()) {
                 writer.cell(status.asUnsafe().getTrace().length() + "");
             } else {
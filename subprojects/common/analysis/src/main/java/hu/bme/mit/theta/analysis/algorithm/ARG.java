@@ -18,11 +18,18 @@ package hu.bme.mit.theta.analysis.algorithm;
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.PartialOrd;
 import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.reachedset.Partition;
 import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -39,11 +46,24 @@ public final class ARG<S extends State, A extends Action> {
     boolean initialized; // Set by ArgBuilder
     private int nextId = 0;
     final PartialOrd<S> partialOrd;
+    // Metrics of the analysis building the ARG, used by its nodes
+    final Counter coverChecks;
+    final Counter covers;
+
+    // Reached-set index, maintained incrementally as nodes are created, pruned, covered or expanded
+    private long nodeCount = 0;
+    private long incompleteNodeCount = 0;
+    private long unsafeNodeCount = 0;
+    private Function<? super S, ?> reachedSetProjection = null;
+    private Partition<ArgNode<S, A>, ?> reachedSet = null;
 
     private ARG(final PartialOrd<S> partialOrd) {
         initNodes = Containers.createSet();
         this.partialOrd = partialOrd;
         this.initialized = false;
+        final MetricRegistry metrics = MetricRegistry.current();
+        this.coverChecks = metrics.counter("arg.coverChecks");
+        this.covers = metrics.counter("arg.covers");
     }
 
     public static <S extends State, A extends Action> ARG<S, A> create(
@@ -66,28 +86,65 @@ public final class ARG<S extends State, A extends Action> {
     }
 
     public Stream<ArgNode<S, A>> getUnsafeNodes() {
+        if (unsafeNodeCount == 0) {
+            return Stream.empty();
+        }
         return getInitNodes().flatMap(ArgNode::unexcludedDescendants).filter(ArgNode::isTarget);
     }
 
     public Stream<ArgNode<S, A>> getIncompleteNodes() {
+        if (incompleteNodeCount == 0) {
+            return Stream.empty();
+        }
         return getInitNodes().flatMap(ArgNode::unexcludedDescendants).filter(n -> !n.isExpanded());
     }
 
     ////
 
+    /**
+     * Gets the number of incomplete nodes, i.e., nodes that are neither expanded nor excluded.
+     */
+    public long getIncompleteNodeCount() {
+        return incompleteNodeCount;
+    }
+
+    /**
+     * Gets the number of unsafe nodes, i.e., target nodes that are not excluded.
+     */
+    public long getUnsafeNodeCount() {
+        return unsafeNodeCount;
+    }
+
+    /**
+     * Gets the reached set of the ARG partitioned by the given projection. The partition is kept
+     * up to date as nodes are created and pruned, and it is only rebuilt if a different projection
+     * is requested.
+     */
+    public Partition<ArgNode<S, A>, ?> getReachedSet(final Function<? super S, ?> projection) {
+        checkNotNull(projection);
+        if (reachedSet == null || reachedSetProjection != projection) {
+            reachedSetProjection = projection;
+            reachedSet = Partition.of(n -> projection.apply(n.getState()));
+            reachedSet.addAll(getNodes());
+        }
+        return reachedSet;
+    }
+
+    ////
+
     /**
      * Checks if the ARG is complete, i.e., whether it is initialized and all of its nodes are
      * complete.
      */
     public boolean isComplete() {
-        return isInitialized() && getNodes().allMatch(ArgNode::isComplete);
+        return isInitialized() && incompleteNodeCount == 0;
     }
 
     /**
      * Checks if the ARG is safe, i.e., whether all of its nodes are safe.
      */
     public boolean isSafe() {
-        return getNodes().allMatch(ArgNode::isSafe);
+        return unsafeNodeCount == 0;
     }
 
     /**
@@ -101,7 +158,7 @@ public final class ARG<S extends State, A extends Action> {
 
     public ArgNode<S, A> createInitNode(final S initState, final boolean target) {
         checkNotNull(initState);
-        final ArgNode<S, A> initNode = createNode(initState, 0, target);
+        final ArgNode<S, A> initNode = createNode(initState, 0, target, 0);
         initNodes.add(initNode);
         return initNode;
     }
@@ -113,14 +170,18 @@ public final class ARG<S extends State, A extends Action> {
         checkNotNull(succState);
         checkArgument(node.arg == this, "Node does not belong to this ARG");
         checkArgument(!node.isTarget(), "Node is target");
-        final ArgNode<S, A> succNode = createNode(succState, node.getDepth() + 1, target);
+        final ArgNode<S, A> succNode = createNode(succState, node.getDepth() + 1, target,
+                node.subsumedAncestors);
         createEdge(node, action, succNode);
         return succNode;
     }
 
-    private ArgNode<S, A> createNode(final S state, final int depth, final boolean target) {
+    private ArgNode<S, A> createNode(final S state, final int depth, final boolean target,
+                                     final int subsumedProperAncestors) {
         final ArgNode<S, A> node = new ArgNode<>(this, state, nextId, depth, target);
         nextId = nextId + 1;
+        node.subsumedAncestors = subsumedProperAncestors + (node.isSubsumed() ? 1 : 0);
+        addToIndex(node);
         return node;
     }
 
@@ -141,15 +202,24 @@ public final class ARG<S extends State, A extends Action> {
         if (node.getInEdge().isPresent()) {
             final ArgEdge<S, A> edge = node.getInEdge().get();
             final ArgNode<S, A> parent = edge.getSource();
+            if (!parent.outEdges.contains(edge)) {
+                return; // Already pruned
+            }
+            node.descendants().forEach(ArgNode::unsetCoveringNode);
+            node.descendants().forEach(ArgNode::clearCoveredNodes);
+            forEachDescendant(node, this::removeFromIndex);
             parent.outEdges.remove(edge);
-            parent.expanded = false;
+            parent.setExpanded(false);
         } else {
-            assert initNodes.contains(node);
+            if (!initNodes.contains(node)) {
+                return; // Already pruned
+            }
+            node.descendants().forEach(ArgNode::unsetCoveringNode);
+            node.descendants().forEach(ArgNode::clearCoveredNodes);
+            forEachDescendant(node, this::removeFromIndex);
             initNodes.remove(node);
             this.initialized = false;
         }
-        node.descendants().forEach(ArgNode::unsetCoveringNode);
-        node.descendants().forEach(ArgNode::clearCoveredNodes);
     }
 
     /**
@@ -158,6 +228,12 @@ public final class ARG<S extends State, A extends Action> {
     public void pruneAll() {
         initNodes.clear();
         this.initialized = false;
+        nodeCount = 0;
+        incompleteNodeCount = 0;
+        unsafeNodeCount = 0;
+        if (reachedSet != null) {
+            reachedSet.clear();
+        }
     }
 
     public void minimize() {
@@ -186,7 +262,7 @@ public final class ARG<S extends State, A extends Action> {
      * Gets the size of the ARG, i.e., the number of nodes.
      */
     public long size() {
-        return getNodes().count();
+        return nodeCount;
     }
 
     /**
@@ -209,4 +285,85 @@ public final class ARG<S extends State, A extends Action> {
         return mean;
     }
 
+    //// Reached-set index maintenance
+
+    private void addToIndex(final ArgNode<S, A> node) {
+        nodeCount++;
+        updateCounts(node, 1);
+        if (reachedSet != null) {
+            reachedSet.add(node);
+        }
+    }
+
+    private void removeFromIndex(final ArgNode<S, A> node) {
+        nodeCount--;
+        updateCounts(node, -1);
+        if (reachedSet != null) {
+            reachedSet.remove(node);
+        }
+    }
+
+    private void updateCounts(final ArgNode<S, A> node, final int delta) {
+        if (!node.isExcluded()) {
+            if (!node.isExpanded()) {
+                incompleteNodeCount += delta;
+            }
+            if (node.isTarget()) {
+                unsafeNodeCount += delta;
+            }
+        }
+    }
+
+    /**
+     * Called by ArgNode before the expanded flag of a node changes.
+     */
+    void expandedChanging(final ArgNode<S, A> node, final boolean expanded) {
+        if (!node.isExcluded()) {
+            incompleteNodeCount += expanded ? -1 : 1;
+        }
+    }
+
+    /**
+     * Called by ArgNode after a node became subsumed (delta = 1) or stopped being subsumed (delta
+     * = -1). Updates the exclusion bookkeeping of its subtree.
+     */
+    void subsumptionChanged(final ArgNode<S, A> node, final int delta) {
+        forEachDescendant(node, n -> {
+            updateCounts(n, -1);
+            n.subsumedAncestors += delta;
+            updateCounts(n, 1);
+        });
+    }
+
+    /**
+     * Called by ArgNode before the state of a node is replaced.
+     */
+    void stateChanging(final ArgNode<S, A> node) {
+        if (reachedSet != null) {
+            reachedSet.remove(node);
+        }
+    }
+
+    /**
+     * Called by ArgNode after the state of a node was replaced.
+     */
+    void stateChanged(final ArgNode<S, A> node) {
+        if (reachedSet != null) {
+            reachedSet.add(node);
+        }
+    }
+
+    private void forEachDescendant(final ArgNode<S, A> node,
+                                   final Consumer<ArgNode<S, A>> action) {
+        final Deque<ArgNode<S, A>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            final ArgNode<S, A> current = stack.pop();
+            action.accept(current);
+            for (final ArgEdge<S, A> edge : current.outEdges) {
+                stack.push(edge.getTarget());
+            }
+        }
+    }
+
 }
@@ -25,9 +25,12 @@ import java.util.function.Predicate;
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.PartialOrd;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
 
 /**
  * Helper class for building the ARG with a given analysis and precision.
@@ -64,6 +67,10 @@ public final class ArgBuilder<S extends State, A extends Action, P extends Prec>
         return ARG.create(analysis.getPartialOrd());
     }
 
+    public PartialOrd<S> getPartialOrd() {
+        return analysis.getPartialOrd();
+    }
+
     public Collection<ArgNode<S, A>> init(final ARG<S, A> arg, final P prec) {
         checkNotNull(arg);
         checkNotNull(prec);
@@ -89,9 +96,19 @@ public final class ArgBuilder<S extends State, A extends Action, P extends Prec>
     public Collection<ArgNode<S, A>> expand(final ArgNode<S, A> node, final P prec) {
         checkNotNull(node);
         checkNotNull(prec);
+        return addSuccessors(node, getSuccessors(node.getState(), prec));
+    }
 
-        final Collection<ArgNode<S, A>> newSuccNodes = new ArrayList<>();
-        final S state = node.getState();
+    /**
+     * Computes the successors of a state along with the actions leading to them, without modifying
+     * any ARG. Successors are returned in the order in which {@link #expand} would add them.
+     */
+    public Collection<Tuple2<A, S>> getSuccessors(final S state, final P prec) {
+        checkNotNull(state);
+        checkNotNull(prec);
+
+        final long start = System.nanoTime();
+        final Collection<Tuple2<A, S>> successors = new ArrayList<>();
         final Collection<? extends A> actions = lts.getEnabledActionsFor(state);
         final TransFunc<S, ? super A, ? super P> transFunc = analysis.getTransFunc();
         for (final A action : actions) {
@@ -100,18 +117,39 @@ public final class ArgBuilder<S extends State, A extends Action, P extends Prec>
                 if (excludeBottom && succState.isBottom()) {
                     continue;
                 }
-                // Only add state if there is no covering sibling (with the same action)
-                if (node.getSuccNodes()
-                        .noneMatch(n -> n.getInEdge().get().getAction().equals(action) &&
-                                analysis.getPartialOrd().isLeq(succState, n.getState()))) {
-                    final boolean isTarget = target.test(succState);
-                    final ArgNode<S, A> newNode = node.arg.createSuccNode(node, action, succState,
-                            isTarget);
-                    newSuccNodes.add(newNode);
-                }
+                successors.add(Tuple2.of(action, succState));
+            }
+        }
+        final MetricRegistry metrics = MetricRegistry.current();
+        metrics.timer("arg.successors").record(System.nanoTime() - start);
+        metrics.histogram("arg.successors.count").record(successors.size());
+        return successors;
+    }
+
+    /**
+     * Adds successors computed by {@link #getSuccessors} to a node and marks the node as
+     * expanded.
+     */
+    public Collection<ArgNode<S, A>> addSuccessors(final ArgNode<S, A> node,
+                                                   final Collection<Tuple2<A, S>> successors) {
+        checkNotNull(node);
+        checkNotNull(successors);
+
+        final Collection<ArgNode<S, A>> newSuccNodes = new ArrayList<>();
+        for (final Tuple2<A, S> successor : successors) {
+            final A action = successor.get1();
+            final S succState = successor.get2();
+            // Only add state if there is no covering sibling (with the same action)
+            if (node.getSuccNodes()
+                    .noneMatch(n -> n.getInEdge().get().getAction().equals(action) &&
+                            analysis.getPartialOrd().isLeq(succState, n.getState()))) {
+                final boolean isTarget = target.test(succState);
+                final ArgNode<S, A> newNode = node.arg.createSuccNode(node, action, succState,
+                        isTarget);
+                newSuccNodes.add(newNode);
             }
         }
-        node.expanded = true;
+        node.setExpanded(true);
 
         return newSuccNodes;
     }
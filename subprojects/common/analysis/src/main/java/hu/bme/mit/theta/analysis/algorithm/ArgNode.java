@@ -51,6 +51,8 @@ public final class ArgNode<S extends State, A extends Action> {
 
     boolean expanded; // Set by ArgBuilder
 
+    int subsumedAncestors; // Number of subsumed nodes among the ancestors, maintained by ARG
+
     ArgNode(final ARG<S, A> arg, final S state, final int id, final int depth,
             final boolean target) {
         this.arg = arg;
@@ -63,6 +65,7 @@ public final class ArgNode<S extends State, A extends Action> {
         coveringNode = Optional.empty();
         coveredNodes = Containers.createSet();
         expanded = false;
+        subsumedAncestors = 0;
     }
 
     ////
@@ -85,45 +88,102 @@ public final class ArgNode<S extends State, A extends Action> {
 
     public void setState(final S state) {
         checkNotNull(state);
+        final boolean wasSubsumed = isSubsumed();
+        arg.stateChanging(this);
         this.state = state;
+        arg.stateChanged(this);
+        updateSubsumption(wasSubsumed);
     }
 
+    /**
+     * Checks if the node can cover the given node, i.e., the node is not excluded, it is not a
+     * descendant of the given node, and its state is greater or equal. The structural conditions
+     * are checked first, as they take constant time (or time proportional to the difference of
+     * the depths if the given node is not a leaf), and the partial order is only queried if they
+     * hold.
+     */
     public boolean mayCover(final ArgNode<S, A> node) {
-        if (arg.partialOrd.isLeq(node.getState(), this.getState())) {
-            return ancestors().noneMatch(n -> n.equals(node) || n.isSubsumed());
-        } else {
+        arg.coverChecks.increment();
+        if (!canCover(node)) {
+            return false;
+        }
+        return arg.partialOrd.isLeq(node.getState(), this.getState());
+    }
+
+    /**
+     * Checks only the structural conditions of {@link #mayCover}, i.e., the node is not excluded
+     * and it is not a descendant of the given node, without comparing the states.
+     */
+    public boolean canCover(final ArgNode<S, A> node) {
+        return !isExcluded() && !hasAncestor(node);
+    }
+
+    private boolean hasAncestor(final ArgNode<S, A> node) {
+        if (node.isLeaf()) {
+            // The only descendant of a leaf is itself
+            return this.equals(node);
+        }
+        if (node.depth > this.depth) {
             return false;
         }
+        ArgNode<S, A> ancestor = this;
+        for (int i = this.depth; i > node.depth; i--) {
+            ancestor = ancestor.inEdge.get().getSource();
+        }
+        return ancestor.equals(node);
     }
 
     public void setCoveringNode(final ArgNode<S, A> node) {
         checkNotNull(node);
         checkArgument(node.arg == this.arg, "Nodes belong to different ARGs");
-        unsetCoveringNode();
+        final boolean wasSubsumed = isSubsumed();
+        coveringNode.ifPresent(n -> n.coveredNodes.remove(this));
         coveringNode = Optional.of(node);
         node.coveredNodes.add(this);
+        updateSubsumption(wasSubsumed);
     }
 
     public void unsetCoveringNode() {
         if (coveringNode.isPresent()) {
+            final boolean wasSubsumed = isSubsumed();
             coveringNode.get().coveredNodes.remove(this);
             coveringNode = Optional.empty();
+            updateSubsumption(wasSubsumed);
         }
     }
 
     public void clearCoveredNodes() {
-        coveredNodes.forEach(n -> n.coveringNode = Optional.empty());
+        coveredNodes.forEach(n -> {
+            final boolean wasSubsumed = n.isSubsumed();
+            n.coveringNode = Optional.empty();
+            n.updateSubsumption(wasSubsumed);
+        });
         coveredNodes.clear();
     }
 
     public void cover(final ArgNode<S, A> node) {
         checkArgument(!node.isExcluded(), "Node is not excluded");
+        arg.covers.increment();
         final Collection<ArgNode<S, A>> oldCoveredNodes = new ArrayList<>(coveredNodes);
         descendants().forEach(ArgNode::clearCoveredNodes);
         setCoveringNode(node);
         oldCoveredNodes.forEach(n -> n.setCoveringNode(node));
     }
 
+    void setExpanded(final boolean expanded) {
+        if (this.expanded != expanded) {
+            arg.expandedChanging(this, expanded);
+            this.expanded = expanded;
+        }
+    }
+
+    private void updateSubsumption(final boolean wasSubsumed) {
+        final boolean subsumed = isSubsumed();
+        if (wasSubsumed != subsumed) {
+            arg.subsumptionChanged(this, subsumed ? 1 : -1);
+        }
+    }
+
     ////
 
     public Optional<ArgNode<S, A>> getParent() {
@@ -183,7 +243,7 @@ public final class ArgNode<S extends State, A extends Action> {
      * Checks if the node is excluded, i.e., the node is subsumed or has an excluded parent.
      */
     public boolean isExcluded() {
-        return ancestors().anyMatch(ArgNode::isSubsumed);
+        return subsumedAncestors > 0;
     }
 
     /**
@@ -13,7 +13,6 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-
 package hu.bme.mit.theta.analysis.algorithm;
 
 import hu.bme.mit.theta.analysis.Action;
@@ -23,11 +22,18 @@ import hu.bme.mit.theta.core.decl.Decl;
 import hu.bme.mit.theta.core.type.Type;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 /**
  * LTS with a POR (Partial Order Reduction) algorithm applied as a filter when returning enabled
  * actions.
+ * <p>
+ * Shared objects are numbered, and the shared objects used and influenced by the transitions are
+ * stored as bitsets, so that the dependency of two actions is decided by a bitset intersection.
+ * The footprints are computed on demand, or in advance by {@link #precomputeSharedObjects}. For
+ * the enabled actions of a state, the dependency relation is computed once into a matrix, and
+ * every candidate persistent set is a closure in this matrix.
  *
  * @param <S> the type of the state
  * @param <A> the type of the action (transition in the state space)
@@ -37,16 +43,21 @@ public abstract class PorLts<S extends State, A extends Action, T> implements LT
 
     /* CACHE COLLECTIONS */
 
+    /**
+     * Indices of the shared objects (~global variables) in the bitsets below.
+     */
+    private final Map<Decl<? extends Type>, Integer> sharedObjectIndices = new ConcurrentHashMap<>();
+
     /**
      * Shared objects (~global variables) used by a transition.
      */
-    private final HashMap<T, Set<? extends Decl<? extends Type>>> usedSharedObjects = new HashMap<>();
+    private final Map<T, BitSet> usedSharedObjects = new ConcurrentHashMap<>();
 
     /**
      * Shared objects (~global variables) that are used by the key transition or by transitions
      * reachable from the current state via a given transition.
      */
-    private final HashMap<T, Set<? extends Decl<? extends Type>>> influencedSharedObjects = new HashMap<>();
+    private final Map<T, BitSet> influencedSharedObjects = new ConcurrentHashMap<>();
 
     /**
      * Backward transitions in the transition system (a transition of a loop).
@@ -63,20 +74,28 @@ public abstract class PorLts<S extends State, A extends Action, T> implements LT
     @Override
     public Collection<A> getEnabledActionsFor(S state) {
         // Collecting enabled actions
-        Collection<A> allEnabledActions = getAllEnabledActionsFor(state);
+        List<A> allEnabledActions = new ArrayList<>(getAllEnabledActionsFor(state));
+        if (allEnabledActions.size() <= 1) {
+            return allEnabledActions;
+        }
 
         // Calculating the persistent set starting from every (or some of the) enabled transition; the minimal persistent set is stored
-        Collection<A> minimalPersistentSet = new HashSet<>();
-        Collection<A> persistentSetFirstActions = getPersistentSetFirstActions(allEnabledActions);
-        for (A firstAction : persistentSetFirstActions) {
-            Collection<A> persistentSet = calculatePersistentSet(allEnabledActions, firstAction);
-            if (minimalPersistentSet.size() == 0
-                    || persistentSet.size() < minimalPersistentSet.size()) {
+        BitSet[] dependencies = calculateDependencies(allEnabledActions);
+        BitSet backwardActions = getBackwardActions(allEnabledActions);
+        BitSet minimalPersistentSet = null;
+        for (A firstAction : getPersistentSetFirstActions(allEnabledActions)) {
+            BitSet persistentSet = calculatePersistentSet(dependencies, backwardActions,
+                    allEnabledActions.indexOf(firstAction));
+            if (minimalPersistentSet == null
+                    || persistentSet.cardinality() < minimalPersistentSet.cardinality()) {
                 minimalPersistentSet = persistentSet;
+                if (minimalPersistentSet.cardinality() == 1) {
+                    break;
+                }
             }
         }
 
-        return minimalPersistentSet;
+        return minimalPersistentSet == null ? List.of() : toActions(allEnabledActions, minimalPersistentSet);
     }
 
     /**
@@ -87,38 +106,80 @@ public abstract class PorLts<S extends State, A extends Action, T> implements LT
      * @return the persistent set of enabled actions
      */
     protected Collection<A> calculatePersistentSet(Collection<A> enabledActions, A firstAction) {
-        if (isBackwardAction(firstAction)) {
-            return new HashSet<>(enabledActions);
+        List<A> actions = new ArrayList<>(enabledActions);
+        BitSet persistentSet = calculatePersistentSet(calculateDependencies(actions),
+                getBackwardActions(actions), actions.indexOf(firstAction));
+        return toActions(actions, persistentSet);
+    }
+
+    /**
+     * Calculates a persistent set as the closure of the first action in the dependency matrix. If
+     * a backward action gets into the set, all the actions are returned (see the POR algorithm for
+     * the reason of removing backward transitions).
+     */
+    private static BitSet calculatePersistentSet(BitSet[] dependencies, BitSet backwardActions,
+                                                 int firstAction) {
+        BitSet persistentSet = new BitSet(dependencies.length);
+        if (backwardActions.get(firstAction)) {
+            persistentSet.set(0, dependencies.length);
+            return persistentSet;
         }
+        persistentSet.set(firstAction);
+
+        BitSet newActions = (BitSet) dependencies[firstAction].clone();
+        newActions.andNot(persistentSet);
+        while (!newActions.isEmpty()) {
+            if (newActions.intersects(backwardActions)) {
+                persistentSet.set(0, dependencies.length);
+                return persistentSet;
+            }
+            persistentSet.or(newActions);
 
-        Set<A> persistentSet = new HashSet<>();
-        Set<A> otherActions = new HashSet<>(enabledActions); // actions not in the persistent set
-        persistentSet.add(firstAction);
-        otherActions.remove(firstAction);
-
-        boolean addedNewAction = true;
-        while (addedNewAction) {
-            addedNewAction = false;
-            Set<A> actionsToRemove = new HashSet<>();
-            for (A action : otherActions) {
-                // for every action that is not in the persistent set it is checked whether it should be added to the persistent set
-                // (because it is dependent with an action already in the persistent set)
-                if (persistentSet.stream()
-                        .anyMatch(persistentSetAction -> areDependents(persistentSetAction, action))) {
-                    if (isBackwardAction(action)) {
-                        return new HashSet<>(
-                                enabledActions); // see POR algorithm for the reason of removing backward transitions
-                    }
+            BitSet nextActions = new BitSet(dependencies.length);
+            for (int i = newActions.nextSetBit(0); i >= 0; i = newActions.nextSetBit(i + 1)) {
+                nextActions.or(dependencies[i]);
+            }
+            nextActions.andNot(persistentSet);
+            newActions = nextActions;
+        }
+        return persistentSet;
+    }
 
-                    persistentSet.add(action);
-                    actionsToRemove.add(action);
-                    addedNewAction = true;
+    /**
+     * Calculates the dependency matrix of the given actions: the i-th row contains the indices of
+     * the actions that are dependent with the i-th action in the sense of
+     * {@link #areDependents(Action, Action)}.
+     */
+    private BitSet[] calculateDependencies(List<A> actions) {
+        int n = actions.size();
+        BitSet[] dependencies = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            dependencies[i] = new BitSet(n);
+            for (int j = 0; j < n; j++) {
+                if (i != j && areDependents(actions.get(i), actions.get(j))) {
+                    dependencies[i].set(j);
                 }
             }
-            actionsToRemove.forEach(otherActions::remove);
         }
+        return dependencies;
+    }
 
-        return persistentSet;
+    private BitSet getBackwardActions(List<A> actions) {
+        BitSet backwardActions = new BitSet(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+            if (isBackwardAction(actions.get(i))) {
+                backwardActions.set(i);
+            }
+        }
+        return backwardActions;
+    }
+
+    private static <A> List<A> toActions(List<A> actions, BitSet indices) {
+        List<A> result = new ArrayList<>(indices.cardinality());
+        for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            result.add(actions.get(i));
+        }
+        return result;
     }
 
     /**
@@ -150,8 +211,8 @@ public abstract class PorLts<S extends State, A extends Action, T> implements LT
      */
     protected boolean areDependents(A persistentSetAction, A action) {
         return canEnOrDisableEachOther(persistentSetAction, action) ||
-                getInfluencedSharedObjects(getTransitionOf(action)).stream().anyMatch(varDecl ->
-                        getCachedUsedSharedObjects(getTransitionOf(persistentSetAction)).contains(varDecl));
+                getInfluencedSharedObjectBits(getTransitionOf(action))
+                        .intersects(getUsedSharedObjectBits(getTransitionOf(persistentSetAction)));
     }
 
     /**
@@ -213,31 +274,99 @@ public abstract class PorLts<S extends State, A extends Action, T> implements LT
     }
 
     /**
-     * Same as {@link PorLts#getUsedSharedObjects(T transition)} with an additional cache layer.
+     * Same as {@link PorLts#getUsedSharedObjects(T transition)} as a bitset with an additional
+     * cache layer.
      *
      * @param transition whose shared objects are to be returned
-     * @return the set of directly or indirectly used shared objects
+     * @return the bitset of directly or indirectly used shared objects
      */
-    private Set<? extends Decl<? extends Type>> getCachedUsedSharedObjects(T transition) {
-        if (!usedSharedObjects.containsKey(transition)) {
-            Set<? extends Decl<? extends Type>> vars = getUsedSharedObjects(transition);
-            usedSharedObjects.put(transition, vars);
+    private BitSet getUsedSharedObjectBits(T transition) {
+        BitSet bits = usedSharedObjects.get(transition);
+        if (bits == null) {
+            bits = toBits(getUsedSharedObjects(transition));
+            usedSharedObjects.put(transition, bits);
         }
-        return usedSharedObjects.get(transition);
+        return bits;
     }
 
     /**
      * Returns the shared objects (~global variables) used by the given transition or by transitions
-     * that are reachable via the given transition ("influenced shared objects").
+     * that are reachable via the given transition ("influenced shared objects") as a bitset.
      *
      * @param transition whose successor transitions' shared objects are to be returned.
-     * @return the set of influenced shared objects
+     * @return the bitset of influenced shared objects
+     */
+    private BitSet getInfluencedSharedObjectBits(T transition) {
+        BitSet bits = influencedSharedObjects.get(transition);
+        if (bits == null) {
+            bits = toBits(getSharedObjectsWithBFS(transition, t -> true));
+            influencedSharedObjects.put(transition, bits);
+        }
+        return bits;
+    }
+
+    private BitSet toBits(Set<? extends Decl<? extends Type>> sharedObjects) {
+        BitSet bits = new BitSet();
+        for (Decl<? extends Type> sharedObject : sharedObjects) {
+            Integer index = sharedObjectIndices.get(sharedObject);
+            if (index == null) {
+                synchronized (sharedObjectIndices) {
+                    index = sharedObjectIndices.computeIfAbsent(sharedObject,
+                            decl -> sharedObjectIndices.size());
+                }
+            }
+            bits.set(index);
+        }
+        return bits;
+    }
+
+    /**
+     * Computes the used and influenced shared objects of the given transitions (and of the
+     * transitions reachable from them) in advance. The influenced shared objects are propagated
+     * backwards along the successor relation until a fixpoint is reached, instead of running a
+     * separate search from every transition.
+     *
+     * @param transitions the transitions whose shared objects are to be computed
      */
-    protected Set<? extends Decl<? extends Type>> getInfluencedSharedObjects(T transition) {
-        if (!influencedSharedObjects.containsKey(transition)) {
-            influencedSharedObjects.put(transition, getSharedObjectsWithBFS(transition, t -> true));
+    protected void precomputeSharedObjects(Collection<? extends T> transitions) {
+        Map<T, BitSet> influenced = new HashMap<>();
+        Map<T, Set<T>> predecessors = new HashMap<>();
+        Deque<T> transitionsToExplore = new ArrayDeque<>(transitions);
+        while (!transitionsToExplore.isEmpty()) {
+            T exploring = transitionsToExplore.pop();
+            if (influenced.containsKey(exploring)) {
+                continue;
+            }
+            influenced.put(exploring, toBits(getDirectlyUsedSharedObjects(exploring)));
+            for (T successor : getSuccessiveTransitions(exploring)) {
+                predecessors.computeIfAbsent(successor, t -> new HashSet<>()).add(exploring);
+                transitionsToExplore.push(successor);
+            }
+        }
+
+        Deque<T> changed = new ArrayDeque<>(influenced.keySet());
+        Set<T> changedSet = new HashSet<>(influenced.keySet());
+        while (!changed.isEmpty()) {
+            T transition = changed.poll();
+            changedSet.remove(transition);
+            BitSet bits = influenced.get(transition);
+            for (T predecessor : predecessors.getOrDefault(transition, Set.of())) {
+                BitSet predecessorBits = influenced.get(predecessor);
+                BitSet missing = (BitSet) bits.clone();
+                missing.andNot(predecessorBits);
+                if (!missing.isEmpty()) {
+                    predecessorBits.or(missing);
+                    if (changedSet.add(predecessor)) {
+                        changed.add(predecessor);
+                    }
+                }
+            }
+        }
+        influencedSharedObjects.putAll(influenced);
+
+        for (T transition : transitions) {
+            getUsedSharedObjectBits(transition);
         }
-        return influencedSharedObjects.get(transition);
     }
 
     /**
@@ -251,12 +380,15 @@ public abstract class PorLts<S extends State, A extends Action, T> implements LT
     protected Set<? extends Decl<? extends Type>> getSharedObjectsWithBFS(T startTransition,
                                                                           Predicate<T> visitTransition) {
         Set<Decl<? extends Type>> vars = new HashSet<>();
-        List<T> exploredTransitions = new ArrayList<>();
-        List<T> transitionsToExplore = new ArrayList<>();
+        Set<T> exploredTransitions = new HashSet<>();
+        Deque<T> transitionsToExplore = new ArrayDeque<>();
         transitionsToExplore.add(startTransition);
 
         while (!transitionsToExplore.isEmpty()) {
-            T exploring = transitionsToExplore.remove(0);
+            T exploring = transitionsToExplore.poll();
+            if (!exploredTransitions.add(exploring)) {
+                continue;
+            }
             vars.addAll(getDirectlyUsedSharedObjects(exploring));
             Set<T> successiveTransitions = getSuccessiveTransitions(exploring);
 
@@ -266,7 +398,6 @@ public abstract class PorLts<S extends State, A extends Action, T> implements LT
                     transitionsToExplore.add(newTransition);
                 }
             }
-            exploredTransitions.add(exploring);
         }
         return vars;
     }
@@ -18,9 +18,20 @@ package hu.bme.mit.theta.analysis.algorithm;
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.common.AnalysisBudget;
+import hu.bme.mit.theta.common.exception.BudgetExceededException;
 
 public interface SafetyChecker<S extends State, A extends Action, P extends Prec> {
 
     SafetyResult<S, A> check(final P prec);
 
+    /**
+     * Check with the given budget bound to the current thread (see {@link AnalysisBudget}).
+     *
+     * @throws BudgetExceededException if the budget is cancelled or exceeded during the check
+     */
+    default SafetyResult<S, A> check(final P prec, final AnalysisBudget budget) {
+        return budget.call(() -> check(prec));
+    }
+
 }
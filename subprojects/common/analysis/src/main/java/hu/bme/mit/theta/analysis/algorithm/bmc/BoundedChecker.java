@@ -0,0 +1,233 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.bmc;
+
+import com.google.common.base.Stopwatch;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.common.AnalysisBudget;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+
+/**
+ * Symbolic bounded model checker over a {@link MonolithicExpr}. All paths of length k are encoded
+ * by unrolling the transition formula k times, and the same incremental solver is reused while
+ * the bound is increased, so that only the newly unrolled step has to be added in each iteration.
+ * Optionally, a second solver is used to check whether the property is k-inductive, which allows
+ * proving safety without exploring the whole state space.
+ */
+public final class BoundedChecker<S extends ExprState, A extends ExprAction> implements
+        SafetyChecker<S, A, UnitPrec> {
+
+    private final MonolithicExpr monolithicExpr;
+    private final Solver bmcSolver;
+    private final Solver indSolver;
+    private final Function<Valuation, S> valToState;
+    private final BiFunction<Valuation, Valuation, A> biValToAction;
+    private final int upperBound;
+    private final Logger logger;
+
+    private BoundedChecker(final MonolithicExpr monolithicExpr, final Solver bmcSolver,
+                           final Solver indSolver, final Function<Valuation, S> valToState,
+                           final BiFunction<Valuation, Valuation, A> biValToAction,
+                           final int upperBound, final Logger logger) {
+        this.monolithicExpr = checkNotNull(monolithicExpr);
+        this.bmcSolver = checkNotNull(bmcSolver);
+        this.indSolver = indSolver;
+        this.valToState = checkNotNull(valToState);
+        this.biValToAction = checkNotNull(biValToAction);
+        this.upperBound = upperBound;
+        this.logger = checkNotNull(logger);
+    }
+
+    /**
+     * Creates a checker that only searches for counterexamples (plain BMC).
+     */
+    public static <S extends ExprState, A extends ExprAction> BoundedChecker<S, A> create(
+            final MonolithicExpr monolithicExpr, final Solver bmcSolver,
+            final Function<Valuation, S> valToState,
+            final BiFunction<Valuation, Valuation, A> biValToAction, final int upperBound,
+            final Logger logger) {
+        return new BoundedChecker<>(monolithicExpr, bmcSolver, null, valToState, biValToAction,
+                upperBound, logger);
+    }
+
+    /**
+     * Creates a checker that also tries to prove the property by k-induction using the given
+     * solver, which must be different from the BMC solver.
+     */
+    public static <S extends ExprState, A extends ExprAction> BoundedChecker<S, A> create(
+            final MonolithicExpr monolithicExpr, final Solver bmcSolver, final Solver indSolver,
+            final Function<Valuation, S> valToState,
+            final BiFunction<Valuation, Valuation, A> biValToAction, final int upperBound,
+            final Logger logger) {
+        return new BoundedChecker<>(monolithicExpr, bmcSolver, checkNotNull(indSolver),
+                valToState, biValToAction, upperBound, logger);
+    }
+
+    public static <S extends ExprState, A extends ExprAction> BoundedChecker<S, A> create(
+            final MonolithicExpr monolithicExpr, final Solver bmcSolver, final Solver indSolver,
+            final Function<Valuation, S> valToState,
+            final BiFunction<Valuation, Valuation, A> biValToAction) {
+        return create(monolithicExpr, bmcSolver, indSolver, valToState, biValToAction, -1,
+                NullLogger.getInstance());
+    }
+
+    @Override
+    public SafetyResult<S, A> check(final UnitPrec prec) {
+        logger.write(Level.INFO, "Configuration: %s%n", this);
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final AnalysisBudget budget = AnalysisBudget.current();
+
+        // indexings.get(i) describes the variables of the i-th state of a path
+        final List<VarIndexing> indexings = new ArrayList<>();
+        indexings.add(VarIndexingFactory.indexing(0));
+
+        long bmcTime = 0;
+        long inductionTime = 0;
+        int bound = 0;
+        SafetyResult<S, A> result = null;
+
+        bmcSolver.add(PathUtils.unfold(monolithicExpr.getInitExpr(), indexings.get(0)));
+        while (result == null) {
+            budget.iteration();
+            logger.write(Level.MAINSTEP, "Bound %d%n", bound);
+
+            final long bmcStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+            if (bound > 0) {
+                bmcSolver.add(PathUtils.unfold(monolithicExpr.getTransExpr(),
+                        indexings.get(bound - 1)));
+            }
+            if (bmcSolver.check().isUnsat()) {
+                logger.write(Level.MAINSTEP, "| No path of length %d, state space exhausted%n",
+                        bound);
+                result = safe(stopwatch, bmcTime, inductionTime, bound);
+            } else {
+                try (WithPushPop wp = new WithPushPop(bmcSolver)) {
+                    bmcSolver.add(Not(PathUtils.unfold(monolithicExpr.getPropExpr(),
+                            indexings.get(bound))));
+                    if (bmcSolver.check().isSat()) {
+                        logger.write(Level.MAINSTEP, "| Counterexample of length %d found%n",
+                                bound);
+                        result = SafetyResult.unsafe(extractTrace(indexings), ARG.create(
+                                (s1, s2) -> false), statistics(stopwatch, bmcTime, inductionTime,
+                                bound));
+                    }
+                }
+            }
+            bmcTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - bmcStartTime;
+
+            if (result == null && indSolver != null && bound > 0) {
+                final long inductionStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+                if (checkInduction(indexings, bound)) {
+                    logger.write(Level.MAINSTEP, "| Property is %d-inductive%n", bound);
+                    result = safe(stopwatch, bmcTime, inductionTime, bound);
+                }
+                inductionTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - inductionStartTime;
+            }
+
+            if (result == null) {
+                if (upperBound >= 0 && bound >= upperBound) {
+                    logger.write(Level.MAINSTEP,
+                            "| Upper bound %d reached without a counterexample%n", upperBound);
+                    result = safe(stopwatch, bmcTime, inductionTime, bound);
+                } else {
+                    bound++;
+                    indexings.add(indexings.get(bound - 1)
+                            .add(monolithicExpr.getTransOffsetIndex()));
+                }
+            }
+        }
+
+        logger.write(Level.RESULT, "%s%n", result);
+        return result;
+    }
+
+    /**
+     * Checks whether the property holds after k steps on every path where it held in the first k
+     * states. The solver keeps the unrolling of the previous bounds, so only the last step and the
+     * property of the previous state are added.
+     */
+    private boolean checkInduction(final List<VarIndexing> indexings, final int bound) {
+        final VarIndexing prevIndexing = indexings.get(bound - 1);
+        indSolver.add(PathUtils.unfold(monolithicExpr.getPropExpr(), prevIndexing));
+        indSolver.add(PathUtils.unfold(monolithicExpr.getTransExpr(), prevIndexing));
+        try (WithPushPop wp = new WithPushPop(indSolver)) {
+            indSolver.add(Not(PathUtils.unfold(monolithicExpr.getPropExpr(),
+                    indexings.get(bound))));
+            return indSolver.check().isUnsat();
+        }
+    }
+
+    private Trace<S, A> extractTrace(final List<VarIndexing> indexings) {
+        final Valuation model = bmcSolver.getModel();
+        final List<Valuation> valuations = new ArrayList<>(indexings.size());
+        for (final VarIndexing indexing : indexings) {
+            valuations.add(PathUtils.extractValuation(model, indexing));
+        }
+
+        final List<S> states = new ArrayList<>(valuations.size());
+        final List<A> actions = new ArrayList<>(valuations.size() - 1);
+        for (int i = 0; i < valuations.size(); i++) {
+            states.add(valToState.apply(valuations.get(i)));
+            if (i > 0) {
+                actions.add(biValToAction.apply(valuations.get(i - 1), valuations.get(i)));
+            }
+        }
+        return Trace.of(states, actions);
+    }
+
+    private SafetyResult<S, A> safe(final Stopwatch stopwatch, final long bmcTime,
+                                    final long inductionTime, final int bound) {
+        // Bounded checking does not build an abstract reachability graph, the result has an empty one
+        return SafetyResult.safe(ARG.create((s1, s2) -> false),
+                statistics(stopwatch, bmcTime, inductionTime, bound));
+    }
+
+    private BoundedStatistics statistics(final Stopwatch stopwatch, final long bmcTime,
+                                         final long inductionTime, final int bound) {
+        return new BoundedStatistics(stopwatch.elapsed(TimeUnit.MILLISECONDS), bmcTime,
+                inductionTime, bound);
+    }
+
+    @Override
+    public String toString() {
+        return Utils.lispStringBuilder(getClass().getSimpleName()).add(upperBound)
+                .add(indSolver != null ? "k-induction" : "bmc").toString();
+    }
+}
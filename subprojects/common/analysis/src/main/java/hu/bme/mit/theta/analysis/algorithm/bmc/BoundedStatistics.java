@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.bmc;
+
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+
+/**
+ * Represents statistics collected by the BoundedChecker algorithm.
+ */
+public final class BoundedStatistics extends Statistics {
+
+    private final long algorithmTimeMs;
+    private final long bmcTimeMs;
+    private final long inductionTimeMs;
+    private final int bound;
+
+    public BoundedStatistics(final long algorithmTimeMs, final long bmcTimeMs,
+                             final long inductionTimeMs, final int bound) {
+        this.algorithmTimeMs = algorithmTimeMs;
+        this.bmcTimeMs = bmcTimeMs;
+        this.inductionTimeMs = inductionTimeMs;
+        this.bound = bound;
+
+        addStat("AlgorithmTimeMs", this::getAlgorithmTimeMs);
+        addStat("Bound", this::getBound);
+    }
+
+    public long getAlgorithmTimeMs() {
+        return algorithmTimeMs;
+    }
+
+    public long getBmcTimeMs() {
+        return bmcTimeMs;
+    }
+
+    public long getInductionTimeMs() {
+        return inductionTimeMs;
+    }
+
+    public int getBound() {
+        return bound;
+    }
+
+}
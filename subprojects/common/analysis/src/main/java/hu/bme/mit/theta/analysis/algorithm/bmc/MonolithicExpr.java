@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.bmc;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Symbolic description of a whole system as a single initial, transition and property formula.
+ * The initial and property formulas are over the unprimed variables of a state, while the
+ * transition formula relates a state to its successor, whose variables are primed according to
+ * the transition offset.
+ */
+public final class MonolithicExpr {
+
+    private final Expr<BoolType> initExpr;
+    private final Expr<BoolType> transExpr;
+    private final Expr<BoolType> propExpr;
+    private final VarIndexing transOffsetIndex;
+
+    private MonolithicExpr(final Expr<BoolType> initExpr, final Expr<BoolType> transExpr,
+                           final Expr<BoolType> propExpr, final VarIndexing transOffsetIndex) {
+        this.initExpr = checkNotNull(initExpr);
+        this.transExpr = checkNotNull(transExpr);
+        this.propExpr = checkNotNull(propExpr);
+        this.transOffsetIndex = checkNotNull(transOffsetIndex);
+    }
+
+    public static MonolithicExpr create(final Expr<BoolType> initExpr,
+                                        final Expr<BoolType> transExpr, final Expr<BoolType> propExpr,
+                                        final VarIndexing transOffsetIndex) {
+        return new MonolithicExpr(initExpr, transExpr, propExpr, transOffsetIndex);
+    }
+
+    public Expr<BoolType> getInitExpr() {
+        return initExpr;
+    }
+
+    public Expr<BoolType> getTransExpr() {
+        return transExpr;
+    }
+
+    public Expr<BoolType> getPropExpr() {
+        return propExpr;
+    }
+
+    public VarIndexing getTransOffsetIndex() {
+        return transOffsetIndex;
+    }
+
+    @Override
+    public String toString() {
+        return Utils.lispStringBuilder(getClass().getSimpleName()).add(initExpr).add(transExpr)
+                .add(propExpr).toString();
+    }
+}
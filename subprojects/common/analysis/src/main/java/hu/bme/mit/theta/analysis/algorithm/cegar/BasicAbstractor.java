@@ -28,10 +28,14 @@ import hu.bme.mit.theta.analysis.algorithm.runtimecheck.ArgCexCheckHandler;
 import hu.bme.mit.theta.analysis.reachedset.Partition;
 import hu.bme.mit.theta.analysis.waitlist.FifoWaitlist;
 import hu.bme.mit.theta.analysis.waitlist.Waitlist;
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
 import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
+import hu.bme.mit.theta.common.metrics.Timer;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -87,31 +91,32 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 
         assert arg.isInitialized();
 
-        long startNodes = arg.getNodes().count();
-        long startIncompleteNodes = arg.getIncompleteNodes().count();
-
         ArgCexCheckHandler.instance.setCurrentArg(new AbstractArg<S, A, P>(arg, prec));
         logger.write(Level.INFO, "|  |  Starting ARG: %d nodes, %d incomplete, %d unsafe%n",
-                arg.getNodes().count(),
-                arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+                arg.size(), arg.getIncompleteNodeCount(), arg.getUnsafeNodeCount());
         logger.write(Level.SUBSTEP, "|  |  Building ARG...");
 
-        final Partition<ArgNode<S, A>, ?> reachedSet = Partition.of(
-                n -> projection.apply(n.getState()));
+        final Partition<ArgNode<S, A>, ?> reachedSet = arg.getReachedSet(projection);
         waitlist.clear();
 
-        reachedSet.addAll(arg.getNodes());
         waitlist.addAll(arg.getIncompleteNodes());
 
         if (!stopCriterion.canStop(arg)) {
+            final AnalysisBudget budget = AnalysisBudget.current();
+            final MetricRegistry metrics = MetricRegistry.current();
+            final Counter expanded = metrics.counter("abstractor.expandedNodes");
+            final Timer closeTimer = metrics.timer("abstractor.close");
             while (!waitlist.isEmpty()) {
+                budget.checkpoint();
                 final ArgNode<S, A> node = waitlist.remove();
 
                 Collection<ArgNode<S, A>> newNodes = Collections.emptyList();
+                final long closeStart = System.nanoTime();
                 close(node, reachedSet.get(node));
+                closeTimer.record(System.nanoTime() - closeStart);
                 if (!node.isSubsumed() && !node.isTarget()) {
+                    expanded.increment();
                     newNodes = argBuilder.expand(node, prec);
-                    reachedSet.addAll(newNodes);
                     waitlist.addAll(newNodes);
                 }
 
@@ -124,8 +129,7 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 
         logger.write(Level.SUBSTEP, "done%n");
         logger.write(Level.INFO, "|  |  Finished ARG: %d nodes, %d incomplete, %d unsafe%n",
-                arg.getNodes().count(),
-                arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count());
+                arg.size(), arg.getIncompleteNodeCount(), arg.getUnsafeNodeCount());
 
         waitlist.clear(); // Optimization
 
@@ -141,12 +145,11 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
         if (!node.isLeaf()) {
             return;
         }
-        for (final ArgNode<S, A> candidate : candidates) {
-            if (candidate.mayCover(node)) {
-                node.cover(candidate);
-                return;
-            }
-        }
+        Coverings.close(node, candidates, candidate -> candidate.canCover(node),
+                argBuilder.getPartialOrd(), candidate -> {
+                    node.cover(candidate);
+                    return true;
+                });
     }
 
     @Override
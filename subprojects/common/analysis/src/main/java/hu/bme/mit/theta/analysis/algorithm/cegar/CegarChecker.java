@@ -23,6 +23,7 @@ import hu.bme.mit.theta.analysis.algorithm.ARG;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.algorithm.runtimecheck.ArgCexCheckHandler;
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
@@ -72,8 +73,10 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
         final ARG<S, A> arg = abstractor.createArg();
         P prec = initPrec;
         int iteration = 0;
+        final AnalysisBudget budget = AnalysisBudget.current();
         do {
             ++iteration;
+            budget.iteration();
 
             logger.write(Level.MAINSTEP, "Iteration %d%n", iteration);
             logger.write(Level.MAINSTEP, "| Checking abstraction...%n");
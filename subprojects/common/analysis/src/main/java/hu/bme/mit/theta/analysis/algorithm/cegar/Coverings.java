@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Covering step shared by the abstractors.
+ */
+final class Coverings {
+
+    private Coverings() {
+    }
+
+    /**
+     * Covers the given leaf with the first suitable candidate, in the order of the candidates.
+     * The structural conditions are checked first, as they are cheap, and the partial order is
+     * only queried for candidates that pass them.
+     *
+     * @param node       the node to cover
+     * @param candidates the candidates, e.g., the nodes in the same partition of the reached set
+     * @param canCover   the structural check for a candidate, see {@link ArgNode#canCover}
+     * @param partialOrd the partial order of the states
+     * @param cover      covers the node with the candidate, returning false if it could not
+     * @return true if the node got covered
+     */
+    static <S extends State, A extends Action> boolean close(
+            final ArgNode<S, A> node, final Collection<ArgNode<S, A>> candidates,
+            final Predicate<ArgNode<S, A>> canCover, final PartialOrd<S> partialOrd,
+            final Predicate<ArgNode<S, A>> cover) {
+        final S state = node.getState();
+        for (final ArgNode<S, A> candidate : candidates) {
+            if (canCover.test(candidate) && partialOrd.isLeq(state, candidate.getState())
+                    && cover.test(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,385 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterion;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.algorithm.runtimecheck.AbstractArg;
+import hu.bme.mit.theta.analysis.algorithm.runtimecheck.ArgCexCheckHandler;
+import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.waitlist.FifoWaitlist;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
+import hu.bme.mit.theta.common.AnalysisBudget;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.Counter;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
+import hu.bme.mit.theta.common.metrics.Timer;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Abstractor that expands ARG nodes on multiple threads. Each worker owns an {@link ArgBuilder}
+ * (and thus an analysis) created with its own solver instance, and computes successor states and
+ * checks covering candidates with its own partial order outside of any lock. Waitlist handling,
+ * insertion of new nodes into the ARG and committing covers are serialized on a single monitor,
+ * so the resulting ARG is the same kind of ARG that {@link BasicAbstractor} would build (up to
+ * exploration order), and the verdict is the same.
+ */
+public final class ParallelAbstractor<S extends State, A extends Action, P extends Prec> implements
+        Abstractor<S, A, P> {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger(0);
+
+    private final ArgBuilder<S, A, P> argBuilder;
+    private final List<ArgBuilder<S, A, P>> workerArgBuilders;
+    private final Function<? super S, ?> projection;
+    private final Waitlist<ArgNode<S, A>> waitlist;
+    private final StopCriterion<S, A> stopCriterion;
+    private final Logger logger;
+    private final ExecutorService executor;
+
+    private final Object lock = new Object();
+    private int busyWorkers;
+    private boolean stop;
+
+    private ParallelAbstractor(final ArgBuilder<S, A, P> argBuilder,
+                               final List<ArgBuilder<S, A, P>> workerArgBuilders,
+                               final Function<? super S, ?> projection,
+                               final Waitlist<ArgNode<S, A>> waitlist,
+                               final StopCriterion<S, A> stopCriterion, final Logger logger) {
+        this.argBuilder = checkNotNull(argBuilder);
+        this.workerArgBuilders = checkNotNull(workerArgBuilders);
+        this.projection = checkNotNull(projection);
+        this.waitlist = checkNotNull(waitlist);
+        this.stopCriterion = checkNotNull(stopCriterion);
+        this.logger = checkNotNull(logger);
+        // Idle workers time out, so the threads of an abstractor that is no longer used go away
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(workerArgBuilders.size(),
+                workerArgBuilders.size(), 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                daemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a builder for a parallel abstractor.
+     *
+     * @param solverFactory     Factory used to create a separate solver for each worker (and one
+     *                          for the ARG itself)
+     * @param argBuilderFactory Creates an ARG builder (with its own LTS and analysis) using the
+     *                          given solver
+     */
+    public static <S extends State, A extends Action, P extends Prec> Builder<S, A, P> builder(
+            final SolverFactory solverFactory,
+            final Function<? super Solver, ArgBuilder<S, A, P>> argBuilderFactory) {
+        return new Builder<>(solverFactory, argBuilderFactory);
+    }
+
+    @Override
+    public ARG<S, A> createArg() {
+        return argBuilder.createArg();
+    }
+
+    @Override
+    public AbstractorResult check(final ARG<S, A> arg, final P prec) {
+        checkNotNull(arg);
+        checkNotNull(prec);
+        logger.write(Level.DETAIL, "|  |  Precision: %s%n", prec);
+
+        if (!arg.isInitialized()) {
+            logger.write(Level.SUBSTEP, "|  |  (Re)initializing ARG...");
+            argBuilder.init(arg, prec);
+            logger.write(Level.SUBSTEP, "done%n");
+        }
+
+        assert arg.isInitialized();
+
+        ArgCexCheckHandler.instance.setCurrentArg(new AbstractArg<S, A, P>(arg, prec));
+        logger.write(Level.INFO, "|  |  Starting ARG: %d nodes, %d incomplete, %d unsafe%n",
+                arg.size(), arg.getIncompleteNodeCount(), arg.getUnsafeNodeCount());
+        logger.write(Level.SUBSTEP, "|  |  Building ARG with %d workers...",
+                workerArgBuilders.size());
+
+        final Partition<ArgNode<S, A>, ?> reachedSet = arg.getReachedSet(projection);
+        waitlist.clear();
+        waitlist.addAll(arg.getIncompleteNodes());
+
+        if (!stopCriterion.canStop(arg)) {
+            runWorkers(arg, prec, reachedSet);
+            ArgCexCheckHandler.instance.setCurrentArg(new AbstractArg<S, A, P>(arg, prec));
+        }
+
+        logger.write(Level.SUBSTEP, "done%n");
+        logger.write(Level.INFO, "|  |  Finished ARG: %d nodes, %d incomplete, %d unsafe%n",
+                arg.size(), arg.getIncompleteNodeCount(), arg.getUnsafeNodeCount());
+
+        waitlist.clear(); // Optimization
+
+        if (arg.isSafe()) {
+            checkState(arg.isComplete(), "Returning incomplete ARG as safe");
+            return AbstractorResult.safe();
+        } else {
+            return AbstractorResult.unsafe();
+        }
+    }
+
+    private void runWorkers(final ARG<S, A> arg, final P prec,
+                            final Partition<ArgNode<S, A>, ?> reachedSet) {
+        busyWorkers = 0;
+        stop = false;
+        // The workers run with the budget and the metric registry of the calling thread
+        final AnalysisBudget budget = AnalysisBudget.current();
+        final MetricRegistry metrics = MetricRegistry.current();
+        final Collection<Future<?>> futures = new ArrayList<>();
+        try {
+            for (final ArgBuilder<S, A, P> workerArgBuilder : workerArgBuilders) {
+                futures.add(executor.submit(() -> budget.run(() -> metrics.run(
+                        () -> work(workerArgBuilder, arg, prec, reachedSet)))));
+            }
+            RuntimeException exception = null;
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    exception = new RuntimeException(e);
+                } catch (final ExecutionException e) {
+                    if (exception == null) {
+                        exception = e.getCause() instanceof RuntimeException
+                                ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        } finally {
+            for (final Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void work(final ArgBuilder<S, A, P> workerArgBuilder, final ARG<S, A> arg,
+                      final P prec, final Partition<ArgNode<S, A>, ?> reachedSet) {
+        final AnalysisBudget budget = AnalysisBudget.current();
+        final PartialOrd<S> partialOrd = workerArgBuilder.getPartialOrd();
+        final MetricRegistry metrics = MetricRegistry.current();
+        final Counter expanded = metrics.counter("abstractor.expandedNodes");
+        final Timer closeTimer = metrics.timer("abstractor.close");
+        try {
+            while (true) {
+                final ArgNode<S, A> node;
+                final List<ArgNode<S, A>> candidates;
+                synchronized (lock) {
+                    while (!stop && waitlist.isEmpty() && busyWorkers > 0) {
+                        lock.wait();
+                    }
+                    if (stop || waitlist.isEmpty()) {
+                        lock.notifyAll();
+                        return;
+                    }
+                    node = waitlist.remove();
+                    candidates = getCoverCandidates(node, reachedSet.get(node));
+                    busyWorkers++;
+                }
+
+                Collection<ArgNode<S, A>> newNodes = null;
+                try {
+                    budget.checkpoint();
+                    // Covering checks and successor computation (the expensive parts) run without
+                    // holding the lock
+                    final long closeStart = System.nanoTime();
+                    close(node, candidates, partialOrd);
+                    closeTimer.record(System.nanoTime() - closeStart);
+                    final boolean expand;
+                    synchronized (lock) {
+                        expand = !node.isExcluded() && !node.isTarget();
+                    }
+                    if (expand) {
+                        expanded.increment();
+                        final Collection<Tuple2<A, S>> successors = workerArgBuilder.getSuccessors(
+                                node.getState(), prec);
+                        synchronized (lock) {
+                            newNodes = workerArgBuilder.addSuccessors(node, successors);
+                            waitlist.addAll(newNodes);
+                            // The stop criterion only checks counterexamples if there is a new target
+                            if (newNodes.stream().anyMatch(ArgNode::isTarget)) {
+                                ArgCexCheckHandler.instance.setCurrentArg(
+                                        new AbstractArg<S, A, P>(arg, prec));
+                            }
+                            if (stopCriterion.canStop(arg, newNodes)) {
+                                stop = true;
+                            }
+                        }
+                    } else {
+                        newNodes = Collections.emptyList();
+                    }
+                } finally {
+                    synchronized (lock) {
+                        busyWorkers--;
+                        if (newNodes == null) {
+                            stop = true; // Worker failed, the exception is propagated to check
+                        }
+                        lock.notifyAll();
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Collects the nodes that may cover the given node based on the structure of the ARG. Must be
+     * called holding the lock.
+     */
+    private List<ArgNode<S, A>> getCoverCandidates(final ArgNode<S, A> node,
+                                                   final Collection<ArgNode<S, A>> reached) {
+        if (!node.isLeaf()) {
+            return Collections.emptyList();
+        }
+        return reached.stream().filter(candidate -> candidate.canCover(node))
+                .collect(Collectors.toList());
+    }
+
+    private void close(final ArgNode<S, A> node, final List<ArgNode<S, A>> candidates,
+                       final PartialOrd<S> partialOrd) {
+        // The structural conditions were checked when collecting the candidates, and are
+        // rechecked under the lock when covering
+        Coverings.close(node, candidates, candidate -> true, partialOrd,
+                candidate -> tryCover(node, candidate));
+    }
+
+    private boolean tryCover(final ArgNode<S, A> node, final ArgNode<S, A> candidate) {
+        synchronized (lock) {
+            // Another worker may have excluded the candidate since the candidates were collected
+            if (!candidate.canCover(node)) {
+                return false;
+            }
+            node.cover(candidate);
+            return true;
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        return runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "abstractor-worker-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Utils.lispStringBuilder(getClass().getSimpleName()).add(waitlist)
+                .add(workerArgBuilders.size()).toString();
+    }
+
+    public static final class Builder<S extends State, A extends Action, P extends Prec> {
+
+        private final SolverFactory solverFactory;
+        private final Function<? super Solver, ArgBuilder<S, A, P>> argBuilderFactory;
+        private int workers;
+        private Function<? super S, ?> projection;
+        private Waitlist<ArgNode<S, A>> waitlist;
+        private StopCriterion<S, A> stopCriterion;
+        private Logger logger;
+
+        private Builder(final SolverFactory solverFactory,
+                        final Function<? super Solver, ArgBuilder<S, A, P>> argBuilderFactory) {
+            this.solverFactory = checkNotNull(solverFactory);
+            this.argBuilderFactory = checkNotNull(argBuilderFactory);
+            this.workers = Runtime.getRuntime().availableProcessors();
+            this.projection = s -> 0;
+            this.waitlist = FifoWaitlist.create();
+            this.stopCriterion = StopCriterions.firstCex();
+            this.logger = NullLogger.getInstance();
+        }
+
+        public Builder<S, A, P> workers(final int workers) {
+            checkArgument(workers > 0, "Number of workers must be positive");
+            this.workers = workers;
+            return this;
+        }
+
+        public Builder<S, A, P> projection(final Function<? super S, ?> projection) {
+            this.projection = projection;
+            return this;
+        }
+
+        public Builder<S, A, P> waitlist(final Waitlist<ArgNode<S, A>> waitlist) {
+            this.waitlist = waitlist;
+            return this;
+        }
+
+        public Builder<S, A, P> stopCriterion(final StopCriterion<S, A> stopCriterion) {
+            this.stopCriterion = stopCriterion;
+            return this;
+        }
+
+        public Builder<S, A, P> logger(final Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        public ParallelAbstractor<S, A, P> build() {
+            // The ARG builder used for initialization and for the partial order of the ARG gets a
+            // solver of its own, as covering checks may run while workers compute successors
+            final ArgBuilder<S, A, P> argBuilder = argBuilderFactory.apply(
+                    solverFactory.createSolver());
+            final List<ArgBuilder<S, A, P>> workerArgBuilders = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                workerArgBuilders.add(argBuilderFactory.apply(solverFactory.createSolver()));
+            }
+            return new ParallelAbstractor<>(argBuilder, workerArgBuilders, projection, waitlist,
+                    stopCriterion, logger);
+        }
+    }
+
+}
@@ -62,7 +62,7 @@ public final class StopCriterions {
 
         @Override
         public boolean canStop(final ARG<S, A> arg) {
-            return arg.getUnsafeNodes().findAny().isPresent() && arg.getCexs()
+            return arg.getUnsafeNodeCount() > 0 && arg.getCexs()
                     .anyMatch(cex -> ArgCexCheckHandler.instance.checkIfCounterexampleNew(cex));
         }
 
@@ -114,9 +114,7 @@ public final class StopCriterions {
 
         @Override
         public boolean canStop(final ARG<S, A> arg) {
-            // TODO: this could be optimized: we don't need to count it,
-            // we just need to know if there are >= n elements
-            return arg.getUnsafeNodes().count() >= n;
+            return arg.getUnsafeNodeCount() >= n;
         }
 
         @Override
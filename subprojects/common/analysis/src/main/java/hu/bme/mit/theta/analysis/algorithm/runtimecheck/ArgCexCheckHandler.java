@@ -23,24 +23,32 @@ import hu.bme.mit.theta.analysis.algorithm.ARG;
 import hu.bme.mit.theta.analysis.algorithm.ArgTrace;
 import hu.bme.mit.theta.common.exception.NotSolvableException;
 
+/**
+ * Stores the abstract ARGs and counterexamples of an analysis to detect when it gets stuck. The
+ * setting and the stored data are thread-confined: each thread has its own storage, which is
+ * inherited by the threads it starts (e.g., the workers of a parallel abstractor), so analyses
+ * running concurrently (e.g., in a parallel portfolio) do not overwrite each other's data.
+ */
 public class ArgCexCheckHandler<S extends State, A extends Action> {
 
     public static ArgCexCheckHandler instance = new ArgCexCheckHandler();
-    private AbstractArgStorage<S, A> abstractArgStorage;
+    private final InheritableThreadLocal<AbstractArgStorage<S, A>> abstractArgStorage =
+            new InheritableThreadLocal<>();
 
     public void setArgCexCheck(boolean shouldCheck, boolean multiseq) {
         if (shouldCheck) {
             if (multiseq) {
-                abstractArgStorage = new MultiCexAbstractArgStorage<S, A>();
+                abstractArgStorage.set(new MultiCexAbstractArgStorage<S, A>());
             } else {
-                abstractArgStorage = new SingleCexAbstractArgStorage<S, A>();
+                abstractArgStorage.set(new SingleCexAbstractArgStorage<S, A>());
             }
         } else {
-            abstractArgStorage = null;
+            abstractArgStorage.set(null);
         }
     }
 
     public boolean checkIfCounterexampleNew(ArgTrace<S, A> cex) {
+        final AbstractArgStorage<S, A> abstractArgStorage = this.abstractArgStorage.get();
         if (abstractArgStorage != null) {
             return abstractArgStorage.checkIfCounterexampleNew(cex);
         } else {
@@ -49,18 +57,21 @@ public class ArgCexCheckHandler<S extends State, A extends Action> {
     }
 
     public <P extends Prec> void setCurrentArg(AbstractArg<S, A, P> arg) {
+        final AbstractArgStorage<S, A> abstractArgStorage = this.abstractArgStorage.get();
         if (abstractArgStorage != null) {
             abstractArgStorage.setCurrentArg(arg);
         }
     }
 
     public <P extends Prec> void checkAndStop(ARG<S, A> arg, P prec) {
+        final AbstractArgStorage<S, A> abstractArgStorage = this.abstractArgStorage.get();
         if (abstractArgStorage != null && abstractArgStorage.check(arg, prec)) {
             throw new NotSolvableException();
         }
     }
 
     public void addCounterexample(ArgTrace<S, A> cexToConcretize) {
+        final AbstractArgStorage<S, A> abstractArgStorage = this.abstractArgStorage.get();
         if (abstractArgStorage != null) {
             abstractArgStorage.addCounterexample(cexToConcretize);
         }
@@ -19,13 +19,12 @@ import com.google.common.collect.ImmutableSet;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.decl.VarDecl;
-import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.MutableValuation;
 import hu.bme.mit.theta.core.model.Valuation;
-import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.model.ValuationLayout;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -36,10 +35,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public final class ExplPrec implements Prec {
 
     private final Set<VarDecl<?>> vars;
+    // Dense numbering of the variables, shared by the valuations of all states of the precision
+    private final ValuationLayout layout;
     private static ExplPrec EMPTY = new ExplPrec(Collections.emptySet());
 
     private ExplPrec(final Iterable<? extends VarDecl<?>> vars) {
         this.vars = ImmutableSet.copyOf(vars);
+        this.layout = ValuationLayout.of(this.vars);
     }
 
     public static ExplPrec empty() {
@@ -76,14 +78,7 @@ public final class ExplPrec implements Prec {
 
     public ExplState createState(final Valuation valuation) {
         checkNotNull(valuation);
-        final ImmutableValuation.Builder builder = ImmutableValuation.builder();
-        for (final VarDecl<?> varDecl : vars) {
-            final Optional<? extends LitExpr<?>> eval = valuation.eval(varDecl);
-            if (eval.isPresent()) {
-                builder.put(varDecl, eval.get());
-            }
-        }
-        return ExplState.of(builder.build());
+        return ExplState.of(MutableValuation.copyOf(valuation, layout));
     }
 
     @Override
@@ -18,7 +18,7 @@ package hu.bme.mit.theta.analysis.expl;
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.decl.Decl;
-import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.MutableValuation;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.LitExpr;
@@ -53,6 +53,10 @@ public abstract class ExplState extends Valuation implements ExprState {
         return TopLazyHolder.INSTANCE;
     }
 
+    /**
+     * Returns the valuation of the state. Modifying the returned valuation does not affect the
+     * state.
+     */
     public abstract Valuation getVal();
 
     public abstract boolean isLeq(final ExplState that);
@@ -63,7 +67,10 @@ public abstract class ExplState extends Valuation implements ExprState {
             return true;
         } else if (obj instanceof ExplState) {
             final ExplState that = (ExplState) obj;
-            return this.toMap().equals(that.toMap()) && this.isBottom() == that.isBottom();
+            if (this.isBottom() || that.isBottom()) {
+                return this.isBottom() == that.isBottom();
+            }
+            return ((NonBottom) this).val.equals(((NonBottom) that).val);
         } else {
             return false;
         }
@@ -78,10 +85,12 @@ public abstract class ExplState extends Valuation implements ExprState {
 
     private static final class NonBottom extends ExplState {
 
-        private final Valuation val;
+        // Copy-on-write, shares the arrays of the valuation the state was created from
+        private final MutableValuation val;
+        private volatile Map<Decl<?>, LitExpr<?>> map = null;
 
         private NonBottom(final Valuation val) {
-            this.val = ImmutableValuation.copyOf(checkNotNull(val));
+            this.val = MutableValuation.copyOf(checkNotNull(val));
         }
 
         @Override
@@ -101,14 +110,25 @@ public abstract class ExplState extends Valuation implements ExprState {
 
         @Override
         public Map<Decl<?>, LitExpr<?>> toMap() {
-            return val.toMap();
+            Map<Decl<?>, LitExpr<?>> result = map;
+            if (result == null) {
+                result = val.toMap();
+                map = result;
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return val.hashCode() + 1;
         }
 
         ////
 
         @Override
         public Valuation getVal() {
-            return val;
+            // The copy shares the arrays of the state until it is modified
+            return MutableValuation.copyOf(val);
         }
 
         @Override
@@ -116,7 +136,7 @@ public abstract class ExplState extends Valuation implements ExprState {
             if (that.isBottom()) {
                 return false;
             } else {
-                return this.getVal().isLeq(that.getVal());
+                return val.isLeq(((NonBottom) that).val);
             }
         }
 
@@ -187,7 +207,7 @@ public abstract class ExplState extends Valuation implements ExprState {
 
     private static class TopLazyHolder {
 
-        static final ExplState INSTANCE = new NonBottom(ImmutableValuation.empty());
+        static final ExplState INSTANCE = new NonBottom(new MutableValuation());
     }
 
 }
@@ -19,6 +19,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 import hu.bme.mit.theta.common.Utils;
@@ -27,7 +28,6 @@ import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.core.utils.PathUtils;
 import hu.bme.mit.theta.solver.Solver;
-import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 public class ExplStatePredicate implements Predicate<ExplState> {
 
@@ -48,10 +48,7 @@ public class ExplStatePredicate implements Predicate<ExplState> {
         if (simplified.equals(False())) {
             return false;
         }
-        try (WithPushPop wpp = new WithPushPop(solver)) {
-            solver.add(PathUtils.unfold(simplified, 0));
-            return solver.check().isSat();
-        }
+        return solver.check(List.of(PathUtils.unfold(simplified, 0))).isSat();
     }
 
     @Override
@@ -17,8 +17,14 @@ package hu.bme.mit.theta.analysis.expl;
 
 import hu.bme.mit.theta.analysis.stmtoptimizer.StmtOptimizer;
 import hu.bme.mit.theta.analysis.stmtoptimizer.StmtSimplifier;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 
+import java.util.Collection;
+import java.util.Optional;
+
 public class ExplStmtOptimizer implements StmtOptimizer<ExplState> {
 
     private ExplStmtOptimizer() {
@@ -37,4 +43,15 @@ public class ExplStmtOptimizer implements StmtOptimizer<ExplState> {
     public Stmt optimizeStmt(final ExplState state, final Stmt stmt) {
         return StmtSimplifier.simplifyStmt(state, stmt);
     }
+
+    @Override
+    public Optional<Valuation> getRelevantValuation(final ExplState state,
+                                                    final Collection<? extends VarDecl<?>> vars) {
+        // The simplifier only evaluates the variables of the statement
+        final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+        for (final VarDecl<?> var : vars) {
+            state.eval(var).ifPresent(value -> builder.put(var, value));
+        }
+        return Optional.of(builder.build());
+    }
 }
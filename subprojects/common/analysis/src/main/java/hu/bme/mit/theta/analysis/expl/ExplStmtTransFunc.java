@@ -19,6 +19,8 @@ import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expl.StmtApplier.ApplyResult;
 import hu.bme.mit.theta.analysis.expr.ExprStates;
 import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.MutableValuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 import hu.bme.mit.theta.core.type.Expr;
@@ -30,7 +32,10 @@ import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
 import hu.bme.mit.theta.solver.Solver;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -53,6 +58,23 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
         return new ExplStmtTransFunc(solver, maxSuccToEnumerate);
     }
 
+    /**
+     * Gets the part of a precision that the successors of a state with a given action depend on,
+     * i.e., the tracked variables of the action and of the state. Tracked variables of the
+     * action determine what is computed, and tracked variables of the state determine which of
+     * its values are kept in the successor (e.g., when a precision of a target location is
+     * refined, a variable of the state that was dropped before can become tracked).
+     */
+    public static ExplPrec getRelevantPrec(final ExplState state, final StmtAction action,
+                                           final ExplPrec prec) {
+        final Set<VarDecl<?>> actionVars = StmtUtils.getVars(action.getStmts());
+        final Collection<? extends Decl<?>> stateDecls =
+                state.isBottom() ? Collections.emptySet() : state.getDecls();
+        return ExplPrec.of(prec.getVars().stream()
+                .filter(var -> actionVars.contains(var) || stateDecls.contains(var))
+                .collect(Collectors.toList()));
+    }
+
     @Override
     public Collection<ExplState> getSuccStates(final ExplState state, final StmtAction action,
                                                final ExplPrec prec) {
@@ -61,7 +83,9 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
 
     Collection<ExplState> getSuccStates(final ExplState state, final List<Stmt> stmts,
                                         final ExplPrec prec) {
-        final MutableValuation val = MutableValuation.copyOf(state);
+        // Copy-on-write: the arrays of the state are only copied once a statement modifies them
+        final MutableValuation val = state.isBottom() ? new MutableValuation()
+                : MutableValuation.copyOf(state.getVal());
         boolean triedSolver = false;
 
         for (int i = 0; i < stmts.size(); i++) {
@@ -0,0 +1,186 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import com.google.common.collect.ImmutableList;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import hu.bme.mit.theta.solver.Interpolant;
+import hu.bme.mit.theta.solver.ItpMarker;
+import hu.bme.mit.theta.solver.ItpPattern;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An ExprTraceChecker that generates a sequence interpolant like {@link ExprTraceSeqItpChecker},
+ * but keeps the prefix of the last checked trace asserted in the solver. Each state of the prefix
+ * (with the action leading to it) is asserted on its own push level, so when the next trace is
+ * checked, the solver is only popped back to the longest common prefix of the two traces, and only
+ * the rest of the new trace is unfolded and asserted. This pays off when consecutive traces share
+ * long prefixes, e.g., when checking all counterexamples of an ARG. The solver must not be used
+ * by anything else, as its assertion stack is kept between checks.
+ */
+public final class ExprTraceIncrementalSeqItpChecker implements ExprTraceChecker<ItpRefutation> {
+
+    private final ItpSolver solver;
+    private final Expr<BoolType> init;
+    private final Expr<BoolType> target;
+
+    // The levels currently asserted in the solver, one push level each
+    private final List<Level> levels;
+
+    private ExprTraceIncrementalSeqItpChecker(final Expr<BoolType> init,
+                                              final Expr<BoolType> target, final ItpSolver solver) {
+        this.solver = checkNotNull(solver);
+        this.init = checkNotNull(init);
+        this.target = checkNotNull(target);
+        this.levels = new ArrayList<>();
+    }
+
+    public static ExprTraceIncrementalSeqItpChecker create(final Expr<BoolType> init,
+                                                           final Expr<BoolType> target,
+                                                           final ItpSolver solver) {
+        return new ExprTraceIncrementalSeqItpChecker(init, target, solver);
+    }
+
+    @Override
+    public ExprTraceStatus<ItpRefutation> check(
+            final Trace<? extends ExprState, ? extends ExprAction> trace) {
+        checkNotNull(trace);
+        final int stateCount = trace.getStates().size();
+
+        try {
+            final int commonLength = commonPrefixLength(trace);
+            popLevels(levels.size() - commonLength);
+            for (int i = commonLength; i < stateCount; ++i) {
+                pushLevel(trace, i);
+            }
+
+            try (WithPushPop wpp = new WithPushPop(solver)) {
+                final List<ItpMarker> markers = new ArrayList<>(stateCount + 1);
+                for (final Level level : levels) {
+                    markers.add(level.marker);
+                }
+                final ItpMarker targetMarker = solver.createMarker();
+                markers.add(targetMarker);
+                final ItpPattern pattern = solver.createSeqPattern(markers);
+
+                final VarIndexing lastIndexing = levels.get(stateCount - 1).indexing;
+                solver.add(targetMarker, PathUtils.unfold(target, lastIndexing));
+                final boolean concretizable = solver.check().isSat();
+
+                if (concretizable) {
+                    final Valuation model = solver.getModel();
+                    final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
+                    for (final Level level : levels) {
+                        builder.add(PathUtils.extractValuation(model, level.indexing));
+                    }
+                    return ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
+                } else {
+                    final List<Expr<BoolType>> interpolants = new ArrayList<>();
+                    final Interpolant interpolant = solver.getInterpolant(pattern);
+                    for (final Level level : levels) {
+                        interpolants.add(
+                                PathUtils.foldin(interpolant.eval(level.marker), level.indexing));
+                    }
+                    return ExprTraceStatus.infeasible(ItpRefutation.sequence(interpolants));
+                }
+            }
+        } catch (final RuntimeException | Error e) {
+            // The levels might not match the solver anymore, so nothing is kept
+            try {
+                popLevels(levels.size());
+            } catch (final RuntimeException popException) {
+                e.addSuppressed(popException);
+            }
+            throw e;
+        }
+    }
+
+    private int commonPrefixLength(final Trace<? extends ExprState, ? extends ExprAction> trace) {
+        final int maxLength = Math.min(levels.size(), trace.getStates().size());
+        for (int i = 0; i < maxLength; ++i) {
+            final Level level = levels.get(i);
+            final ExprAction action = i == 0 ? null : trace.getAction(i - 1);
+            if (!level.state.equals(trace.getState(i)) || !Objects.equals(level.action, action)) {
+                return i;
+            }
+        }
+        return maxLength;
+    }
+
+    private void pushLevel(final Trace<? extends ExprState, ? extends ExprAction> trace,
+                           final int i) {
+        final ExprState state = trace.getState(i);
+        final ExprAction action = i == 0 ? null : trace.getAction(i - 1);
+        final VarIndexing indexing = i == 0 ? VarIndexingFactory.indexing(0)
+                : levels.get(i - 1).indexing.add(action.nextIndexing());
+
+        solver.push();
+        final ItpMarker marker = solver.createMarker();
+        levels.add(new Level(state, action, marker, indexing));
+
+        if (i == 0) {
+            solver.add(marker, PathUtils.unfold(init, indexing));
+            solver.add(marker, PathUtils.unfold(state.toExpr(), indexing));
+            assert solver.check().isSat() : "Initial state of the trace is not feasible";
+        } else {
+            solver.add(marker, PathUtils.unfold(state.toExpr(), indexing));
+            solver.add(marker, PathUtils.unfold(action.toExpr(), levels.get(i - 1).indexing));
+        }
+    }
+
+    private void popLevels(final int n) {
+        if (n > 0) {
+            levels.subList(levels.size() - n, levels.size()).clear();
+            solver.pop(n);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+    private static final class Level {
+
+        private final ExprState state;
+        private final ExprAction action;
+        private final ItpMarker marker;
+        private final VarIndexing indexing;
+
+        private Level(final ExprState state, final ExprAction action, final ItpMarker marker,
+                      final VarIndexing indexing) {
+            this.state = state;
+            this.action = action;
+            this.marker = marker;
+            this.indexing = indexing;
+        }
+    }
+}
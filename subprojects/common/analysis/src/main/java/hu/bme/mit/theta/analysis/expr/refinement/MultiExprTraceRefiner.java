@@ -25,36 +25,90 @@ import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
 import hu.bme.mit.theta.analysis.algorithm.runtimecheck.ArgCexCheckHandler;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation>
         implements Refiner<S, A, P> {
 
-    private final ExprTraceChecker<R> exprTraceChecker;
+    private static final AtomicInteger threadCounter = new AtomicInteger(0);
+
+    private final Supplier<? extends ExprTraceChecker<R>> exprTraceCheckerFactory;
+    private final int threads;
+    // Created on demand, so that only as many solvers are created as there are traces to check
+    private final List<ExprTraceChecker<R>> exprTraceCheckers;
     private final PrecRefiner<S, A, P, R> precRefiner;
     private final PruneStrategy pruneStrategy;
     private final Logger logger;
+    private final ExecutorService executor;
 
-    private MultiExprTraceRefiner(final ExprTraceChecker<R> exprTraceChecker,
-                                  final PrecRefiner<S, A, P, R> precRefiner,
-                                  final PruneStrategy pruneStrategy, final Logger logger) {
-        this.exprTraceChecker = checkNotNull(exprTraceChecker);
+    private MultiExprTraceRefiner(
+            final Supplier<? extends ExprTraceChecker<R>> exprTraceCheckerFactory,
+            final int threads, final PrecRefiner<S, A, P, R> precRefiner,
+            final PruneStrategy pruneStrategy, final Logger logger) {
+        this.exprTraceCheckerFactory = checkNotNull(exprTraceCheckerFactory);
+        this.threads = threads;
+        this.exprTraceCheckers = new ArrayList<>(threads);
         this.precRefiner = checkNotNull(precRefiner);
         this.pruneStrategy = checkNotNull(pruneStrategy);
         this.logger = checkNotNull(logger);
+        if (threads > 1) {
+            // Idle workers time out, so the threads of a refiner that is no longer used go away
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            this.executor = executor;
+        } else {
+            this.executor = null;
+        }
     }
 
     public static <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> MultiExprTraceRefiner<S, A, P, R> create(
             final ExprTraceChecker<R> exprTraceChecker, final PrecRefiner<S, A, P, R> precRefiner,
             final PruneStrategy pruneStrategy, final Logger logger) {
-        return new MultiExprTraceRefiner<>(exprTraceChecker, precRefiner, pruneStrategy, logger);
+        checkNotNull(exprTraceChecker);
+        return new MultiExprTraceRefiner<>(() -> exprTraceChecker, 1, precRefiner, pruneStrategy,
+                logger);
+    }
+
+    /**
+     * Creates a refiner that checks the counterexamples on multiple threads. Each thread has its
+     * own trace checker (and thus its own solver). As with a single checker, the first feasible
+     * counterexample (in the order of the ARG) is returned, or all counterexamples are refined if
+     * none of them is feasible. The counterexamples are distributed among the checkers in a fixed
+     * way, so the refutations (and thus the refined precision) are the same in every run with the
+     * same number of threads, but they may differ from the ones of a single checker.
+     *
+     * @param exprTraceCheckerFactory Creates a trace checker with a separate solver for each
+     *                                thread (called when the thread is first needed)
+     * @param threads                 Number of threads checking counterexamples
+     */
+    public static <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> MultiExprTraceRefiner<S, A, P, R> create(
+            final Supplier<? extends ExprTraceChecker<R>> exprTraceCheckerFactory,
+            final int threads, final PrecRefiner<S, A, P, R> precRefiner,
+            final PruneStrategy pruneStrategy, final Logger logger) {
+        checkArgument(threads > 0, "Number of threads must be positive");
+        return new MultiExprTraceRefiner<>(exprTraceCheckerFactory, threads, precRefiner,
+                pruneStrategy, logger);
     }
 
     @Override
@@ -72,13 +126,11 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
         assert traces.size() > 0 : "No counterexample in ARG";
 
         logger.write(Level.SUBSTEP, "|  |  Checking traces...");
-        final List<ExprTraceStatus<R>> cexStatuses = new ArrayList<>(traces.size());
-        for (final Trace<S, A> trace : traces) {
-            final ExprTraceStatus<R> status = exprTraceChecker.check(trace);
-            cexStatuses.add(status);
-            if (status.isFeasible()) {
-                break;
-            }
+        final List<ExprTraceStatus<R>> cexStatuses;
+        if (threads > 1 && traces.size() > 1) {
+            cexStatuses = checkTracesInParallel(traces);
+        } else {
+            cexStatuses = checkTraces(traces);
         }
 
         if (cexStatuses.stream().anyMatch(ExprTraceStatus::isFeasible)) {
@@ -115,8 +167,8 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
             P refinedPrec = prec;
             for (int i = 0; i < refutations.size(); ++i) {
                 if (!skip.get(i)) {
-                    refinedPrec = precRefiner.refine(refinedPrec, traces.get(i),
-                            refutations.get(i));
+                    refinedPrec = RefinementMetrics.refine(precRefiner, refinedPrec,
+                            traces.get(i), refutations.get(i));
                 }
             }
 
@@ -146,4 +198,105 @@ public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprActi
 
     }
 
-}
\ No newline at end of file
+    private List<ExprTraceStatus<R>> checkTraces(final List<Trace<S, A>> traces) {
+        final ExprTraceChecker<R> exprTraceChecker = getExprTraceChecker(0);
+        final List<ExprTraceStatus<R>> cexStatuses = new ArrayList<>(traces.size());
+        final AnalysisBudget budget = AnalysisBudget.current();
+        for (final Trace<S, A> trace : traces) {
+            budget.checkpoint();
+            final ExprTraceStatus<R> status = RefinementMetrics.check(exprTraceChecker, trace);
+            cexStatuses.add(status);
+            if (status.isFeasible()) {
+                break;
+            }
+        }
+        return cexStatuses;
+    }
+
+    /**
+     * Checks the traces on multiple threads. Checker k checks the traces k, k + threads,
+     * k + 2 * threads, ... in this order, as a single task, so a slow trace only delays the other
+     * traces of its own checker. The index of the first feasible trace found so far is shared,
+     * and every checker stops before a trace with a greater index. The result is the same as the
+     * result of {@link #checkTraces(List)}: the statuses of the traces up to (and including) the
+     * first feasible one, and each (possibly incremental) checker gets the same traces up to that
+     * one in every run. Depending on the timing of the threads, a checker may also check some of
+     * its traces after the first feasible one, and the trace that a checker is checking when the
+     * feasible one is found is waited for, as the checker cannot be shared.
+     */
+    private List<ExprTraceStatus<R>> checkTracesInParallel(final List<Trace<S, A>> traces) {
+        final int n = traces.size();
+        final int workers = Math.min(threads, n);
+        final AtomicReferenceArray<ExprTraceStatus<R>> cexStatuses = new AtomicReferenceArray<>(n);
+        final AtomicInteger firstFeasible = new AtomicInteger(n);
+
+        // The workers run with the budget and the metric registry of the calling thread
+        final AnalysisBudget budget = AnalysisBudget.current();
+        final MetricRegistry metrics = MetricRegistry.current();
+        final List<Future<?>> futures = new ArrayList<>(workers);
+        try {
+            for (int k = 0; k < workers; k++) {
+                final ExprTraceChecker<R> exprTraceChecker = getExprTraceChecker(k);
+                final int first = k;
+                futures.add(executor.submit(() -> budget.call(() -> metrics.call(() -> {
+                    for (int i = first; i < n && i <= firstFeasible.get(); i += workers) {
+                        budget.checkpoint();
+                        final ExprTraceStatus<R> status =
+                                RefinementMetrics.check(exprTraceChecker, traces.get(i));
+                        cexStatuses.set(i, status);
+                        if (status.isFeasible()) {
+                            firstFeasible.accumulateAndGet(i, Math::min);
+                            break;
+                        }
+                    }
+                    return null;
+                }))));
+            }
+            RuntimeException exception = null;
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    exception = new RuntimeException(e);
+                } catch (final ExecutionException e) {
+                    if (exception == null) {
+                        exception = e.getCause() instanceof RuntimeException
+                                ? (RuntimeException) e.getCause()
+                                : new RuntimeException(e.getCause());
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        } finally {
+            // Only has an effect if the calling thread was interrupted
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        final int last = Math.min(firstFeasible.get(), n - 1);
+        final List<ExprTraceStatus<R>> result = new ArrayList<>(last + 1);
+        for (int i = 0; i <= last; i++) {
+            result.add(checkNotNull(cexStatuses.get(i)));
+        }
+        return result;
+    }
+
+    private ExprTraceChecker<R> getExprTraceChecker(final int index) {
+        while (exprTraceCheckers.size() <= index) {
+            exprTraceCheckers.add(checkNotNull(exprTraceCheckerFactory.get()));
+        }
+        return exprTraceCheckers.get(index);
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        return runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "refiner-worker-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
+
+/**
+ * Metrics of the trace checkers and precision refiners, recorded by the refiners that call them
+ * into the {@link MetricRegistry#current() current} registry.
+ */
+final class RefinementMetrics {
+
+    private RefinementMetrics() {
+    }
+
+    static <R extends Refutation> ExprTraceStatus<R> check(
+            final ExprTraceChecker<R> checker,
+            final Trace<? extends ExprState, ? extends ExprAction> trace) {
+        final MetricRegistry metrics = MetricRegistry.current();
+        final ExprTraceStatus<R> status = metrics.timer("traceChecker.check")
+                .time(() -> checker.check(trace));
+        if (status.isFeasible()) {
+            metrics.counter("traceChecker.feasible").increment();
+        } else {
+            metrics.counter("traceChecker.infeasible").increment();
+        }
+        return status;
+    }
+
+    static <S extends State, A extends Action, P extends Prec, R extends Refutation> P refine(
+            final PrecRefiner<S, A, P, R> precRefiner, final P prec, final Trace<S, A> trace,
+            final R refutation) {
+        return MetricRegistry.current().timer("precRefiner.refine").time(() -> precRefiner.refine(prec, trace, refutation));
+    }
+
+}
@@ -25,6 +25,7 @@ import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
 import hu.bme.mit.theta.analysis.algorithm.runtimecheck.ArgCexCheckHandler;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.Logger.Level;
@@ -75,7 +76,9 @@ public final class SingleExprTraceRefiner<S extends ExprState, A extends ExprAct
         logger.write(Level.DETAIL, "|  |  Trace: %s%n", traceToConcretize);
 
         logger.write(Level.SUBSTEP, "|  |  Checking trace...");
-        final ExprTraceStatus<R> cexStatus = exprTraceChecker.check(traceToConcretize);
+        AnalysisBudget.current().checkpoint();
+        final ExprTraceStatus<R> cexStatus = RefinementMetrics.check(exprTraceChecker,
+                traceToConcretize);
         logger.write(Level.SUBSTEP, "done, result: %s%n", cexStatus);
 
         assert cexStatus.isFeasible() || cexStatus.isInfeasible() : "Unknown CEX status";
@@ -85,7 +88,8 @@ public final class SingleExprTraceRefiner<S extends ExprState, A extends ExprAct
         } else {
             final R refutation = cexStatus.asInfeasible().getRefutation();
             logger.write(Level.DETAIL, "|  |  |  Refutation: %s%n", refutation);
-            final P refinedPrec = precRefiner.refine(prec, traceToConcretize, refutation);
+            final P refinedPrec = RefinementMetrics.refine(precRefiner, prec,
+                    traceToConcretize, refutation);
             final int pruneIndex = refutation.getPruneIndex();
             assert 0 <= pruneIndex : "Pruning index must be non-negative";
             assert pruneIndex <= cexToConcretize.length() : "Pruning index larger than cex length";
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.InitFunc;
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.common.TriFunction;
+import hu.bme.mit.theta.common.Tuple3;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An analysis that caches the successors computed by the transfer function of an other analysis,
+ * so that they can be reused when the same part of the state space is expanded again (e.g., after
+ * the ARG is pruned by a refinement in CEGAR). Successors are keyed on the source state, the
+ * action and the projection of the precision to the part that is relevant for the state and the
+ * action: a cached result is reused as long as this projection does not change. The default
+ * projection is the whole precision, which is always sound; a coarser projection must determine
+ * the result of the transfer function together with the state and the action. The cache is
+ * bounded, least recently used entries are evicted first.
+ */
+public final class CachingAnalysis<S extends State, A extends Action, P extends Prec>
+        implements Analysis<S, A, P> {
+
+    private final Analysis<S, ? super A, ? super P> analysis;
+    private final Cache<Tuple3<S, A, ?>, Collection<? extends S>> cache;
+    private final InitFunc<S, P> initFunc;
+    private final TransFunc<S, A, P> transFunc;
+
+    private CachingAnalysis(final Analysis<S, ? super A, ? super P> analysis,
+                            final TriFunction<? super S, ? super A, ? super P, ?> precProjection,
+                            final long maxSize) {
+        checkArgument(maxSize > 0, "Cache size must be positive");
+        this.analysis = checkNotNull(analysis);
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.initFunc = PrecMappingInitFunc.create(analysis.getInitFunc(), Function.identity());
+        this.transFunc = CachingTransFunc.create(analysis.getTransFunc(), precProjection, cache);
+    }
+
+    public static <S extends State, A extends Action, P extends Prec> CachingAnalysis<S, A, P> create(
+            final Analysis<S, ? super A, ? super P> analysis, final long maxSize) {
+        return new CachingAnalysis<>(analysis, (s, a, p) -> p, maxSize);
+    }
+
+    public static <S extends State, A extends Action, P extends Prec> CachingAnalysis<S, A, P> create(
+            final Analysis<S, ? super A, ? super P> analysis,
+            final TriFunction<? super S, ? super A, ? super P, ?> precProjection, final long maxSize) {
+        return new CachingAnalysis<>(analysis, precProjection, maxSize);
+    }
+
+    @Override
+    public PartialOrd<S> getPartialOrd() {
+        return analysis.getPartialOrd();
+    }
+
+    @Override
+    public InitFunc<S, P> getInitFunc() {
+        return initFunc;
+    }
+
+    @Override
+    public TransFunc<S, A, P> getTransFunc() {
+        return transFunc;
+    }
+
+    /**
+     * @return hit and miss counts of the successor cache
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.common.TriFunction;
+import hu.bme.mit.theta.common.Tuple3;
+
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+final class CachingTransFunc<S extends State, A extends Action, P extends Prec>
+        implements TransFunc<S, A, P> {
+
+    private final TransFunc<S, ? super A, ? super P> transFunc;
+    private final TriFunction<? super S, ? super A, ? super P, ?> precProjection;
+    private final Cache<Tuple3<S, A, ?>, Collection<? extends S>> cache;
+
+    private CachingTransFunc(final TransFunc<S, ? super A, ? super P> transFunc,
+                             final TriFunction<? super S, ? super A, ? super P, ?> precProjection,
+                             final Cache<Tuple3<S, A, ?>, Collection<? extends S>> cache) {
+        this.transFunc = checkNotNull(transFunc);
+        this.precProjection = checkNotNull(precProjection);
+        this.cache = checkNotNull(cache);
+    }
+
+    public static <S extends State, A extends Action, P extends Prec> CachingTransFunc<S, A, P> create(
+            final TransFunc<S, ? super A, ? super P> transFunc,
+            final TriFunction<? super S, ? super A, ? super P, ?> precProjection,
+            final Cache<Tuple3<S, A, ?>, Collection<? extends S>> cache) {
+        return new CachingTransFunc<>(transFunc, precProjection, cache);
+    }
+
+    @Override
+    public Collection<? extends S> getSuccStates(final S state, final A action, final P prec) {
+        final Tuple3<S, A, ?> key = Tuple3.of(state, action, precProjection.apply(state, action, prec));
+        Collection<? extends S> succStates = cache.getIfPresent(key);
+        if (succStates == null) {
+            // Not computed under a lock: a successor might be computed twice concurrently, but
+            // the results are the same
+            succStates = ImmutableList.copyOf(transFunc.getSuccStates(state, action, prec));
+            cache.put(key, succStates);
+        }
+        return succStates;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A bounded cache for the results of predicate abstraction, used by
+ * {@link PredAbstractors#cachingAbstractor(PredAbstractors.PredAbstractor, PredAbstractorCache)}.
+ * Least recently used entries are evicted first when the number of entries exceeds the maximum
+ * size, or, if a maximum weight is given, when the total weight of the entries exceeds it (the
+ * weight of an entry is the number of predicates in its states, as an estimate of its heap usage).
+ * Optionally, results are only softly referenced so that the garbage collector can reclaim
+ * them when the heap is running out. The cache is independent of the abstractor and the solver, so
+ * the same instance can be kept for the whole run of an algorithm (or even across runs), but it
+ * should only be shared between abstractors of the same kind. The cache is thread-safe.
+ */
+public final class PredAbstractorCache {
+
+    private final Cache<Object, Collection<PredState>> cache;
+
+    private PredAbstractorCache(final Builder builder) {
+        final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+        if (builder.softValues) {
+            cacheBuilder.softValues();
+        }
+        if (builder.maximumWeight > 0) {
+            this.cache = cacheBuilder.maximumWeight(builder.maximumWeight)
+                    .weigher((Object key, Collection<PredState> states) -> weigh(states)).build();
+        } else {
+            this.cache = cacheBuilder.maximumSize(builder.maximumSize).build();
+        }
+    }
+
+    private static int weigh(final Collection<PredState> states) {
+        int weight = 1;
+        for (final PredState state : states) {
+            weight += state.getPreds().size();
+        }
+        return weight;
+    }
+
+    public static PredAbstractorCache create(final long maximumSize) {
+        return builder().maximumSize(maximumSize).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    Collection<PredState> get(final Object key) {
+        return cache.getIfPresent(key);
+    }
+
+    void put(final Object key, final Collection<PredState> states) {
+        cache.put(key, states);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public static final class Builder {
+
+        private long maximumSize = 10_000;
+        private long maximumWeight = 0;
+        private boolean softValues = false;
+
+        private Builder() {
+        }
+
+        /**
+         * Maximal number of cached abstraction results
+         */
+        public Builder maximumSize(final long maximumSize) {
+            checkArgument(maximumSize > 0, "Cache size must be positive");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Maximal total number of predicates in the cached abstraction results (0: no limit on
+         * the weight). If it is given, the number of results is not limited.
+         */
+        public Builder maximumWeight(final long maximumWeight) {
+            checkArgument(maximumWeight >= 0, "Cache weight must be non-negative");
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * Let the garbage collector reclaim cached results under memory pressure
+         */
+        public Builder softValues(final boolean softValues) {
+            this.softValues = softValues;
+            return this;
+        }
+
+        public PredAbstractorCache build() {
+            return new PredAbstractorCache(this);
+        }
+    }
+}
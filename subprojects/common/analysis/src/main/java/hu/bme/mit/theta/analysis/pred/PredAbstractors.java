@@ -15,14 +15,19 @@
  */
 package hu.bme.mit.theta.analysis.pred;
 
+import com.google.common.collect.ImmutableList;
+import hu.bme.mit.theta.common.Tuple3;
 import hu.bme.mit.theta.common.container.Containers;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.core.utils.PathUtils;
 import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
 import hu.bme.mit.theta.solver.Solver;
@@ -33,8 +38,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -101,6 +108,21 @@ public class PredAbstractors {
         return new CartesianAbstractor(solver);
     }
 
+    /**
+     * Get a strategy that looks up the results of an other strategy in a cache before computing
+     * them. Results are keyed on the unfolded expression, the precision and the indexing of the
+     * variables of the precision, so the same query is answered from the cache even if it comes
+     * from a different ARG node or a later iteration of the algorithm.
+     *
+     * @param abstractor the strategy computing the results that are not in the cache
+     * @param cache      the cache of the results, can be shared between strategies of the same kind
+     * @return the caching strategy
+     */
+    public static PredAbstractor cachingAbstractor(final PredAbstractor abstractor,
+                                                   final PredAbstractorCache cache) {
+        return new CachingAbstractor(abstractor, cache);
+    }
+
     private static final class BooleanAbstractor implements PredAbstractor {
 
         private final Solver solver;
@@ -199,16 +221,10 @@ public class PredAbstractors {
                 }
 
                 for (final Expr<BoolType> pred : prec.getPreds()) {
-                    final boolean ponEntailed;
-                    final boolean negEntailed;
-                    try (WithPushPop wp1 = new WithPushPop(solver)) {
-                        solver.add(PathUtils.unfold(prec.negate(pred), precIndexing));
-                        ponEntailed = solver.check().isUnsat();
-                    }
-                    try (WithPushPop wp2 = new WithPushPop(solver)) {
-                        solver.add(PathUtils.unfold(pred, precIndexing));
-                        negEntailed = solver.check().isUnsat();
-                    }
+                    final boolean ponEntailed = solver.check(
+                            List.of(PathUtils.unfold(prec.negate(pred), precIndexing))).isUnsat();
+                    final boolean negEntailed = solver.check(
+                            List.of(PathUtils.unfold(pred, precIndexing))).isUnsat();
 
                     assert !(ponEntailed
                             && negEntailed) : "Ponated and negated predicates are both entailed.";
@@ -226,4 +242,42 @@ public class PredAbstractors {
         }
 
     }
+
+    private static final class CachingAbstractor implements PredAbstractor {
+
+        private final PredAbstractor abstractor;
+        private final PredAbstractorCache cache;
+
+        public CachingAbstractor(final PredAbstractor abstractor, final PredAbstractorCache cache) {
+            this.abstractor = checkNotNull(abstractor);
+            this.cache = checkNotNull(cache);
+        }
+
+        @Override
+        public Collection<PredState> createStatesForExpr(final Expr<BoolType> expr,
+                                                         final VarIndexing exprIndexing,
+                                                         final PredPrec prec, final VarIndexing precIndexing) {
+            checkNotNull(expr);
+            checkNotNull(exprIndexing);
+            checkNotNull(prec);
+            checkNotNull(precIndexing);
+
+            // Indexings are not comparable, so they are replaced by their effect on the inputs
+            final Map<VarDecl<?>, Integer> precVarIndexes = ExprUtils.getVars(prec.getPreds())
+                    .stream().collect(Collectors.toMap(Function.identity(), precIndexing::get));
+            final Tuple3<Expr<BoolType>, PredPrec, Map<VarDecl<?>, Integer>> key = Tuple3.of(
+                    PathUtils.unfold(expr, exprIndexing), prec, precVarIndexes);
+
+            final Collection<PredState> cachedStates = cache.get(key);
+            if (cachedStates != null) {
+                MetricRegistry.current().counter("predAbstractor.cache.hits").increment();
+                return cachedStates;
+            }
+            MetricRegistry.current().counter("predAbstractor.cache.misses").increment();
+            final Collection<PredState> states = ImmutableList.copyOf(
+                    abstractor.createStatesForExpr(expr, exprIndexing, prec, precIndexing));
+            cache.put(key, states);
+            return states;
+        }
+    }
 }
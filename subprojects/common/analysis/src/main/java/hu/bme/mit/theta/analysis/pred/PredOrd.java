@@ -21,7 +21,8 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 import hu.bme.mit.theta.analysis.PartialOrd;
 import hu.bme.mit.theta.core.utils.PathUtils;
 import hu.bme.mit.theta.solver.Solver;
-import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+import java.util.List;
 
 public final class PredOrd implements PartialOrd<PredState> {
 
@@ -37,11 +38,8 @@ public final class PredOrd implements PartialOrd<PredState> {
 
     @Override
     public boolean isLeq(final PredState state1, final PredState state2) {
-        try (WithPushPop wpp = new WithPushPop(solver)) {
-            solver.add(PathUtils.unfold(state1.toExpr(), 0));
-            solver.add(PathUtils.unfold(Not(state2.toExpr()), 0));
-            return solver.check().isUnsat();
-        }
+        return solver.check(List.of(PathUtils.unfold(state1.toExpr(), 0),
+                PathUtils.unfold(Not(state2.toExpr()), 0))).isUnsat();
     }
 
 }
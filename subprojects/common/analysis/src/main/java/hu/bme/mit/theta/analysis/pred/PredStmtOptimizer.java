@@ -17,9 +17,14 @@ package hu.bme.mit.theta.analysis.pred;
 
 import hu.bme.mit.theta.analysis.stmtoptimizer.StmtOptimizer;
 import hu.bme.mit.theta.analysis.stmtoptimizer.StmtSimplifier;
+import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 
+import java.util.Collection;
+import java.util.Optional;
+
 public class PredStmtOptimizer implements StmtOptimizer<PredState> {
 
     private PredStmtOptimizer() {
@@ -38,4 +43,10 @@ public class PredStmtOptimizer implements StmtOptimizer<PredState> {
     public Stmt optimizeStmt(final PredState state, final Stmt stmt) {
         return StmtSimplifier.simplifyStmt(ImmutableValuation.empty(), stmt);
     }
+
+    @Override
+    public Optional<Valuation> getRelevantValuation(final PredState state,
+                                                    final Collection<? extends VarDecl<?>> vars) {
+        return Optional.of(ImmutableValuation.empty());
+    }
 }
@@ -19,8 +19,13 @@ import hu.bme.mit.theta.analysis.stmtoptimizer.StmtOptimizer;
 import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.analysis.pred.PredState;
 import hu.bme.mit.theta.analysis.prod2.Prod2State;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 
+import java.util.Collection;
+import java.util.Optional;
+
 public class Prod2ExplPredStmtOptimizer implements StmtOptimizer<Prod2State<ExplState, PredState>> {
 
     private final StmtOptimizer<ExplState> stmtOptimizer;
@@ -37,4 +42,10 @@ public class Prod2ExplPredStmtOptimizer implements StmtOptimizer<Prod2State<Expl
     public Stmt optimizeStmt(Prod2State<ExplState, PredState> state, Stmt stmt) {
         return stmtOptimizer.optimizeStmt(state.getState1(), stmt);
     }
+
+    @Override
+    public Optional<Valuation> getRelevantValuation(Prod2State<ExplState, PredState> state,
+                                                    Collection<? extends VarDecl<?>> vars) {
+        return stmtOptimizer.getRelevantValuation(state.getState1(), vars);
+    }
 }
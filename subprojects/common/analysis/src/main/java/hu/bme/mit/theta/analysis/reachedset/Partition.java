@@ -56,6 +56,22 @@ public final class Partition<T, K> {
         elems.forEach(this::add);
     }
 
+    public void remove(final T elem) {
+        checkNotNull(elem);
+        final K key = projection.apply(elem);
+        final List<T> partition = classes.get(key);
+        if (partition != null) {
+            partition.remove(elem);
+            if (partition.isEmpty()) {
+                classes.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        classes.clear();
+    }
+
     public List<T> get(final T elem) {
         checkNotNull(elem);
         final K key = projection.apply(elem);
@@ -16,8 +16,14 @@
 package hu.bme.mit.theta.analysis.stmtoptimizer;
 
 import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 
+import java.util.Collection;
+import java.util.Optional;
+
 public class DefaultStmtOptimizer<S extends State> implements StmtOptimizer<S> {
 
     public static <S extends State> DefaultStmtOptimizer<S> create() {
@@ -29,4 +35,10 @@ public class DefaultStmtOptimizer<S extends State> implements StmtOptimizer<S> {
         return stmt;
     }
 
+    @Override
+    public Optional<Valuation> getRelevantValuation(S state,
+                                                    Collection<? extends VarDecl<?>> vars) {
+        return Optional.of(ImmutableValuation.empty());
+    }
+
 }
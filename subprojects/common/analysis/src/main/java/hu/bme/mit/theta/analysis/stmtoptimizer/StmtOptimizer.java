@@ -16,10 +16,30 @@
 package hu.bme.mit.theta.analysis.stmtoptimizer;
 
 import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 
+import java.util.Collection;
+import java.util.Optional;
+
 public interface StmtOptimizer<S extends State> {
 
     Stmt optimizeStmt(final S state, final Stmt stmt);
 
+    /**
+     * Returns the part of a state that the optimization of a statement over the given variables
+     * depends on. A statement is optimized to the same statement in states with equal relevant
+     * valuations, so the results can be reused. The default implementation returns an empty
+     * optional, meaning that the optimization may depend on the whole state.
+     *
+     * @param state the state
+     * @param vars  the variables of the statement
+     * @return the relevant valuation, if the optimization only depends on a valuation
+     */
+    default Optional<Valuation> getRelevantValuation(final S state,
+                                                     final Collection<? extends VarDecl<?>> vars) {
+        return Optional.empty();
+    }
+
 }
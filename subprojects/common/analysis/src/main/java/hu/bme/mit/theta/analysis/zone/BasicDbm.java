@@ -29,7 +29,7 @@ import java.util.function.IntBinaryOperator;
 
 import hu.bme.mit.theta.common.IntMatrix;
 
-final class BasicDbm {
+final class BasicDbm implements DbmMatrix {
 
     private final int nClocks;
     private final IntMatrix matrix;
@@ -64,13 +64,15 @@ final class BasicDbm {
 
     ////
 
-    int get(final int x, final int y) {
+    @Override
+    public int get(final int x, final int y) {
         checkArgument(isClock(x));
         checkArgument(isClock(y));
         return matrix.get(x, y);
     }
 
-    void set(final int x, final int y, final int b) {
+    @Override
+    public void set(final int x, final int y, final int b) {
         checkArgument(isClock(x));
         checkArgument(isClock(y));
         matrix.set(x, y, b);
@@ -83,22 +85,31 @@ final class BasicDbm {
 
     ////
 
+    @Override
     public int size() {
         return nClocks + 1;
     }
 
+    @Override
+    public DbmMatrix copy() {
+        return new BasicDbm(this);
+    }
+
     ////
 
+    @Override
     public boolean isConsistent() {
         return matrix.get(0, 0) > 0;
     }
 
+    @Override
     public boolean isSatisfied(final int x, final int y, final int b) {
         checkArgument(isClock(x));
         checkArgument(isClock(y));
         return add(matrix.get(y, x), b) >= Leq(0);
     }
 
+    @Override
     public boolean constrains(final int x) {
         checkArgument(isClock(x));
         for (int i = 0; i <= nClocks; i++) {
@@ -113,8 +124,22 @@ final class BasicDbm {
         return false;
     }
 
+    @Override
+    public boolean isLeq(final DbmMatrix that) {
+        checkArgument(that.size() == size(), "DBMs of different size");
+        for (int i = 0; i <= nClocks; i++) {
+            for (int j = 0; j <= nClocks; j++) {
+                if (matrix.get(i, j) > that.get(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     ////
 
+    @Override
     public void up() {
         if (isConsistent()) {
             for (int i = 1; i <= nClocks; i++) {
@@ -124,6 +149,7 @@ final class BasicDbm {
         }
     }
 
+    @Override
     public void down() {
         if (isConsistent()) {
             for (int i = 1; i <= nClocks; i++) {
@@ -133,6 +159,7 @@ final class BasicDbm {
         }
     }
 
+    @Override
     public void and(final int x, final int y, final int b) {
         checkArgument(isClock(x));
         checkArgument(isClock(y));
@@ -144,22 +171,12 @@ final class BasicDbm {
             matrix.set(0, 0, Leq(-1));
 
         } else if (b < matrix.get(x, y)) {
-            matrix.set(x, y, b);
-
-            for (int i = 0; i <= nClocks; i++) {
-                for (int j = 0; j <= nClocks; j++) {
-                    if (add(matrix.get(i, x), matrix.get(x, j)) < matrix.get(i, j)) {
-                        matrix.set(i, j, add(matrix.get(i, x), matrix.get(x, j)));
-                    }
-                    if (add(matrix.get(i, y), matrix.get(y, j)) < matrix.get(i, j)) {
-                        matrix.set(i, j, add(matrix.get(i, y), matrix.get(y, j)));
-                    }
-                }
-            }
+            tighten(x, y, b);
         }
         assert !isConsistent() || isClosed();
     }
 
+    @Override
     public void nonnegative() {
         if (!isConsistent()) {
             return;
@@ -172,24 +189,31 @@ final class BasicDbm {
             }
 
             if (Leq(0) < matrix.get(0, k)) {
-                matrix.set(0, k, Leq(0));
-
-                for (int i = 0; i <= nClocks; i++) {
-                    for (int j = 0; j <= nClocks; j++) {
-                        if (add(matrix.get(i, 0), matrix.get(0, j)) < matrix.get(i, j)) {
-                            matrix.set(i, j, add(matrix.get(i, 0), matrix.get(0, j)));
-                        }
-                        if (add(matrix.get(i, k), matrix.get(k, j)) < matrix.get(i, j)) {
-                            matrix.set(i, j, add(matrix.get(i, k), matrix.get(k, j)));
-                        }
-                    }
-                }
+                tighten(0, k, Leq(0));
             }
         }
 
         assert !isConsistent() || isClosed();
     }
 
+    /**
+     * Sets the bound of x - y to b in a closed matrix, and restores closedness by updating every
+     * bound with the path through the new edge. The new edge must not close a negative cycle.
+     */
+    private void tighten(final int x, final int y, final int b) {
+        matrix.set(x, y, b);
+        for (int i = 0; i <= nClocks; i++) {
+            final int ixy = add(matrix.get(i, x), b);
+            for (int j = 0; j <= nClocks; j++) {
+                final int newBound = add(ixy, matrix.get(y, j));
+                if (newBound < matrix.get(i, j)) {
+                    matrix.set(i, j, newBound);
+                }
+            }
+        }
+    }
+
+    @Override
     public void free(final int x) {
         checkArgument(isNonZeroClock(x));
 
@@ -204,10 +228,12 @@ final class BasicDbm {
         }
     }
 
+    @Override
     public void free() {
         fill(BasicDbm::defaultBound);
     }
 
+    @Override
     public void reset(final int x, final int m) {
         checkArgument(isNonZeroClock(x));
 
@@ -221,6 +247,7 @@ final class BasicDbm {
         }
     }
 
+    @Override
     public void copy(final int x, final int y) {
         checkArgument(isNonZeroClock(y));
 
@@ -235,6 +262,7 @@ final class BasicDbm {
         assert isClosed();
     }
 
+    @Override
     public void shift(final int x, final int m) {
         checkArgument(isNonZeroClock(x));
 
@@ -247,6 +275,7 @@ final class BasicDbm {
         assert isClosed();
     }
 
+    @Override
     public void norm(final int[] k) {
         checkNotNull(k);
         checkArgument(k.length == nClocks + 1);
@@ -265,7 +294,8 @@ final class BasicDbm {
         close();
     }
 
-    void close() {
+    @Override
+    public void close() {
         for (int k = 0; k <= nClocks; k++) {
             for (int i = 0; i <= nClocks; i++) {
                 for (int j = 0; j <= nClocks; j++) {
@@ -283,7 +313,8 @@ final class BasicDbm {
         assert isClosed();
     }
 
-    int[] closeItp() {
+    @Override
+    public int[] closeItp() {
         final IntMatrix next = IntMatrix.create(nClocks + 1, nClocks + 1);
         next.fill((x, y) -> y);
 
@@ -321,7 +352,8 @@ final class BasicDbm {
         return Arrays.copyOf(path, i);
     }
 
-    boolean isClosed() {
+    @Override
+    public boolean isClosed() {
         for (int i = 0; i <= nClocks; i++) {
             for (int j = 0; j <= nClocks; j++) {
                 for (int k = 0; k <= nClocks; k++) {
@@ -74,14 +74,14 @@ final class DBM {
     private static final IntBinaryOperator BOTTOM_DBM_VALUES = (x, y) -> Leq(-1);
 
     private final DbmSignature signature;
-    private final BasicDbm dbm;
+    private final DbmMatrix dbm;
 
     private DBM(final DbmSignature signature, final IntBinaryOperator values) {
         this.signature = signature;
-        this.dbm = new BasicDbm(signature.size(), values);
+        this.dbm = DbmBackend.selected().create(signature.size(), values);
     }
 
-    private DBM(final DbmSignature signature, final BasicDbm dbm) {
+    private DBM(final DbmSignature signature, final DbmMatrix dbm) {
         checkNotNull(signature);
         checkNotNull(dbm);
         checkArgument(signature.size() == dbm.size(), "Signature and DBM has different size");
@@ -99,7 +99,7 @@ final class DBM {
 
     private DBM(final DBM dbm) {
         this.signature = dbm.signature;
-        this.dbm = new BasicDbm(dbm.dbm);
+        this.dbm = dbm.dbm.copy();
     }
 
     ////
@@ -380,6 +380,10 @@ final class DBM {
     }
 
     public DbmRelation getRelation(final DBM that) {
+        if (hasSameSignatureAs(that)) {
+            return DbmRelation.create(this.dbm.isLeq(that.dbm), that.dbm.isLeq(this.dbm));
+        }
+
         final Set<VarDecl<RatType>> vars = Sets.union(this.signature.toSet(),
                 that.signature.toSet());
 
@@ -396,6 +400,10 @@ final class DBM {
     }
 
     public boolean isLeq(final DBM that) {
+        if (hasSameSignatureAs(that)) {
+            return this.dbm.isLeq(that.dbm);
+        }
+
         final Set<VarDecl<RatType>> vars = Sets.union(this.signature.toSet(),
                 that.signature.toSet());
 
@@ -613,6 +621,11 @@ final class DBM {
 
     ////
 
+    private boolean hasSameSignatureAs(final DBM that) {
+        return this.signature == that.signature
+                || this.signature.toList().equals(that.signature.toList());
+    }
+
     private boolean tracks(final VarDecl<RatType> varDecl) {
         checkNotNull(varDecl);
         return signature.contains(varDecl);
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import java.util.function.IntBinaryOperator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Selects the matrix representation used by {@link DBM}, and thus by {@link ZoneState}. Both
+ * representations give identical results, they only differ in performance.
+ */
+public enum DbmBackend {
+
+    /**
+     * Bounds are stored in an {@link hu.bme.mit.theta.common.IntMatrix}, every access is checked.
+     */
+    BASIC {
+        @Override
+        DbmMatrix create(final int size, final IntBinaryOperator values) {
+            return new BasicDbm(size, values);
+        }
+    },
+
+    /**
+     * Bounds are stored in a flat array, operations are implemented with unchecked loops over
+     * its rows, and constraints are added with incremental closure.
+     */
+    FLAT {
+        @Override
+        DbmMatrix create(final int size, final IntBinaryOperator values) {
+            return new FlatDbm(size, values);
+        }
+    };
+
+    private static volatile DbmBackend selected = FLAT;
+
+    public static void select(final DbmBackend backend) {
+        selected = checkNotNull(backend);
+    }
+
+    public static DbmBackend selected() {
+        return selected;
+    }
+
+    abstract DbmMatrix create(int size, IntBinaryOperator values);
+
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+/**
+ * Common interface of the matrix representations of difference bound matrices. Clocks are
+ * identified by their index, the zero clock being 0.
+ */
+interface DbmMatrix {
+
+    int get(int x, int y);
+
+    void set(int x, int y, int b);
+
+    int size();
+
+    DbmMatrix copy();
+
+    ////
+
+    boolean isConsistent();
+
+    boolean isSatisfied(int x, int y, int b);
+
+    boolean constrains(int x);
+
+    /**
+     * Checks whether every bound of this matrix is at most the corresponding bound of the other
+     * one, which must have the same size.
+     */
+    boolean isLeq(DbmMatrix that);
+
+    ////
+
+    void up();
+
+    void down();
+
+    void and(int x, int y, int b);
+
+    void nonnegative();
+
+    void free(int x);
+
+    void free();
+
+    void reset(int x, int m);
+
+    void copy(int x, int y);
+
+    void shift(int x, int m);
+
+    void norm(int[] k);
+
+    void close();
+
+    int[] closeItp();
+
+    boolean isClosed();
+
+}
@@ -0,0 +1,415 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Inf;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Leq;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Lt;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.add;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.asString;
+import static java.lang.Math.min;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Difference bound matrix stored row by row in a flat array. Indices are not checked, and the
+ * loops work on whole rows, so that the JIT can hoist the row offsets and vectorize the
+ * comparisons. Adding a single constraint to a closed matrix only takes a quadratic update
+ * instead of a full cubic closure. The results are identical to those of {@link BasicDbm}.
+ */
+final class FlatDbm implements DbmMatrix {
+
+    private final int n;
+    private final int[] matrix;
+
+    ////
+
+    FlatDbm(final int size, final IntBinaryOperator values) {
+        checkArgument(size > 0, "Zero sized DBM");
+        checkNotNull(values);
+        this.n = size;
+        this.matrix = new int[size * size];
+        fill(values);
+    }
+
+    private FlatDbm(final FlatDbm dbm) {
+        this.n = dbm.n;
+        this.matrix = dbm.matrix.clone();
+    }
+
+    ////
+
+    @Override
+    public int get(final int x, final int y) {
+        assert isClock(x) && isClock(y);
+        return matrix[x * n + y];
+    }
+
+    @Override
+    public void set(final int x, final int y, final int b) {
+        assert isClock(x) && isClock(y);
+        matrix[x * n + y] = b;
+    }
+
+    private void fill(final IntBinaryOperator values) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i * n + j] = values.applyAsInt(i, j);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public DbmMatrix copy() {
+        return new FlatDbm(this);
+    }
+
+    ////
+
+    @Override
+    public boolean isConsistent() {
+        return matrix[0] > 0;
+    }
+
+    @Override
+    public boolean isSatisfied(final int x, final int y, final int b) {
+        assert isClock(x) && isClock(y);
+        return add(matrix[y * n + x], b) >= Leq(0);
+    }
+
+    @Override
+    public boolean constrains(final int x) {
+        assert isClock(x);
+        final int row = x * n;
+        for (int i = 0; i < n; i++) {
+            if (matrix[row + i] < BasicDbm.defaultBound(x, i)) {
+                return true;
+            }
+            if (matrix[i * n + x] < BasicDbm.defaultBound(i, x)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isLeq(final DbmMatrix that) {
+        checkArgument(that.size() == n, "DBMs of different size");
+        if (that instanceof FlatDbm) {
+            final int[] other = ((FlatDbm) that).matrix;
+            for (int i = 0; i < matrix.length; i++) {
+                if (matrix[i] > other[i]) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (matrix[i * n + j] > that.get(i, j)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    ////
+
+    @Override
+    public void up() {
+        if (isConsistent()) {
+            for (int i = 1; i < n; i++) {
+                matrix[i * n] = Inf();
+            }
+            assert isClosed();
+        }
+    }
+
+    @Override
+    public void down() {
+        if (isConsistent()) {
+            Arrays.fill(matrix, 1, n, Inf());
+            assert isClosed();
+        }
+    }
+
+    @Override
+    public void and(final int x, final int y, final int b) {
+        assert isClock(x) && isClock(y);
+
+        if (!isConsistent()) {
+            // do nothing
+
+        } else if (!isSatisfied(x, y, b)) {
+            matrix[0] = Leq(-1);
+
+        } else if (b < matrix[x * n + y]) {
+            tighten(x, y, b);
+        }
+        assert !isConsistent() || isClosed();
+    }
+
+    @Override
+    public void nonnegative() {
+        if (!isConsistent()) {
+            return;
+        }
+
+        for (int k = 1; k < n; k++) {
+            if (!isSatisfied(0, k, Leq(0))) {
+                matrix[0] = Leq(-1);
+                return;
+            }
+
+            if (Leq(0) < matrix[k]) {
+                tighten(0, k, Leq(0));
+            }
+        }
+
+        assert !isConsistent() || isClosed();
+    }
+
+    /**
+     * Sets the bound of x - y to b in a closed matrix, and restores closedness. Only paths that
+     * go through the new edge can get shorter, so every bound (i, j) is updated with the path
+     * i -> x -> y -> j. The caller has to make sure that the new edge does not close a negative
+     * cycle, in which case neither the row of y nor the column of x changes during the update.
+     */
+    private void tighten(final int x, final int y, final int b) {
+        matrix[x * n + y] = b;
+        final int yRow = y * n;
+        for (int i = 0; i < n; i++) {
+            final int ix = matrix[i * n + x];
+            if (ix == Inf()) {
+                continue;
+            }
+            final int ixy = add(ix, b);
+            final int iRow = i * n;
+            for (int j = 0; j < n; j++) {
+                final int newBound = add(ixy, matrix[yRow + j]);
+                if (newBound < matrix[iRow + j]) {
+                    matrix[iRow + j] = newBound;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void free(final int x) {
+        checkArgument(isNonZeroClock(x));
+
+        if (isConsistent()) {
+            final int row = x * n;
+            for (int i = 0; i < n; i++) {
+                if (i != x) {
+                    matrix[row + i] = Inf();
+                    matrix[i * n + x] = Inf();
+                }
+            }
+            assert isClosed();
+        }
+    }
+
+    @Override
+    public void free() {
+        fill(BasicDbm::defaultBound);
+    }
+
+    @Override
+    public void reset(final int x, final int m) {
+        checkArgument(isNonZeroClock(x));
+
+        if (isConsistent()) {
+            final int row = x * n;
+            for (int i = 0; i < n; i++) {
+                matrix[row + i] = add(Leq(m), matrix[i]);
+                matrix[i * n + x] = add(matrix[i * n], Leq(-m));
+            }
+
+            assert isClosed();
+        }
+    }
+
+    @Override
+    public void copy(final int x, final int y) {
+        checkArgument(isNonZeroClock(y));
+
+        final int xRow = x * n;
+        final int yRow = y * n;
+        for (int i = 0; i < n; i++) {
+            if (i != x) {
+                matrix[xRow + i] = matrix[yRow + i];
+                matrix[i * n + x] = matrix[i * n + y];
+            }
+        }
+        matrix[xRow + y] = Leq(0);
+        matrix[yRow + x] = Leq(0);
+        assert isClosed();
+    }
+
+    @Override
+    public void shift(final int x, final int m) {
+        checkArgument(isNonZeroClock(x));
+
+        final int row = x * n;
+        for (int i = 0; i < n; i++) {
+            if (i != x) {
+                matrix[row + i] = add(matrix[row + i], Leq(m));
+                matrix[i * n + x] = add(matrix[i * n + x], Leq(-m));
+            }
+        }
+        assert isClosed();
+    }
+
+    @Override
+    public void norm(final int[] k) {
+        checkNotNull(k);
+        checkArgument(k.length == n);
+
+        for (int i = 0; i < n; i++) {
+            final int upper = Leq(k[i]);
+            final int row = i * n;
+            for (int j = 0; j < n; j++) {
+                final int b = matrix[row + j];
+                if (b != Inf()) {
+                    if (b > upper) {
+                        matrix[row + j] = Inf();
+                    } else if (b < Lt(-k[j])) {
+                        matrix[row + j] = Lt(-k[j]);
+                    }
+                }
+            }
+        }
+        close();
+    }
+
+    @Override
+    public void close() {
+        for (int k = 0; k < n; k++) {
+            final int kRow = k * n;
+            for (int i = 0; i < n; i++) {
+                final int iRow = i * n;
+                int ik = matrix[iRow + k];
+                for (int j = 0; j < n; j++) {
+                    final int newBound = min(matrix[iRow + j], add(ik, matrix[kRow + j]));
+                    if (i == j && newBound < Leq(0)) {
+                        matrix[0] = Leq(-1);
+                        return;
+                    } else {
+                        matrix[iRow + j] = newBound;
+                        if (j == k) {
+                            ik = newBound;
+                        }
+                    }
+                }
+            }
+        }
+        assert isClosed();
+    }
+
+    @Override
+    public int[] closeItp() {
+        final int[] next = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                next[i * n + j] = j;
+            }
+        }
+
+        for (int k = 0; k < n; k++) {
+            final int kRow = k * n;
+            for (int i = 0; i < n; i++) {
+                final int iRow = i * n;
+                for (int j = 0; j < n; j++) {
+                    final int newBound = add(matrix[iRow + k], matrix[kRow + j]);
+                    if (newBound < matrix[iRow + j]) {
+                        matrix[iRow + j] = newBound;
+                        next[iRow + j] = next[iRow + k];
+                        if (i == j && newBound < Leq(0)) {
+                            return path(next, i, j);
+                        }
+                    }
+                }
+            }
+        }
+
+        throw new IllegalStateException();
+    }
+
+    private int[] path(final int[] next, final int u, final int v) {
+        final int[] path = new int[n + 1];
+
+        int w = u;
+        path[0] = w;
+        int i = 1;
+        do {
+            w = next[w * n + v];
+            path[i] = w;
+            i++;
+        } while (w != v);
+
+        return Arrays.copyOf(path, i);
+    }
+
+    @Override
+    public boolean isClosed() {
+        for (int i = 0; i < n; i++) {
+            final int iRow = i * n;
+            for (int j = 0; j < n; j++) {
+                for (int k = 0; k < n; k++) {
+                    if (matrix[iRow + j] > add(matrix[iRow + k], matrix[k * n + j])) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    ////
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                sb.append(String.format("%-12s", asString(matrix[i * n + j])));
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    ////
+
+    private boolean isClock(final int x) {
+        return x >= 0 && x < n;
+    }
+
+    private boolean isNonZeroClock(final int x) {
+        return x >= 1 && x < n;
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.stubs.PartialOrdStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+import hu.bme.mit.theta.analysis.zone.ZoneOrd;
+import hu.bme.mit.theta.analysis.zone.ZoneState;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class ArgNodeMayCoverTest {
+
+    private final State s = new StateStub("s");
+    private final State t = new StateStub("t");
+    private final Action a = new ActionStub("A");
+
+    @Test
+    public void testAncestors() {
+        final ARG<State, Action> arg = ARG.create(new PartialOrdStub());
+        final ArgNode<State, Action> n0 = arg.createInitNode(s, false);
+        final ArgNode<State, Action> n1 = arg.createSuccNode(n0, a, t, false);
+        final ArgNode<State, Action> n2 = arg.createSuccNode(n1, a, s, false);
+        final ArgNode<State, Action> n3 = arg.createSuccNode(n1, a, s, false);
+
+        // A node cannot cover itself or its ancestors
+        assertFalse(n2.mayCover(n2));
+        assertFalse(n2.mayCover(n0));
+        // Leaves and inner nodes can be covered by nodes on other branches
+        assertTrue(n2.mayCover(n3));
+        assertTrue(n0.mayCover(n3));
+        // Different states
+        assertFalse(n1.mayCover(n3));
+    }
+
+    @Test
+    public void testExcluded() {
+        final ARG<State, Action> arg = ARG.create(new PartialOrdStub());
+        final ArgNode<State, Action> n0 = arg.createInitNode(s, false);
+        final ArgNode<State, Action> n1 = arg.createSuccNode(n0, a, t, false);
+        final ArgNode<State, Action> n2 = arg.createSuccNode(n1, a, s, false);
+        final ArgNode<State, Action> m0 = arg.createInitNode(t, false);
+        final ArgNode<State, Action> m1 = arg.createSuccNode(m0, a, s, false);
+
+        assertTrue(n2.mayCover(m1));
+        n1.setCoveringNode(m0);
+        assertFalse(n2.mayCover(m1));
+        n1.unsetCoveringNode();
+        assertTrue(n2.mayCover(m1));
+    }
+
+    @Test
+    public void testZoneStates() {
+        // Zone states cannot be compared with equals, only with the partial order
+        final List<VarDecl<RatType>> clocks = List.of(Var("x", Rat()));
+        final ZoneState zero = ZoneState.zero(clocks);
+        final ZoneState up = zero.transform().up().build();
+
+        final ARG<ZoneState, Action> arg = ARG.create(ZoneOrd.getInstance());
+        final ArgNode<ZoneState, Action> n0 = arg.createInitNode(up, false);
+        final ArgNode<ZoneState, Action> n1 = arg.createSuccNode(n0, a, up, false);
+        final ArgNode<ZoneState, Action> m0 = arg.createInitNode(zero, false);
+        final ArgNode<ZoneState, Action> m1 = arg.createSuccNode(m0, a, ZoneState.zero(clocks), false);
+
+        assertTrue(n0.mayCover(m1));
+        assertTrue(m0.mayCover(m1));
+        assertFalse(m0.mayCover(n1));
+    }
+}
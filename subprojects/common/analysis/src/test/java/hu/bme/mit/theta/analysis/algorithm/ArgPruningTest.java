@@ -60,6 +60,8 @@ public class ArgPruningTest {
         assertEquals(1, arg.getInitNodes().count());
         assertEquals(1, arg.getUnsafeNodes().count());
         assertEquals(n001, arg.getUnsafeNodes().iterator().next());
+        assertEquals(1, arg.getUnsafeNodeCount());
+        assertEquals(3, arg.getIncompleteNodeCount());
         assertEquals(2, n0.getCoveredNodes().count());
 
         System.out.println(
@@ -73,6 +75,9 @@ public class ArgPruningTest {
         assertEquals(1, arg.getDepth());
         assertEquals(1, arg.getInitNodes().count());
         assertEquals(0, arg.getUnsafeNodes().count());
+        assertEquals(0, arg.getUnsafeNodeCount());
+        assertEquals(2, arg.getIncompleteNodeCount());
+        assertEquals(arg.getIncompleteNodes().count(), arg.getIncompleteNodeCount());
         assertEquals(1, n0.coveredNodes.size());
         assertFalse(n02.getCoveringNode().isPresent());
 
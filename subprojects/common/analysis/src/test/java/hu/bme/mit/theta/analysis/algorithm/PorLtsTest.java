@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class PorLtsTest {
+
+    private final VarDecl<IntType> x = Var("x", Int());
+    private final VarDecl<IntType> y = Var("y", Int());
+    private final VarDecl<IntType> z = Var("z", Int());
+
+    // Process 1 uses x and then y, process 2 uses z and process 3 uses y and then x
+    private final Transition a2 = new Transition(1, Set.of(y), Set.of());
+    private final Transition a = new Transition(1, Set.of(x), Set.of(a2));
+    private final Transition b = new Transition(2, Set.of(z), Set.of());
+    private final Transition c2 = new Transition(3, Set.of(x), Set.of());
+    private final Transition c = new Transition(3, Set.of(y), Set.of(c2));
+
+    private final State state = new StateStub("s");
+
+    @Test
+    public void testMinimalPersistentSet() {
+        final TestPorLts lts = new TestPorLts(List.of(a, b, c), Set.of());
+        assertEquals(Set.of(b), new HashSet<>(lts.getEnabledActionsFor(state)));
+    }
+
+    @Test
+    public void testInfluencedSharedObjects() {
+        final TestPorLts lts = new TestPorLts(List.of(a, b, c), Set.of());
+        // a and c use x and y, which the other one influences through its successor
+        assertEquals(Set.of(a, c), new HashSet<>(lts.calculatePersistentSet(List.of(a, b, c), c)));
+        assertEquals(Set.of(a, c), new HashSet<>(lts.calculatePersistentSet(List.of(a, b, c), a)));
+        assertEquals(Set.of(b), new HashSet<>(lts.calculatePersistentSet(List.of(a, b, c), b)));
+    }
+
+    @Test
+    public void testBackwardTransitions() {
+        final TestPorLts lts = new TestPorLts(List.of(a, b, c), Set.of(b));
+        assertEquals(Set.of(a, b, c), new HashSet<>(lts.calculatePersistentSet(List.of(a, b, c), b)));
+        assertEquals(Set.of(a, c), new HashSet<>(lts.getEnabledActionsFor(state)));
+
+        final TestPorLts lts2 = new TestPorLts(List.of(a, b, c), Set.of(a));
+        assertEquals(Set.of(a, b, c), new HashSet<>(lts2.calculatePersistentSet(List.of(a, b, c), c)));
+    }
+
+    @Test
+    public void testPrecomputedSharedObjects() {
+        final TestPorLts lazy = new TestPorLts(List.of(a, b, c), Set.of());
+        final TestPorLts precomputed = new TestPorLts(List.of(a, b, c), Set.of());
+        precomputed.precomputeSharedObjects(List.of(a, b, c));
+        for (Transition first : List.of(a, b, c)) {
+            assertEquals(new HashSet<>(lazy.calculatePersistentSet(List.of(a, b, c), first)),
+                    new HashSet<>(precomputed.calculatePersistentSet(List.of(a, b, c), first)));
+        }
+    }
+
+    private static final class Transition implements Action {
+        private final int process;
+        private final Set<VarDecl<?>> vars;
+        private final Set<Transition> successors;
+
+        private Transition(int process, Set<VarDecl<?>> vars, Set<Transition> successors) {
+            this.process = process;
+            this.vars = vars;
+            this.successors = successors;
+        }
+    }
+
+    private static final class TestPorLts extends PorLts<State, Transition, Transition> {
+        private final Collection<Transition> enabled;
+
+        private TestPorLts(Collection<Transition> enabled, Set<Transition> backward) {
+            this.enabled = enabled;
+            backwardTransitions.addAll(backward);
+        }
+
+        @Override
+        protected Collection<Transition> getAllEnabledActionsFor(State state) {
+            return enabled;
+        }
+
+        @Override
+        protected boolean canEnOrDisableEachOther(Transition action1, Transition action2) {
+            return action1.process == action2.process;
+        }
+
+        @Override
+        protected Transition getTransitionOf(Transition action) {
+            return action;
+        }
+
+        @Override
+        protected Set<Transition> getSuccessiveTransitions(Transition transition) {
+            return transition.successors;
+        }
+
+        @Override
+        protected Set<? extends Decl<? extends Type>> getDirectlyUsedSharedObjects(
+                Transition transition) {
+            return transition.vars;
+        }
+
+        @Override
+        protected void collectBackwardTransitions() {
+        }
+    }
+}
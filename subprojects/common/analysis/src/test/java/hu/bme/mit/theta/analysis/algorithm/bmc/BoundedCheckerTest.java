@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.bmc;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import org.junit.Test;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory.indexing;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCheckerTest {
+
+    private static final VarDecl<IntType> x = Var("x", Int());
+    private static final SolverFactory solverFactory = Z3SolverFactory.getInstance();
+
+    // x := 0; while (x < 10) x := x + 1
+    private static final Expr<BoolType> init = Eq(x.getRef(), Int(0));
+    private static final Expr<BoolType> boundedTrans = And(Lt(x.getRef(), Int(10)),
+            Eq(Prime(x.getRef()), Add(x.getRef(), Int(1))));
+    private static final Expr<BoolType> unboundedTrans = Eq(Prime(x.getRef()),
+            Add(x.getRef(), Int(1)));
+    private static final VarIndexing offset = indexing(0).inc(x);
+
+    @Test
+    public void testUnsafe() {
+        final MonolithicExpr monolithicExpr = MonolithicExpr.create(init, boundedTrans,
+                Leq(x.getRef(), Int(5)), offset);
+        final SafetyResult<ExplState, ExprAction> result = createChecker(monolithicExpr, false, -1)
+                .check(UnitPrec.getInstance());
+        assertTrue(result.isUnsafe());
+        assertEquals(6, result.asUnsafe().getTrace().length());
+        assertEquals(Int(6), result.asUnsafe().getTrace().getState(6).eval(x).get());
+    }
+
+    @Test
+    public void testSafeByExhaustion() {
+        final MonolithicExpr monolithicExpr = MonolithicExpr.create(init, boundedTrans,
+                Leq(x.getRef(), Int(10)), offset);
+        final SafetyResult<ExplState, ExprAction> result = createChecker(monolithicExpr, false, -1)
+                .check(UnitPrec.getInstance());
+        assertTrue(result.isSafe());
+        assertEquals(11, ((BoundedStatistics) result.getStats().get()).getBound());
+    }
+
+    @Test
+    public void testSafeByInduction() {
+        final MonolithicExpr monolithicExpr = MonolithicExpr.create(init, unboundedTrans,
+                Geq(x.getRef(), Int(0)), offset);
+        final SafetyResult<ExplState, ExprAction> result = createChecker(monolithicExpr, true, -1)
+                .check(UnitPrec.getInstance());
+        assertTrue(result.isSafe());
+        assertEquals(1, ((BoundedStatistics) result.getStats().get()).getBound());
+    }
+
+    @Test
+    public void testUpperBound() {
+        final MonolithicExpr monolithicExpr = MonolithicExpr.create(init, unboundedTrans,
+                Geq(x.getRef(), Int(0)), offset);
+        final SafetyResult<ExplState, ExprAction> result = createChecker(monolithicExpr, false, 5)
+                .check(UnitPrec.getInstance());
+        assertTrue(result.isSafe());
+        assertEquals(5, ((BoundedStatistics) result.getStats().get()).getBound());
+    }
+
+    private static BoundedChecker<ExplState, ExprAction> createChecker(
+            final MonolithicExpr monolithicExpr, final boolean kInduction, final int upperBound) {
+        if (kInduction) {
+            return BoundedChecker.create(monolithicExpr, solverFactory.createSolver(),
+                    solverFactory.createSolver(), ExplState::of,
+                    BoundedCheckerTest::createAction, upperBound, NullLogger.getInstance());
+        } else {
+            return BoundedChecker.create(monolithicExpr, solverFactory.createSolver(),
+                    ExplState::of, BoundedCheckerTest::createAction, upperBound,
+                    NullLogger.getInstance());
+        }
+    }
+
+    private static ExprAction createAction(final Valuation source, final Valuation target) {
+        return new ExprAction() {
+            @Override
+            public Expr<BoolType> toExpr() {
+                return unboundedTrans;
+            }
+
+            @Override
+            public VarIndexing nextIndexing() {
+                return offset;
+            }
+        };
+    }
+}
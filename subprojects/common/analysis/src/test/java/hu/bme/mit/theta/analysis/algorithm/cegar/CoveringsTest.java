@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.zone.ZoneOrd;
+import hu.bme.mit.theta.analysis.zone.ZoneState;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class CoveringsTest {
+
+    private final Action a = new ActionStub("A");
+    private final List<VarDecl<RatType>> clocks = List.of(Var("x", Rat()));
+
+    @Test
+    public void testZoneStates() {
+        // Zone states cannot be compared with equals, only with the partial order
+        final ZoneState zero = ZoneState.zero(clocks);
+        final ZoneState up = zero.transform().up().build();
+
+        final ARG<ZoneState, Action> arg = ARG.create(ZoneOrd.getInstance());
+        final ArgNode<ZoneState, Action> init = arg.createInitNode(up, false);
+        final ArgNode<ZoneState, Action> smaller = arg.createSuccNode(init, a, zero, false);
+        final ArgNode<ZoneState, Action> other = arg.createSuccNode(init, a, up, false);
+        final ArgNode<ZoneState, Action> covering = arg.createSuccNode(init, a,
+                zero.transform().up().build(), false);
+        final ArgNode<ZoneState, Action> node = arg.createSuccNode(smaller, a,
+                zero.transform().up().build(), false);
+
+        // The first candidate that passes both checks covers the node
+        assertTrue(close(node, List.of(node, smaller, covering, other)));
+        assertEquals(covering, node.getCoveringNode().get());
+    }
+
+    @Test
+    public void testNotCovered() {
+        final ZoneState zero = ZoneState.zero(clocks);
+        final ZoneState up = zero.transform().up().build();
+
+        final ARG<ZoneState, Action> arg = ARG.create(ZoneOrd.getInstance());
+        final ArgNode<ZoneState, Action> init = arg.createInitNode(zero, false);
+        final ArgNode<ZoneState, Action> other = arg.createSuccNode(init, a, zero, false);
+        final ArgNode<ZoneState, Action> node = arg.createSuccNode(init, a, up, false);
+
+        assertFalse(close(node, List.of(init, other)));
+        assertFalse(node.isCovered());
+    }
+
+    private boolean close(final ArgNode<ZoneState, Action> node,
+                          final List<ArgNode<ZoneState, Action>> candidates) {
+        return Coverings.close(node, candidates, candidate -> candidate.canCover(node),
+                ZoneOrd.getInstance(), candidate -> {
+                    node.cover(candidate);
+                    return true;
+                });
+    }
+}
@@ -29,6 +29,7 @@ import org.junit.Test;
 
 import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.MutableValuation;
 import hu.bme.mit.theta.core.type.inttype.IntType;
 
 public class ExplStateTest {
@@ -72,4 +73,16 @@ public class ExplStateTest {
                 ExplState.of(ImmutableValuation.builder().put(x, Int(1)).put(y, Int(2)).build())
                         .toExpr());
     }
+
+    @Test
+    public void testGetValIsNotShared() {
+        final ExplState s1 = ExplState.of(ImmutableValuation.builder().put(x, Int(1)).build());
+        final ExplState s2 = ExplState.of(ImmutableValuation.builder().put(x, Int(1)).build());
+
+        ((MutableValuation) s1.getVal()).put(x, Int(2)).put(y, Int(3));
+
+        Assert.assertEquals(Optional.of(Int(1)), s1.eval(x));
+        Assert.assertEquals(Optional.empty(), s1.eval(y));
+        Assert.assertEquals(s2, s1);
+    }
 }
@@ -19,6 +19,7 @@ import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceIncrementalSeqItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceStatus;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
@@ -63,6 +64,8 @@ public final class ExprTraceCheckersTest {
         traceCheckers.add(ExprTraceFwBinItpChecker.create(True(), True(), itpSolver));
         traceCheckers.add(ExprTraceBwBinItpChecker.create(True(), True(), itpSolver));
         traceCheckers.add(ExprTraceUnsatCoreChecker.create(True(), True(), ucSolver));
+        traceCheckers.add(ExprTraceIncrementalSeqItpChecker.create(True(), True(),
+                Z3SolverFactory.getInstance().createItpSolver()));
     }
 
     @Test
@@ -114,4 +117,38 @@ public final class ExprTraceCheckersTest {
         }
     }
 
+    @Test
+    public void testSharedPrefix() {
+        // Arrange
+        final Expr<IntType> x = Var("x", Int()).getRef();
+        final Expr<BoolType> trans1 = Eq(Prime(x), Int(0));
+        final Expr<BoolType> trans2 = Geq(x, Int(1));
+        final Expr<BoolType> trans3 = Eq(Prime(x), Add(x, Int(1)));
+
+        final ExprAction action1Mock = mock(ExprAction.class);
+        doReturn(trans1).when(action1Mock).toExpr();
+        when(action1Mock.nextIndexing()).thenReturn(VarIndexingFactory.indexing(1));
+
+        final ExprAction action2Mock = mock(ExprAction.class);
+        doReturn(trans2).when(action2Mock).toExpr();
+        when(action2Mock.nextIndexing()).thenReturn(VarIndexingFactory.indexing(0));
+
+        final ExprAction action3Mock = mock(ExprAction.class);
+        doReturn(trans3).when(action3Mock).toExpr();
+        when(action3Mock.nextIndexing()).thenReturn(VarIndexingFactory.indexing(1));
+
+        final ExprTraceChecker<?> checker = ExprTraceIncrementalSeqItpChecker.create(True(), True(),
+                Z3SolverFactory.getInstance().createItpSolver());
+        final Trace<ExprState, ExprAction> infeasible = ExprTraceUtils.traceFrom(
+                Arrays.asList(action1Mock, action2Mock));
+        final Trace<ExprState, ExprAction> feasible = ExprTraceUtils.traceFrom(
+                Arrays.asList(action1Mock, action3Mock, action3Mock));
+
+        // Act & Assert
+        assertTrue(checker.check(infeasible).isInfeasible());
+        assertTrue(checker.check(feasible).isFeasible());
+        assertTrue(checker.check(infeasible).isInfeasible());
+        assertTrue(checker.check(feasible).isFeasible());
+    }
+
 }
@@ -0,0 +1,269 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MultiExprTraceRefinerTest {
+
+    private static final int TRACES = 16;
+    private static final int RUNS = 10;
+
+    private final VarDecl<IntType> x = Var("x", Int());
+    private final List<VarDecl<IntType>> vars = new ArrayList<>();
+    private final List<ExprAction> actions = new ArrayList<>();
+
+    public MultiExprTraceRefinerTest() {
+        for (int i = 0; i < TRACES; i++) {
+            vars.add(Var("v" + i, Int()));
+            actions.add(new ActionStub());
+        }
+    }
+
+    @Test
+    public void testSameRefinementAsSingleThread() {
+        final List<Integer> expectedRefined = new ArrayList<>();
+        final ARG<ExplState, ExprAction> expectedArg = createArg(TRACES);
+        final RefinerResult<ExplState, ExprAction, ExplPrec> expected = createRefiner(Set.of(), 1,
+                expectedRefined, new AtomicInteger(), new ArrayList<>()).refine(expectedArg, ExplPrec.empty());
+        assertTrue(expected.isSpurious());
+
+        for (final int threads : List.of(2, 4, 8)) {
+            for (int run = 0; run < RUNS; run++) {
+                final List<Integer> refined = new ArrayList<>();
+                final ARG<ExplState, ExprAction> arg = createArg(TRACES);
+                final RefinerResult<ExplState, ExprAction, ExplPrec> result = createRefiner(
+                        Set.of(), threads, refined, new AtomicInteger(), new ArrayList<>())
+                        .refine(arg, ExplPrec.empty());
+
+                assertTrue(result.isSpurious());
+                assertEquals(expected.asSpurious().getRefinedPrec(),
+                        result.asSpurious().getRefinedPrec());
+                assertEquals(expectedRefined, refined);
+                assertEquals(expectedArg.size(), arg.size());
+            }
+        }
+    }
+
+    @Test
+    public void testSameCexAsSingleThread() {
+        final Set<Integer> feasible = Set.of(5, 9, 12);
+        final RefinerResult<ExplState, ExprAction, ExplPrec> expected = createRefiner(feasible, 1,
+                new ArrayList<>(), new AtomicInteger(), new ArrayList<>())
+                .refine(createArg(TRACES), ExplPrec.empty());
+        assertTrue(expected.isUnsafe());
+
+        for (final int threads : List.of(2, 4, 8)) {
+            for (int run = 0; run < RUNS; run++) {
+                final RefinerResult<ExplState, ExprAction, ExplPrec> result = createRefiner(
+                        feasible, threads, new ArrayList<>(), new AtomicInteger(), new ArrayList<>())
+                        .refine(createArg(TRACES), ExplPrec.empty());
+
+                assertTrue(result.isUnsafe());
+                assertEquals(expected.asUnsafe().getCex(), result.asUnsafe().getCex());
+            }
+        }
+    }
+
+    @Test
+    public void testSameTracesPerChecker() {
+        final Set<Integer> feasible = Set.of(5, 9, 12);
+        for (final int threads : List.of(2, 4, 8)) {
+            for (int run = 0; run < RUNS; run++) {
+                final List<List<Integer>> checked = new ArrayList<>();
+                createRefiner(feasible, threads, new ArrayList<>(), new AtomicInteger(), checked)
+                        .refine(createArg(TRACES), ExplPrec.empty());
+
+                assertEquals(threads, checked.size());
+                for (int t = 0; t < threads; t++) {
+                    // Checker t gets the traces t, t + threads, ... in order, and checks all of
+                    // them up to the first feasible trace
+                    final List<Integer> indices = checked.get(t);
+                    for (int j = 0; j < indices.size(); j++) {
+                        assertEquals(t + j * threads, (int) indices.get(j));
+                    }
+                    for (int i = t; i <= 5; i += threads) {
+                        assertTrue(indices.contains(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNoRoundsOfTraces() {
+        // Trace 0 is only checked after trace 3 was checked by the other checker
+        final CountDownLatch checked3 = new CountDownLatch(1);
+        final AtomicBoolean waited = new AtomicBoolean(true);
+        final RefinerResult<ExplState, ExprAction, ExplPrec> result = createRefiner(Set.of(), 2,
+                new ArrayList<>(), new AtomicInteger(), new ArrayList<>(), index -> {
+                    if (index == 0) {
+                        try {
+                            waited.set(checked3.await(10, TimeUnit.SECONDS));
+                        } catch (final InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                    } else if (index == 3) {
+                        checked3.countDown();
+                    }
+                }).refine(createArg(4), ExplPrec.empty());
+
+        assertTrue(result.isSpurious());
+        assertTrue(waited.get());
+    }
+
+    @Test
+    public void testCheckersCreatedOnDemand() {
+        final AtomicInteger created = new AtomicInteger();
+        final MultiExprTraceRefiner<ExplState, ExprAction, ExplPrec, ItpRefutation> refiner =
+                createRefiner(Set.of(), 8, new ArrayList<>(), created, new ArrayList<>());
+        assertEquals(0, created.get());
+
+        refiner.refine(createArg(2), ExplPrec.empty());
+        assertEquals(2, created.get());
+
+        refiner.refine(createArg(TRACES), ExplPrec.empty());
+        assertEquals(8, created.get());
+        refiner.refine(createArg(TRACES), ExplPrec.empty());
+        assertEquals(8, created.get());
+    }
+
+    /**
+     * Creates an ARG with a target node at depth 2 for each of the given number of traces. The
+     * value of x is the index of the trace in the target node.
+     */
+    private ARG<ExplState, ExprAction> createArg(final int traces) {
+        final ARG<ExplState, ExprAction> arg = ARG.create(
+                (state1, state2) -> state1.equals(state2));
+        final ArgNode<ExplState, ExprAction> init = arg.createInitNode(state(-1), false);
+        for (int i = 0; i < traces; i++) {
+            final ArgNode<ExplState, ExprAction> node = arg.createSuccNode(init, actions.get(i),
+                    state(TRACES + i), false);
+            arg.createSuccNode(node, actions.get(i), state(i), true);
+        }
+        return arg;
+    }
+
+    /**
+     * Creates a refiner whose trace checkers find the given traces feasible (after a random
+     * delay, so that the threads finish in different orders), and whose precision refiner
+     * records the traces it is called with. The traces checked by each checker are recorded in
+     * the order of the creation of the checkers.
+     */
+    private MultiExprTraceRefiner<ExplState, ExprAction, ExplPrec, ItpRefutation> createRefiner(
+            final Set<Integer> feasible, final int threads, final List<Integer> refined,
+            final AtomicInteger created, final List<List<Integer>> checked) {
+        return createRefiner(feasible, threads, refined, created, checked, index ->
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1_000_000)));
+    }
+
+    /**
+     * Same as above, but the given action runs before each trace is checked, instead of the
+     * random delay.
+     */
+    private MultiExprTraceRefiner<ExplState, ExprAction, ExplPrec, ItpRefutation> createRefiner(
+            final Set<Integer> feasible, final int threads, final List<Integer> refined,
+            final AtomicInteger created, final List<List<Integer>> checked,
+            final IntConsumer beforeCheck) {
+        final PrecRefiner<ExplState, ExprAction, ExplPrec, ItpRefutation> precRefiner =
+                (prec, trace, refutation) -> {
+                    final int index = traceIndex(trace);
+                    refined.add(index);
+                    return prec.join(ExplPrec.of(List.of(vars.get(index))));
+                };
+        return MultiExprTraceRefiner.create(() -> {
+            created.incrementAndGet();
+            final List<Integer> checkedByThis = Collections.synchronizedList(new ArrayList<>());
+            checked.add(checkedByThis);
+            return trace -> {
+                final int index = traceIndex(trace);
+                beforeCheck.accept(index);
+                checkedByThis.add(index);
+                if (feasible.contains(index)) {
+                    final List<Valuation> valuations = trace.getStates().stream()
+                            .map(state -> ImmutableValuation.empty())
+                            .collect(Collectors.toList());
+                    return ExprTraceStatus.feasible(Trace.of(valuations, trace.getActions()));
+                }
+                // Odd traces are pruned from the target node, even ones from their parent
+                final List<Expr<BoolType>> itps = index % 2 == 0
+                        ? List.of(True(), False(), False())
+                        : List.of(True(), True(), False());
+                return ExprTraceStatus.infeasible(ItpRefutation.sequence(itps));
+            };
+        }, threads, precRefiner, PruneStrategy.LAZY, NullLogger.getInstance());
+    }
+
+    private int traceIndex(final Trace<? extends ExprState, ?> trace) {
+        final ExplState last = (ExplState) trace.getState(trace.length());
+        return ((IntLitExpr) last.getVal().eval(x).get()).getValue().intValue();
+    }
+
+    private ExplState state(final int value) {
+        return ExplState.of(ImmutableValuation.builder().put(x, Int(value)).build());
+    }
+
+    private static final class ActionStub implements ExprAction {
+
+        @Override
+        public Expr<BoolType> toExpr() {
+            return True();
+        }
+
+        @Override
+        public VarIndexing nextIndexing() {
+            return VarIndexingFactory.indexing(0);
+        }
+    }
+}
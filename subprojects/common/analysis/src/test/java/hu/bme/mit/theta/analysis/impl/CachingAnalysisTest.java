@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.impl;
+
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.InitFunc;
+import hu.bme.mit.theta.analysis.PartialOrd;
+import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+
+public class CachingAnalysisTest {
+
+    private final VarDecl<IntType> x = Var("x", Int());
+    private final VarDecl<IntType> y = Var("y", Int());
+    private final StateStub s0 = new StateStub("s0");
+    private final StateStub s1 = new StateStub("s1");
+    private final ActionStub a = new ActionStub("a");
+
+    private int calls = 0;
+
+    private final Analysis<StateStub, ActionStub, ExplPrec> analysis = new Analysis<>() {
+        @Override
+        public PartialOrd<StateStub> getPartialOrd() {
+            return (state1, state2) -> state1.equals(state2);
+        }
+
+        @Override
+        public InitFunc<StateStub, ExplPrec> getInitFunc() {
+            return prec -> List.of(s0);
+        }
+
+        @Override
+        public TransFunc<StateStub, ActionStub, ExplPrec> getTransFunc() {
+            return (state, action, prec) -> {
+                calls++;
+                return List.of(s1);
+            };
+        }
+    };
+
+    @Test
+    public void testSamePrec() {
+        final CachingAnalysis<StateStub, ActionStub, ExplPrec> cachingAnalysis = CachingAnalysis
+                .create(analysis, 10);
+        final ExplPrec prec = ExplPrec.of(Set.of(x));
+
+        assertEquals(List.of(s1), cachingAnalysis.getTransFunc().getSuccStates(s0, a, prec));
+        assertEquals(List.of(s1), cachingAnalysis.getTransFunc().getSuccStates(s0, a, prec));
+        assertEquals(List.of(s1),
+                cachingAnalysis.getTransFunc().getSuccStates(s0, a, ExplPrec.of(Set.of(x))));
+        assertEquals(1, calls);
+        assertEquals(2, cachingAnalysis.getStats().hitCount());
+
+        cachingAnalysis.getTransFunc().getSuccStates(s1, a, prec);
+        assertEquals(2, calls);
+    }
+
+    @Test
+    public void testRefinedPrec() {
+        final CachingAnalysis<StateStub, ActionStub, ExplPrec> cachingAnalysis = CachingAnalysis
+                .create(analysis, 10);
+
+        cachingAnalysis.getTransFunc().getSuccStates(s0, a, ExplPrec.of(Set.of(x)));
+        cachingAnalysis.getTransFunc().getSuccStates(s0, a, ExplPrec.of(Set.of(x, y)));
+        assertEquals(2, calls);
+    }
+
+    @Test
+    public void testProjection() {
+        // Only x is relevant for the action
+        final CachingAnalysis<StateStub, ActionStub, ExplPrec> cachingAnalysis = CachingAnalysis
+                .create(analysis, (state, action, prec) -> prec.getVars().contains(x), 10);
+
+        cachingAnalysis.getTransFunc().getSuccStates(s0, a, ExplPrec.of(Set.of(x)));
+        cachingAnalysis.getTransFunc().getSuccStates(s0, a, ExplPrec.of(Set.of(x, y)));
+        assertEquals(1, calls);
+        cachingAnalysis.getTransFunc().getSuccStates(s0, a, ExplPrec.of(Set.of(y)));
+        assertEquals(2, calls);
+    }
+
+    @Test
+    public void testEviction() {
+        final CachingAnalysis<StateStub, ActionStub, ExplPrec> cachingAnalysis = CachingAnalysis
+                .create(analysis, 1);
+        final ExplPrec prec = ExplPrec.of(Set.of(x));
+
+        cachingAnalysis.getTransFunc().getSuccStates(s0, a, prec);
+        cachingAnalysis.getTransFunc().getSuccStates(s1, a, prec);
+        cachingAnalysis.getTransFunc().getSuccStates(s0, a, prec);
+        assertEquals(3, calls);
+    }
+}
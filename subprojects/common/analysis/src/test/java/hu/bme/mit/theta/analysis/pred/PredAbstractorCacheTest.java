@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+
+public class PredAbstractorCacheTest {
+
+    private final VarDecl<IntType> x = Var("x", Int());
+    private final PredPrec prec = PredPrec.of(ImmutableList.of(Lt(x.getRef(), Int(5))));
+    private final VarIndexing indexing0 = VarIndexingFactory.indexing(0);
+    private final VarIndexing indexing1 = VarIndexingFactory.indexing(1);
+
+    private int calls = 0;
+    private final PredAbstractor countingAbstractor = (expr, exprIndexing, prec, precIndexing) -> {
+        calls++;
+        return Collections.singleton(PredState.of());
+    };
+
+    @Test
+    public void testHit() {
+        final PredAbstractorCache cache = PredAbstractorCache.create(10);
+        final PredAbstractor abstractor = PredAbstractors.cachingAbstractor(countingAbstractor, cache);
+
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing0);
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing0);
+        Assert.assertEquals(1, calls);
+        Assert.assertEquals(1, cache.getStats().hitCount());
+        Assert.assertEquals(1, cache.getStats().missCount());
+    }
+
+    @Test
+    public void testIndexing() {
+        final PredAbstractorCache cache = PredAbstractorCache.create(10);
+        final PredAbstractor abstractor = PredAbstractors.cachingAbstractor(countingAbstractor, cache);
+
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing0);
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(3)), indexing1, prec, indexing0);
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing1);
+        Assert.assertEquals(3, calls);
+    }
+
+    @Test
+    public void testShared() {
+        final PredAbstractorCache cache = PredAbstractorCache.create(10);
+
+        PredAbstractors.cachingAbstractor(countingAbstractor, cache)
+                .createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing0);
+        PredAbstractors.cachingAbstractor(countingAbstractor, cache)
+                .createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing0);
+        Assert.assertEquals(1, calls);
+        cache.clear();
+        PredAbstractors.cachingAbstractor(countingAbstractor, cache)
+                .createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing0);
+        Assert.assertEquals(2, calls);
+    }
+
+    @Test
+    public void testWeight() {
+        // Each result weighs 2 (one predicate in one state, plus one)
+        final PredAbstractorCache cache = PredAbstractorCache.builder().maximumWeight(4).build();
+        final PredAbstractor abstractor = PredAbstractors.cachingAbstractor(
+                (expr, exprIndexing, prec, precIndexing) -> {
+                    calls++;
+                    return Collections.singleton(PredState.of(expr));
+                }, cache);
+
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(1)), indexing0, prec, indexing0);
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(2)), indexing0, prec, indexing0);
+        Assert.assertEquals(2, cache.size());
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(3)), indexing0, prec, indexing0);
+        Assert.assertEquals(2, cache.size());
+        abstractor.createStatesForExpr(Lt(x.getRef(), Int(1)), indexing0, prec, indexing0);
+        Assert.assertEquals(4, calls);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Bound;
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Leq;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FlatDbmTest {
+
+    private static final int SIZE = 5;
+    private static final int STEPS = 40;
+    private static final int RUNS = 500;
+
+    @Test
+    public void testIdenticalToBasicDbm() {
+        final Random random = new Random(0);
+        for (int run = 0; run < RUNS; run++) {
+            final DbmMatrix basic = new BasicDbm(SIZE, BasicDbm::defaultBound);
+            final DbmMatrix flat = new FlatDbm(SIZE, BasicDbm::defaultBound);
+            basic.and(0, 1, Leq(0));
+            flat.and(0, 1, Leq(0));
+
+            for (int step = 0; step < STEPS; step++) {
+                final Op op = Op.random(random);
+                op.apply(basic);
+                op.apply(flat);
+                assertArrayEquals(toArray(basic), toArray(flat));
+                assertEquals(basic.isLeq(flat), flat.isLeq(basic));
+            }
+        }
+    }
+
+    /**
+     * Compares both backends to the semantics of the original implementation, where constraints
+     * were added by setting the bound and closing the whole matrix.
+     */
+    @Test
+    public void testMatchesFullClosure() {
+        final Random random = new Random(1);
+        for (int run = 0; run < RUNS; run++) {
+            final DbmMatrix reference = new BasicDbm(SIZE, BasicDbm::defaultBound);
+            final DbmMatrix basic = new BasicDbm(SIZE, BasicDbm::defaultBound);
+            final DbmMatrix flat = new FlatDbm(SIZE, BasicDbm::defaultBound);
+
+            for (int step = 0; step < STEPS; step++) {
+                final Op op = Op.random(random);
+                op.applyWithFullClosure(reference);
+                op.apply(basic);
+                op.apply(flat);
+                assertSameZone(reference, basic);
+                assertSameZone(reference, flat);
+            }
+        }
+    }
+
+    private static void assertSameZone(final DbmMatrix expected, final DbmMatrix actual) {
+        assertEquals(expected.isConsistent(), actual.isConsistent());
+        if (expected.isConsistent()) {
+            assertArrayEquals(toArray(expected), toArray(actual));
+        }
+    }
+
+    private static final class Op {
+        private final int kind;
+        private final int x;
+        private final int y;
+        private final int m;
+        private final boolean strict;
+        private final int[] k;
+
+        private Op(final int kind, final int x, final int y, final int m, final boolean strict,
+                   final int[] k) {
+            this.kind = kind;
+            this.x = x;
+            this.y = y;
+            this.m = m;
+            this.strict = strict;
+            this.k = k;
+        }
+
+        private static Op random(final Random random) {
+            return new Op(random.nextInt(9), 1 + random.nextInt(SIZE - 1), random.nextInt(SIZE),
+                    random.nextInt(11) - 5, random.nextBoolean(),
+                    random.ints(SIZE, 0, 6).toArray());
+        }
+
+        private void apply(final DbmMatrix dbm) {
+            switch (kind) {
+                case 0:
+                    dbm.up();
+                    break;
+                case 1:
+                case 2:
+                case 3:
+                    dbm.and(x, y, Bound(m, strict));
+                    break;
+                case 4:
+                    dbm.reset(x, Math.abs(m));
+                    break;
+                case 5:
+                    dbm.free(x);
+                    break;
+                case 6:
+                    dbm.nonnegative();
+                    break;
+                case 7:
+                    dbm.norm(k);
+                    break;
+                case 8:
+                    dbm.down();
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+
+        /**
+         * Applies the operation like {@link #apply}, but adds constraints by closing the whole
+         * matrix instead of the incremental update.
+         */
+        private void applyWithFullClosure(final DbmMatrix dbm) {
+            switch (kind) {
+                case 1:
+                case 2:
+                case 3:
+                    andWithFullClosure(dbm, x, y, Bound(m, strict));
+                    break;
+                case 6:
+                    for (int i = 1; i < SIZE; i++) {
+                        andWithFullClosure(dbm, 0, i, Leq(0));
+                    }
+                    break;
+                default:
+                    apply(dbm);
+            }
+        }
+
+        private static void andWithFullClosure(final DbmMatrix dbm, final int x, final int y,
+                                               final int b) {
+            if (!dbm.isConsistent()) {
+                return;
+            }
+            if (!dbm.isSatisfied(x, y, b)) {
+                dbm.set(0, 0, Leq(-1));
+            } else if (b < dbm.get(x, y)) {
+                dbm.set(x, y, b);
+                dbm.close();
+            }
+        }
+    }
+
+    private static int[] toArray(final DbmMatrix dbm) {
+        final int[] result = new int[dbm.size() * dbm.size()];
+        for (int i = 0; i < dbm.size(); i++) {
+            for (int j = 0; j < dbm.size(); j++) {
+                result[i * dbm.size() + j] = dbm.get(i, j);
+            }
+        }
+        return result;
+    }
+
+}
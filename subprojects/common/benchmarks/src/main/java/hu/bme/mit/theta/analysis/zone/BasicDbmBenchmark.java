@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static hu.bme.mit.theta.analysis.zone.DiffBounds.Leq;
+
+/**
+ * Operations of {@link BasicDbm} in the order the zone transfer function applies them (guard,
+ * reset, delay, extrapolation), and the inclusion check used for covering. Placed in the package
+ * of the DBM, as the matrix is not part of the public API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasicDbmBenchmark {
+
+    private static final int MAX_CONSTANT = 10;
+
+    @Param({"4", "16"})
+    public int clocks;
+
+    private BasicDbm zone;
+    private BasicDbm largerZone;
+    private int[] ceilings;
+    private int guardClock;
+    private int resetClock;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final int size = clocks + 1;
+
+        zone = new BasicDbm(size, (x, y) -> Leq(0));
+        zone.up();
+        for (int i = 1; i <= clocks; i++) {
+            zone.and(i, 0, Leq(random.nextInt(MAX_CONSTANT) + 1));
+            zone.reset(random.nextInt(clocks) + 1, 0);
+            zone.up();
+        }
+        largerZone = new BasicDbm(zone);
+        largerZone.free(random.nextInt(clocks) + 1);
+
+        ceilings = new int[size];
+        Arrays.fill(ceilings, MAX_CONSTANT);
+        ceilings[0] = 0;
+        guardClock = random.nextInt(clocks) + 1;
+        resetClock = random.nextInt(clocks) + 1;
+    }
+
+    @Benchmark
+    public BasicDbm successor() {
+        final BasicDbm succ = new BasicDbm(zone);
+        succ.and(0, guardClock, Leq(-1));
+        succ.reset(resetClock, 0);
+        succ.up();
+        succ.norm(ceilings);
+        return succ;
+    }
+
+    @Benchmark
+    public BasicDbm close() {
+        final BasicDbm result = new BasicDbm(zone);
+        result.close();
+        return result;
+    }
+
+    @Benchmark
+    public boolean isLeq() {
+        return zone.isLeq(largerZone);
+    }
+
+}
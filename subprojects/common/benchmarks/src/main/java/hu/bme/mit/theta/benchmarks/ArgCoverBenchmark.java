@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.expl.ExplOrd;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks whether the nodes of an ARG of explicit states may cover a deep leaf, as the abstractor
+ * does for each new node. The ARG is a long path with a side branch at each node, so the
+ * ancestor check has to walk the path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgCoverBenchmark {
+
+    @Param({"50", "500"})
+    public int depth;
+
+    private List<ArgNode<ExplState, StmtAction>> candidates;
+    private ArgNode<ExplState, StmtAction> leaf;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final List<VarDecl<IntType>> vars = ExprFixtures.intVars("x", 8);
+        final ExplPrec prec = ExplPrec.of(vars);
+        final StmtAction action = TraceFixtures.action(vars, random);
+
+        final ARG<ExplState, StmtAction> arg = ARG.create(ExplOrd.getInstance());
+        ArgNode<ExplState, StmtAction> node = arg.createInitNode(
+                prec.createState(ExprFixtures.valuation(vars, 0.5, random)), false);
+        candidates = new ArrayList<>(2 * depth);
+        for (int i = 0; i < depth; i++) {
+            final ArgNode<ExplState, StmtAction> side = arg.createSuccNode(node, action,
+                    prec.createState(ExprFixtures.valuation(vars, 0.3, random)), false);
+            candidates.add(side);
+            candidates.add(node);
+            node = arg.createSuccNode(node, action,
+                    prec.createState(ExprFixtures.valuation(vars, 0.5, random)), false);
+        }
+        leaf = node;
+    }
+
+    @Benchmark
+    public int mayCover() {
+        int count = 0;
+        for (final ArgNode<ExplState, StmtAction> candidate : candidates) {
+            if (candidate.mayCover(leaf)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Ite;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Sub;
+
+/**
+ * Generators for expressions shaped like the guards and assignments of software models: linear
+ * integer arithmetic over a few variables with small constants, comparisons and nested Boolean
+ * connectives. All generators are deterministic for a given {@link Random} seed, so that
+ * benchmark runs are comparable.
+ */
+public final class ExprFixtures {
+
+    private ExprFixtures() {
+    }
+
+    public static List<VarDecl<IntType>> intVars(final String prefix, final int count) {
+        checkArgument(count > 0);
+        final List<VarDecl<IntType>> vars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vars.add(Decls.Var(prefix + i, Int()));
+        }
+        return vars;
+    }
+
+    /**
+     * Generates a Boolean combination of comparisons.
+     *
+     * @param depth Depth of the Boolean connectives (0 means a single comparison)
+     */
+    public static Expr<BoolType> boolExpr(final List<VarDecl<IntType>> vars, final int depth,
+                                          final Random random) {
+        if (depth == 0) {
+            final Expr<IntType> left = intExpr(vars, 1, random);
+            final Expr<IntType> right = intExpr(vars, 1, random);
+            switch (random.nextInt(3)) {
+                case 0:
+                    return Leq(left, right);
+                case 1:
+                    return Lt(left, right);
+                default:
+                    return Eq(left, right);
+            }
+        }
+        switch (random.nextInt(4)) {
+            case 0:
+                return Not(boolExpr(vars, depth - 1, random));
+            case 1:
+                return Or(boolExpr(vars, depth - 1, random), boolExpr(vars, depth - 1, random));
+            default:
+                return And(boolExpr(vars, depth - 1, random), boolExpr(vars, depth - 1, random));
+        }
+    }
+
+    /**
+     * Generates an arithmetic expression, mostly linear, with occasional if-then-else.
+     *
+     * @param depth Depth of the operators (0 means a variable or a constant)
+     */
+    public static Expr<IntType> intExpr(final List<VarDecl<IntType>> vars, final int depth,
+                                        final Random random) {
+        if (depth == 0) {
+            if (random.nextInt(3) == 0) {
+                return Int(random.nextInt(21) - 10);
+            } else {
+                return vars.get(random.nextInt(vars.size())).getRef();
+            }
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+                return Sub(intExpr(vars, depth - 1, random), intExpr(vars, depth - 1, random));
+            case 1:
+                return Mul(Int(random.nextInt(5) + 1), intExpr(vars, depth - 1, random));
+            case 2:
+                return Ite(boolExpr(vars, 0, random), intExpr(vars, depth - 1, random),
+                        intExpr(vars, depth - 1, random));
+            default:
+                return Add(intExpr(vars, depth - 1, random), intExpr(vars, depth - 1, random));
+        }
+    }
+
+    /**
+     * Generates a valuation that assigns small values to a given ratio of the variables, like the
+     * states of explicit-value analysis with a partial precision.
+     */
+    public static Valuation valuation(final List<VarDecl<IntType>> vars, final double ratio,
+                                      final Random random) {
+        final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+        for (final VarDecl<IntType> var : vars) {
+            if (random.nextDouble() < ratio) {
+                builder.put(var, Int(random.nextInt(21) - 10));
+            }
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.ExprSimplifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExprSimplifierBenchmark {
+
+    private static final int EXPRS = 64;
+
+    @Param({"3", "6"})
+    public int depth;
+
+    private List<Expr<BoolType>> exprs;
+    private Valuation valuation;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final List<VarDecl<IntType>> vars = ExprFixtures.intVars("x", 8);
+        exprs = new ArrayList<>(EXPRS);
+        for (int i = 0; i < EXPRS; i++) {
+            exprs.add(ExprFixtures.boolExpr(vars, depth, random));
+        }
+        valuation = ExprFixtures.valuation(vars, 0.5, random);
+    }
+
+    @Benchmark
+    public void simplify(final Blackhole blackhole) {
+        for (final Expr<BoolType> expr : exprs) {
+            blackhole.consume(ExprSimplifier.simplify(expr, ImmutableValuation.empty()));
+        }
+    }
+
+    @Benchmark
+    public void simplifyWithValuation(final Blackhole blackhole) {
+        for (final Expr<BoolType> expr : exprs) {
+            blackhole.consume(ExprSimplifier.simplify(expr, valuation));
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unfolds the actions of a trace with increasing indexings, as the trace checkers do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathUtilsBenchmark {
+
+    @Param({"10", "100"})
+    public int length;
+
+    private List<StmtAction> trace;
+    private List<Expr<BoolType>> exprs;
+    private List<VarIndexing> indexings;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        trace = TraceFixtures.trace(ExprFixtures.intVars("x", 8), length, random);
+        exprs = new ArrayList<>(length);
+        indexings = new ArrayList<>(length);
+        VarIndexing indexing = VarIndexingFactory.indexing(0);
+        for (final StmtAction action : trace) {
+            exprs.add(action.toExpr());
+            indexings.add(indexing);
+            indexing = indexing.add(action.nextIndexing());
+        }
+    }
+
+    @Benchmark
+    public void unfold(final Blackhole blackhole) {
+        for (int i = 0; i < exprs.size(); i++) {
+            blackhole.consume(PathUtils.unfold(exprs.get(i), indexings.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void unfoldWithIndexing(final Blackhole blackhole) {
+        // Also includes computing the indexings along the trace
+        VarIndexing indexing = VarIndexingFactory.indexing(0);
+        for (final StmtAction action : trace) {
+            blackhole.consume(PathUtils.unfold(action.toExpr(), indexing));
+            indexing = indexing.add(action.nextIndexing());
+        }
+    }
+
+}
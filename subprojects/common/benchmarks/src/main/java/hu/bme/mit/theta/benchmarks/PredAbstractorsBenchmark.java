@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.analysis.pred.PredPrec;
+import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+
+/**
+ * Computes abstract successors of predicate states with the abstractors of
+ * {@link PredAbstractors}, using Z3. The time includes the solver calls, which is the point:
+ * the abstractors differ mostly in how many calls they make.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredAbstractorsBenchmark {
+
+    public enum Abstraction {
+        BOOL_SPLIT, BOOL, CARTESIAN
+    }
+
+    @Param({"BOOL_SPLIT", "BOOL", "CARTESIAN"})
+    public Abstraction abstraction;
+
+    @Param({"4", "8"})
+    public int preds;
+
+    private Solver solver;
+    private PredAbstractor abstractor;
+    private PredPrec prec;
+    private Expr<BoolType> expr;
+    private StmtAction action;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final List<VarDecl<IntType>> vars = ExprFixtures.intVars("x", 4);
+        final List<Expr<BoolType>> predicates = new ArrayList<>(preds);
+        for (int i = 0; i < preds; i++) {
+            predicates.add(ExprFixtures.boolExpr(vars, 0, random));
+        }
+        prec = PredPrec.of(predicates);
+        action = TraceFixtures.action(vars, random);
+        expr = And(PredState.of(predicates.subList(0, preds / 2)).toExpr(), action.toExpr());
+
+        solver = Z3SolverFactory.getInstance().createSolver();
+        switch (abstraction) {
+            case BOOL_SPLIT:
+                abstractor = PredAbstractors.booleanSplitAbstractor(solver);
+                break;
+            case BOOL:
+                abstractor = PredAbstractors.booleanAbstractor(solver);
+                break;
+            case CARTESIAN:
+                abstractor = PredAbstractors.cartesianAbstractor(solver);
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        solver.close();
+    }
+
+    @Benchmark
+    public Collection<PredState> createStatesForExpr() {
+        return abstractor.createStatesForExpr(expr, VarIndexingFactory.indexing(0), prec,
+                action.nextIndexing());
+    }
+
+}
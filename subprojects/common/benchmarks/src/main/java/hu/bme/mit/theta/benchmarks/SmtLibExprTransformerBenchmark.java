@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
+import hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory;
+import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSymbolTable;
+import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibTransformationManager;
+import hu.bme.mit.theta.solver.smtlib.solver.transformer.SmtLibTransformationManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transforms unfolded traces (the typical solver input of refinement) to SMT-LIB terms with the
+ * generic transformer. A new transformation manager is created in each invocation unless noted
+ * otherwise, as the transformer caches the terms of expressions it has already seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmtLibExprTransformerBenchmark {
+
+    @Param({"10", "100"})
+    public int length;
+
+    private List<Expr<BoolType>> exprs;
+    private SmtLibTransformationManager warmManager;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final List<StmtAction> trace = TraceFixtures.trace(ExprFixtures.intVars("x", 8), length,
+                random);
+        exprs = new ArrayList<>(length);
+        VarIndexing indexing = VarIndexingFactory.indexing(0);
+        for (final StmtAction action : trace) {
+            exprs.add(PathUtils.unfold(action.toExpr(), indexing));
+            indexing = indexing.add(action.nextIndexing());
+        }
+
+        warmManager = new GenericSmtLibTransformationManager(new GenericSmtLibSymbolTable());
+        exprs.forEach(warmManager::toTerm);
+    }
+
+    @Benchmark
+    public void toTerm(final Blackhole blackhole) {
+        final SmtLibTransformationManager manager = new GenericSmtLibTransformationManager(
+                new GenericSmtLibSymbolTable());
+        for (final Expr<BoolType> expr : exprs) {
+            blackhole.consume(manager.toTerm(expr));
+        }
+    }
+
+    @Benchmark
+    public void toSharedTerm(final Blackhole blackhole) {
+        final SmtLibTransformationManager manager = new GenericSmtLibTransformationManager(
+                new GenericSmtLibSymbolTable());
+        for (final Expr<BoolType> expr : exprs) {
+            blackhole.consume(manager.toSharedTerm(expr));
+        }
+    }
+
+    @Benchmark
+    public void toTermCached(final Blackhole blackhole) {
+        for (final Expr<BoolType> expr : exprs) {
+            blackhole.consume(warmManager.toTerm(expr));
+        }
+    }
+
+}
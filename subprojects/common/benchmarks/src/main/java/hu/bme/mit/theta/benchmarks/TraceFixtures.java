@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+
+/**
+ * Generators for traces, i.e., sequences of actions shaped like the edges of a CFA: a guard
+ * followed by a few assignments. Deterministic for a given {@link Random} seed.
+ */
+public final class TraceFixtures {
+
+    private TraceFixtures() {
+    }
+
+    public static List<StmtAction> trace(final List<VarDecl<IntType>> vars, final int length,
+                                         final Random random) {
+        final List<StmtAction> actions = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            actions.add(action(vars, random));
+        }
+        return actions;
+    }
+
+    public static StmtAction action(final List<VarDecl<IntType>> vars, final Random random) {
+        final List<Stmt> stmts = new ArrayList<>();
+        stmts.add(Assume(ExprFixtures.boolExpr(vars, 1, random)));
+        final int assignments = 1 + random.nextInt(3);
+        for (int i = 0; i < assignments; i++) {
+            final VarDecl<IntType> lhs = vars.get(random.nextInt(vars.size()));
+            stmts.add(Assign(lhs, ExprFixtures.intExpr(vars, 2, random)));
+        }
+        return new FixtureAction(stmts);
+    }
+
+    private static final class FixtureAction extends StmtAction {
+
+        private final List<Stmt> stmts;
+
+        private FixtureAction(final List<Stmt> stmts) {
+            this.stmts = List.copyOf(stmts);
+        }
+
+        @Override
+        public List<Stmt> getStmts() {
+            return stmts;
+        }
+    }
+
+}
@@ -0,0 +1,339 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common;
+
+import hu.bme.mit.theta.common.exception.BudgetExceededException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Cancellation token and resource limits (cpu time, memory, iterations) of an analysis. The
+ * analysis calls {@link #checkpoint()} at fine-grained steps (e.g., node expansions and solver
+ * calls), which throws a {@link BudgetExceededException} once the budget is cancelled or one of
+ * its limits is exceeded. Long blocking operations (e.g., solver calls) can register a listener
+ * with {@link #runInterruptibly} to be interrupted as soon as that happens.
+ * <p>
+ * A budget is bound to the threads running the analysis with {@link #call}, and the components
+ * of the analysis access it with {@link #current()}, so that it does not have to be passed to
+ * every component (solvers are typically created long before the analysis starts). When no budget
+ * is bound, {@link #current()} returns an unlimited budget that cannot be cancelled.
+ * <p>
+ * Cpu time is the sum of the cpu time of the threads that the budget is bound to, measured
+ * between checkpoints (so time spent in solver processes is not included). Memory is the heap
+ * usage of the whole JVM (including garbage that is not collected yet). To keep checkpoints
+ * cheap, these are only measured at every {@value SAMPLING_INTERVAL}th checkpoint of a thread.
+ */
+public final class AnalysisBudget {
+
+    public enum Limit {
+        CANCELLED, CPU_TIME, MEMORY, ITERATIONS
+    }
+
+    private static final int SAMPLING_INTERVAL = 16;
+    private static final ThreadLocal<AnalysisBudget> current = new ThreadLocal<>();
+    private static final AnalysisBudget UNLIMITED = new AnalysisBudget(Long.MAX_VALUE,
+            Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final long cpuTimeLimit; // in ns
+    private final long memoryLimit; // in bytes
+    private final int iterationLimit;
+    private final boolean sampling;
+
+    private final AtomicLong cpuTime = new AtomicLong(0);
+    private final AtomicInteger iterations = new AtomicInteger(0);
+    private final ThreadLocal<ThreadSample> threadSample = ThreadLocal.withInitial(
+            ThreadSample::new);
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile Limit exceededLimit = null;
+
+    private AnalysisBudget(final long cpuTimeLimit, final long memoryLimit,
+                           final int iterationLimit) {
+        this.cpuTimeLimit = cpuTimeLimit;
+        this.memoryLimit = memoryLimit;
+        this.iterationLimit = iterationLimit;
+        this.sampling = cpuTimeLimit != Long.MAX_VALUE || memoryLimit != Long.MAX_VALUE;
+    }
+
+    /**
+     * Create a budget without limits that can only be cancelled.
+     */
+    public static AnalysisBudget create() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the budget bound to the current thread, or an unlimited budget (that cannot be
+     * cancelled) if there is none.
+     */
+    public static AnalysisBudget current() {
+        final AnalysisBudget budget = current.get();
+        return budget != null ? budget : UNLIMITED;
+    }
+
+    /**
+     * Run an action with this budget bound to the current thread. The previously bound budget is
+     * restored afterwards.
+     */
+    public <T> T call(final Supplier<T> action) {
+        final AnalysisBudget previous = current.get();
+        if (previous == this) {
+            return action.get();
+        }
+        current.set(this);
+        if (sampling) {
+            threadSample.get().reset();
+        }
+        try {
+            return action.get();
+        } finally {
+            if (sampling) {
+                sample();
+                threadSample.remove();
+            }
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * Run an action with this budget bound to the current thread.
+     */
+    public void run(final Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Cancel the analysis: the next checkpoint will throw an exception and the registered
+     * listeners are notified.
+     */
+    public void cancel() {
+        exceed(Limit.CANCELLED);
+    }
+
+    public boolean isExceeded() {
+        return exceededLimit != null;
+    }
+
+    /**
+     * @return the first limit that was exceeded (or {@link Limit#CANCELLED}), or null if none
+     */
+    public Limit getExceededLimit() {
+        return exceededLimit;
+    }
+
+    public int getIterations() {
+        return iterations.get();
+    }
+
+    /**
+     * @return the cpu time measured so far (only if there is a cpu time or memory limit)
+     */
+    public Duration getCpuTime() {
+        return Duration.ofNanos(cpuTime.get());
+    }
+
+    /**
+     * Throw an exception if the budget is cancelled or one of its limits is exceeded.
+     *
+     * @throws BudgetExceededException if the budget is cancelled or exceeded
+     */
+    public void checkpoint() {
+        final Limit limit = exceededLimit;
+        if (limit != null) {
+            throw new BudgetExceededException(limit);
+        }
+        if (sampling && threadSample.get().tick()) {
+            sample();
+            checkLimits();
+        }
+    }
+
+    /**
+     * Count an iteration of the analysis (e.g., a CEGAR iteration) and check the budget.
+     *
+     * @throws BudgetExceededException if the budget is cancelled or exceeded
+     */
+    public void iteration() {
+        if (this == UNLIMITED) {
+            return;
+        }
+        if (iterations.incrementAndGet() > iterationLimit) {
+            exceed(Limit.ITERATIONS);
+        }
+        checkpoint();
+    }
+
+    /**
+     * Run a blocking action that can be interrupted by the given interrupt, which is called if the
+     * budget is cancelled or exceeded while the action runs (possibly from a different thread).
+     * The budget is checked before and after the action, so an action that is interrupted results
+     * in a {@link BudgetExceededException} (and not in whatever it returns or throws when
+     * interrupted).
+     */
+    public <T> T runInterruptibly(final Supplier<T> action, final Runnable interrupt) {
+        checkpoint();
+        if (this == UNLIMITED) {
+            return action.get();
+        }
+        listeners.add(interrupt);
+        final T result;
+        try {
+            // The budget might have been exceeded before the listener was registered
+            checkpoint();
+            result = action.get();
+        } catch (final RuntimeException e) {
+            if (isExceeded()) {
+                final BudgetExceededException exceeded = new BudgetExceededException(
+                        exceededLimit);
+                exceeded.addSuppressed(e);
+                throw exceeded;
+            }
+            throw e;
+        } finally {
+            listeners.remove(interrupt);
+        }
+        checkpoint();
+        return result;
+    }
+
+    private void sample() {
+        final ThreadSample sample = threadSample.get();
+        cpuTime.addAndGet(sample.elapsedCpuTime());
+    }
+
+    private void checkLimits() {
+        if (cpuTime.get() > cpuTimeLimit) {
+            exceed(Limit.CPU_TIME);
+        } else if (memoryLimit != Long.MAX_VALUE) {
+            final Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > memoryLimit) {
+                exceed(Limit.MEMORY);
+            }
+        }
+        checkpoint();
+    }
+
+    private void exceed(final Limit limit) {
+        checkState(this != UNLIMITED, "The unlimited budget cannot be cancelled");
+        synchronized (this) {
+            if (exceededLimit != null) {
+                return;
+            }
+            exceededLimit = limit;
+        }
+        for (final Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Utils.lispStringBuilder(getClass().getSimpleName())
+                .add(cpuTimeLimit == Long.MAX_VALUE ? "-" : Duration.ofNanos(cpuTimeLimit))
+                .add(memoryLimit == Long.MAX_VALUE ? "-" : memoryLimit)
+                .add(iterationLimit == Integer.MAX_VALUE ? "-" : iterationLimit)
+                .add(exceededLimit == null ? "-" : exceededLimit)
+                .toString();
+    }
+
+    private static final class ThreadSample {
+
+        private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        private long lastCpuTime;
+        private int ticks;
+
+        private ThreadSample() {
+            reset();
+        }
+
+        private void reset() {
+            lastCpuTime = threadMXBean.getCurrentThreadCpuTime();
+            ticks = 0;
+        }
+
+        private boolean tick() {
+            ticks++;
+            return ticks % SAMPLING_INTERVAL == 0;
+        }
+
+        private long elapsedCpuTime() {
+            final long now = threadMXBean.getCurrentThreadCpuTime();
+            final long elapsed = now - lastCpuTime;
+            lastCpuTime = now;
+            return elapsed;
+        }
+    }
+
+    public static final class Builder {
+
+        private long cpuTimeLimit = Long.MAX_VALUE;
+        private long memoryLimit = Long.MAX_VALUE;
+        private int iterationLimit = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder cpuTime(final Duration cpuTime) {
+            checkNotNull(cpuTime);
+            checkArgument(!cpuTime.isNegative(), "Negative cpu time limit");
+            checkState(ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported(),
+                    "Measuring thread cpu time is not supported");
+            this.cpuTimeLimit = cpuTime.toNanos();
+            return this;
+        }
+
+        /**
+         * @param memory limit of the heap usage, in bytes
+         */
+        public Builder memory(final long memory) {
+            checkArgument(memory > 0, "Memory limit must be positive");
+            this.memoryLimit = memory;
+            return this;
+        }
+
+        public Builder iterations(final int iterations) {
+            checkArgument(iterations >= 0, "Negative iteration limit");
+            this.iterationLimit = iterations;
+            return this;
+        }
+
+        public AnalysisBudget build() {
+            return new AnalysisBudget(cpuTimeLimit, memoryLimit, iterationLimit);
+        }
+    }
+}
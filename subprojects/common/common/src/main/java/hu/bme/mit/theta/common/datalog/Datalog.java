@@ -17,21 +17,23 @@
 package hu.bme.mit.theta.common.datalog;
 
 /*
- * Datalog engine using naive (enumerative) evaluation.
+ * Datalog engine using semi-naive (delta-driven) evaluation, see
+ * http://pages.cs.wisc.edu/~paris/cs838-s16/lecture-notes/lecture8.pdf
+ * Arguments are interned to integers, and relations are stored as int tuples with hash indexes on
+ * the columns that are bound when a clause of a rule is joined.
  * Limitations:
  *  - Only relations are supported right now, simple atoms are not
- *  - There is a performance penalty for specific rulesets, see
- *    http://pages.cs.wisc.edu/~paris/cs838-s16/lecture-notes/lecture8.pdf
  */
 
 import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.common.Tuple2;
-import hu.bme.mit.theta.common.Tuple3;
 import hu.bme.mit.theta.common.TupleN;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -45,11 +47,17 @@ import static com.google.common.base.Preconditions.checkState;
 public class Datalog {
 
     private final Map<String, Relation> relations;
+    private final List<Rule> rules;
+    private final List<DatalogArgument> arguments;
+    private final Map<DatalogArgument, Integer> argumentIds;
     private boolean debug = false;
     private int stackDepth = 0;
 
     protected Datalog() {
         relations = new LinkedHashMap<>();
+        rules = new ArrayList<>();
+        arguments = new ArrayList<>();
+        argumentIds = new HashMap<>();
     }
 
     public static Datalog createProgram() {
@@ -142,26 +150,55 @@ public class Datalog {
         return ret.toString();
     }
 
+    /*
+     * Semi-naive evaluation: in every round, each rule is evaluated once for each of its clauses
+     * that has new facts, with that clause ranging over the facts derived in the previous round
+     * (the delta), the clauses before it over the facts older than the delta, and the clauses
+     * after it over all facts known before the round. This way every derivation is found in the
+     * round after its newest premise was derived, and joins of old facts are never repeated.
+     */
     private void refresh() {
-        int cnt;
-        do {
-            cnt = 0;
+        while (true) {
+            int delta = 0;
             for (Relation relation : relations.values()) {
-                int i = relation.calc();
-                if (debug) {
-                    System.out.println(i + " new facts");
+                delta += relation.startRound();
+            }
+            if (delta == 0) {
+                break;
+            }
+            int cnt = 0;
+            for (Rule rule : rules) {
+                for (int i = 0; i < rule.body.size(); i++) {
+                    if (rule.body.get(i).relation.hasDelta()) {
+                        cnt += rule.evaluate(i);
+                    }
                 }
-                cnt += i;
             }
             if (debug) {
+                System.out.println(cnt + " new facts");
                 System.out.println("====");
             }
-        } while (cnt > 0);
-        for (Relation relation : relations.values()) {
-            relation.flush();
         }
     }
 
+    private int encode(DatalogArgument argument) {
+        Integer id = argumentIds.get(argument);
+        if (id == null) {
+            id = arguments.size();
+            arguments.add(argument);
+            argumentIds.put(argument, id);
+        }
+        return id;
+    }
+
+    private TupleN<DatalogArgument> decode(IntTuple tuple) {
+        List<DatalogArgument> decoded = new ArrayList<>(tuple.values.length);
+        for (int value : tuple.values) {
+            decoded.add(arguments.get(value));
+        }
+        return TupleN.of(decoded);
+    }
+
     public Relation createRelation(String name, int n) {
         checkState(stackDepth == 0,
                 "Cannot create a relation when the program is in temporary (pushed) state");
@@ -290,12 +327,15 @@ public class Datalog {
     public class Relation {
 
         private String name;
-        private final Set<TupleN<DatalogArgument>> elements;
-        private final Set<TupleN<DatalogArgument>> newElements;
-        private final Set<TupleN<DatalogArgument>> toAdd;
-        private final Set<Tuple2<TupleN<Variable>, Set<Tuple2<Relation, TupleN<Variable>>>>> rules;
         private final int arity;
-        private final Stack<Tuple3<Set<TupleN<DatalogArgument>>, Set<TupleN<DatalogArgument>>, Set<TupleN<DatalogArgument>>>> stack;
+        private final List<IntTuple> tuples;
+        private final Set<IntTuple> tupleSet;
+        // Hash indexes of the tuples, keyed by the bitmask of the columns they are projected to
+        private final Map<Integer, Map<IntTuple, Positions>> indexes;
+        private final Stack<Integer> stack;
+        private int processed;
+        private int deltaStart;
+        private int deltaEnd;
 
         private Relation(int n) {
             this("", n);
@@ -308,17 +348,19 @@ public class Datalog {
         private Relation(String name, int n) {
             this.name = name;
             this.arity = n;
-            elements = new LinkedHashSet<>();
-            newElements = new LinkedHashSet<>();
-            rules = new LinkedHashSet<>();
-            toAdd = new LinkedHashSet<>();
+            tuples = new ArrayList<>();
+            tupleSet = new HashSet<>();
+            indexes = new HashMap<>();
             stack = new Stack<>();
         }
 
         public void addFact(TupleN<DatalogArgument> fact) {
             checkState(fact.arity() == arity);
-            newElements.add(fact);
-            if (debug) {
+            int[] values = new int[arity];
+            for (int i = 0; i < arity; i++) {
+                values[i] = encode(fact.get(i));
+            }
+            if (add(values) && debug) {
                 System.out.println();
                 System.out.println("New fact (" + name + "): " + fact);
             }
@@ -333,171 +375,279 @@ public class Datalog {
             for (Tuple2<Relation, TupleN<Variable>> dependency : dependencies) {
                 checkState(dependency.get1().arity == dependency.get2().arity());
             }
-            rules.add(Tuple2.of(args, new LinkedHashSet<>(dependencies)));
+            Rule rule = new Rule(this, args, dependencies);
+            rules.add(rule);
+            rule.evaluate(-1);
             refresh();
         }
 
         public Collection<TupleN<DatalogArgument>> getElements() {
-            ArrayList<TupleN<DatalogArgument>> ret = new ArrayList<>(elements);
-            ret.addAll(newElements);
-            return ImmutableList.copyOf(ret);
+            ImmutableList.Builder<TupleN<DatalogArgument>> ret = ImmutableList.builder();
+            for (IntTuple tuple : tuples) {
+                ret.add(decode(tuple));
+            }
+            return ret.build();
         }
 
         public int getArity() {
             return arity;
         }
 
-        private boolean validate(List<Tuple2<Relation, TupleN<Variable>>> oldClauses,
-                                 Map<Variable, DatalogArgument> currentAssignments,
-                                 List<Map<Variable, DatalogArgument>> assignments) {
-            List<Tuple2<Relation, TupleN<Variable>>> clauses = new ArrayList<>(oldClauses);
-            if (clauses.size() > 0) {
-                Tuple2<Relation, TupleN<Variable>> clause = clauses.get(0);
-                clauses.remove(0);
-                for (TupleN<DatalogArgument> element : clause.get1().elements) {
-                    Map<Variable, DatalogArgument> nextAssignments = new LinkedHashMap<>(
-                            currentAssignments);
-                    if (!putAssignments(nextAssignments, clause, element)) {
-                        validate(clauses, nextAssignments, assignments);
-                    }
-                }
-                for (TupleN<DatalogArgument> element : clause.get1().newElements) {
-                    Map<Variable, DatalogArgument> nextAssignments = new LinkedHashMap<>(
-                            currentAssignments);
-                    if (!putAssignments(nextAssignments, clause, element)) {
-                        validate(clauses, nextAssignments, assignments);
-                    }
+        private boolean add(int[] values) {
+            IntTuple tuple = new IntTuple(values);
+            if (!tupleSet.add(tuple)) {
+                return false;
+            }
+            int position = tuples.size();
+            tuples.add(tuple);
+            indexes.forEach((mask, index) ->
+                    index.computeIfAbsent(tuple.project(mask), key -> new Positions()).add(position));
+            return true;
+        }
+
+        private Positions lookup(int mask, IntTuple key) {
+            Map<IntTuple, Positions> index = indexes.get(mask);
+            if (index == null) {
+                index = new HashMap<>();
+                for (int i = 0; i < tuples.size(); i++) {
+                    index.computeIfAbsent(tuples.get(i).project(mask), k -> new Positions()).add(i);
                 }
-                return assignments.size() > 0;
-            } else {
-                assignments.add(currentAssignments);
-                return true;
+                indexes.put(mask, index);
             }
+            return index.get(key);
         }
 
-        private int calc() {
-            int cnt = 0;
-            for (Tuple2<TupleN<Variable>, Set<Tuple2<Relation, TupleN<Variable>>>> rule : rules) {
-                for (Tuple2<Relation, TupleN<Variable>> clause : rule.get2()) {
-                    Set<TupleN<DatalogArgument>> alreadyAdded = new LinkedHashSet<>();
-                    boolean atLeastOne = true;
-                    while (atLeastOne) {
-                        atLeastOne = false;
-                        for (TupleN<DatalogArgument> newElement : clause.get1().newElements.stream()
-                                .filter(objects -> !alreadyAdded.contains(objects))
-                                .collect(Collectors.toCollection(LinkedHashSet::new))) {
-                            cnt = addElements(cnt, rule, clause, newElement);
-                            alreadyAdded.add(newElement);
-                            atLeastOne = true;
-                        }
-                    }
-                    alreadyAdded.clear();
-                    atLeastOne = true;
-                    while (atLeastOne) {
-                        atLeastOne = false;
-                        for (TupleN<DatalogArgument> newElement : clause.get1().toAdd.stream()
-                                .filter(objects -> !alreadyAdded.contains(objects))
-                                .collect(Collectors.toCollection(LinkedHashSet::new))) {
-                            cnt = addElements(cnt, rule, clause, newElement);
-                            alreadyAdded.add(newElement);
-                            atLeastOne = true;
-                        }
+        private int startRound() {
+            deltaStart = processed;
+            deltaEnd = tuples.size();
+            processed = deltaEnd;
+            return deltaEnd - deltaStart;
+        }
+
+        private boolean hasDelta() {
+            return deltaStart < deltaEnd;
+        }
+
+        public void push() {
+            stack.push(tuples.size());
+        }
+
+        public void pop() {
+            final int size = stack.pop();
+            for (int i = tuples.size() - 1; i >= size; i--) {
+                final IntTuple tuple = tuples.remove(i);
+                tupleSet.remove(tuple);
+                indexes.forEach((mask, index) -> {
+                    final IntTuple key = tuple.project(mask);
+                    final Positions positions = index.get(key);
+                    positions.removeLast();
+                    if (positions.size == 0) {
+                        index.remove(key);
                     }
+                });
+            }
+            processed = Math.min(processed, size);
+        }
+    }
+
+    private static final class Rule {
+
+        private static final int UNBOUND = -1;
+
+        private final Relation head;
+        private final int[] headVars;
+        private final List<Clause> body;
+        private final int varCount;
+
+        private Rule(Relation head, TupleN<Variable> args,
+                     Set<Tuple2<Relation, TupleN<Variable>>> dependencies) {
+            Map<Variable, Integer> varIds = new LinkedHashMap<>();
+            body = new ArrayList<>(dependencies.size());
+            for (Tuple2<Relation, TupleN<Variable>> dependency : dependencies) {
+                body.add(new Clause(dependency.get1(), toIds(dependency.get2(), varIds)));
+            }
+            int boundVars = varIds.size();
+            this.head = head;
+            this.headVars = toIds(args, varIds);
+            checkState(varIds.size() == boundVars, "Not all variables are bound!");
+            this.varCount = varIds.size();
+        }
+
+        private static int[] toIds(TupleN<Variable> vars, Map<Variable, Integer> varIds) {
+            int[] ids = new int[vars.arity()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = varIds.computeIfAbsent(vars.get(i), v -> varIds.size());
+            }
+            return ids;
+        }
+
+        /*
+         * Evaluates the rule with the deltaIndex-th clause ranging over the delta of its
+         * relation, or with every clause ranging over all the facts if deltaIndex is negative.
+         * The ranges are fixed before evaluation, so the facts derived now are not used yet.
+         */
+        private int evaluate(int deltaIndex) {
+            int n = body.size();
+            int[] order = new int[n];
+            int[] from = new int[n];
+            int[] to = new int[n];
+            int k = 0;
+            if (deltaIndex >= 0) {
+                order[k++] = deltaIndex;
+            }
+            for (int i = 0; i < n; i++) {
+                Relation relation = body.get(i).relation;
+                if (deltaIndex < 0) {
+                    to[i] = relation.tuples.size();
+                } else if (i == deltaIndex) {
+                    from[i] = relation.deltaStart;
+                    to[i] = relation.deltaEnd;
+                } else {
+                    to[i] = i < deltaIndex ? relation.deltaStart : relation.deltaEnd;
+                }
+                if (i != deltaIndex) {
+                    order[k++] = i;
                 }
             }
-            return cnt;
+            int[] binding = new int[varCount];
+            Arrays.fill(binding, UNBOUND);
+            return join(0, order, from, to, binding);
         }
 
-        private int addElements(int cnt,
-                                Tuple2<TupleN<Variable>, Set<Tuple2<Relation, TupleN<Variable>>>> rule,
-                                Tuple2<Relation, TupleN<Variable>> clause, TupleN<DatalogArgument> newElement) {
-            Map<Variable, DatalogArgument> assignments = new LinkedHashMap<>();
-            if (putAssignments(assignments, clause, newElement)) {
-                return cnt;
+        private int join(int k, int[] order, int[] from, int[] to, int[] binding) {
+            if (k == order.length) {
+                int[] values = new int[headVars.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = binding[headVars[i]];
+                }
+                return head.add(values) ? 1 : 0;
             }
-            if (debug) {
-                System.out.println("\t(" + name + ")Checking " + newElement);
+
+            int c = order[k];
+            Clause clause = body.get(c);
+            Relation relation = clause.relation;
+            int mask = 0;
+            int boundCount = 0;
+            for (int i = 0; i < clause.vars.length && i < Integer.SIZE - 1; i++) {
+                if (binding[clause.vars[i]] != UNBOUND) {
+                    mask |= 1 << i;
+                    boundCount++;
+                }
             }
-            ArrayList<Tuple2<Relation, TupleN<Variable>>> validators = new ArrayList<>(rule.get2());
-            validators.remove(clause);
-            List<Map<Variable, DatalogArgument>> satisfyingAssignments = new ArrayList<>();
-            if (validate(validators, assignments, satisfyingAssignments)) {
-                for (Map<Variable, DatalogArgument> satisfyingAssignment : satisfyingAssignments) {
-                    List<DatalogArgument> arguments = new ArrayList<>();
-                    for (Object o : rule.get1()) {
-                        Variable v = (Variable) o;
-                        checkState(satisfyingAssignment.containsKey(v),
-                                "Not all variables are bound!");
-                        arguments.add(satisfyingAssignment.get(v));
+
+            int cnt = 0;
+            if (mask == 0) {
+                for (int pos = from[c]; pos < to[c]; pos++) {
+                    cnt += joinWith(k, order, from, to, binding, clause, relation.tuples.get(pos));
+                }
+            } else {
+                int[] key = new int[boundCount];
+                for (int i = 0, j = 0; j < boundCount; i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        key[j++] = binding[clause.vars[i]];
                     }
-                    TupleN<DatalogArgument> item = TupleN.of(arguments);
-                    if (!elements.contains(item) && !newElements.contains(item) && !toAdd.contains(
-                            item)) {
-                        toAdd.add(item);
-                        if (debug) {
-                            System.out.println("(" + name + ")Adding " + item);
+                }
+                Positions positions = relation.lookup(mask, new IntTuple(key));
+                if (positions != null) {
+                    for (int i = 0; i < positions.size; i++) {
+                        int pos = positions.data[i];
+                        if (pos >= to[c]) {
+                            break;
+                        } else if (pos >= from[c]) {
+                            cnt += joinWith(k, order, from, to, binding, clause,
+                                    relation.tuples.get(pos));
                         }
-                        ++cnt;
                     }
                 }
-
             }
             return cnt;
         }
 
-        private boolean putAssignments(Map<Variable, DatalogArgument> assignments,
-                                       Tuple2<Relation, TupleN<Variable>> validatorClause, TupleN<DatalogArgument> element) {
-            for (int i = 0; i < element.arity(); i++) {
-                if (assignments.containsKey(validatorClause.get2().get(i))) {
-                    if (!assignments.get(validatorClause.get2().get(i)).equals(element.get(i))) {
-                        return true;
-                    }
-                } else {
-                    assignments.put(validatorClause.get2().get(i), element.get(i));
+        private int joinWith(int k, int[] order, int[] from, int[] to, int[] binding,
+                             Clause clause, IntTuple tuple) {
+            int[] newlyBound = new int[clause.vars.length];
+            int newlyBoundCount = 0;
+            boolean matches = true;
+            for (int i = 0; i < clause.vars.length; i++) {
+                int var = clause.vars[i];
+                if (binding[var] == UNBOUND) {
+                    binding[var] = tuple.values[i];
+                    newlyBound[newlyBoundCount++] = var;
+                } else if (binding[var] != tuple.values[i]) {
+                    matches = false;
+                    break;
                 }
             }
-            return false;
+            int cnt = matches ? join(k + 1, order, from, to, binding) : 0;
+            for (int i = 0; i < newlyBoundCount; i++) {
+                binding[newlyBound[i]] = UNBOUND;
+            }
+            return cnt;
+        }
+    }
+
+    private static final class Clause {
+
+        private final Relation relation;
+        private final int[] vars;
+
+        private Clause(Relation relation, int[] vars) {
+            this.relation = relation;
+            this.vars = vars;
         }
+    }
 
-        private void flush() {
-            if (debug) {
-                StringBuilder stringBuilder = new StringBuilder("[");
-                newElements.forEach(
-                        objects -> stringBuilder.append(objects.toString()).append(", "));
+    /*
+     * Tuple of interned arguments.
+     */
+    private static final class IntTuple {
 
-                System.out.println(
-                        "(" + name + ") Promoting newElements to elements: " + stringBuilder.append("]")
-                                .toString());
-            }
-            elements.addAll(newElements);
-            newElements.clear();
+        private final int[] values;
+        private final int hash;
 
-            if (debug) {
-                StringBuilder stringBuilder1 = new StringBuilder("[");
-                toAdd.forEach(objects -> stringBuilder1.append(objects.toString()).append(", "));
+        private IntTuple(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
 
-                System.out.println(
-                        "(" + name + ") Promoting toAdd to newElements: " + stringBuilder1.append("]")
-                                .toString());
+        private IntTuple project(int mask) {
+            int[] projected = new int[Integer.bitCount(mask)];
+            for (int i = 0, j = 0; j < projected.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    projected[j++] = values[i];
+                }
             }
-            newElements.addAll(toAdd);
-            toAdd.clear();
+            return new IntTuple(projected);
         }
 
+        @Override
+        public int hashCode() {
+            return hash;
+        }
 
-        public void push() {
-            stack.push(Tuple3.of(elements, newElements, toAdd));
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IntTuple && Arrays.equals(values, ((IntTuple) obj).values);
         }
+    }
 
-        public void pop() {
-            final Tuple3<Set<TupleN<DatalogArgument>>, Set<TupleN<DatalogArgument>>, Set<TupleN<DatalogArgument>>> popped = stack.pop();
-            elements.clear();
-            elements.addAll(popped.get1());
-            newElements.clear();
-            newElements.addAll(popped.get2());
-            toAdd.clear();
-            toAdd.addAll(popped.get3());
+    /*
+     * Positions of tuples in a relation, in increasing order.
+     */
+    private static final class Positions {
+
+        private int[] data = new int[4];
+        private int size = 0;
+
+        private void add(int position) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = position;
+        }
 
+        private void removeLast() {
+            size--;
         }
     }
 }
@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.exception;
+
+import hu.bme.mit.theta.common.AnalysisBudget;
+
+/**
+ * Thrown when an analysis is cancelled or exceeds one of the limits of its
+ * {@link AnalysisBudget}.
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 3182706453109864221L;
+
+    private final AnalysisBudget.Limit limit;
+
+    public BudgetExceededException(final AnalysisBudget.Limit limit) {
+        super(limit == AnalysisBudget.Limit.CANCELLED ? "Analysis was cancelled"
+                : "Analysis exceeded its " + limit + " limit");
+        this.limit = limit;
+    }
+
+    public AnalysisBudget.Limit getLimit() {
+        return limit;
+    }
+}
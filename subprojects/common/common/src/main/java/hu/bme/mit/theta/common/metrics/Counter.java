@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A monotonic counter, safe and cheap to increment from many threads.
+ */
+public final class Counter implements Metric {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(final String name) {
+        this.name = checkNotNull(name);
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(final long n) {
+        count.add(n);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+
+    @Override
+    public Map<String, Number> snapshot() {
+        return Map.of("count", getCount());
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + getCount();
+    }
+}
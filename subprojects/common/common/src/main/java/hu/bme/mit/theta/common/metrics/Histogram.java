@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Distribution of non-negative values (e.g., sizes or latencies). Values are counted in buckets
+ * of powers of two, so recording is a few {@link LongAdder} updates and the memory is constant,
+ * but percentiles are only approximate: they are the upper bound of the bucket containing the
+ * percentile (i.e., at most twice the real value), capped by the maximum.
+ */
+public final class Histogram implements Metric {
+
+    // Bucket i contains the values v with 2^(i-1) <= v < 2^i, bucket 0 contains 0
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram(final String name) {
+        this.name = checkNotNull(name);
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(final long value) {
+        checkArgument(value >= 0, "Negative value");
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+    /**
+     * Gets an approximation (upper bound) of a percentile.
+     *
+     * @param percentile Between 0 and 100
+     */
+    public long getPercentile(final double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100, "Percentile out of range");
+        long remaining = (long) Math.ceil(getCount() * percentile / 100);
+        if (remaining == 0) {
+            return 0;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            remaining -= buckets[i].sum();
+            if (remaining <= 0) {
+                // (1L << 63) - 1 overflows to Long.MAX_VALUE, which is the right bound
+                return Math.min((1L << i) - 1, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getType() {
+        return "histogram";
+    }
+
+    @Override
+    public Map<String, Number> snapshot() {
+        final Map<String, Number> values = new LinkedHashMap<>();
+        values.put("count", getCount());
+        values.put("sum", getSum());
+        values.put("mean", getMean());
+        values.put("max", getMax());
+        values.put("p50", getPercentile(50));
+        values.put("p90", getPercentile(90));
+        values.put("p99", getPercentile(99));
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + snapshot();
+    }
+}
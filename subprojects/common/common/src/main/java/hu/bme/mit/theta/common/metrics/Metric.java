@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.metrics;
+
+import java.util.Map;
+
+/**
+ * Common interface of the metrics of a {@link MetricRegistry}.
+ */
+public interface Metric {
+
+    String getName();
+
+    /**
+     * Gets the kind of the metric (e.g., counter) as it appears in the exported data.
+     */
+    String getType();
+
+    /**
+     * Gets the current values of the metric by field name (e.g., count, mean), in a fixed order.
+     * The fields of a metric are the same regardless of the recorded values.
+     */
+    Map<String, Number> snapshot();
+
+    void reset();
+}
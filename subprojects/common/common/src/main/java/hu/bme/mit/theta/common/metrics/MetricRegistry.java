@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Registry of named metrics (counters, timers and histograms) of an analysis, used to see where
+ * the time of an analysis goes (e.g., number and latency of solver calls, coverage checks).
+ * Metrics are created on first access and never removed. All metrics are thread-safe.
+ * <p>
+ * A registry is bound to the threads running an analysis with {@link #call}, and the components
+ * of the analysis record into {@link #current()}, so that analyses running concurrently (e.g.,
+ * the configurations of a portfolio) have their own metrics, and the registry does not have to
+ * be passed to every component (solvers are typically created long before the analysis starts).
+ * Components look up their metrics when an analysis step starts (or once per ARG), not when they
+ * are created. When no registry is bound, {@link #current()} returns the {@link #global()}
+ * registry, which tools running a single analysis can export as JSON or CSV at the end of a run.
+ */
+public final class MetricRegistry {
+
+    private static final MetricRegistry GLOBAL = new MetricRegistry();
+    private static final ThreadLocal<MetricRegistry> current = new ThreadLocal<>();
+    private static final List<String> CSV_COLUMNS = List.of("count", "sum", "mean", "max", "p50",
+            "p90", "p99");
+
+    private final ConcurrentMap<String, Metric> metrics;
+
+    private MetricRegistry() {
+        metrics = new ConcurrentHashMap<>();
+    }
+
+    public static MetricRegistry create() {
+        return new MetricRegistry();
+    }
+
+    public static MetricRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Get the registry bound to the current thread, or the global registry if there is none.
+     */
+    public static MetricRegistry current() {
+        final MetricRegistry registry = current.get();
+        return registry != null ? registry : GLOBAL;
+    }
+
+    /**
+     * Run an action with this registry bound to the current thread. The previously bound registry
+     * is restored afterwards.
+     */
+    public <T> T call(final Supplier<T> action) {
+        final MetricRegistry previous = current.get();
+        current.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * Run an action with this registry bound to the current thread.
+     */
+    public void run(final Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public Counter counter(final String name) {
+        return get(name, Counter.class, Counter::new);
+    }
+
+    public Timer timer(final String name) {
+        return get(name, Timer.class, Timer::new);
+    }
+
+    public Histogram histogram(final String name) {
+        return get(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * Gets the metrics ordered by their names.
+     */
+    public Collection<Metric> getMetrics() {
+        return metrics.values().stream().sorted(Comparator.comparing(Metric::getName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resets the values of all metrics (the metrics themselves are kept).
+     */
+    public void reset() {
+        metrics.values().forEach(Metric::reset);
+    }
+
+    /**
+     * Exports the metrics as a JSON object, mapping the name of each metric to its type and
+     * values. Timers are in milliseconds.
+     */
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder("{");
+        String separator = "";
+        for (final Metric metric : getMetrics()) {
+            sb.append(separator).append(System.lineSeparator());
+            sb.append("  ").append(jsonString(metric.getName())).append(": {\"type\": ")
+                    .append(jsonString(metric.getType()));
+            for (final Map.Entry<String, Number> entry : metric.snapshot().entrySet()) {
+                sb.append(", ").append(jsonString(entry.getKey())).append(": ")
+                        .append(entry.getValue());
+            }
+            sb.append("}");
+            separator = ",";
+        }
+        sb.append(System.lineSeparator()).append("}").append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    /**
+     * Exports the metrics as CSV with a header and a row for each metric. Values that a metric
+     * does not have (e.g., the mean of a counter) are left empty. Timers are in milliseconds.
+     */
+    public String toCsv() {
+        final StringBuilder sb = new StringBuilder("name,type");
+        CSV_COLUMNS.forEach(column -> sb.append(',').append(column));
+        sb.append(System.lineSeparator());
+        for (final Metric metric : getMetrics()) {
+            final Map<String, Number> values = metric.snapshot();
+            sb.append(metric.getName()).append(',').append(metric.getType());
+            for (final String column : CSV_COLUMNS) {
+                sb.append(',');
+                if (values.containsKey(column)) {
+                    sb.append(values.get(column));
+                }
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the metrics to a file, as CSV if its name ends with ".csv", otherwise as JSON.
+     */
+    public void writeTo(final Path path) throws IOException {
+        checkNotNull(path);
+        final String content = path.toString().endsWith(".csv") ? toCsv() : toJson();
+        Files.writeString(path, content);
+    }
+
+    ////
+
+    private <M extends Metric> M get(final String name, final Class<M> type,
+                                     final Function<String, M> factory) {
+        checkNotNull(name);
+        final Metric metric = metrics.computeIfAbsent(name, factory);
+        checkArgument(type.isInstance(metric), "Metric %s is a %s", name, metric.getType());
+        return type.cast(metric);
+    }
+
+    private static String jsonString(final String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Distribution of the durations of an operation. Durations are recorded in nanoseconds (see
+ * {@link Histogram} for the precision), but reported in milliseconds.
+ */
+public final class Timer implements Metric {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final Histogram nanos;
+
+    Timer(final String name) {
+        this.name = checkNotNull(name);
+        this.nanos = new Histogram(name);
+    }
+
+    public void record(final long durationNanos) {
+        nanos.record(Math.max(durationNanos, 0));
+    }
+
+    /**
+     * Runs an action and records its duration (also if it throws an exception).
+     */
+    public <T> T time(final Supplier<T> action) {
+        final long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public void time(final Runnable action) {
+        final long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public long getCount() {
+        return nanos.getCount();
+    }
+
+    public long getTotalNanos() {
+        return nanos.getSum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getType() {
+        return "timer";
+    }
+
+    @Override
+    public Map<String, Number> snapshot() {
+        final Map<String, Number> values = new LinkedHashMap<>();
+        values.put("count", nanos.getCount());
+        values.put("sum", nanos.getSum() / NANOS_PER_MILLI);
+        values.put("mean", nanos.getMean() / NANOS_PER_MILLI);
+        values.put("max", nanos.getMax() / NANOS_PER_MILLI);
+        values.put("p50", nanos.getPercentile(50) / NANOS_PER_MILLI);
+        values.put("p90", nanos.getPercentile(90) / NANOS_PER_MILLI);
+        values.put("p99", nanos.getPercentile(99) / NANOS_PER_MILLI);
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        nanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + snapshot();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common;
+
+import hu.bme.mit.theta.common.exception.BudgetExceededException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AnalysisBudgetTest {
+
+    @Test
+    public void testUnboundIsUnlimited() {
+        final AnalysisBudget budget = AnalysisBudget.current();
+        for (int i = 0; i < 1000; i++) {
+            budget.checkpoint();
+            budget.iteration();
+        }
+        assertFalse(budget.isExceeded());
+    }
+
+    @Test
+    public void testBinding() {
+        final AnalysisBudget outer = AnalysisBudget.create();
+        final AnalysisBudget inner = AnalysisBudget.create();
+        outer.run(() -> {
+            assertSame(outer, AnalysisBudget.current());
+            inner.run(() -> assertSame(inner, AnalysisBudget.current()));
+            assertSame(outer, AnalysisBudget.current());
+        });
+        assertFalse(AnalysisBudget.current() == outer);
+    }
+
+    @Test
+    public void testCancel() {
+        final AnalysisBudget budget = AnalysisBudget.create();
+        budget.checkpoint();
+        budget.cancel();
+        try {
+            budget.checkpoint();
+            fail();
+        } catch (final BudgetExceededException e) {
+            assertEquals(AnalysisBudget.Limit.CANCELLED, e.getLimit());
+        }
+    }
+
+    @Test
+    public void testIterations() {
+        final AnalysisBudget budget = AnalysisBudget.builder().iterations(3).build();
+        budget.iteration();
+        budget.iteration();
+        budget.iteration();
+        try {
+            budget.iteration();
+            fail();
+        } catch (final BudgetExceededException e) {
+            assertEquals(AnalysisBudget.Limit.ITERATIONS, e.getLimit());
+        }
+        assertEquals(AnalysisBudget.Limit.ITERATIONS, budget.getExceededLimit());
+    }
+
+    @Test
+    public void testCpuTime() {
+        final AnalysisBudget budget = AnalysisBudget.builder()
+                .cpuTime(Duration.ofMillis(50)).build();
+        try {
+            budget.run(() -> {
+                long x = 0;
+                while (true) {
+                    x += x * 31 + 1;
+                    budget.checkpoint();
+                }
+            });
+            fail();
+        } catch (final BudgetExceededException e) {
+            assertEquals(AnalysisBudget.Limit.CPU_TIME, e.getLimit());
+        }
+    }
+
+    @Test
+    public void testInterrupt() {
+        final AnalysisBudget budget = AnalysisBudget.create();
+        final AtomicBoolean interrupted = new AtomicBoolean(false);
+        try {
+            budget.runInterruptibly(() -> {
+                budget.cancel(); // e.g., from a different thread
+                assertTrue(interrupted.get());
+                throw new IllegalStateException("Interrupted");
+            }, () -> interrupted.set(true));
+            fail();
+        } catch (final BudgetExceededException e) {
+            assertEquals(AnalysisBudget.Limit.CANCELLED, e.getLimit());
+        }
+    }
+}
@@ -94,6 +94,114 @@ public final class DatalogJavaTest {
         assertEquals(45 + 105 + 15 + 1, successor.getElements().size());
     }
 
+    @Test
+    public void testPushPop() {
+        testInitial();
+        datalog.push();
+        edge.addFact(TupleN.of(firstSubgraph1, firstSubgraph1));
+        assertEquals(1, reflexive.getElements().size());
+        assertEquals(45 + 105 + 1, successor.getElements().size());
+        datalog.pop();
+        assertEquals(0, reflexive.getElements().size());
+        assertEquals(45 + 105, successor.getElements().size());
+        edge.addFact(TupleN.of(firstSubgraph1, secondSubgraph1));
+        assertEquals(45 + 105 + 15, successor.getElements().size());
+    }
+
+    @Test
+    public void testRuleAddedAfterFacts() {
+        Datalog program = Datalog.createProgram();
+        Datalog.Relation link = program.createRelation("link", 2);
+        Datalog.Relation path = program.createRelation("path", 2);
+        List<Node> nodes = chain(link, 'C', 8);
+
+        Datalog.Variable from = program.getVariable();
+        Datalog.Variable to = program.getVariable();
+        Datalog.Variable next = program.getVariable();
+        path.addRule(TupleN.of(List.of(from, to)),
+                Set.of(Tuple2.of(link, TupleN.of(from, to))));
+        assertEquals(7, path.getElements().size());
+        // The recursive rule has to be evaluated over all the facts derived so far
+        path.addRule(TupleN.of(List.of(from, to)),
+                Set.of(Tuple2.of(link, TupleN.of(from, next)),
+                        Tuple2.of(path, TupleN.of(next, to))));
+        assertEquals(28, path.getElements().size());
+
+        link.addFact(TupleN.of(nodes.get(7), nodes.get(0)));
+        assertEquals(64, path.getElements().size());
+    }
+
+    @Test
+    public void testDeltasOfSeveralClauses() {
+        Datalog program = Datalog.createProgram();
+        Datalog.Relation link = program.createRelation("link", 2);
+        Datalog.Relation path = program.createRelation("path", 2);
+        Datalog.Variable from = program.getVariable();
+        Datalog.Variable to = program.getVariable();
+        Datalog.Variable middle = program.getVariable();
+        path.addRule(TupleN.of(List.of(from, to)),
+                Set.of(Tuple2.of(link, TupleN.of(from, to))));
+        // Both clauses range over the relation being derived, so both have deltas in each round
+        path.addRule(TupleN.of(List.of(from, to)),
+                Set.of(Tuple2.of(path, TupleN.of(from, middle)),
+                        Tuple2.of(path, TupleN.of(middle, to))));
+
+        List<Node> first = chain(link, 'D', 10);
+        assertEquals(45, path.getElements().size());
+        List<Node> second = chain(link, 'E', 10);
+        assertEquals(90, path.getElements().size());
+        // Joins the chains: every node of the first one reaches every node of the second one
+        link.addFact(TupleN.of(first.get(9), second.get(0)));
+        assertEquals(190, path.getElements().size());
+    }
+
+    @Test
+    public void testDeltasOfDifferentRelations() {
+        Datalog program = Datalog.createProgram();
+        Datalog.Relation left = program.createRelation("left", 2);
+        Datalog.Relation right = program.createRelation("right", 2);
+        Datalog.Relation joined = program.createRelation("joined", 2);
+        Datalog.Variable from = program.getVariable();
+        Datalog.Variable to = program.getVariable();
+        Datalog.Variable middle = program.getVariable();
+        joined.addRule(TupleN.of(List.of(from, to)),
+                Set.of(Tuple2.of(left, TupleN.of(from, middle)),
+                        Tuple2.of(right, TupleN.of(middle, to))));
+
+        List<Node> froms = nodes('F', 3);
+        List<Node> middles = nodes('M', 3);
+        List<Node> tos = nodes('T', 3);
+        int expected = 0;
+        for (int i = 0; i < 3; i++) {
+            // Both relations get new facts between the evaluations, some joins need both
+            left.addFact(TupleN.of(froms.get(i), middles.get(i)));
+            for (int j = 0; j < i; j++) {
+                right.addFact(TupleN.of(middles.get(j), tos.get(i)));
+                right.addFact(TupleN.of(middles.get(i), tos.get(j)));
+            }
+            right.addFact(TupleN.of(middles.get(i), tos.get(i)));
+            expected += 2 * i + 1;
+            assertEquals(expected, joined.getElements().size());
+        }
+        assertEquals(9, expected);
+    }
+
+    private static List<Node> nodes(char c, int n) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            nodes.add(new Node(c, i));
+        }
+        return nodes;
+    }
+
+    private static List<Node> chain(Datalog.Relation link, char c, int n) {
+        List<Node> nodes = nodes(c, n);
+        for (int i = 1; i < n; ++i) {
+            link.addFact(TupleN.of(nodes.get(i - 1), nodes.get(i)));
+        }
+        return nodes;
+    }
+
     private static class Node implements DatalogArgument {
 
         private final int i;
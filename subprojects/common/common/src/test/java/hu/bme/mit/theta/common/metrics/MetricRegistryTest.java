@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.metrics;
+
+import org.junit.Test;
+
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricRegistryTest {
+
+    @Test
+    public void testCounter() {
+        final MetricRegistry registry = MetricRegistry.create();
+        registry.counter("c").increment();
+        registry.counter("c").add(2);
+        assertSame(registry.counter("c"), registry.counter("c"));
+        assertEquals(3, registry.counter("c").getCount());
+        registry.reset();
+        assertEquals(0, registry.counter("c").getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatch() {
+        final MetricRegistry registry = MetricRegistry.create();
+        registry.counter("m");
+        registry.timer("m");
+    }
+
+    @Test
+    public void testHistogram() {
+        final Histogram histogram = MetricRegistry.create().histogram("h");
+        for (int i = 0; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(101, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.0, histogram.getMean(), 1e-9);
+        // Percentiles are upper bounds of power-of-two buckets
+        final long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 50 && p50 <= 100);
+        assertEquals(100, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void testTimer() {
+        final Timer timer = MetricRegistry.create().timer("t");
+        assertEquals(42, (int) timer.time(() -> 42));
+        timer.record(2_000_000);
+        assertEquals(2, timer.getCount());
+        assertTrue(timer.getTotalNanos() >= 2_000_000);
+    }
+
+    @Test
+    public void testExport() {
+        final MetricRegistry registry = MetricRegistry.create();
+        registry.counter("b.counter").add(5);
+        registry.histogram("a.histogram").record(3);
+
+        final String json = registry.toJson();
+        assertTrue(json.contains("\"b.counter\": {\"type\": \"counter\", \"count\": 5}"));
+        assertTrue(json.indexOf("a.histogram") < json.indexOf("b.counter"));
+
+        final String[] lines = registry.toCsv().lines().toArray(String[]::new);
+        assertEquals("name,type,count,sum,mean,max,p50,p90,p99", lines[0]);
+        assertEquals("a.histogram,histogram,1,3,3.0,3,3,3,3", lines[1]);
+        assertEquals("b.counter,counter,5,,,,,,", lines[2]);
+        assertEquals(2, registry.getMetrics().stream().map(Metric::getName)
+                .collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    public void testCurrent() {
+        final MetricRegistry outer = MetricRegistry.create();
+        final MetricRegistry inner = MetricRegistry.create();
+        assertSame(MetricRegistry.global(), MetricRegistry.current());
+        outer.run(() -> {
+            assertSame(outer, MetricRegistry.current());
+            inner.run(() -> MetricRegistry.current().counter("c").increment());
+            assertSame(outer, MetricRegistry.current());
+        });
+        assertSame(MetricRegistry.global(), MetricRegistry.current());
+        assertEquals(1, inner.counter("c").getCount());
+        assertEquals(0, outer.counter("c").getCount());
+    }
+
+}
@@ -17,88 +17,412 @@ package hu.bme.mit.theta.core.model;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.ImmutableList.toImmutableList;
 import static hu.bme.mit.theta.core.type.abstracttype.AbstractExprs.Eq;
 
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import hu.bme.mit.theta.core.decl.Decl;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.core.type.booltype.SmartBoolExprs;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
 
 /**
  * Mutable implementation of a valuation.
+ * <p>
+ * Values are stored in arrays indexed by the slots of a {@link ValuationLayout}. Boolean and
+ * (machine-sized) integer values are also encoded into a primitive array, so that comparisons
+ * can mostly be done on primitives. Copies share their arrays (and layout) with the original
+ * until one of them is modified (copy-on-write), which makes {@link #copyOf(Valuation)} cheap.
+ * Declarations are iterated in the order of their slots, i.e., the order in which they were
+ * first added.
+ * <p>
+ * The valuation is not thread-safe, but a valuation that is no longer modified can be copied
+ * concurrently from multiple threads.
  */
 public final class MutableValuation extends Valuation {
 
-    private final Map<Decl<?>, LitExpr<?>> declToExpr;
+    private ValuationLayout layout;
+    // The sharing flags are also set by copies, which may be created on other threads
+    private volatile boolean layoutShared;
+
+    // Primitive encoding of the value of each slot (or the hash of the literal, if it is boxed)
+    private long[] values;
+    private LitExpr<?>[] literals;
+    // Bit masks of the slots that have a value and of the slots whose value is not encoded exactly
+    private long[] defined;
+    private long[] boxed;
+    private volatile boolean dataShared;
+    private int count;
 
     public MutableValuation() {
-        // LinkedHashMap is used for deterministic order
-        this.declToExpr = new LinkedHashMap<>();
+        this(ValuationLayout.empty(), false);
+    }
+
+    /**
+     * Creates an empty valuation that stores the declarations of the layout in its slots. The
+     * layout is not modified, declarations outside of it are stored in an extended copy.
+     */
+    public MutableValuation(final ValuationLayout layout) {
+        this(checkNotNull(layout), true);
+    }
+
+    private MutableValuation(final ValuationLayout layout, final boolean layoutShared) {
+        this(layout, layoutShared, new long[Math.max(layout.size(), 8)],
+                new LitExpr<?>[Math.max(layout.size(), 8)],
+                new long[words(Math.max(layout.size(), 8))],
+                new long[words(Math.max(layout.size(), 8))]);
+    }
+
+    private MutableValuation(final ValuationLayout layout, final boolean layoutShared,
+                             final long[] values, final LitExpr<?>[] literals,
+                             final long[] defined, final long[] boxed) {
+        this.layout = layout;
+        this.layoutShared = layoutShared;
+        this.values = values;
+        this.literals = literals;
+        this.defined = defined;
+        this.boxed = boxed;
+        this.dataShared = false;
+        this.count = 0;
+    }
+
+    private MutableValuation(final MutableValuation that) {
+        // Only written once, so that frequently copied valuations are not written concurrently
+        if (!that.layoutShared) {
+            that.layoutShared = true;
+        }
+        if (!that.dataShared) {
+            that.dataShared = true;
+        }
+        this.layout = that.layout;
+        this.layoutShared = true;
+        this.values = that.values;
+        this.literals = that.literals;
+        this.defined = that.defined;
+        this.boxed = that.boxed;
+        this.dataShared = true;
+        this.count = that.count;
     }
 
     public static MutableValuation copyOf(final Valuation val) {
+        if (val instanceof MutableValuation) {
+            return new MutableValuation((MutableValuation) val);
+        }
         final MutableValuation result = new MutableValuation();
-        for (final Decl<?> decl : val.getDecls()) {
-            result.put(decl, val.eval(decl).get());
+        result.putAll(val);
+        return result;
+    }
+
+    /**
+     * Creates a copy of the valuation restricted to the declarations of a layout. This is cheap if
+     * the valuation was created with (an extension of) the same layout.
+     */
+    public static MutableValuation copyOf(final Valuation val, final ValuationLayout layout) {
+        checkNotNull(val);
+        checkNotNull(layout);
+        if (val instanceof MutableValuation) {
+            final MutableValuation that = (MutableValuation) val;
+            if (that.layout == layout) {
+                return new MutableValuation(that);
+            } else if (that.layout.startsWith(layout)) {
+                return that.truncated(layout);
+            }
+        }
+        final MutableValuation result = new MutableValuation(layout);
+        for (int slot = 0; slot < layout.size(); slot++) {
+            final Optional<? extends LitExpr<?>> value = val.eval(layout.get(slot));
+            if (value.isPresent()) {
+                result.set(slot, value.get());
+            }
         }
         return result;
     }
 
     public MutableValuation put(final Decl<?> decl, final LitExpr<?> value) {
         checkArgument(value.getType().equals(decl.getType()), "Type mismatch.");
-        declToExpr.put(decl, value);
+        int slot = layout.indexOf(decl);
+        if (slot < 0) {
+            if (layoutShared) {
+                layout = layout.copy();
+                layoutShared = false;
+            }
+            slot = layout.add(decl);
+        }
+        set(slot, value);
         return this;
     }
 
     public MutableValuation remove(final Decl<?> decl) {
-        declToExpr.remove(decl);
+        final int slot = layout.indexOf(decl);
+        if (slot >= 0 && isDefined(slot)) {
+            prepareWrite(layout.size());
+            values[slot] = 0;
+            literals[slot] = null;
+            defined[slot >>> 6] &= ~(1L << slot);
+            boxed[slot >>> 6] &= ~(1L << slot);
+            count--;
+        }
         return this;
     }
 
     public MutableValuation clear() {
-        declToExpr.clear();
+        if (dataShared) {
+            values = new long[values.length];
+            literals = new LitExpr<?>[literals.length];
+            defined = new long[defined.length];
+            boxed = new long[boxed.length];
+            dataShared = false;
+        } else {
+            Arrays.fill(values, 0);
+            Arrays.fill(literals, null);
+            Arrays.fill(defined, 0);
+            Arrays.fill(boxed, 0);
+        }
+        count = 0;
         return this;
     }
 
     public MutableValuation putAll(final Valuation val) {
         for (final Decl<?> decl : val.getDecls()) {
-            declToExpr.put(decl, val.eval(decl).get());
+            put(decl, val.eval(decl).get());
         }
         return this;
     }
 
     @Override
     public Collection<Decl<?>> getDecls() {
-        return Collections.unmodifiableSet(declToExpr.keySet());
+        return new DeclSet();
     }
 
     @Override
     public <DeclType extends Type> Optional<LitExpr<DeclType>> eval(final Decl<DeclType> decl) {
         checkNotNull(decl);
-        @SuppressWarnings("unchecked") final LitExpr<DeclType> val = (LitExpr<DeclType>) declToExpr.get(
-                decl);
+        final int slot = layout.indexOf(decl);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked") final LitExpr<DeclType> val = (LitExpr<DeclType>) literals[slot];
         return Optional.ofNullable(val);
     }
 
     @Override
     public Expr<BoolType> toExpr() {
-        return SmartBoolExprs.And(
-                declToExpr.entrySet().stream().map(e -> Eq(e.getKey().getRef(), e.getValue()))
-                        .collect(toImmutableList()));
+        final List<Expr<BoolType>> exprs = new ArrayList<>(count);
+        for (int slot = nextDefined(0); slot >= 0; slot = nextDefined(slot + 1)) {
+            exprs.add(Eq(layout.get(slot).getRef(), literals[slot]));
+        }
+        return SmartBoolExprs.And(exprs);
     }
 
     @Override
     public Map<Decl<?>, LitExpr<?>> toMap() {
-        return Collections.unmodifiableMap(declToExpr);
+        final Map<Decl<?>, LitExpr<?>> map = new LinkedHashMap<>();
+        for (int slot = nextDefined(0); slot >= 0; slot = nextDefined(slot + 1)) {
+            map.put(layout.get(slot), literals[slot]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public boolean isLeq(final Valuation val) {
+        if (val instanceof MutableValuation && ((MutableValuation) val).layout == layout) {
+            final MutableValuation that = (MutableValuation) val;
+            final int words = words(layout.size());
+            for (int i = 0; i < words; i++) {
+                if ((that.defined[i] & ~this.defined[i]) != 0
+                        || (that.defined[i] & (that.boxed[i] ^ this.boxed[i])) != 0) {
+                    return false;
+                }
+            }
+            final int size = layout.size();
+            for (int slot = 0; slot < size; slot++) {
+                if (that.isDefined(slot) && that.values[slot] != this.values[slot]) {
+                    return false;
+                }
+            }
+            return boxedLiteralsEqual(that, words, that.boxed);
+        }
+        return super.isLeq(val);
+    }
+
+    @Override
+    public int hashCode() {
+        // Same as the hash of the map (sum of key hash xor value hash), without building the map
+        int mapHash = 0;
+        for (int slot = nextDefined(0); slot >= 0; slot = nextDefined(slot + 1)) {
+            mapHash += layout.declHash(slot) ^ literals[slot].hashCode();
+        }
+        return HASH_SEED * 31 + mapHash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof MutableValuation && ((MutableValuation) obj).layout == layout) {
+            final MutableValuation that = (MutableValuation) obj;
+            if (this.count != that.count) {
+                return false;
+            }
+            final int size = layout.size();
+            final int words = words(size);
+            return Arrays.equals(this.defined, 0, words, that.defined, 0, words)
+                    && Arrays.equals(this.boxed, 0, words, that.boxed, 0, words)
+                    && Arrays.equals(this.values, 0, size, that.values, 0, size)
+                    && boxedLiteralsEqual(that, words, this.boxed);
+        }
+        return super.equals(obj);
+    }
+
+    ////
+
+    private boolean boxedLiteralsEqual(final MutableValuation that, final int words,
+                                       final long[] mask) {
+        for (int i = 0; i < words; i++) {
+            long bits = mask[i];
+            while (bits != 0) {
+                final int slot = (i << 6) + Long.numberOfTrailingZeros(bits);
+                if (!this.literals[slot].equals(that.literals[slot])) {
+                    return false;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return true;
+    }
+
+    private MutableValuation truncated(final ValuationLayout prefix) {
+        final int size = prefix.size();
+        final int capacity = Math.max(size, 8);
+        final MutableValuation result = new MutableValuation(prefix, true,
+                Arrays.copyOf(values, capacity), Arrays.copyOf(literals, capacity),
+                Arrays.copyOf(defined, words(capacity)), Arrays.copyOf(boxed, words(capacity)));
+        Arrays.fill(result.values, Math.min(size, values.length), capacity, 0);
+        Arrays.fill(result.literals, Math.min(size, literals.length), capacity, null);
+        final int words = words(size);
+        if ((size & 63) != 0) {
+            final long mask = (1L << size) - 1;
+            result.defined[words - 1] &= mask;
+            result.boxed[words - 1] &= mask;
+        }
+        Arrays.fill(result.defined, words, result.defined.length, 0);
+        Arrays.fill(result.boxed, words, result.boxed.length, 0);
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            count += Long.bitCount(result.defined[i]);
+        }
+        result.count = count;
+        return result;
+    }
+
+    private void set(final int slot, final LitExpr<?> value) {
+        prepareWrite(slot + 1);
+        if (!isDefined(slot)) {
+            defined[slot >>> 6] |= 1L << slot;
+            count++;
+        }
+        literals[slot] = value;
+        if (value instanceof BoolLitExpr) {
+            values[slot] = ((BoolLitExpr) value).getValue() ? 1 : 0;
+            boxed[slot >>> 6] &= ~(1L << slot);
+        } else if (value instanceof IntLitExpr && ((IntLitExpr) value).getValue().bitLength() < 64) {
+            values[slot] = ((IntLitExpr) value).getValue().longValue();
+            boxed[slot >>> 6] &= ~(1L << slot);
+        } else {
+            values[slot] = value.hashCode();
+            boxed[slot >>> 6] |= 1L << slot;
+        }
+    }
+
+    private void prepareWrite(final int capacity) {
+        if (dataShared || values.length < capacity) {
+            final int newCapacity = values.length >= capacity ? values.length
+                    : Math.max(capacity, values.length * 2);
+            values = Arrays.copyOf(values, newCapacity);
+            literals = Arrays.copyOf(literals, newCapacity);
+            defined = Arrays.copyOf(defined, words(newCapacity));
+            boxed = Arrays.copyOf(boxed, words(newCapacity));
+            dataShared = false;
+        }
+    }
+
+    private boolean isDefined(final int slot) {
+        return slot >>> 6 < defined.length && (defined[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private int nextDefined(final int from) {
+        final int size = layout.size();
+        int i = from >>> 6;
+        if (from >= size || i >= defined.length) {
+            return -1;
+        }
+        long bits = defined[i] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                final int slot = (i << 6) + Long.numberOfTrailingZeros(bits);
+                return slot < size ? slot : -1;
+            }
+            i++;
+            if (i >= words(size) || i >= defined.length) {
+                return -1;
+            }
+            bits = defined[i];
+        }
+    }
+
+    private static int words(final int slots) {
+        return (slots + 63) >>> 6;
+    }
+
+    private final class DeclSet extends AbstractSet<Decl<?>> {
+
+        @Override
+        public Iterator<Decl<?>> iterator() {
+            return new Iterator<>() {
+                private int next = nextDefined(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Decl<?> next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    final Decl<?> decl = layout.get(next);
+                    next = nextDefined(next + 1);
+                    return decl;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Decl)) {
+                return false;
+            }
+            final int slot = layout.indexOf((Decl<?>) obj);
+            return slot >= 0 && isDefined(slot);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
     }
 
 }
@@ -35,7 +35,7 @@ import hu.bme.mit.theta.core.type.booltype.SmartBoolExprs;
  */
 public abstract class Valuation implements Substitution {
 
-    private static final int HASH_SEED = 2141;
+    protected static final int HASH_SEED = 2141;
 
     @Override
     public abstract <DeclType extends Type> Optional<LitExpr<DeclType>> eval(
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import hu.bme.mit.theta.core.decl.Decl;
+
+/**
+ * A dense numbering of declarations, used by {@link MutableValuation} to store its values in
+ * arrays indexed by slots instead of a map. Declarations get consecutive slots in the order they
+ * are added. A layout can be shared by many valuations (e.g., all states of a precision), so a
+ * layout is only extended by a valuation that owns it exclusively; valuations sharing it extend a
+ * private copy instead.
+ */
+public final class ValuationLayout {
+
+    private Decl<?>[] decls;
+    private int[] declHashes;
+    private int size;
+    private final Map<Decl<?>, Integer> slots;
+    // The shared layout this one was copied from, i.e., a prefix of this layout (or null)
+    private final ValuationLayout base;
+
+    private ValuationLayout(final int capacity, final ValuationLayout base) {
+        this.decls = new Decl<?>[capacity];
+        this.declHashes = new int[capacity];
+        this.size = 0;
+        this.slots = new HashMap<>();
+        this.base = base;
+    }
+
+    public static ValuationLayout of(final Iterable<? extends Decl<?>> decls) {
+        checkNotNull(decls);
+        final ValuationLayout layout = new ValuationLayout(8, null);
+        for (final Decl<?> decl : decls) {
+            checkArgument(layout.indexOf(decl) < 0, "Duplicate declaration " + decl);
+            layout.add(decl);
+        }
+        return layout;
+    }
+
+    static ValuationLayout empty() {
+        return new ValuationLayout(8, null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Decl<?> get(final int slot) {
+        checkArgument(slot >= 0 && slot < size, "Slot out of bounds");
+        return decls[slot];
+    }
+
+    /**
+     * @return The slot of the declaration, or -1 if the declaration is not in the layout
+     */
+    public int indexOf(final Decl<?> decl) {
+        final Integer slot = slots.get(decl);
+        return slot == null ? -1 : slot;
+    }
+
+    ////
+
+    int declHash(final int slot) {
+        return declHashes[slot];
+    }
+
+    /**
+     * Checks whether the first slots of this layout are exactly the slots of the other layout.
+     */
+    boolean startsWith(final ValuationLayout other) {
+        return this == other || (this.base == other && other.size <= this.size);
+    }
+
+    ValuationLayout copy() {
+        final ValuationLayout result = new ValuationLayout(Math.max(8, size * 2),
+                base == null ? this : base);
+        System.arraycopy(decls, 0, result.decls, 0, size);
+        System.arraycopy(declHashes, 0, result.declHashes, 0, size);
+        result.size = size;
+        result.slots.putAll(slots);
+        return result;
+    }
+
+    int add(final Decl<?> decl) {
+        if (size == decls.length) {
+            decls = Arrays.copyOf(decls, size * 2);
+            declHashes = Arrays.copyOf(declHashes, size * 2);
+        }
+        final int slot = size;
+        decls[slot] = decl;
+        declHashes[slot] = decl.hashCode();
+        slots.put(decl, slot);
+        size++;
+        return slot;
+    }
+
+}
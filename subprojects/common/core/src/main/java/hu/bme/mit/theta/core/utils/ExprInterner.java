@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Hash-consing for expressions. Interning an expression returns a canonical instance that is
+ * structurally equal to it, and whose subexpressions are also canonical. Structurally equal
+ * canonical expressions are the same instance, so comparing them is an identity check (the
+ * equals methods of expressions already start with one), and their hash codes are computed only
+ * once. Canonical instances are only weakly referenced, so interning does not keep unused
+ * expressions alive.
+ * <p>
+ * Interning is opt-in: {@link #intern} can always be called explicitly, and when interning is
+ * enabled with {@link #enable()}, the results of {@link PathUtils#unfold},
+ * {@link ExprUtils#simplify} and {@link StmtUtils#toExpr} are interned automatically.
+ */
+public final class ExprInterner {
+
+    private static final Interner<Expr<?>> interner = Interners.newWeakInterner();
+    // Weak keys are compared by identity, which is exactly what is needed here
+    private static final Map<Expr<?>, Boolean> canonicals = new MapMaker().weakKeys().makeMap();
+
+    private static volatile boolean enabled = false;
+
+    private ExprInterner() {
+    }
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the canonical instance of an expression.
+     *
+     * @param expr Expression
+     * @return Canonical expression that is structurally equal to the original one
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Type> Expr<T> intern(final Expr<T> expr) {
+        checkNotNull(expr);
+        if (canonicals.containsKey(expr)) {
+            return expr;
+        }
+
+        final List<? extends Expr<?>> ops = expr.getOps();
+        Expr<T> withCanonicalOps = expr;
+        if (!ops.isEmpty()) {
+            final List<Expr<?>> canonicalOps = new ArrayList<>(ops.size());
+            boolean changed = false;
+            for (final Expr<?> op : ops) {
+                final Expr<?> canonicalOp = intern(op);
+                changed |= canonicalOp != op;
+                canonicalOps.add(canonicalOp);
+            }
+            if (changed) {
+                withCanonicalOps = expr.withOps(canonicalOps);
+            }
+        }
+
+        final Expr<T> canonical = (Expr<T>) interner.intern(withCanonicalOps);
+        canonicals.put(canonical, Boolean.TRUE);
+        return canonical;
+    }
+
+    /**
+     * Get the canonical instance of an expression if interning is enabled.
+     */
+    static <T extends Type> Expr<T> internIfEnabled(final Expr<T> expr) {
+        return enabled ? intern(expr) : expr;
+    }
+
+}
@@ -264,7 +264,7 @@ public final class ExprUtils {
      */
     public static <ExprType extends Type> Expr<ExprType> simplify(final Expr<ExprType> expr,
                                                                   final Valuation val) {
-        return ExprSimplifier.simplify(expr, val);
+        return ExprInterner.internIfEnabled(ExprSimplifier.simplify(expr, val));
     }
 
     /**
@@ -63,7 +63,7 @@ public class PathUtils {
         checkNotNull(expr);
         checkNotNull(indexing);
         final UnfoldHelper helper = new UnfoldHelper(indexing);
-        return helper.unfold(expr, 0);
+        return ExprInterner.internIfEnabled(helper.unfold(expr, 0));
     }
 
     /**
@@ -23,6 +23,8 @@ import hu.bme.mit.theta.core.utils.indexings.VarIndexing;
 import java.util.List;
 import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Utility functions related to statements.
  */
@@ -63,7 +65,7 @@ public final class StmtUtils {
      * @return Expressions and new indexing
      */
     public static StmtUnfoldResult toExpr(final Stmt stmt, final VarIndexing indexing) {
-        return StmtToExprTransformer.toExpr(stmt, indexing);
+        return internIfEnabled(StmtToExprTransformer.toExpr(stmt, indexing));
     }
 
     /**
@@ -75,7 +77,17 @@ public final class StmtUtils {
      */
     public static StmtUnfoldResult toExpr(final List<? extends Stmt> stmts,
                                           final VarIndexing indexing) {
-        return StmtToExprTransformer.toExpr(stmts, indexing);
+        return internIfEnabled(StmtToExprTransformer.toExpr(stmts, indexing));
+    }
+
+    private static StmtUnfoldResult internIfEnabled(final StmtUnfoldResult result) {
+        if (ExprInterner.isEnabled()) {
+            return StmtUnfoldResult.of(
+                    result.getExprs().stream().map(ExprInterner::intern).collect(toList()),
+                    result.getIndexing());
+        } else {
+            return result;
+        }
     }
 
 }
@@ -21,10 +21,14 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
 import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 
+import java.math.BigInteger;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
 import hu.bme.mit.theta.core.type.inttype.IntType;
 
 public class ValuationTest {
@@ -108,4 +112,43 @@ public class ValuationTest {
         Assert.assertFalse(v1.equals(v4));
 
     }
+
+    @Test
+    public void testCopyOnWrite() {
+        final MutableValuation val1 = new MutableValuation().put(ca, Int(1)).put(cb, Int(2));
+        final MutableValuation val2 = MutableValuation.copyOf(val1);
+        val2.put(ca, Int(3)).put(cc, Int(4));
+        val1.remove(cb);
+        Assert.assertEquals(ImmutableValuation.builder().put(ca, Int(1)).build(), val1);
+        Assert.assertEquals(
+                ImmutableValuation.builder().put(ca, Int(3)).put(cb, Int(2)).put(cc, Int(4)).build(),
+                val2);
+    }
+
+    @Test
+    public void testLayout() {
+        final ValuationLayout layout = ValuationLayout.of(List.of(ca, cb));
+        final MutableValuation val1 = new MutableValuation(layout).put(ca, Int(1)).put(cc, Int(3));
+        Assert.assertEquals(2, layout.size());
+
+        final MutableValuation val2 = MutableValuation.copyOf(val1, layout);
+        Assert.assertEquals(ImmutableValuation.builder().put(ca, Int(1)).build(), val2);
+        final MutableValuation val3 = MutableValuation.copyOf(
+                ImmutableValuation.builder().put(cc, Int(3)).put(ca, Int(1)).build(), layout);
+        Assert.assertEquals(val2, val3);
+        Assert.assertEquals(val2.hashCode(), val3.hashCode());
+        Assert.assertEquals(val2.hashCode(), ImmutableValuation.copyOf(val2).hashCode());
+        Assert.assertTrue(val1.isLeq(val2));
+        Assert.assertFalse(val2.isLeq(val1));
+    }
+
+    @Test
+    public void testBigValues() {
+        final IntLitExpr big = Int(BigInteger.ONE.shiftLeft(80));
+        final MutableValuation val1 = new MutableValuation().put(ca, big);
+        final MutableValuation val2 = MutableValuation.copyOf(val1).put(ca, Int(big.hashCode()));
+        Assert.assertNotEquals(val1, val2);
+        Assert.assertFalse(val1.isLeq(val2));
+        Assert.assertEquals(val1, MutableValuation.copyOf(val2).put(ca, big));
+    }
 }
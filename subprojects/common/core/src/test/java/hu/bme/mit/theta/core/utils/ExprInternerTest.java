@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class ExprInternerTest {
+
+    final VarDecl<IntType> vx = Decls.Var("x", Int());
+    final VarDecl<IntType> vy = Decls.Var("y", Int());
+
+    @Test
+    public void testEqualExprsBecomeSame() {
+        final Expr<BoolType> e1 = Eq(vx.getRef(), Add(vy.getRef(), Int(1)));
+        final Expr<BoolType> e2 = Eq(vx.getRef(), Add(vy.getRef(), Int(1)));
+        Assert.assertNotSame(e1, e2);
+
+        final Expr<BoolType> i1 = ExprInterner.intern(e1);
+        final Expr<BoolType> i2 = ExprInterner.intern(e2);
+        Assert.assertSame(i1, i2);
+        Assert.assertEquals(e1, i1);
+        Assert.assertSame(i1, ExprInterner.intern(i1));
+    }
+
+    @Test
+    public void testSubexprsAreShared() {
+        final Expr<BoolType> e1 = And(Leq(vx.getRef(), Int(5)), Eq(vy.getRef(), Int(2)));
+        final Expr<BoolType> e2 = And(Eq(vy.getRef(), Int(2)), Leq(vx.getRef(), Int(5)));
+
+        final AndExpr i1 = (AndExpr) ExprInterner.intern(e1);
+        final AndExpr i2 = (AndExpr) ExprInterner.intern(e2);
+        Assert.assertNotSame(i1, i2);
+        Assert.assertSame(i1.getOps().get(0), i2.getOps().get(1));
+        Assert.assertSame(i1.getOps().get(1), i2.getOps().get(0));
+    }
+
+    @Test
+    public void testUnfoldInternsWhenEnabled() {
+        final Expr<BoolType> expr = Eq(Prime(vx.getRef()), Add(vy.getRef(), Int(1)));
+        ExprInterner.enable();
+        try {
+            Assert.assertSame(PathUtils.unfold(expr, 0), PathUtils.unfold(expr, 0));
+        } finally {
+            ExprInterner.disable();
+        }
+        Assert.assertNotSame(PathUtils.unfold(expr, 0), PathUtils.unfold(expr, 0));
+    }
+}
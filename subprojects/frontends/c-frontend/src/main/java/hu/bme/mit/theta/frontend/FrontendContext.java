@@ -0,0 +1,219 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.frontend;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.arraytype.ArrayType;
+import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
+import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig.ArithmeticType;
+import hu.bme.mit.theta.frontend.transformation.CStmtCounter;
+import hu.bme.mit.theta.frontend.transformation.grammar.function.FunctionVisitor;
+import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.BitwiseOption;
+import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.TypedefVisitor;
+import hu.bme.mit.theta.frontend.transformation.model.types.simple.Struct;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * State of the frontend belonging to a single translation unit: the metadata attached to the
+ * model elements, the defined structs and typedefs, the memory maps and references, and the
+ * results of preprocessing (e.g., the arithmetic chosen for the program). Each input is parsed
+ * and transformed with a context of its own, so that several inputs can be processed in
+ * parallel, and all the state of an input is freed together with its context.
+ * <p>
+ * The parser visitors (through {@link #getFunctionVisitor()}) and the XCFA builder are given the
+ * context explicitly, and bind it to the current thread while they run. Model elements (types,
+ * statements, expressions) and the XCFA passes reach the context through {@link #current()}.
+ * The binding is not inherited by other threads, so worker threads never keep the context of an
+ * input alive: work handed to other threads (e.g., submitted to thread pools) has to bind the
+ * context explicitly with {@link #call(Supplier)}, which removes it again when the work is done.
+ * Code running without a bound context (e.g., single-input command line tools) uses a
+ * process-wide default context.
+ */
+public final class FrontendContext {
+
+    private static final ThreadLocal<FrontendContext> current = new ThreadLocal<>();
+    private static final FrontendContext DEFAULT = new FrontendContext();
+
+    private final FrontendMetadata metadata;
+    private final Map<Type, VarDecl<ArrayType<?, ?>>> memoryMaps;
+    private final Map<String, Struct> structs;
+    private final Map<Expr<?>, Integer> referenceIds;
+    private final TypedefVisitor typedefVisitor;
+    private final CStmtCounter stmtCounter;
+    private final AtomicInteger callCounter;
+    private final AtomicInteger locCounter;
+    private FunctionVisitor functionVisitor;
+
+    private volatile ArithmeticType arithmetic;
+    private volatile BitwiseOption bitwiseOption;
+    private volatile boolean multiThreading;
+
+    private FrontendContext() {
+        metadata = new FrontendMetadata();
+        memoryMaps = Collections.synchronizedMap(new LinkedHashMap<>());
+        structs = Collections.synchronizedMap(new LinkedHashMap<>());
+        referenceIds = new LinkedHashMap<>();
+        typedefVisitor = new TypedefVisitor();
+        stmtCounter = new CStmtCounter();
+        callCounter = new AtomicInteger(0);
+        locCounter = new AtomicInteger(0);
+        arithmetic = null;
+        bitwiseOption = null;
+        multiThreading = false;
+    }
+
+    public static FrontendContext create() {
+        return new FrontendContext();
+    }
+
+    /**
+     * Get the context bound to the current thread, or the default context if there is none.
+     */
+    public static FrontendContext current() {
+        final FrontendContext context = current.get();
+        return context != null ? context : DEFAULT;
+    }
+
+    /**
+     * Run an action with this context bound to the current thread. The previously bound context
+     * is restored afterwards.
+     */
+    public <T> T call(final Supplier<T> action) {
+        final FrontendContext previous = current.get();
+        if (previous == this) {
+            return action.get();
+        }
+        current.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * Run an action with this context bound to the current thread.
+     */
+    public void run(final Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public FrontendMetadata getMetadata() {
+        return metadata;
+    }
+
+    public Map<Type, VarDecl<ArrayType<?, ?>>> getMemoryMaps() {
+        return memoryMaps;
+    }
+
+    public Struct getStruct(final String name) {
+        return structs.get(name);
+    }
+
+    public void defineStruct(final String name, final Struct struct) {
+        structs.put(checkNotNull(name), checkNotNull(struct));
+    }
+
+    /**
+     * Get the id of the references to an expression: references to equal expressions get the same
+     * id, and the ids are assigned in the order of the first reference.
+     */
+    public synchronized int getReferenceId(final Expr<?> expr) {
+        return referenceIds.computeIfAbsent(checkNotNull(expr), e -> referenceIds.size());
+    }
+
+    /**
+     * Get the visitor transforming the parse tree of this translation unit.
+     */
+    public synchronized FunctionVisitor getFunctionVisitor() {
+        if (functionVisitor == null) {
+            functionVisitor = new FunctionVisitor(this);
+        }
+        return functionVisitor;
+    }
+
+    public TypedefVisitor getTypedefVisitor() {
+        return typedefVisitor;
+    }
+
+    public CStmtCounter getStmtCounter() {
+        return stmtCounter;
+    }
+
+    /**
+     * Get a new id for a call of this translation unit, used to name the variable of its return
+     * value.
+     */
+    public int nextCallId() {
+        return callCounter.getAndIncrement();
+    }
+
+    /**
+     * Get a new id for a location of this translation unit, used to name the locations that have
+     * no name in the program.
+     */
+    public int nextLocId() {
+        return locCounter.getAndIncrement();
+    }
+
+    /**
+     * Get the arithmetic used for this translation unit: the one chosen by the preprocessing if the
+     * configured arithmetic is {@link ArithmeticType#efficient}, otherwise the configured one.
+     */
+    public ArithmeticType getArithmetic() {
+        final ArithmeticType chosen = arithmetic;
+        return chosen != null ? chosen : ArchitectureConfig.arithmetic;
+    }
+
+    public void setArithmetic(final ArithmeticType arithmetic) {
+        this.arithmetic = checkNotNull(arithmetic);
+    }
+
+    /**
+     * Get the result of the bitwise check of the translation unit, or null if it was not checked.
+     */
+    public BitwiseOption getBitwiseOption() {
+        return bitwiseOption;
+    }
+
+    public void setBitwiseOption(final BitwiseOption bitwiseOption) {
+        this.bitwiseOption = checkNotNull(bitwiseOption);
+    }
+
+    public boolean isMultiThreading() {
+        return multiThreading;
+    }
+
+    public void setMultiThreading(final boolean multiThreading) {
+        this.multiThreading = multiThreading;
+    }
+}
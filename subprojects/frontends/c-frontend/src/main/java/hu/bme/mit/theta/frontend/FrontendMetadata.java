@@ -26,35 +26,66 @@ import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Key-value metadata attached to the elements of the model (statements, expressions, XCFA edges
+ * and locations). The metadata belongs to a {@link FrontendContext}, and the static methods
+ * access the metadata of the {@link FrontendContext#current()} context. Lookups return copies,
+ * so the metadata can be modified while iterating over them, even from several threads.
+ */
 public class FrontendMetadata {
 
-    private static final Map<Tuple2<String, ?>, Set<Object>> lookupOwner = new LinkedHashMap<>();
-    private static final Map<Tuple2<Object, Integer>, Map<String, Object>> lookupKeyValue = new LinkedHashMap<>();
+    private final Map<Tuple2<String, ?>, Set<Object>> lookupOwner = new LinkedHashMap<>();
+    private final Map<Tuple2<Object, Integer>, Map<String, Object>> lookupKeyValue = new LinkedHashMap<>();
 
+    FrontendMetadata() {
+    }
 
     public static <T> Set<Object> lookupMetadata(String key, T value) {
-        return lookupOwner.getOrDefault(Tuple2.of(key, value), Set.of());
+        return FrontendContext.current().getMetadata().getOwners(key, value);
     }
 
     public static <X> Map<String, ?> lookupMetadata(X owner) {
-        return lookupKeyValue.getOrDefault(Tuple2.of(owner, getHashCode(owner)), Map.of());
+        return FrontendContext.current().getMetadata().getKeyValues(owner);
     }
 
     public static <X> Optional<Object> getMetadataValue(X owner, String key) {
+        return FrontendContext.current().getMetadata().getValue(owner, key);
+    }
+
+    public static <T, X> void create(X owner, String key, T value) {
+        FrontendContext.current().getMetadata().put(owner, key, value);
+    }
+
+    public static void clear() {
+        FrontendContext.current().getMetadata().clearAll();
+    }
+
+    private synchronized <T> Set<Object> getOwners(String key, T value) {
+        final Set<Object> owners = lookupOwner.get(Tuple2.of(key, value));
+        return owners == null ? Set.of() : new LinkedHashSet<>(owners);
+    }
+
+    private synchronized <X> Map<String, ?> getKeyValues(X owner) {
+        final Map<String, Object> keyValues = lookupKeyValue.get(
+                Tuple2.of(owner, getHashCode(owner)));
+        return keyValues == null ? Map.of() : new LinkedHashMap<>(keyValues);
+    }
+
+    private synchronized <X> Optional<Object> getValue(X owner, String key) {
         return Optional.ofNullable(
                 lookupKeyValue.getOrDefault(Tuple2.of(owner, getHashCode(owner)), Map.of()).get(key));
     }
 
-    public static <T, X> void create(X owner, String key, T value) {
+    private synchronized <T, X> void put(X owner, String key, T value) {
         checkNotNull(value);
-        Tuple2<String, T> tup = Tuple2.of(key, value);
-        Set<Object> set = lookupOwner.getOrDefault(tup, new LinkedHashSet<>());
-        set.add(owner);
-        lookupOwner.put(tup, set);
-        Map<String, Object> keyvalues = lookupKeyValue.getOrDefault(
-                Tuple2.of(owner, getHashCode(owner)), new LinkedHashMap<>());
-        keyvalues.put(key, value);
-        lookupKeyValue.put(Tuple2.of(owner, getHashCode(owner)), keyvalues);
+        lookupOwner.computeIfAbsent(Tuple2.of(key, value), k -> new LinkedHashSet<>()).add(owner);
+        lookupKeyValue.computeIfAbsent(Tuple2.of(owner, getHashCode(owner)),
+                k -> new LinkedHashMap<>()).put(key, value);
+    }
+
+    private synchronized void clearAll() {
+        lookupKeyValue.clear();
+        lookupOwner.clear();
     }
 
     private static int getHashCode(Object object) {
@@ -64,9 +95,4 @@ public class FrontendMetadata {
             return System.identityHashCode(object);
         }
     }
-
-    public static void clear() {
-        lookupKeyValue.clear();
-        lookupOwner.clear();
-    }
 }
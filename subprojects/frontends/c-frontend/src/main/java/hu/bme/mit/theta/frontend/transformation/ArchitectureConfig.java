@@ -20,6 +20,7 @@ import hu.bme.mit.theta.core.stmt.AssumeStmt;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CComplexType;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.bitvector.CastVisitor;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.bitvector.LimitVisitor;
@@ -34,7 +35,6 @@ import java.util.Map;
 public class ArchitectureConfig {
 
     public static final ArchitectureType architecture = ArchitectureType.ILP32;
-    public static Boolean multiThreading = false;
     public static ArithmeticType arithmetic = ArithmeticType.efficient;
 
     private ArchitectureConfig() {
@@ -89,8 +89,16 @@ public class ArchitectureConfig {
         efficient
     }
 
+    /**
+     * Get the arithmetic of the translation unit being processed, which is the configured
+     * {@link #arithmetic}, unless that was efficient and the frontend already chose one.
+     */
+    public static ArithmeticType getArithmetic() {
+        return FrontendContext.current().getArithmetic();
+    }
+
     public static CComplexType.CComplexTypeVisitor<Expr<?>, Expr<?>> getCastVisitor() {
-        if (arithmetic == ArithmeticType.bitvector) {
+        if (getArithmetic() == ArithmeticType.bitvector) {
             return CastVisitor.instance;
         } else {
             return hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.integer.CastVisitor.instance;
@@ -98,7 +106,7 @@ public class ArchitectureConfig {
     }
 
     public static CComplexType.CComplexTypeVisitor<Expr<?>, AssumeStmt> getLimitVisitor() {
-        if (arithmetic == ArithmeticType.bitvector) {
+        if (getArithmetic() == ArithmeticType.bitvector) {
             return LimitVisitor.instance;
         } else {
             return hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.integer.LimitVisitor.instance;
@@ -106,7 +114,7 @@ public class ArchitectureConfig {
     }
 
     public static CComplexType.CComplexTypeVisitor<Void, LitExpr<?>> getNullValueVisitor() {
-        if (arithmetic == ArithmeticType.bitvector) {
+        if (getArithmetic() == ArithmeticType.bitvector) {
             return NullValueVisitor.instance;
         } else {
             return hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.integer.NullValueVisitor.instance;
@@ -114,7 +122,7 @@ public class ArchitectureConfig {
     }
 
     public static CComplexType.CComplexTypeVisitor<Void, LitExpr<?>> getUnitValueVisitor() {
-        if (arithmetic == ArithmeticType.bitvector) {
+        if (getArithmetic() == ArithmeticType.bitvector) {
             return UnitValueVisitor.instance;
         } else {
             return hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.integer.UnitValueVisitor.instance;
@@ -122,7 +130,7 @@ public class ArchitectureConfig {
     }
 
     public static CComplexType.CComplexTypeVisitor<Void, Type> getTypeVisitor() {
-        if (arithmetic == ArithmeticType.bitvector) {
+        if (getArithmetic() == ArithmeticType.bitvector) {
             return TypeVisitor.instance;
         } else {
             return hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.integer.TypeVisitor.instance;
@@ -130,7 +138,7 @@ public class ArchitectureConfig {
     }
 
     public static CComplexType.CComplexTypeVisitor<String, LitExpr<?>> getValueVisitor() {
-        if (arithmetic == ArithmeticType.bitvector) {
+        if (getArithmetic() == ArithmeticType.bitvector) {
             return ValueVisitor.instance;
         } else {
             return hu.bme.mit.theta.frontend.transformation.model.types.complex.visitors.integer.ValueVisitor.instance;
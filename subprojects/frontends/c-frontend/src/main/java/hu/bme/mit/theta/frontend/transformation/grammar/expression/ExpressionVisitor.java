@@ -73,17 +73,21 @@ public class ExpressionVisitor extends CBaseVisitor<Expr<?>> {
     protected final List<CStatement> postStatements = new ArrayList<>();
     protected final Deque<Map<String, VarDecl<?>>> variables;
     protected final Map<VarDecl<?>, CDeclaration> functions;
+    protected final FunctionVisitor functionVisitor;
 
-    public ExpressionVisitor(Deque<Map<String, VarDecl<?>>> variables,
+    public ExpressionVisitor(FunctionVisitor functionVisitor,
+                             Deque<Map<String, VarDecl<?>>> variables,
                              Map<VarDecl<?>, CDeclaration> functions) {
+        this.functionVisitor = functionVisitor;
         this.variables = variables;
         this.functions = functions;
     }
 
 
-    public static ExpressionVisitor create(Deque<Map<String, VarDecl<?>>> variables,
+    public static ExpressionVisitor create(FunctionVisitor functionVisitor,
+                                           Deque<Map<String, VarDecl<?>>> variables,
                                            Map<VarDecl<?>, CDeclaration> functions) {
-        return new ExpressionVisitor(variables, functions);
+        return new ExpressionVisitor(functionVisitor, variables, functions);
     }
 
     protected VarDecl<?> getVar(String name) {
@@ -110,7 +114,7 @@ public class ExpressionVisitor extends CBaseVisitor<Expr<?>> {
     @Override
     public Expr<?> visitConditionalExpression(CParser.ConditionalExpressionContext ctx) {
         if (ctx.expression() != null) {
-            CStatement ifTrue = ctx.expression().accept(FunctionVisitor.instance);
+            CStatement ifTrue = ctx.expression().accept(functionVisitor);
             addPreStatements(ifTrue);
             if (ifTrue instanceof CAssignment) {
                 preStatements.add(ifTrue);
@@ -469,8 +473,8 @@ public class ExpressionVisitor extends CBaseVisitor<Expr<?>> {
             CExpr cexpr = new CExpr(wrappedExpr);
             CAssignment cAssignment = new CAssignment(ret, cexpr, "=");
             preStatements.add(cAssignment);
-            FunctionVisitor.instance.recordMetadata(ctx, cAssignment);
-            FunctionVisitor.instance.recordMetadata(ctx, cexpr);
+            functionVisitor.recordMetadata(ctx, cAssignment);
+            functionVisitor.recordMetadata(ctx, cexpr);
         }
         return ret;
     }
@@ -554,10 +558,10 @@ public class ExpressionVisitor extends CBaseVisitor<Expr<?>> {
             List<CStatement> arguments = exprList == null ? List.of()
                     : exprList.assignmentExpression().stream().map(
                     assignmentExpressionContext -> assignmentExpressionContext.accept(
-                            FunctionVisitor.instance)).collect(Collectors.toList());
+                            functionVisitor)).collect(Collectors.toList());
             CCall cCall = new CCall(ctx.primaryExpression().getText(), arguments);
             preStatements.add(cCall);
-            FunctionVisitor.instance.recordMetadata(ctx, cCall);
+            functionVisitor.recordMetadata(ctx, cCall);
             return cCall.getRet().getRef();
         } else {
             Expr<?> primary = ctx.primaryExpression().accept(this);
@@ -609,8 +613,8 @@ public class ExpressionVisitor extends CBaseVisitor<Expr<?>> {
                 // no need to truncate here, as left and right side types are the same
                 CAssignment cAssignment = new CAssignment(primary, cexpr, "=");
                 postStatements.add(cAssignment);
-                FunctionVisitor.instance.recordMetadata(ctx, cAssignment);
-                FunctionVisitor.instance.recordMetadata(ctx, cexpr);
+                functionVisitor.recordMetadata(ctx, cAssignment);
+                functionVisitor.recordMetadata(ctx, cexpr);
             }
             return primary;
         }
@@ -708,7 +712,7 @@ public class ExpressionVisitor extends CBaseVisitor<Expr<?>> {
             }
 
             LitExpr<?> litExpr =
-                    ArchitectureConfig.arithmetic == ArchitectureConfig.ArithmeticType.bitvector ?
+                    ArchitectureConfig.getArithmetic() == ArchitectureConfig.ArithmeticType.bitvector ?
                             isUnsigned ?
                                     BvUtils.bigIntegerToUnsignedBvLitExpr(bigInteger, type.width()) :
                                     BvUtils.bigIntegerToSignedBvLitExpr(bigInteger, type.width()) :
@@ -723,7 +727,7 @@ public class ExpressionVisitor extends CBaseVisitor<Expr<?>> {
     @Override
     public Expr<?> visitPrimaryExpressionBraceExpression(
             CParser.PrimaryExpressionBraceExpressionContext ctx) {
-        CStatement statement = ctx.expression().accept(FunctionVisitor.instance);
+        CStatement statement = ctx.expression().accept(functionVisitor);
         preStatements.add(statement);
         return statement.getExpression();
     }
@@ -21,9 +21,7 @@ import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.type.UnaryExpr;
-
-import java.util.HashMap;
-import java.util.Map;
+import hu.bme.mit.theta.frontend.FrontendContext;
 
 /**
  * TODO: should this really inherit from expr?
@@ -34,7 +32,6 @@ public class Reference<R extends Type, T extends Type> extends UnaryExpr<T, R> {
     private static final String label = "&";
     private final int id;
     private final R ptrType;
-    private static final Map<Expr<?>, Integer> counters = new HashMap<>();
 
     private Reference(Expr<T> op, R ptrType, int id) {
         super(op);
@@ -43,10 +40,7 @@ public class Reference<R extends Type, T extends Type> extends UnaryExpr<T, R> {
     }
 
     public static <R extends Type, T extends Type> Reference<R, T> of(Expr<T> op, R ptrType) {
-        if (!counters.containsKey(op)) {
-            counters.put(op, counters.size());
-        }
-        return new Reference<>(op, ptrType, counters.get(op));
+        return new Reference<>(op, ptrType, FrontendContext.current().getReferenceId(op));
     }
 
     public static <R extends Type, T extends Type> Reference<R, T> of(Expr<T> op, R ptrType,
@@ -24,14 +24,13 @@ import hu.bme.mit.theta.core.stmt.AssumeStmt;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.arraytype.ArrayType;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
 import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
-import hu.bme.mit.theta.frontend.transformation.CStmtCounter;
 import hu.bme.mit.theta.frontend.transformation.grammar.expression.ExpressionVisitor;
 import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.BitwiseChecker;
 import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.BitwiseOption;
 import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.GlobalDeclUsageVisitor;
-import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.TypedefVisitor;
 import hu.bme.mit.theta.frontend.transformation.grammar.type.DeclarationVisitor;
 import hu.bme.mit.theta.frontend.transformation.grammar.type.TypeVisitor;
 import hu.bme.mit.theta.frontend.transformation.model.declaration.CDeclaration;
@@ -71,6 +70,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static hu.bme.mit.theta.core.decl.Decls.Var;
 
@@ -80,11 +80,13 @@ import static hu.bme.mit.theta.core.decl.Decls.Var;
  * information, a DeclarationVisitor instance to provide information on declarations (both global
  * and local, complete with initializations) and an ExpressionVisitor instance to provide
  * information on Expressions in the source code.
+ * <p>
+ * Each translation unit is transformed by the FunctionVisitor of its own {@link FrontendContext}
+ * (see {@link FrontendContext#getFunctionVisitor()}), which binds the context while it runs.
  */
 public class FunctionVisitor extends CBaseVisitor<CStatement> {
 
-    public static final FunctionVisitor instance = new FunctionVisitor();
-
+    private final FrontendContext context;
     private final Deque<Map<String, VarDecl<?>>> variables;
     private final List<VarDecl<?>> flatVariables;
     private final Map<VarDecl<?>, CDeclaration> functions;
@@ -114,46 +116,53 @@ public class FunctionVisitor extends CBaseVisitor<CStatement> {
         declaration.addVarDecl(varDecl);
     }
 
-    public FunctionVisitor() {
+    public FunctionVisitor(final FrontendContext context) {
+        this.context = checkNotNull(context);
         variables = new ArrayDeque<>();
         variables.push(new LinkedHashMap<>());
         flatVariables = new ArrayList<>();
         functions = new LinkedHashMap<>();
     }
 
+    public FrontendContext getContext() {
+        return context;
+    }
+
     @Override
     public CStatement visitCompilationUnit(CParser.CompilationUnitContext ctx) {
-        variables.clear();
-        variables.push(new LinkedHashMap<>());
-        flatVariables.clear();
-        functions.clear();
-
-        ctx.accept(TypedefVisitor.instance);
-        // ExpressionVisitor.setBitwise(ctx.accept(BitwiseChecker.instance));
-
-        List<CParser.ExternalDeclarationContext> globalUsages = GlobalDeclUsageVisitor.instance.getGlobalUsages(
-                ctx);
-
-        // if arithemetic is set on efficient, we change it to either bv or int arithmetic here
-        if (ArchitectureConfig.arithmetic
-                == ArchitectureConfig.ArithmeticType.efficient) { // if it wasn't on efficient, the check returns manual
-            BitwiseOption bitwiseOption = BitwiseChecker.instance.checkIfBitwise(globalUsages);
-            ArchitectureConfig.arithmetic =
-                    (bitwiseOption == BitwiseOption.INTEGER) ? ArchitectureConfig.ArithmeticType.integer
-                            : ArchitectureConfig.ArithmeticType.bitvector;
-        }
+        return context.call(() -> {
+            variables.clear();
+            variables.push(new LinkedHashMap<>());
+            flatVariables.clear();
+            functions.clear();
+
+            ctx.accept(context.getTypedefVisitor());
+
+            List<CParser.ExternalDeclarationContext> globalUsages = new GlobalDeclUsageVisitor().getGlobalUsages(
+                    ctx);
+
+            // if arithemetic is set on efficient, we change it to either bv or int arithmetic here
+            if (ArchitectureConfig.arithmetic
+                    == ArchitectureConfig.ArithmeticType.efficient) { // if it wasn't on efficient, the check returns manual
+                BitwiseOption bitwiseOption = new BitwiseChecker().checkIfBitwise(globalUsages);
+                context.setBitwiseOption(bitwiseOption);
+                context.setArithmetic(
+                        (bitwiseOption == BitwiseOption.INTEGER) ? ArchitectureConfig.ArithmeticType.integer
+                                : ArchitectureConfig.ArithmeticType.bitvector);
+            }
 
-        CProgram program = new CProgram();
-        for (CParser.ExternalDeclarationContext externalDeclarationContext : globalUsages) {
-            CStatement accept = externalDeclarationContext.accept(this);
-            if (accept instanceof CFunction) {
-                program.getFunctions().add((CFunction) accept);
-            } else if (accept instanceof CDecls) {
-                program.getGlobalDeclarations().addAll(((CDecls) accept).getcDeclarations());
+            CProgram program = new CProgram();
+            for (CParser.ExternalDeclarationContext externalDeclarationContext : globalUsages) {
+                CStatement accept = externalDeclarationContext.accept(this);
+                if (accept instanceof CFunction) {
+                    program.getFunctions().add((CFunction) accept);
+                } else if (accept instanceof CDecls) {
+                    program.getGlobalDeclarations().addAll(((CDecls) accept).getcDeclarations());
+                }
             }
-        }
-        recordMetadata(ctx, program);
-        return program;
+            recordMetadata(ctx, program);
+            return program;
+        });
     }
 
     public void recordMetadata(ParserRuleContext ctx, CStatement statement) {
@@ -270,9 +279,9 @@ public class FunctionVisitor extends CBaseVisitor<CStatement> {
 
     @Override
     public CStatement visitCaseStatement(CParser.CaseStatementContext ctx) {
-        CStmtCounter.incrementBranches();
+        context.getStmtCounter().incrementBranches();
         CExpr cexpr = new CExpr(
-                ctx.constantExpression().accept(ExpressionVisitor.create(variables, functions)));
+                ctx.constantExpression().accept(ExpressionVisitor.create(this, variables, functions)));
         CCase cCase = new CCase(
                 cexpr,
                 ctx.statement().accept(this));
@@ -308,7 +317,7 @@ public class FunctionVisitor extends CBaseVisitor<CStatement> {
 
     @Override
     public CStatement visitIfStatement(CParser.IfStatementContext ctx) {
-        CStmtCounter.incrementBranches();
+        context.getStmtCounter().incrementBranches();
         variables.push(new LinkedHashMap<>());
         CIf cIf = new CIf(
                 ctx.expression().accept(this),
@@ -332,7 +341,7 @@ public class FunctionVisitor extends CBaseVisitor<CStatement> {
 
     @Override
     public CStatement visitWhileStatement(CParser.WhileStatementContext ctx) {
-        CStmtCounter.incrementWhileLoops();
+        context.getStmtCounter().incrementWhileLoops();
         variables.push(new LinkedHashMap<>());
         CWhile cWhile = new CWhile(
                 ctx.statement().accept(this),
@@ -355,7 +364,7 @@ public class FunctionVisitor extends CBaseVisitor<CStatement> {
 
     @Override
     public CStatement visitForStatement(CParser.ForStatementContext ctx) {
-        CStmtCounter.incrementForLoops();
+        context.getStmtCounter().incrementForLoops();
         variables.push(new LinkedHashMap<>());
         CStatement init = ctx.forCondition().forInit().accept(this);
         CStatement test = ctx.forCondition().forTest().accept(this);
@@ -475,7 +484,7 @@ public class FunctionVisitor extends CBaseVisitor<CStatement> {
     @Override
     public CStatement visitAssignmentExpressionAssignmentExpression(
             CParser.AssignmentExpressionAssignmentExpressionContext ctx) {
-        ExpressionVisitor expressionVisitor = ExpressionVisitor.create(variables, functions);
+        ExpressionVisitor expressionVisitor = ExpressionVisitor.create(this, variables, functions);
         CCompound compound = new CCompound();
         CCompound preStatements = new CCompound();
         CCompound postStatements = new CCompound();
@@ -495,7 +504,7 @@ public class FunctionVisitor extends CBaseVisitor<CStatement> {
     @Override
     public CStatement visitAssignmentExpressionConditionalExpression(
             CParser.AssignmentExpressionConditionalExpressionContext ctx) {
-        ExpressionVisitor expressionVisitor = ExpressionVisitor.create(variables, functions);
+        ExpressionVisitor expressionVisitor = ExpressionVisitor.create(this, variables, functions);
         CCompound compound = new CCompound();
         CCompound preStatements = new CCompound();
         CCompound postStatements = new CCompound();
@@ -18,6 +18,7 @@ package hu.bme.mit.theta.frontend.transformation.grammar.preprocess;
 
 import hu.bme.mit.theta.c.frontend.dsl.gen.CBaseVisitor;
 import hu.bme.mit.theta.c.frontend.dsl.gen.CParser;
+import hu.bme.mit.theta.frontend.FrontendContext;
 
 import java.util.List;
 
@@ -25,22 +26,20 @@ import static com.google.common.base.Preconditions.checkState;
 
 public class BitwiseChecker extends CBaseVisitor<Void> {
 
-    public static final BitwiseChecker instance = new BitwiseChecker();
-    private static BitwiseOption bitwiseOption = null;
+    private BitwiseOption bitwiseOption = null;
 
-    // checks only once, returns the result of the first check after
     public BitwiseOption checkIfBitwise(List<CParser.ExternalDeclarationContext> contexts) {
         bitwiseOption = BitwiseOption.INTEGER;
         for (CParser.ExternalDeclarationContext ctx : contexts) {
-            ctx.accept(instance);
+            ctx.accept(this);
         }
         checkState(bitwiseOption != null);
         return bitwiseOption;
     }
 
-    // will return null, if not checked with checkIfBitwise() first!
+    // will return null, if the current frontend context was not checked with checkIfBitwise() first!
     public static BitwiseOption getBitwiseOption() {
-        return bitwiseOption;
+        return FrontendContext.current().getBitwiseOption();
     }
 
     @Override
@@ -35,8 +35,6 @@ import static com.google.common.base.Preconditions.checkState;
 
 public class GlobalDeclUsageVisitor extends CBaseVisitor<List<CDeclaration>> {
 
-    public static final GlobalDeclUsageVisitor instance = new GlobalDeclUsageVisitor();
-
     private final Map<String, Set<String>> globalUsages = new LinkedHashMap<>();
     private final List<Tuple2<String, CParser.ExternalDeclarationContext>> usedContexts = new ArrayList<>();
     private String current;
@@ -28,7 +28,6 @@ import java.util.Optional;
 
 public class TypedefVisitor extends CBaseVisitor<List<CDeclaration>> {
 
-    public static final TypedefVisitor instance = new TypedefVisitor();
     private final List<CDeclaration> declarations = new ArrayList<>();
 
     public Optional<CComplexType> getType(String id) {
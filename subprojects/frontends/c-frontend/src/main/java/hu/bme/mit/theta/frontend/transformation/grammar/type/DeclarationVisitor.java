@@ -18,7 +18,7 @@ package hu.bme.mit.theta.frontend.transformation.grammar.type;
 
 import hu.bme.mit.theta.c.frontend.dsl.gen.CBaseVisitor;
 import hu.bme.mit.theta.c.frontend.dsl.gen.CParser;
-import hu.bme.mit.theta.frontend.transformation.grammar.function.FunctionVisitor;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.transformation.model.declaration.CDeclaration;
 import hu.bme.mit.theta.frontend.transformation.model.statements.CInitializerList;
 import hu.bme.mit.theta.frontend.transformation.model.statements.CStatement;
@@ -65,13 +65,13 @@ public class DeclarationVisitor extends CBaseVisitor<CDeclaration> {
                         for (CParser.InitializerContext initializer : context.initializer()
                                 .initializerList().initializers) {
                             CStatement expr = initializer.assignmentExpression()
-                                    .accept(FunctionVisitor.instance);
+                                    .accept(FrontendContext.current().getFunctionVisitor());
                             cInitializerList.addStatement(null /* TODO: add designator */, expr);
                         }
                         initializerExpression = cInitializerList;
                     } else {
                         initializerExpression = context.initializer().assignmentExpression()
-                                .accept(FunctionVisitor.instance);
+                                .accept(FrontendContext.current().getFunctionVisitor());
                     }
                     declaration.setInitExpr(initializerExpression);
                 }
@@ -144,7 +144,8 @@ public class DeclarationVisitor extends CBaseVisitor<CDeclaration> {
 
         CDeclaration decl = ctx.directDeclarator().accept(this);
         if (ctx.assignmentExpression() != null) {
-            decl.addArrayDimension(ctx.assignmentExpression().accept(FunctionVisitor.instance));
+            decl.addArrayDimension(ctx.assignmentExpression()
+                    .accept(FrontendContext.current().getFunctionVisitor()));
         } else {
             decl.addArrayDimension(null);
         }
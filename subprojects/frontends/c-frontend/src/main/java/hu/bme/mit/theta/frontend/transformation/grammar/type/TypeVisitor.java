@@ -19,7 +19,7 @@ package hu.bme.mit.theta.frontend.transformation.grammar.type;
 import hu.bme.mit.theta.c.frontend.dsl.gen.CBaseVisitor;
 import hu.bme.mit.theta.c.frontend.dsl.gen.CParser;
 import hu.bme.mit.theta.core.type.Expr;
-import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.TypedefVisitor;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.transformation.model.declaration.CDeclaration;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CComplexType;
 import hu.bme.mit.theta.frontend.transformation.model.types.simple.CSimpleType;
@@ -290,7 +290,7 @@ public class TypeVisitor extends CBaseVisitor<CSimpleType> {
 
     @Override
     public CSimpleType visitTypeSpecifierTypedefName(CParser.TypeSpecifierTypedefNameContext ctx) {
-        Optional<CComplexType> type = TypedefVisitor.instance.getType(ctx.getText());
+        Optional<CComplexType> type = FrontendContext.current().getTypedefVisitor().getType(ctx.getText());
         if (type.isPresent()) {
             CSimpleType origin = type.get().getOrigin().copyOf();
             origin.setTypedef(false);
@@ -16,17 +16,11 @@
 
 package hu.bme.mit.theta.frontend.transformation.model.statements;
 
-import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.type.Expr;
-import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.type.abstracttype.AbstractExprs;
-import hu.bme.mit.theta.core.type.arraytype.ArrayType;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CComplexType;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class CAssignment extends CStatement {
@@ -34,7 +28,6 @@ public class CAssignment extends CStatement {
     private final Expr<?> lValue;
     private final CStatement rValue;
     private final String operator;
-    private static final Map<Type, VarDecl<ArrayType<?, ?>>> memoryMaps = new LinkedHashMap<>();
 
     public CAssignment(Expr<?> lValue, CStatement rValue, String operator) {
         checkNotNull(rValue.getExpression());
@@ -55,10 +48,6 @@ public class CAssignment extends CStatement {
         return operator;
     }
 
-    public static Map<Type, VarDecl<ArrayType<?, ?>>> getMemoryMaps() {
-        return memoryMaps;
-    }
-
     @Override
     public Expr<?> getExpression() {
         return lValue;
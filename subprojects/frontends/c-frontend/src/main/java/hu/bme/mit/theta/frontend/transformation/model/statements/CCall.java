@@ -17,6 +17,7 @@
 package hu.bme.mit.theta.frontend.transformation.model.statements;
 
 import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CComplexType;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CVoid;
@@ -37,7 +38,8 @@ public class CCall extends CStatement {
         this.params = params;
         Optional<Object> cTypeOpt = FrontendMetadata.getMetadataValue(functionId, "cType");
         CComplexType type = (CComplexType) cTypeOpt.orElseGet(() -> new CVoid(null));
-        ret = Var("call_" + functionId + "_ret" + counter++, type.getSmtType());
+        ret = Var("call_" + functionId + "_ret" + FrontendContext.current().nextCallId(),
+                type.getSmtType());
         FrontendMetadata.create(ret.getRef(), "cType", type);
     }
 
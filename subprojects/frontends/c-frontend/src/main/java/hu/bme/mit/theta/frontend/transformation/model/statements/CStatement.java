@@ -26,7 +26,6 @@ import hu.bme.mit.theta.core.type.Expr;
 public abstract class CStatement {
 
     private String id;
-    protected static int counter = 0;
     protected CStatement preStatements;
     protected CStatement postStatements;
 
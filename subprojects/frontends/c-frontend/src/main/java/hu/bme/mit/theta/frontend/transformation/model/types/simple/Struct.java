@@ -16,6 +16,7 @@
 
 package hu.bme.mit.theta.frontend.transformation.model.types.simple;
 
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CComplexType;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.compound.CStruct;
 
@@ -27,10 +28,9 @@ public class Struct extends NamedType {
     private final Map<String, CSimpleType> fields;
     private final String name;
     private boolean currentlyBeingBuilt;
-    private static final Map<String, Struct> definedTypes = new LinkedHashMap<>();
 
     public static Struct getByName(String name) {
-        return definedTypes.get(name);
+        return FrontendContext.current().getStruct(name);
     }
 
     Struct(String name) {
@@ -38,7 +38,7 @@ public class Struct extends NamedType {
         fields = new LinkedHashMap<>();
         this.name = name;
         if (name != null) {
-            definedTypes.put(name, this);
+            FrontendContext.current().defineStruct(name, this);
         }
         currentlyBeingBuilt = false;
     }
@@ -23,11 +23,13 @@ import hu.bme.mit.theta.solver.smtlib.impl.bitwuzla.BitwuzlaSmtLibSolverInstalle
 import hu.bme.mit.theta.solver.smtlib.impl.boolector.BoolectorSmtLibSolverInstaller;
 import hu.bme.mit.theta.solver.smtlib.impl.cvc4.CVC4SmtLibSolverInstaller;
 import hu.bme.mit.theta.solver.smtlib.impl.cvc5.CVC5SmtLibSolverInstaller;
+import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSolverFactory;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSolverInstaller;
 import hu.bme.mit.theta.solver.smtlib.impl.mathsat.MathSATSmtLibSolverInstaller;
 import hu.bme.mit.theta.solver.smtlib.impl.princess.PrincessSmtLibSolverInstaller;
 import hu.bme.mit.theta.solver.smtlib.impl.smtinterpol.SMTInterpolSmtLibSolverInstaller;
 import hu.bme.mit.theta.solver.smtlib.impl.z3.Z3SmtLibSolverInstaller;
+import hu.bme.mit.theta.solver.smtlib.solver.binary.SmtLibSolverBinaryPool;
 import hu.bme.mit.theta.solver.smtlib.solver.installer.SmtLibSolverInstaller;
 import hu.bme.mit.theta.solver.smtlib.solver.installer.SmtLibSolverInstallerException;
 
@@ -36,6 +38,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -105,11 +108,14 @@ public final class SmtLibSolverManager extends SolverManager {
     private final Map<String, SmtLibSolverInstaller> installers;
     private final Tuple2<String, GenericSmtLibSolverInstaller> genericInstaller;
 
-    private boolean closed = false;
+    private volatile boolean closed = false;
     private final Set<SolverBase> instantiatedSolvers;
+    private final SmtLibSolverBinaryPool binaryPool;
 
-    private SmtLibSolverManager(final Path home, final Logger logger) {
+    private SmtLibSolverManager(final Path home, final Logger logger,
+                                final SmtLibSolverBinaryPool binaryPool) {
         this.logger = logger;
+        this.binaryPool = binaryPool;
         checkNotNull(home);
         checkArgument(Files.exists(home), "Home directory does not exist");
 
@@ -141,13 +147,24 @@ public final class SmtLibSolverManager extends SolverManager {
             throw new RuntimeException(e);
         }
 
-        this.instantiatedSolvers = new HashSet<>();
+        this.instantiatedSolvers = ConcurrentHashMap.newKeySet();
     }
 
     public static SmtLibSolverManager create(final Path home, final Logger logger)
             throws IOException {
         createIfNotExists(home);
-        return new SmtLibSolverManager(home, logger);
+        return new SmtLibSolverManager(home, logger, null);
+    }
+
+    /**
+     * Creates a solver manager whose solvers keep up to {@code poolSize} idle solver processes of
+     * each solver, so that new solvers can reuse them instead of launching a new process. The
+     * processes are terminated when the manager is closed.
+     */
+    public static SmtLibSolverManager create(final Path home, final Logger logger,
+                                             final int poolSize) throws IOException {
+        createIfNotExists(home);
+        return new SmtLibSolverManager(home, logger, SmtLibSolverBinaryPool.create(poolSize));
     }
 
     public String getGenericInstallerName() {
@@ -256,8 +273,12 @@ public final class SmtLibSolverManager extends SolverManager {
             throw new SmtLibSolverInstallerException(String.format("Unknown solver: %s", solver));
         }
 
-        return new ManagedFactory(installers.get(solver)
-                .getSolverFactory(home.resolve(solver), getVersionString(solver, version, true)));
+        final var solverFactory = installers.get(solver)
+                .getSolverFactory(home.resolve(solver), getVersionString(solver, version, true));
+        if (binaryPool != null && solverFactory instanceof GenericSmtLibSolverFactory) {
+            ((GenericSmtLibSolverFactory) solverFactory).setBinaryPool(binaryPool);
+        }
+        return new ManagedFactory(solverFactory);
     }
 
     public List<String> getSupportedSolvers() {
@@ -332,6 +353,10 @@ public final class SmtLibSolverManager extends SolverManager {
 
     @Override
     public void close() throws Exception {
+        // The pool is closed first, so that the processes of the solvers are not reset in vain
+        if (binaryPool != null) {
+            binaryPool.close();
+        }
         for (final var solver : instantiatedSolvers) {
             solver.close();
         }
@@ -21,7 +21,6 @@ import hu.bme.mit.theta.solver.smtlib.impl.generic.*;
 import hu.bme.mit.theta.solver.smtlib.solver.SmtLibSolver;
 
 import java.nio.file.Path;
-import java.util.EnumSet;
 
 public class CVC5SmtLibSolverFactory extends GenericSmtLibSolverFactory {
 
@@ -38,13 +37,11 @@ public class CVC5SmtLibSolverFactory extends GenericSmtLibSolverFactory {
         final var symbolTable = new GenericSmtLibSymbolTable();
         final var transformationManager = new GenericSmtLibTransformationManager(symbolTable);
         final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-        final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args,
-                EnumSet.noneOf(GenericSmtLibSolverBinary.Solver.class));
+        final var solverBinary = createSolverBinary();
 
         return new CVC5SmtLibItpSolver(
                 symbolTable, transformationManager, termTransformer, solverBinary,
-                () -> new GenericSmtLibSolverBinary(solverPath, args,
-                        EnumSet.noneOf(GenericSmtLibSolverBinary.Solver.class))
+                this::createSolverBinary
         );
     }
 }
@@ -143,9 +143,21 @@ import hu.bme.mit.theta.solver.smtlib.solver.transformer.SmtLibExprTransformer;
 import hu.bme.mit.theta.solver.smtlib.solver.transformer.SmtLibTransformationManager;
 
 import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Transforms expressions to SMT-LIB terms. Like the solver it belongs to, a transformer is not
+ * thread-safe: {@link #toSharedTerm} keeps the bindings of the term being built in the
+ * transformer while it runs, so a transformer must only be used by one thread at a time.
+ */
 public class GenericSmtLibExprTransformer implements SmtLibExprTransformer {
 
     private static final int CACHE_SIZE = 1000;
@@ -156,6 +168,8 @@ public class GenericSmtLibExprTransformer implements SmtLibExprTransformer {
     private final DispatchTable<String> table;
     private final Env env;
 
+    private SharingContext sharing = null;
+
     public GenericSmtLibExprTransformer(final SmtLibTransformationManager transformer) {
         this.transformer = transformer;
         this.env = new Env();
@@ -401,6 +415,11 @@ public class GenericSmtLibExprTransformer implements SmtLibExprTransformer {
 
     @Override
     public final String toTerm(final Expr<?> expr) {
+        if (sharing != null) {
+            checkState(sharing.owner == Thread.currentThread(),
+                    "Transformer used concurrently with a shared serialization");
+            return sharing.toTerm(expr);
+        }
         try {
             return exprToTerm.get(expr, () -> table.dispatch(expr));
         } catch (final ExecutionException e) {
@@ -408,6 +427,111 @@ public class GenericSmtLibExprTransformer implements SmtLibExprTransformer {
         }
     }
 
+    @Override
+    public final String toSharedTerm(final Expr<?> expr) {
+        checkState(sharing == null, "Shared serialization is not reentrant");
+        final Map<Expr<?>, Integer> occurrences = countOccurrences(expr);
+        if (occurrences.values().stream().noneMatch(count -> count > 1)) {
+            return toTerm(expr);
+        }
+
+        sharing = new SharingContext(occurrences);
+        try {
+            final String body = sharing.toTerm(expr);
+            return sharing.wrapInLets(body);
+        } finally {
+            sharing = null;
+        }
+    }
+
+    /**
+     * Counts how many times each compound subexpression is referenced from the DAG of the
+     * expression. Leaves are not counted, as they are not worth binding. Bodies of quantifiers are
+     * not entered either, because their subexpressions may refer to the bound parameters and
+     * could not be bound outside of the quantifier.
+     */
+    private static Map<Expr<?>, Integer> countOccurrences(final Expr<?> expr) {
+        final Map<Expr<?>, Integer> occurrences = new HashMap<>();
+        final Deque<Expr<?>> stack = new ArrayDeque<>();
+        stack.push(expr);
+        while (!stack.isEmpty()) {
+            final Expr<?> current = stack.pop();
+            if (current.getOps().isEmpty()) {
+                continue;
+            }
+            final int count = occurrences.merge(current, 1, Integer::sum);
+            if (count == 1 && !(current instanceof ExistsExpr || current instanceof ForallExpr)) {
+                current.getOps().forEach(stack::push);
+            }
+        }
+        return occurrences;
+    }
+
+    private final class SharingContext {
+
+        private static final String BINDING_PREFIX = "?share";
+
+        private final Thread owner;
+        private final Map<Expr<?>, Integer> occurrences;
+        private final Map<Expr<?>, String> names;
+        private final Map<String, Integer> levels;
+        // Bindings grouped by depth, so that a binding only refers to bindings of lower levels
+        private final List<List<Tuple2<String, String>>> bindingsByLevel;
+        private int currentLevel;
+
+        private SharingContext(final Map<Expr<?>, Integer> occurrences) {
+            this.owner = Thread.currentThread();
+            this.occurrences = occurrences;
+            this.names = new HashMap<>();
+            this.levels = new HashMap<>();
+            this.bindingsByLevel = new ArrayList<>();
+            this.currentLevel = 0;
+        }
+
+        private String toTerm(final Expr<?> expr) {
+            final String name = names.get(expr);
+            if (name != null) {
+                currentLevel = Math.max(currentLevel, levels.get(name));
+                return name;
+            }
+
+            final int outerLevel = currentLevel;
+            currentLevel = 0;
+            final String term = table.dispatch(expr);
+
+            if (occurrences.getOrDefault(expr, 0) > 1) {
+                final int level = currentLevel + 1;
+                final String newName = BINDING_PREFIX + names.size();
+                names.put(expr, newName);
+                levels.put(newName, level);
+                while (bindingsByLevel.size() < level) {
+                    bindingsByLevel.add(new ArrayList<>());
+                }
+                bindingsByLevel.get(level - 1).add(Tuple2.of(newName, term));
+                currentLevel = Math.max(outerLevel, level);
+                return newName;
+            } else {
+                currentLevel = Math.max(outerLevel, currentLevel);
+                return term;
+            }
+        }
+
+        private String wrapInLets(final String body) {
+            final StringBuilder sb = new StringBuilder();
+            for (final List<Tuple2<String, String>> bindings : bindingsByLevel) {
+                sb.append("(let (");
+                for (final Tuple2<String, String> binding : bindings) {
+                    sb.append('(').append(binding.get1()).append(' ').append(binding.get2())
+                            .append(')');
+                }
+                sb.append(") ");
+            }
+            sb.append(body);
+            sb.append(")".repeat(bindingsByLevel.size()));
+            return sb.toString();
+        }
+    }
+
     ////
 
     /*
@@ -21,6 +21,7 @@ import com.zaxxer.nuprocess.NuProcess;
 import com.zaxxer.nuprocess.NuProcessBuilder;
 import hu.bme.mit.theta.solver.smtlib.solver.binary.SmtLibSolverBinary;
 import hu.bme.mit.theta.solver.smtlib.solver.binary.SmtLibSolverBinaryException;
+import hu.bme.mit.theta.solver.smtlib.solver.parser.SExprTokens;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -63,14 +64,30 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
 
     @Override
     public String readResponse() {
+        return readResponseTokens().text().trim();
+    }
+
+    @Override
+    public SExprTokens readResponseTokens() {
         checkState(solverProcess.isRunning());
         try {
-            return processHandler.read().trim();
+            return processHandler.read();
         } catch (InterruptedException e) {
             throw new SmtLibSolverBinaryException(e);
         }
     }
 
+    @Override
+    public void interrupt() {
+        // SMT-LIB has no command to interrupt a running check, so the process is terminated
+        solverProcess.destroy(false);
+    }
+
+    @Override
+    public boolean isAlive() {
+        return solverProcess.isRunning();
+    }
+
     @Override
     public void close() {
         solverProcess.destroy(true);
@@ -82,13 +99,17 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
 
     private static final class ProcessHandler extends NuAbstractProcessHandler {
 
-        private final Queue<String> inputQueue = new LinkedList<>();
+        private static final byte[] EOL = "\n".getBytes(StandardCharsets.US_ASCII);
+
+        // Commands are encoded once, and then copied to the stdin buffer chunk by chunk
+        private final Queue<byte[]> inputQueue = new LinkedList<>();
         private int headDoneIndex = 0;
 
-        private final Queue<String> outputQueue = new LinkedList<>();
+        private final Queue<SExprTokens> outputQueue = new LinkedList<>();
         private ReadProcessor readProcessor = null;
         private final boolean isCvc4;
         private final boolean isPrincess;
+        private boolean exited = false;
 
         public ProcessHandler(final EnumSet<Solver> solverOverride) {
             this.isCvc4 = solverOverride.contains(Solver.CVC4);
@@ -96,32 +117,38 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
         }
 
         public synchronized void write(final String input) {
-            inputQueue.add(input);
+            inputQueue.add(input.getBytes(StandardCharsets.US_ASCII));
+            inputQueue.add(EOL);
         }
 
-        public synchronized String read() throws InterruptedException {
+        public synchronized SExprTokens read() throws InterruptedException {
             while (outputQueue.isEmpty()) {
+                if (exited) {
+                    throw new SmtLibSolverBinaryException("Solver process exited");
+                }
                 wait();
             }
 
             return outputQueue.remove();
         }
 
+        @Override
+        public synchronized void onExit(final int statusCode) {
+            exited = true;
+            notifyAll();
+        }
+
         @Override
         public synchronized boolean onStdinReady(final ByteBuffer buffer) {
-            if (!inputQueue.isEmpty()) {
+            while (!inputQueue.isEmpty() && buffer.hasRemaining()) {
                 final var output = inputQueue.peek();
-                final var eol = "\n".getBytes(StandardCharsets.US_ASCII);
-                final var cutoff = min(buffer.remaining() - eol.length,
-                        output.length() - headDoneIndex);
-                buffer.put(output.substring(headDoneIndex, headDoneIndex + cutoff)
-                        .getBytes(StandardCharsets.US_ASCII));
-                if (headDoneIndex + cutoff < output.length()) {
+                final var cutoff = min(buffer.remaining(), output.length - headDoneIndex);
+                buffer.put(output, headDoneIndex, cutoff);
+                if (headDoneIndex + cutoff < output.length) {
                     headDoneIndex = headDoneIndex + cutoff;
                 } else {
                     inputQueue.remove();
                     headDoneIndex = 0;
-                    buffer.put(eol);
                 }
             }
             buffer.flip();
@@ -143,12 +170,10 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
         private int isFp = 0;
 
         private synchronized void onInput(final ByteBuffer buffer) {
-            final var buf = new byte[buffer.remaining()];
-            buffer.get(buf);
-            final var input = new String(buf, StandardCharsets.US_ASCII);
-            //System.out.println(input);
-
-            for (var c : input.toCharArray()) {
+            // The output is decoded as ASCII directly from the buffer, without copying it first
+            while (buffer.hasRemaining()) {
+                final byte b = buffer.get();
+                final char c = b >= 0 ? (char) b : '\uFFFD';
                 if (readProcessor == null) {
                     readProcessor = new ReadProcessor();
                 }
@@ -188,19 +213,20 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
         private ReadProcessor.ReadStatus status = ReadProcessor.ReadStatus.INIT;
         private int level = 0;
 
-        private final StringBuilder sb = new StringBuilder(1024);
+        // The response is tokenized while it is read, so that it is not scanned again by the parser
+        private final SExprTokens.Builder tokens = new SExprTokens.Builder();
 
         public void step(final char c) {
             switch (status) {
                 case INIT:
                     if (c == '(') {
                         level++;
-                        sb.append(c);
+                        tokens.append(c);
                         status = ReadProcessor.ReadStatus.PARENTHESES;
                     } else if (c == ';') {
                         status = ReadProcessor.ReadStatus.COMMENT;
                     } else if (Character.isAlphabetic(c)) {
-                        sb.append(c);
+                        tokens.append(c);
                         status = ReadProcessor.ReadStatus.LINE;
                     }
                     break;
@@ -208,11 +234,11 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
                     if (c == '\n') {
                         status = ReadProcessor.ReadStatus.READY;
                     } else {
-                        sb.append(c);
+                        tokens.append(c);
                     }
                     break;
                 case PARENTHESES:
-                    sb.append(c);
+                    tokens.append(c);
                     if (c == '(') {
                         level++;
                     } else if (c == ')') {
@@ -225,7 +251,7 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
                     }
                     break;
                 case STRING:
-                    sb.append(c);
+                    tokens.append(c);
                     if (c == '"') {
                         status = ReadProcessor.ReadStatus.PARENTHESES;
                     }
@@ -241,8 +267,8 @@ public final class GenericSmtLibSolverBinary implements SmtLibSolverBinary {
             }
         }
 
-        public String getResult() {
-            return sb.toString();
+        public SExprTokens getResult() {
+            return tokens.build();
         }
 
         public boolean isReady() {
@@ -21,15 +21,19 @@ import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.UCSolver;
 import hu.bme.mit.theta.solver.smtlib.solver.SmtLibSolver;
+import hu.bme.mit.theta.solver.smtlib.solver.binary.SmtLibSolverBinary;
+import hu.bme.mit.theta.solver.smtlib.solver.binary.SmtLibSolverBinaryPool;
 
 import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.List;
 
 public class GenericSmtLibSolverFactory implements SolverFactory {
 
     protected final Path solverPath;
     protected final String[] args;
     private final EnumSet<GenericSmtLibSolverBinary.Solver> solverOverride;
+    private SmtLibSolverBinaryPool binaryPool;
 
     protected GenericSmtLibSolverFactory(Path solverPath, String[] args) {
         this(solverPath, args, EnumSet.noneOf(GenericSmtLibSolverBinary.Solver.class));
@@ -40,6 +44,7 @@ public class GenericSmtLibSolverFactory implements SolverFactory {
         this.solverPath = solverPath;
         this.args = args;
         this.solverOverride = solverOverride;
+        this.binaryPool = null;
     }
 
     public static GenericSmtLibSolverFactory create(Path solverPath, String[] args) {
@@ -51,7 +56,7 @@ public class GenericSmtLibSolverFactory implements SolverFactory {
         final var symbolTable = new GenericSmtLibSymbolTable();
         final var transformationManager = new GenericSmtLibTransformationManager(symbolTable);
         final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-        final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args, solverOverride);
+        final var solverBinary = createSolverBinary();
 
         return new SmtLibSolver(symbolTable, transformationManager, termTransformer, solverBinary,
                 false);
@@ -62,7 +67,7 @@ public class GenericSmtLibSolverFactory implements SolverFactory {
         final var symbolTable = new GenericSmtLibSymbolTable();
         final var transformationManager = new GenericSmtLibTransformationManager(symbolTable);
         final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-        final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args, solverOverride);
+        final var solverBinary = createSolverBinary();
 
         return new SmtLibSolver(symbolTable, transformationManager, termTransformer, solverBinary,
                 true);
@@ -73,4 +78,25 @@ public class GenericSmtLibSolverFactory implements SolverFactory {
         throw new UnsupportedOperationException(
                 "The generic driver does not support interpolation");
     }
+
+    /**
+     * Makes the solvers created by this factory take their processes from a pool, instead of
+     * launching a new process for each solver.
+     */
+    public void setBinaryPool(final SmtLibSolverBinaryPool binaryPool) {
+        this.binaryPool = binaryPool;
+    }
+
+    protected final SmtLibSolverBinary createSolverBinary() {
+        if (binaryPool == null) {
+            return launchSolverBinary();
+        } else {
+            final var key = List.of(solverPath.toAbsolutePath(), List.of(args), solverOverride);
+            return binaryPool.acquire(key, this::launchSolverBinary);
+        }
+    }
+
+    private SmtLibSolverBinary launchSolverBinary() {
+        return new GenericSmtLibSolverBinary(solverPath, args, solverOverride);
+    }
 }
@@ -51,6 +51,11 @@ public class GenericSmtLibTransformationManager implements SmtLibTransformationM
         return exprTransformer.toTerm(expr);
     }
 
+    @Override
+    public final String toSharedTerm(final Expr<?> expr) {
+        return exprTransformer.toSharedTerm(expr);
+    }
+
     protected SmtLibTypeTransformer instantiateTypeTransformer(
             final SmtLibTransformationManager transformer) {
         return new GenericSmtLibTypeTransformer(transformer);
@@ -18,7 +18,6 @@ package hu.bme.mit.theta.solver.smtlib.impl.mathsat;
 import hu.bme.mit.theta.solver.ItpSolver;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.UCSolver;
-import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSolverBinary;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSolverFactory;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSymbolTable;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibTermTransformer;
@@ -45,7 +44,7 @@ public class MathSATSmtLibSolverFactory extends GenericSmtLibSolverFactory {
         final var symbolTable = new GenericSmtLibSymbolTable();
         final var transformationManager = new MathSATSmtLibTransformationManager(symbolTable);
         final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-        final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args);
+        final var solverBinary = createSolverBinary();
 
         return new SmtLibSolver(symbolTable, transformationManager, termTransformer, solverBinary,
                 false);
@@ -56,7 +55,7 @@ public class MathSATSmtLibSolverFactory extends GenericSmtLibSolverFactory {
         final var symbolTable = new GenericSmtLibSymbolTable();
         final var transformationManager = new MathSATSmtLibTransformationManager(symbolTable);
         final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-        final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args);
+        final var solverBinary = createSolverBinary();
 
         return new SmtLibSolver(symbolTable, transformationManager, termTransformer, solverBinary,
                 true);
@@ -68,7 +67,7 @@ public class MathSATSmtLibSolverFactory extends GenericSmtLibSolverFactory {
             final var symbolTable = new GenericSmtLibSymbolTable();
             final var transformationManager = new MathSATSmtLibTransformationManager(symbolTable);
             final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-            final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args);
+            final var solverBinary = createSolverBinary();
 
             return new MathSATSmtLibItpSolver(symbolTable, transformationManager, termTransformer,
                     solverBinary);
@@ -42,8 +42,7 @@ public class PrincessSmtLibSolverFactory extends GenericSmtLibSolverFactory {
         final var symbolTable = new GenericSmtLibSymbolTable();
         final var transformationManager = new GenericSmtLibTransformationManager(symbolTable);
         final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-        final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args,
-                EnumSet.of(GenericSmtLibSolverBinary.Solver.PRINCESS));
+        final var solverBinary = createSolverBinary();
 
         return new PrincessSmtLibItpSolver(symbolTable, transformationManager, termTransformer,
                 solverBinary);
@@ -16,7 +16,6 @@
 package hu.bme.mit.theta.solver.smtlib.impl.z3;
 
 import hu.bme.mit.theta.solver.ItpSolver;
-import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSolverBinary;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSolverFactory;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSymbolTable;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibTermTransformer;
@@ -48,7 +47,7 @@ public class Z3SmtLibSolverFactory extends GenericSmtLibSolverFactory {
             final var symbolTable = new GenericSmtLibSymbolTable();
             final var transformationManager = new GenericSmtLibTransformationManager(symbolTable);
             final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
-            final var solverBinary = new GenericSmtLibSolverBinary(solverPath, args);
+            final var solverBinary = createSolverBinary();
 
             if (itpSupport.equals(Z3ItpSupport.OLD)) {
                 return new Z3OldSmtLibItpSolver(symbolTable, transformationManager, termTransformer,
@@ -15,6 +15,7 @@
  */
 package hu.bme.mit.theta.solver.smtlib.solver;
 
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
@@ -109,7 +110,7 @@ public abstract class SmtLibItpSolver<T extends SmtLibItpMarker> implements ItpS
         declarationStack.add(consts);
 
         final var itpMarker = (T) marker;
-        final var term = transformationManager.toTerm(assertion);
+        final var term = transformationManager.toSharedTerm(assertion);
         itpMarker.add(assertion, term);
 
         assertions.add(assertion);
@@ -123,8 +124,11 @@ public abstract class SmtLibItpSolver<T extends SmtLibItpMarker> implements ItpS
 
     @Override
     public SolverStatus check() {
-        solverBinary.issueCommand("(check-sat)");
-        var res = parseResponse(solverBinary.readResponse());
+        final String response = AnalysisBudget.current().runInterruptibly(() -> {
+            solverBinary.issueCommand("(check-sat)");
+            return solverBinary.readResponse();
+        }, solverBinary::interrupt);
+        var res = parseResponse(response);
         if (res.isError()) {
             throw new SmtLibSolverException(res.getReason());
         } else if (res.isSpecific()) {
@@ -195,7 +199,15 @@ public abstract class SmtLibItpSolver<T extends SmtLibItpMarker> implements ItpS
         assert model == null;
 
         solverBinary.issueCommand("(get-model)");
-        final var res = parseResponse(solverBinary.readResponse());
+        final var tokens = solverBinary.readResponseTokens();
+        final var response = tokens.text();
+        final var modelResponse = GetModelResponse.fromTokens(tokens);
+        if (modelResponse.isPresent()) {
+            return new SmtLibValuation(symbolTable, transformationManager, termTransformer,
+                    modelResponse.get().getModel());
+        }
+
+        final var res = parseResponse(response);
         if (res.isError()) {
             throw new SmtLibSolverException(res.getReason());
         } else if (res.isSpecific()) {
@@ -240,6 +252,11 @@ public abstract class SmtLibItpSolver<T extends SmtLibItpMarker> implements ItpS
     }
 
     protected final GeneralResponse parseResponse(final String response) {
+        final var simpleResponse = GeneralResponse.fromString(response);
+        if (simpleResponse.isPresent()) {
+            return simpleResponse.get();
+        }
+
         try {
             final var lexer = new SMTLIBv2Lexer(CharStreams.fromString(response));
             final var parser = new SMTLIBv2Parser(new CommonTokenStream(lexer));
@@ -15,6 +15,7 @@
  */
 package hu.bme.mit.theta.solver.smtlib.solver;
 
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
@@ -41,10 +42,13 @@ import hu.bme.mit.theta.solver.smtlib.solver.transformer.SmtLibTransformationMan
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -65,8 +69,18 @@ public class SmtLibSolver implements UCSolver, Solver {
     private static final String ASSUMPTION_LABEL = "_LABEL_%d";
     private int labelNum = 0;
 
+    // Assumptions of check-sat-assuming are represented by literals that imply them. A literal is
+    // defined on the first use of an assumption, and it is kept until its scope is popped.
+    private static final String ASSUMPTION_LITERAL = "_ASSUMPTION_%d";
+    private int literalNum = 0;
+    private final Stack<Expr<BoolType>> literalAssumptions;
+    private final Map<Expr<BoolType>, String> assumptionLiterals;
+    private boolean unsatAssumptionsEnabled;
+
     private Valuation model;
     private Collection<Expr<BoolType>> unsatCore;
+    private Map<String, Expr<BoolType>> checkedAssumptions;
+    private Collection<Expr<BoolType>> unsatAssumptions;
     private SolverStatus status;
 
     public SmtLibSolver(
@@ -85,6 +99,8 @@ public class SmtLibSolver implements UCSolver, Solver {
         assertions = new StackImpl<>();
         assumptions = new HashMap<>();
         declarationStack = new StackImpl<>();
+        literalAssumptions = new StackImpl<>();
+        assumptionLiterals = new HashMap<>();
 
         init();
     }
@@ -95,7 +111,7 @@ public class SmtLibSolver implements UCSolver, Solver {
         consts.removeAll(declarationStack.toCollection());
         declarationStack.add(consts);
 
-        final var term = transformationManager.toTerm(assertion);
+        final var term = transformationManager.toSharedTerm(assertion);
 
         assertions.add(assertion);
         consts.stream().map(symbolTable::getDeclaration).forEach(this::issueGeneralCommand);
@@ -122,7 +138,7 @@ public class SmtLibSolver implements UCSolver, Solver {
         consts.removeAll(declarationStack.toCollection());
         declarationStack.add(consts);
 
-        final var term = transformationManager.toTerm(assertion);
+        final var term = transformationManager.toSharedTerm(assertion);
         final var label = String.format(ASSUMPTION_LABEL, labelNum++);
         assumptions.put(label, assertion);
         assertions.add(assertion);
@@ -135,30 +151,79 @@ public class SmtLibSolver implements UCSolver, Solver {
 
     @Override
     public SolverStatus check() {
-        solverBinary.issueCommand("(check-sat)");
-        var res = parseResponse(solverBinary.readResponse());
+        final String response = AnalysisBudget.current().runInterruptibly(() -> {
+            solverBinary.issueCommand("(check-sat)");
+            return solverBinary.readResponse();
+        }, solverBinary::interrupt);
+        clearState();
+        status = parseCheckSatResponse(response);
+        return status;
+    }
+
+    @Override
+    public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+        final Map<String, Expr<BoolType>> literals = new LinkedHashMap<>();
+        for (final Expr<BoolType> assumption : assumptions) {
+            literals.put(getAssumptionLiteral(assumption), assumption);
+        }
+
+        final String command = String.format("(check-sat-assuming (%s))",
+                String.join(" ", literals.keySet()));
+        final String response = AnalysisBudget.current().runInterruptibly(() -> {
+            solverBinary.issueCommand(command);
+            return solverBinary.readResponse();
+        }, solverBinary::interrupt);
+        clearState();
+        status = parseCheckSatResponse(response);
+        checkedAssumptions = literals;
+        return status;
+    }
+
+    private SolverStatus parseCheckSatResponse(final String response) {
+        var res = parseResponse(response);
         if (res.isError()) {
             throw new SmtLibSolverException(res.getReason());
         } else if (res.isSpecific()) {
             final CheckSatResponse checkSatResponse = res.asSpecific().asCheckSatResponse();
             if (checkSatResponse.isSat()) {
-                status = SolverStatus.SAT;
+                return SolverStatus.SAT;
             } else if (checkSatResponse.isUnsat()) {
-                status = SolverStatus.UNSAT;
+                return SolverStatus.UNSAT;
             } else {
                 throw new UnknownSolverStatusException();
             }
         } else {
             throw new AssertionError();
         }
+    }
 
-        return status;
+    private String getAssumptionLiteral(final Expr<BoolType> assumption) {
+        final String cachedLiteral = assumptionLiterals.get(assumption);
+        if (cachedLiteral != null) {
+            return cachedLiteral;
+        }
+
+        final var consts = ExprUtils.getConstants(assumption);
+        consts.removeAll(declarationStack.toCollection());
+        declarationStack.add(consts);
+
+        final var term = transformationManager.toSharedTerm(assumption);
+        final var literal = String.format(ASSUMPTION_LITERAL, literalNum++);
+
+        consts.stream().map(symbolTable::getDeclaration).forEach(this::issueGeneralCommand);
+        issueGeneralCommand(String.format("(declare-fun %s () Bool)", literal));
+        issueGeneralCommand(String.format("(assert (=> %s %s))", literal, term));
+
+        literalAssumptions.add(assumption);
+        assumptionLiterals.put(assumption, literal);
+        return literal;
     }
 
     @Override
     public void push() {
         assertions.push();
         declarationStack.push();
+        literalAssumptions.push();
         issueGeneralCommand("(push 1)");
     }
 
@@ -166,6 +231,10 @@ public class SmtLibSolver implements UCSolver, Solver {
     public void pop(int n) {
         assertions.pop(n);
         declarationStack.pop(n);
+        final List<Expr<BoolType>> poppedAssumptions = new ArrayList<>(literalAssumptions.toCollection());
+        literalAssumptions.pop(n);
+        poppedAssumptions.subList(0, literalAssumptions.toCollection().size()).clear();
+        poppedAssumptions.forEach(assumptionLiterals::remove);
         issueGeneralCommand("(pop 1)");
         clearState();
     }
@@ -173,6 +242,8 @@ public class SmtLibSolver implements UCSolver, Solver {
     @Override
     public void reset() {
         issueGeneralCommand("(reset)");
+        literalAssumptions.clear();
+        assumptionLiterals.clear();
         clearState();
         init();
     }
@@ -199,7 +270,15 @@ public class SmtLibSolver implements UCSolver, Solver {
         assert model == null;
 
         solverBinary.issueCommand("(get-model)");
-        final var res = parseResponse(solverBinary.readResponse());
+        final var tokens = solverBinary.readResponseTokens();
+        final var response = tokens.text();
+        final var modelResponse = GetModelResponse.fromTokens(tokens);
+        if (modelResponse.isPresent()) {
+            return new SmtLibValuation(symbolTable, transformationManager, termTransformer,
+                    modelResponse.get().getModel());
+        }
+
+        final var res = parseResponse(response);
         if (res.isError()) {
             throw new SmtLibSolverException(res.getReason());
         } else if (res.isSpecific()) {
@@ -230,15 +309,22 @@ public class SmtLibSolver implements UCSolver, Solver {
         final Collection<String> unsatCoreLabels;
 
         solverBinary.issueCommand("(get-unsat-core)");
-        final var res = parseResponse(solverBinary.readResponse());
-        if (res.isError()) {
-            throw new SmtLibSolverException(res.getReason());
-        } else if (res.isSpecific()) {
-            final GetUnsatCoreResponse getUnsatCoreResponse = res.asSpecific()
-                    .asGetUnsatCoreResponse();
-            unsatCoreLabels = getUnsatCoreResponse.getLabels();
+        final var tokens = solverBinary.readResponseTokens();
+        final var response = tokens.text();
+        final var unsatCoreResponse = GetUnsatCoreResponse.fromTokens(tokens);
+        if (unsatCoreResponse.isPresent()) {
+            unsatCoreLabels = unsatCoreResponse.get().getLabels();
         } else {
-            throw new AssertionError();
+            final var res = parseResponse(response);
+            if (res.isError()) {
+                throw new SmtLibSolverException(res.getReason());
+            } else if (res.isSpecific()) {
+                final GetUnsatCoreResponse getUnsatCoreResponse = res.asSpecific()
+                        .asGetUnsatCoreResponse();
+                unsatCoreLabels = getUnsatCoreResponse.getLabels();
+            } else {
+                throw new AssertionError();
+            }
         }
 
         for (final var label : unsatCoreLabels) {
@@ -250,6 +336,46 @@ public class SmtLibSolver implements UCSolver, Solver {
         return unsatCore;
     }
 
+    @Override
+    public Collection<Expr<BoolType>> getUnsatAssumptions() {
+        checkState(status == SolverStatus.UNSAT && checkedAssumptions != null,
+                "Cannot get unsat assumptions if status is not UNSAT after checking assumptions");
+        checkState(unsatAssumptionsEnabled, "Solver does not support unsat assumptions");
+
+        if (unsatAssumptions == null) {
+            unsatAssumptions = extractUnsatAssumptions();
+        }
+
+        return Collections.unmodifiableCollection(unsatAssumptions);
+    }
+
+    private Collection<Expr<BoolType>> extractUnsatAssumptions() {
+        assert status == SolverStatus.UNSAT;
+        assert unsatAssumptions == null;
+
+        solverBinary.issueCommand("(get-unsat-assumptions)");
+        final var tokens = solverBinary.readResponseTokens();
+        final var response = tokens.text();
+        // The response is a list of literals, just like the response of (get-unsat-core)
+        final var unsatAssumptionsResponse = GetUnsatCoreResponse.fromTokens(tokens);
+        if (unsatAssumptionsResponse.isEmpty()) {
+            final var res = parseResponse(response);
+            if (res.isError()) {
+                throw new SmtLibSolverException(res.getReason());
+            } else {
+                throw new SmtLibSolverException("Could not parse solver output: " + response);
+            }
+        }
+
+        final Collection<Expr<BoolType>> unsatAssumptions = new LinkedList<>();
+        for (final var literal : unsatAssumptionsResponse.get().getLabels()) {
+            final Expr<BoolType> assumption = checkedAssumptions.get(literal);
+            assert assumption != null;
+            unsatAssumptions.add(assumption);
+        }
+        return unsatAssumptions;
+    }
+
     @Override
     public Collection<Expr<BoolType>> getAssertions() {
         return assertions.toCollection();
@@ -266,6 +392,9 @@ public class SmtLibSolver implements UCSolver, Solver {
         if (unsatCoreEnabled) {
             issueGeneralCommand("(set-option :produce-unsat-cores true)");
         }
+        // Not every solver supports this option, it is only needed by getUnsatAssumptions()
+        solverBinary.issueCommand("(set-option :produce-unsat-assumptions true)");
+        unsatAssumptionsEnabled = !parseResponse(solverBinary.readResponse()).isError();
         issueGeneralCommand("(set-logic ALL)");
     }
 
@@ -273,6 +402,8 @@ public class SmtLibSolver implements UCSolver, Solver {
         status = null;
         model = null;
         unsatCore = null;
+        checkedAssumptions = null;
+        unsatAssumptions = null;
     }
 
     protected final void issueGeneralCommand(String command) {
@@ -284,6 +415,11 @@ public class SmtLibSolver implements UCSolver, Solver {
     }
 
     protected final GeneralResponse parseResponse(final String response) {
+        final var simpleResponse = GeneralResponse.fromString(response);
+        if (simpleResponse.isPresent()) {
+            return simpleResponse.get();
+        }
+
         try {
             final var lexer = new SMTLIBv2Lexer(CharStreams.fromString(response));
             final var parser = new SMTLIBv2Parser(new CommonTokenStream(lexer));
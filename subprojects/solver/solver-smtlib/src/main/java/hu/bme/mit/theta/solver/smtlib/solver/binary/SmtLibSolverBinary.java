@@ -15,9 +15,31 @@
  */
 package hu.bme.mit.theta.solver.smtlib.solver.binary;
 
+import hu.bme.mit.theta.solver.smtlib.solver.parser.SExprTokens;
+
 public interface SmtLibSolverBinary extends AutoCloseable {
 
     void issueCommand(String command);
 
     String readResponse();
+
+    /**
+     * Reads the next response split into tokens. Binaries that tokenize their output while
+     * reading it should override this, so that large responses are not scanned twice.
+     */
+    default SExprTokens readResponseTokens() {
+        return SExprTokens.tokenize(readResponse());
+    }
+
+    /**
+     * Interrupts the command being executed (possibly from a different thread), so that
+     * {@link #readResponse()} does not block anymore. The binary cannot be used afterwards.
+     */
+    void interrupt();
+
+    /**
+     * Checks whether the solver process is still running, i.e., whether the binary can accept
+     * commands.
+     */
+    boolean isAlive();
 }
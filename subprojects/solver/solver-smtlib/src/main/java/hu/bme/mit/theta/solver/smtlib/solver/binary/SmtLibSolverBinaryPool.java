@@ -0,0 +1,345 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.smtlib.solver.binary;
+
+import hu.bme.mit.theta.solver.smtlib.solver.parser.SExprTokens;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Pool of running solver processes, so that solvers can be created without launching a process
+ * and waiting for the solver to start up. Processes are pooled separately for each key (e.g.,
+ * solver binary and arguments), and at most {@code size} idle processes are kept for each key.
+ * The pool is filled by the processes returned to it: when a key has no idle process, a process is
+ * only launched for the caller. Processes are launched in advance only to replace a process of
+ * the key that is discarded (e.g., interrupted or expired), so keys that are used once or never
+ * concurrently do not keep processes running in vain.
+ * <p>
+ * Processes are handed out wrapped in a binary whose {@link SmtLibSolverBinary#close()} returns
+ * the process to the pool. A returned process is only kept if it was not interrupted, every
+ * command got its response, and it is still responsive after a {@code (reset)}: as the reset turns
+ * {@code :print-success} off, the pool sends an {@code (echo)} after it and waits for the echoed
+ * text instead of a success, for a limited time. Processes failing to answer in time are
+ * terminated. A process is checked to be running when it is handed out, and it is discarded after
+ * a limited number of uses or a limited lifetime, so that state surviving the resets (e.g., memory)
+ * does not accumulate.
+ */
+public final class SmtLibSolverBinaryPool implements AutoCloseable {
+
+    private static final int DEFAULT_MAX_USES = 100;
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(10);
+    private static final Duration DEFAULT_RESET_TIMEOUT = Duration.ofSeconds(5);
+    private static final String RESET_SENTINEL = "theta-pool-reset";
+
+    private final int size;
+    private final int maxUses;
+    private final long maxAgeNanos;
+    private final long resetTimeoutNanos;
+
+    private final Map<Object, Deque<PooledProcess>> idleProcesses;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private boolean closed;
+
+    private SmtLibSolverBinaryPool(final int size, final int maxUses, final Duration maxAge,
+                                   final Duration resetTimeout) {
+        checkArgument(size > 0, "Pool size must be positive");
+        checkArgument(maxUses > 0, "Maximal number of uses must be positive");
+        checkArgument(!maxAge.isNegative() && !maxAge.isZero(), "Maximal age must be positive");
+        checkArgument(!resetTimeout.isNegative() && !resetTimeout.isZero(),
+                "Reset timeout must be positive");
+        this.size = size;
+        this.maxUses = maxUses;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.resetTimeoutNanos = resetTimeout.toNanos();
+        this.idleProcesses = new HashMap<>();
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "smtlib-pool-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog.setRemoveOnCancelPolicy(true);
+        this.closed = false;
+    }
+
+    public static SmtLibSolverBinaryPool create(final int size) {
+        return create(size, DEFAULT_MAX_USES, DEFAULT_MAX_AGE);
+    }
+
+    public static SmtLibSolverBinaryPool create(final int size, final int maxUses,
+                                                final Duration maxAge) {
+        return create(size, maxUses, maxAge, DEFAULT_RESET_TIMEOUT);
+    }
+
+    /**
+     * @param resetTimeout Time a returned process has to answer after its reset, otherwise it is
+     *                     terminated
+     */
+    public static SmtLibSolverBinaryPool create(final int size, final int maxUses,
+                                                final Duration maxAge,
+                                                final Duration resetTimeout) {
+        return new SmtLibSolverBinaryPool(size, maxUses, checkNotNull(maxAge),
+                checkNotNull(resetTimeout));
+    }
+
+    /**
+     * Hands out an idle process of the given key, or launches a new one if there is none. Idle
+     * processes that turn out to be unusable are discarded and replaced.
+     *
+     * @param key      Key identifying the kind of the process, equal keys must mean equal
+     *                 launchers
+     * @param launcher Launches a new process of the given key
+     * @return The binary of the process, which has to be closed to return it to the pool
+     */
+    public SmtLibSolverBinary acquire(final Object key,
+                                      final Supplier<? extends SmtLibSolverBinary> launcher) {
+        checkNotNull(key);
+        checkNotNull(launcher);
+
+        PooledProcess process = null;
+        final List<PooledProcess> discarded = new ArrayList<>();
+        synchronized (this) {
+            checkState(!closed, "Solver binary pool was closed");
+            final Deque<PooledProcess> processes = idleProcesses.computeIfAbsent(key,
+                    k -> new ArrayDeque<>());
+            while (process == null && !processes.isEmpty()) {
+                final PooledProcess candidate = processes.pollFirst();
+                if (candidate.isUsable()) {
+                    process = candidate;
+                } else {
+                    discarded.add(candidate);
+                }
+            }
+        }
+        discarded.forEach(PooledProcess::destroy);
+
+        if (process == null) {
+            process = new PooledProcess(launcher.get());
+        }
+        for (int i = 0; i < discarded.size(); i++) {
+            replace(key, launcher);
+        }
+        return new PooledBinary(key, launcher, process);
+    }
+
+    /**
+     * Terminates the idle processes. Processes handed out are terminated when they are returned.
+     */
+    @Override
+    public void close() {
+        final List<PooledProcess> processes = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            idleProcesses.values().forEach(processes::addAll);
+            idleProcesses.clear();
+        }
+        processes.forEach(PooledProcess::destroy);
+        watchdog.shutdownNow();
+    }
+
+    synchronized int getIdleCount(final Object key) {
+        final Deque<PooledProcess> processes = idleProcesses.get(key);
+        return processes == null ? 0 : processes.size();
+    }
+
+    ////
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Launches a process in place of a discarded one, if the pool of the key is not full.
+     */
+    private void replace(final Object key, final Supplier<? extends SmtLibSolverBinary> launcher) {
+        synchronized (this) {
+            if (closed || idleProcesses.get(key).size() >= size) {
+                return;
+            }
+        }
+        // Launching does not wait for the solver to start up, it happens in the background
+        offer(key, new PooledProcess(launcher.get()), false);
+    }
+
+    private void release(final Object key, final Supplier<? extends SmtLibSolverBinary> launcher,
+                         final PooledProcess process, final boolean clean) {
+        if (clean && !isClosed() && process.reset()) {
+            offer(key, process, true);
+        } else {
+            process.destroy();
+            replace(key, launcher);
+        }
+    }
+
+    private void offer(final Object key, final PooledProcess process, final boolean first) {
+        synchronized (this) {
+            final Deque<PooledProcess> processes = idleProcesses.get(key);
+            if (!closed && processes.size() < size) {
+                // Reused processes are handed out first, as they have certainly started up
+                if (first) {
+                    processes.addFirst(process);
+                } else {
+                    processes.addLast(process);
+                }
+                return;
+            }
+        }
+        process.destroy();
+    }
+
+    private final class PooledProcess {
+        private final SmtLibSolverBinary binary;
+        private final long launchTime;
+        private int uses;
+
+        private PooledProcess(final SmtLibSolverBinary binary) {
+            this.binary = checkNotNull(binary);
+            this.launchTime = System.nanoTime();
+            this.uses = 0;
+        }
+
+        private boolean isUsable() {
+            return uses < maxUses && System.nanoTime() - launchTime < maxAgeNanos
+                    && binary.isAlive();
+        }
+
+        /**
+         * Resets the process and checks that it still answers. The reset itself is answered with
+         * success only if {@code :print-success} was on, so its response is optional: the check
+         * waits for the text of an {@code (echo)} issued after the reset. A process not answering
+         * in time is interrupted, which terminates it.
+         */
+        private boolean reset() {
+            uses++;
+            if (!isUsable()) {
+                return false;
+            }
+            ScheduledFuture<?> timeout = null;
+            try {
+                timeout = watchdog.schedule(binary::interrupt, resetTimeoutNanos,
+                        TimeUnit.NANOSECONDS);
+                binary.issueCommand("(reset)");
+                binary.issueCommand("(echo \"" + RESET_SENTINEL + "\")");
+                // At most the success of the reset precedes the echo
+                for (int i = 0; i < 2; i++) {
+                    final String response = binary.readResponse();
+                    if (isSentinel(response)) {
+                        // The process is unusable if the timeout fired in the meantime
+                        return timeout.cancel(false);
+                    } else if (!response.equals("success")) {
+                        break;
+                    }
+                }
+                timeout.cancel(false);
+                return false;
+            } catch (final RuntimeException e) {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                return false;
+            }
+        }
+
+        private boolean isSentinel(final String response) {
+            // Solvers print the echoed string with or without its quotes
+            return response.replace("\"", "").trim().equals(RESET_SENTINEL);
+        }
+
+        private void destroy() {
+            try {
+                binary.close();
+            } catch (final Exception e) {
+                // The process is not used anymore, there is nothing to do if it fails to stop
+            }
+        }
+    }
+
+    private final class PooledBinary implements SmtLibSolverBinary {
+        private final Object key;
+        private final Supplier<? extends SmtLibSolverBinary> launcher;
+        private final PooledProcess process;
+
+        private int pendingResponses;
+        private volatile boolean interrupted;
+        private boolean closed;
+
+        private PooledBinary(final Object key,
+                             final Supplier<? extends SmtLibSolverBinary> launcher,
+                             final PooledProcess process) {
+            this.key = key;
+            this.launcher = launcher;
+            this.process = process;
+            this.pendingResponses = 0;
+            this.interrupted = false;
+            this.closed = false;
+        }
+
+        @Override
+        public void issueCommand(final String command) {
+            checkState(!closed, "Solver binary was closed");
+            process.binary.issueCommand(command);
+            pendingResponses++;
+        }
+
+        @Override
+        public String readResponse() {
+            checkState(!closed, "Solver binary was closed");
+            final String response = process.binary.readResponse();
+            pendingResponses--;
+            return response;
+        }
+
+        @Override
+        public SExprTokens readResponseTokens() {
+            checkState(!closed, "Solver binary was closed");
+            final SExprTokens response = process.binary.readResponseTokens();
+            pendingResponses--;
+            return response;
+        }
+
+        @Override
+        public void interrupt() {
+            interrupted = true;
+            process.binary.interrupt();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return !closed && process.binary.isAlive();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(key, launcher, process, !interrupted && pendingResponses == 0);
+            }
+        }
+    }
+}
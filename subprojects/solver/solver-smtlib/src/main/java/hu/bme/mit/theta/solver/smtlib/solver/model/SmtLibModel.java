@@ -15,15 +15,24 @@
  */
 package hu.bme.mit.theta.solver.smtlib.solver.model;
 
+import hu.bme.mit.theta.core.type.LitExpr;
+
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 public class SmtLibModel {
 
     protected final Map<String, String> values;
+    protected final Map<String, LitExpr<?>> literals;
 
     public SmtLibModel(final Map<String, String> values) {
+        this(values, Collections.emptyMap());
+    }
+
+    public SmtLibModel(final Map<String, String> values, final Map<String, LitExpr<?>> literals) {
         this.values = values;
+        this.literals = literals;
     }
 
     public Collection<String> getDecls() {
@@ -34,6 +43,14 @@ public class SmtLibModel {
         return values.get(symbol);
     }
 
+    /**
+     * Returns the value of a constant if it was already read from the response of the solver,
+     * or null if its term has to be transformed.
+     */
+    public LitExpr<?> getLiteral(final String symbol) {
+        return literals.get(symbol);
+    }
+
     public int size() {
         return values.size();
     }
@@ -94,6 +94,11 @@ public final class SmtLibValuation extends Valuation {
         final String symbol = transformationManager.toSymbol(decl);
         final Type type = decl.getType();
 
+        final LitExpr<?> literal = model.getLiteral(symbol);
+        if (literal != null && literal.getType().equals(type)) {
+            return literal;
+        }
+
         if (type instanceof FuncType) {
             return extractFuncLiteral(symbol, (FuncType<?, ?>) type);
         } else if (type instanceof ArrayType) {
@@ -18,6 +18,8 @@ package hu.bme.mit.theta.solver.smtlib.solver.parser;
 import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.Check_sat_responseContext;
 import hu.bme.mit.theta.solver.smtlib.solver.SmtLibSolverException;
 
+import java.util.Optional;
+
 import static hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.PS_Sat;
 import static hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.PS_Unknown;
 import static hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.PS_Unsat;
@@ -48,6 +50,19 @@ public class CheckSatResponse extends SpecificResponse {
         }
     }
 
+    static Optional<CheckSatResponse> fromString(final String response) {
+        switch (response) {
+            case "sat":
+                return Optional.of(new CheckSatResponse(Status.SAT));
+            case "unsat":
+                return Optional.of(new CheckSatResponse(Status.UNSAT));
+            case "unknown":
+                return Optional.of(new CheckSatResponse(Status.UNKNOWN));
+            default:
+                return Optional.empty();
+        }
+    }
+
     public boolean isSat() {
         return status == Status.SAT;
     }
@@ -22,6 +22,8 @@ import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.General_response_un
 import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.ResponseContext;
 import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.Specific_success_responseContext;
 
+import java.util.Optional;
+
 import static com.google.common.base.Preconditions.checkState;
 
 public class GeneralResponse {
@@ -63,6 +65,25 @@ public class GeneralResponse {
         });
     }
 
+    /**
+     * Parse the single-token responses (success, unsupported and the results of check-sat)
+     * without the ANTLR parser. These are the responses to almost every command.
+     *
+     * @param response The response of the solver
+     * @return The parsed response, or empty if the response is not a single recognized token
+     */
+    public static Optional<GeneralResponse> fromString(final String response) {
+        switch (response) {
+            case "success":
+                return Optional.of(new GeneralResponse(true, null, null));
+            case "unsupported":
+                return Optional.of(new GeneralResponse(false, "Unsupported", null));
+            default:
+                return CheckSatResponse.fromString(response)
+                        .map(checkSat -> new GeneralResponse(true, null, checkSat));
+        }
+    }
+
     public boolean isSuccessful() {
         return successful && specificResponse == null;
     }
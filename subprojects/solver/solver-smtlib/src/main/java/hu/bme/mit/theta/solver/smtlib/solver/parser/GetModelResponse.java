@@ -16,6 +16,7 @@
 package hu.bme.mit.theta.solver.smtlib.solver.parser;
 
 import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2BaseVisitor;
 import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.Model_response_mathsatContext;
 import hu.bme.mit.theta.solver.smtlib.solver.model.SmtLibModel;
@@ -23,7 +24,9 @@ import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.misc.Interval;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser.Get_model_responseContext;
@@ -39,6 +42,11 @@ public class GetModelResponse extends SpecificResponse {
         model = new SmtLibModel(values);
     }
 
+    private GetModelResponse(final Map<String, String> values,
+                             final Map<String, LitExpr<?>> literals) {
+        model = new SmtLibModel(values, literals);
+    }
+
     public static GetModelResponse fromContext(final Get_model_responseContext ctx) {
         return new GetModelResponse(ctx.model_response().stream()
                 .map(member -> member.accept(new SMTLIBv2BaseVisitor<Tuple2<String, String>>() {
@@ -74,6 +82,79 @@ public class GetModelResponse extends SpecificResponse {
                 })).collect(Collectors.toUnmodifiableMap(Tuple2::get1, Tuple2::get2)));
     }
 
+    public static Optional<GetModelResponse> fromString(final String response) {
+        return fromTokens(SExprTokens.tokenize(response));
+    }
+
+    /**
+     * Parse the response of a (get-model) command without the ANTLR parser. The values of
+     * constants that are defined by a literal are read from the tokens directly. Other
+     * definitions are only located in the text: their terms are parsed lazily, when the model
+     * is queried.
+     *
+     * @param tokens The tokens of the response of the solver
+     * @return The parsed response, or empty if the response is not a model in a recognized form
+     */
+    public static Optional<GetModelResponse> fromTokens(final SExprTokens tokens) {
+        final String response = tokens.text();
+        final SExprScanner scanner = new SExprScanner(tokens);
+        if (!scanner.tryOpen()) {
+            return Optional.empty();
+        }
+
+        if (!scanner.atOpen() && !scanner.atClose() && !"model".equals(scanner.readSymbol())) {
+            return Optional.empty();
+        }
+
+        final Map<String, String> values = new HashMap<>();
+        final Map<String, LitExpr<?>> literals = new HashMap<>();
+        while (!scanner.tryClose()) {
+            if (!scanner.tryOpen()) {
+                return Optional.empty();
+            }
+
+            final String head = scanner.readSymbol();
+            if ("define-fun".equals(head)) {
+                final int start = scanner.position();
+                final String symbol = scanner.readSymbol();
+                if (symbol == null) {
+                    return Optional.empty();
+                }
+                final int first = scanner.index();
+                int end = start + symbol.length();
+                while (!scanner.atClose()) {
+                    end = scanner.skipExpr();
+                    if (end == -1) {
+                        return Optional.empty();
+                    }
+                }
+                final LitExpr<?> literal = SExprLiterals.constValue(tokens, first, scanner.index());
+                if (literal != null) {
+                    literals.put(symbol, literal);
+                }
+                scanner.tryClose();
+                values.put(symbol, response.substring(start, end));
+            } else if (head != null && !head.startsWith("define-fun")) {
+                // MathSAT style model: (symbol term)
+                final int start = scanner.position();
+                final int end = scanner.skipExpr();
+                if (end == -1 || !scanner.tryClose()) {
+                    return Optional.empty();
+                }
+                values.put(head, String.format("%s () (_ theta_type unknown) %s", head,
+                        response.substring(start, end)));
+            } else {
+                return Optional.empty();
+            }
+        }
+
+        if (!scanner.atEnd()) {
+            return Optional.empty();
+        }
+        return Optional.of(new GetModelResponse(Collections.unmodifiableMap(values),
+                Collections.unmodifiableMap(literals)));
+    }
+
     public static GetModelResponse empty() {
         return new GetModelResponse(Collections.emptyMap());
     }
@@ -20,6 +20,9 @@ import org.antlr.v4.runtime.RuleContext;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class GetUnsatCoreResponse extends SpecificResponse {
@@ -36,6 +39,37 @@ public class GetUnsatCoreResponse extends SpecificResponse {
         );
     }
 
+    public static Optional<GetUnsatCoreResponse> fromString(final String response) {
+        return fromTokens(SExprTokens.tokenize(response));
+    }
+
+    /**
+     * Parse the response of a (get-unsat-core) command without the ANTLR parser.
+     *
+     * @param tokens The tokens of the response of the solver
+     * @return The parsed response, or empty if the response is not a list of symbols
+     */
+    public static Optional<GetUnsatCoreResponse> fromTokens(final SExprTokens tokens) {
+        final SExprScanner scanner = new SExprScanner(tokens);
+        if (!scanner.tryOpen()) {
+            return Optional.empty();
+        }
+
+        final Set<String> labels = new HashSet<>();
+        while (!scanner.tryClose()) {
+            final String label = scanner.readSymbol();
+            if (label == null) {
+                return Optional.empty();
+            }
+            labels.add(label);
+        }
+
+        if (!scanner.atEnd()) {
+            return Optional.empty();
+        }
+        return Optional.of(new GetUnsatCoreResponse(Collections.unmodifiableSet(labels)));
+    }
+
     public static GetUnsatCoreResponse empty() {
         return new GetUnsatCoreResponse(Collections.emptyList());
     }
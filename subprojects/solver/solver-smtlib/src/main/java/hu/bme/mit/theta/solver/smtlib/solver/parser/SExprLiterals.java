@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.smtlib.solver.parser;
+
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
+import hu.bme.mit.theta.core.utils.BvUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+
+/**
+ * Reads the values of constants from the tokens of their definitions in a model, without the
+ * ANTLR parser. Only the literals of the basic sorts (Bool, Int, Real and BitVec) are recognized,
+ * in the forms solvers print them in models. Anything else yields null, and is left to the term
+ * transformer.
+ */
+final class SExprLiterals {
+
+    private final SExprTokens tokens;
+    private final int end;
+    private int pos;
+
+    private SExprLiterals(final SExprTokens tokens, final int from, final int to) {
+        this.tokens = tokens;
+        this.pos = from;
+        this.end = to;
+    }
+
+    /**
+     * Reads the value of a constant from its definition.
+     *
+     * @param tokens The tokens of the response
+     * @param from   The index of the first token after the defined symbol
+     * @param to     The index after the last token of the definition
+     * @return The value of the constant, or null if it is not a recognized literal
+     */
+    static LitExpr<?> constValue(final SExprTokens tokens, final int from, final int to) {
+        final SExprLiterals literals = new SExprLiterals(tokens, from, to);
+        if (!literals.accept("(") || !literals.accept(")")) {
+            return null;
+        }
+
+        final LitExpr<?> value;
+        if (literals.accept("Bool")) {
+            value = literals.bool();
+        } else if (literals.accept("Int")) {
+            final BigInteger integer = literals.integer();
+            value = integer == null ? null : Int(integer);
+        } else if (literals.accept("Real")) {
+            value = literals.rational();
+        } else if (literals.accept("(") && literals.accept("_") && literals.accept("BitVec")) {
+            final int size = literals.size();
+            value = size == -1 || !literals.accept(")") ? null : literals.bitvector(size);
+        } else {
+            return null;
+        }
+        return literals.pos == literals.end ? value : null;
+    }
+
+    private LitExpr<?> bool() {
+        if (accept("true")) {
+            return True();
+        } else if (accept("false")) {
+            return False();
+        } else {
+            return null;
+        }
+    }
+
+    private BigInteger integer() {
+        if (accept("(")) {
+            if (!accept("-")) {
+                return null;
+            }
+            final BigInteger op = integer();
+            return op == null || !accept(")") ? null : op.negate();
+        }
+        return numeral();
+    }
+
+    private RatLitExpr rational() {
+        if (accept("(")) {
+            final RatLitExpr result;
+            if (accept("-")) {
+                final RatLitExpr op = rational();
+                result = op == null ? null : op.neg();
+            } else if (accept("/")) {
+                final RatLitExpr op1 = rational();
+                final RatLitExpr op2 = rational();
+                result = op1 == null || op2 == null || op2.sign() == 0 ? null : op1.div(op2);
+            } else {
+                return null;
+            }
+            return result == null || !accept(")") ? null : result;
+        }
+
+        if (atEnd() || !isDecimal(tokens.get(pos))) {
+            return null;
+        }
+        final BigDecimal decimal = new BigDecimal(tokens.get(pos++));
+        if (decimal.scale() <= 0) {
+            return Rat(decimal.unscaledValue(), BigInteger.ONE);
+        } else {
+            return Rat(decimal.unscaledValue(), BigInteger.TEN.pow(decimal.scale()));
+        }
+    }
+
+    private LitExpr<?> bitvector(final int size) {
+        if (accept("(")) {
+            // (_ bvN size)
+            if (!accept("_") || atEnd() || !tokens.get(pos).startsWith("bv")) {
+                return null;
+            }
+            final String value = tokens.get(pos++).substring(2);
+            if (!isDigits(value, 10) || size() != size || !accept(")")) {
+                return null;
+            }
+            return BvUtils.bigIntegerToNeutralBvLitExpr(new BigInteger(value), size);
+        }
+
+        if (atEnd()) {
+            return null;
+        }
+        final String literal = tokens.get(pos);
+        final int radix;
+        final int bits;
+        if (literal.startsWith("#b")) {
+            radix = 2;
+            bits = literal.length() - 2;
+        } else if (literal.startsWith("#x")) {
+            radix = 16;
+            bits = 4 * (literal.length() - 2);
+        } else {
+            return null;
+        }
+        if (bits == 0 || bits != size || !isDigits(literal.substring(2), radix)) {
+            return null;
+        }
+        pos++;
+        final BigInteger value = new BigInteger(literal.substring(2), radix);
+        return BvUtils.bigIntegerToNeutralBvLitExpr(value, size);
+    }
+
+    private BigInteger numeral() {
+        if (atEnd() || !isDigits(tokens.get(pos), 10)) {
+            return null;
+        }
+        return new BigInteger(tokens.get(pos++));
+    }
+
+    private int size() {
+        final BigInteger size = numeral();
+        return size == null || size.bitLength() >= Integer.SIZE ? -1 : size.intValue();
+    }
+
+    private boolean accept(final String token) {
+        if (!atEnd() && tokens.is(pos, token)) {
+            pos++;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private boolean atEnd() {
+        return pos >= end;
+    }
+
+    private static boolean isDigits(final String token, final int radix) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.digit(token.charAt(i), radix) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDecimal(final String token) {
+        final int dot = token.indexOf('.');
+        return dot > 0 && dot < token.length() - 1
+                && isDigits(token.substring(0, dot), 10) && isDigits(token.substring(dot + 1), 10);
+    }
+}
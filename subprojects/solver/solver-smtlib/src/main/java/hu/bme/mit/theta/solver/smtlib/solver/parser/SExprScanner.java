@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.smtlib.solver.parser;
+
+/**
+ * A minimal scanner over the tokens of an s-expression, used to split large responses (models,
+ * unsat cores) into their parts without building an ANTLR token stream and parse tree. The parts
+ * are only located, not parsed: they are returned as offsets into the original text. Every
+ * method that can fail returns a flag (or null), so that callers can fall back to the full
+ * parser on any input they do not recognize.
+ */
+final class SExprScanner {
+
+    private final SExprTokens tokens;
+    private int pos;
+
+    SExprScanner(final SExprTokens tokens) {
+        this.tokens = tokens;
+        // Unterminated tokens are left to the full parser, which reports them properly
+        this.pos = tokens.isComplete() ? 0 : tokens.size();
+    }
+
+    /**
+     * @return The index of the next token
+     */
+    int index() {
+        return pos;
+    }
+
+    /**
+     * @return The offset of the next token in the text
+     */
+    int position() {
+        return atEnd() ? tokens.text().length() : tokens.start(pos);
+    }
+
+    boolean atEnd() {
+        return pos >= tokens.size();
+    }
+
+    boolean tryOpen() {
+        if (atOpen()) {
+            pos++;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    boolean tryClose() {
+        if (atClose()) {
+            pos++;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    boolean atOpen() {
+        return !atEnd() && tokens.isOpen(pos);
+    }
+
+    boolean atClose() {
+        return !atEnd() && tokens.isClose(pos);
+    }
+
+    /**
+     * Reads a symbol (simple or quoted).
+     *
+     * @return The symbol as it appears in the text, or null if the next token is not a symbol
+     */
+    String readSymbol() {
+        if (atEnd()) {
+            return null;
+        }
+        final char c = tokens.firstChar(pos);
+        if (c == '(' || c == ')' || c == '"' || c == ':' || c == '#' || Character.isDigit(c)) {
+            return null;
+        }
+        return tokens.get(pos++);
+    }
+
+    /**
+     * Skips an arbitrary s-expression.
+     *
+     * @return The offset after the last character of the skipped expression, or -1 if the text
+     * is malformed
+     */
+    int skipExpr() {
+        if (atEnd() || tokens.isClose(pos)) {
+            return -1;
+        }
+
+        int level = 0;
+        while (!atEnd()) {
+            if (tokens.isOpen(pos)) {
+                level++;
+            } else if (tokens.isClose(pos)) {
+                level--;
+            }
+            pos++;
+            if (level == 0) {
+                return tokens.end(pos - 1);
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.smtlib.solver.parser;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * The text of a solver response split into s-expression tokens: parentheses and atoms (symbols,
+ * quoted symbols, keywords, literals and string literals). Whitespace and comments are dropped.
+ * Tokens are stored as offsets into the text, so they can be read as substrings or located in
+ * the text without being copied.
+ * <p>
+ * The tokens can be built incrementally with a {@link Builder}, while the response is being read
+ * character by character, so that the response is not scanned again when it is parsed.
+ */
+public final class SExprTokens {
+
+    private final String text;
+    private final int[] starts;
+    private final int[] ends;
+    private final int size;
+    private final boolean complete;
+
+    private SExprTokens(final String text, final int[] starts, final int[] ends, final int size,
+                        final boolean complete) {
+        this.text = text;
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+        this.complete = complete;
+    }
+
+    public static SExprTokens tokenize(final String text) {
+        final Builder builder = new Builder();
+        for (int i = 0; i < text.length(); i++) {
+            builder.append(text.charAt(i));
+        }
+        return builder.build();
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether every token was terminated, i.e., the text does not end inside a string
+     * literal or a quoted symbol.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int start(final int i) {
+        checkElementIndex(i, size);
+        return starts[i];
+    }
+
+    public int end(final int i) {
+        checkElementIndex(i, size);
+        return ends[i];
+    }
+
+    public char firstChar(final int i) {
+        return text.charAt(start(i));
+    }
+
+    public boolean isOpen(final int i) {
+        return firstChar(i) == '(';
+    }
+
+    public boolean isClose(final int i) {
+        return firstChar(i) == ')';
+    }
+
+    public String get(final int i) {
+        return text.substring(start(i), end(i));
+    }
+
+    public boolean is(final int i, final String token) {
+        return end(i) - start(i) == token.length()
+                && text.startsWith(token, start(i));
+    }
+
+    public static final class Builder {
+
+        private enum State {
+            BETWEEN, ATOM, STRING, STRING_QUOTE, QUOTED_SYMBOL, COMMENT
+        }
+
+        private final StringBuilder sb = new StringBuilder(1024);
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int size = 0;
+        private State state = State.BETWEEN;
+        private boolean built = false;
+
+        public void append(final char c) {
+            checkState(!built, "Tokens were already built");
+            final int pos = sb.length();
+            sb.append(c);
+
+            if (state == State.STRING_QUOTE) {
+                if (c == '"') {
+                    // "" is an escaped quote inside a string literal
+                    state = State.STRING;
+                    return;
+                }
+                endToken(pos);
+            }
+
+            switch (state) {
+                case BETWEEN:
+                    startToken(c, pos);
+                    break;
+                case ATOM:
+                    if (c == '(' || c == ')' || c == '|' || c == '"' || c == ';'
+                            || Character.isWhitespace(c)) {
+                        endToken(pos);
+                        startToken(c, pos);
+                    }
+                    break;
+                case STRING:
+                    if (c == '"') {
+                        state = State.STRING_QUOTE;
+                    }
+                    break;
+                case QUOTED_SYMBOL:
+                    if (c == '|') {
+                        endToken(pos + 1);
+                    }
+                    break;
+                case COMMENT:
+                    if (c == '\n') {
+                        state = State.BETWEEN;
+                    }
+                    break;
+                case STRING_QUOTE:
+                default:
+                    throw new AssertionError();
+            }
+        }
+
+        public SExprTokens build() {
+            checkState(!built, "Tokens were already built");
+            built = true;
+            if (state == State.ATOM || state == State.STRING_QUOTE) {
+                endToken(sb.length());
+            }
+            final boolean complete = state != State.STRING && state != State.QUOTED_SYMBOL;
+            if (complete) {
+                // Trailing whitespace, e.g., a carriage return, is not part of the response
+                int length = sb.length();
+                while (length > 0 && Character.isWhitespace(sb.charAt(length - 1))) {
+                    length--;
+                }
+                sb.setLength(length);
+            }
+            return new SExprTokens(sb.toString(), starts, ends, size, complete);
+        }
+
+        private void startToken(final char c, final int pos) {
+            if (c == ';') {
+                state = State.COMMENT;
+            } else if (!Character.isWhitespace(c)) {
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, 2 * size);
+                    ends = Arrays.copyOf(ends, 2 * size);
+                }
+                starts[size] = pos;
+                if (c == '(' || c == ')') {
+                    ends[size++] = pos + 1;
+                } else if (c == '"') {
+                    state = State.STRING;
+                } else if (c == '|') {
+                    state = State.QUOTED_SYMBOL;
+                } else {
+                    state = State.ATOM;
+                }
+            }
+        }
+
+        private void endToken(final int end) {
+            ends[size++] = end;
+            state = State.BETWEEN;
+        }
+    }
+}
@@ -20,4 +20,13 @@ import hu.bme.mit.theta.core.type.Expr;
 public interface SmtLibExprTransformer {
 
     String toTerm(Expr<?> expr);
+
+    /**
+     * Transform an expression to a term in which subexpressions that occur more than once are
+     * only serialized once and are referred to by let bindings. The result is equivalent to
+     * {@link #toTerm(Expr)}, but can be exponentially shorter for expressions with deep sharing.
+     */
+    default String toSharedTerm(final Expr<?> expr) {
+        return toTerm(expr);
+    }
 }
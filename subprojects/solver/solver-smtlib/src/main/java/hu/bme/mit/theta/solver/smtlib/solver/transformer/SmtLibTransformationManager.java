@@ -26,4 +26,8 @@ public interface SmtLibTransformationManager {
     String toSymbol(Decl<?> decl);
 
     String toTerm(Expr<?> expr);
+
+    default String toSharedTerm(final Expr<?> expr) {
+        return toTerm(expr);
+    }
 }
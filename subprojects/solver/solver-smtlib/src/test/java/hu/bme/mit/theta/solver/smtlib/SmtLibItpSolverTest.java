@@ -29,6 +29,7 @@ import hu.bme.mit.theta.solver.Interpolant;
 import hu.bme.mit.theta.solver.ItpMarker;
 import hu.bme.mit.theta.solver.ItpPattern;
 import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.SolverStatus;
 import hu.bme.mit.theta.solver.smtlib.solver.installer.SmtLibSolverInstallerException;
@@ -44,6 +45,7 @@ import java.nio.file.Path;
 
 import static hu.bme.mit.theta.core.decl.Decls.Const;
 import static hu.bme.mit.theta.core.decl.Decls.Param;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Forall;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
@@ -144,6 +146,40 @@ public final class SmtLibItpSolverTest {
         Assert.assertTrue(ExprUtils.getVars(itp.eval(A)).size() <= 3);
     }
 
+    @Test
+    public void testBinaryInterpolationWithSharedSubterms() {
+        final ItpMarker A = solver.createMarker();
+        final ItpMarker B = solver.createMarker();
+        final ItpPattern pattern = solver.createBinPattern(A, B);
+
+        // The sum is serialized once and bound by a let
+        final Expr<IntType> sum = Add(a, b);
+        final Expr<BoolType> assertionA = And(Eq(sum, c), Eq(sum, d));
+        final Expr<BoolType> assertionB = Neq(c, d);
+        solver.add(A, assertionA);
+        solver.add(B, assertionB);
+
+        solver.check();
+        Assert.assertEquals(SolverStatus.UNSAT, solver.getStatus());
+        final Expr<BoolType> itp = solver.getInterpolant(pattern).eval(A);
+
+        // The interpolant only refers to the shared constants, and it separates A from B
+        Assert.assertTrue(ExprUtils.getConstants(assertionB).containsAll(
+                ExprUtils.getConstants(itp)));
+        try (final Solver checker = solverFactory.createSolver()) {
+            checker.push();
+            checker.add(assertionA);
+            checker.add(Not(itp));
+            Assert.assertEquals(SolverStatus.UNSAT, checker.check());
+            checker.pop();
+            checker.add(itp);
+            checker.add(assertionB);
+            Assert.assertEquals(SolverStatus.UNSAT, checker.check());
+        } catch (final Exception ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
     @Test
     public void testSequenceInterpolation() {
         final ItpMarker I1 = solver.createMarker();
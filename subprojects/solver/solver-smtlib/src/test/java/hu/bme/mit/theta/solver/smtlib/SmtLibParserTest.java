@@ -15,20 +15,30 @@
  */
 package hu.bme.mit.theta.solver.smtlib;
 
+import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
+import hu.bme.mit.theta.core.type.bvtype.BvExprs;
+import hu.bme.mit.theta.core.type.inttype.IntExprs;
+import hu.bme.mit.theta.core.type.rattype.RatExprs;
 import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Lexer;
 import hu.bme.mit.theta.solver.smtlib.dsl.gen.SMTLIBv2Parser;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSymbolTable;
 import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibTermTransformer;
 import hu.bme.mit.theta.solver.smtlib.solver.model.SmtLibModel;
 import hu.bme.mit.theta.solver.smtlib.solver.parser.GeneralResponse;
+import hu.bme.mit.theta.solver.smtlib.solver.parser.GetModelResponse;
+import hu.bme.mit.theta.solver.smtlib.solver.parser.GetUnsatCoreResponse;
+import hu.bme.mit.theta.solver.smtlib.solver.parser.SExprTokens;
 import hu.bme.mit.theta.solver.smtlib.solver.parser.ThrowExceptionErrorListener;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class SmtLibParserTest {
 
@@ -76,4 +86,87 @@ public class SmtLibParserTest {
 
         Assert.assertNotNull(expr);
     }
+
+    @Test
+    public void modelFastPathTest() {
+        final var response = "(\n" +
+                "  (define-fun x () Int\n" +
+                "    (- 1))\n" +
+                "  (define-fun |y z| ((a Int)) Bool (ite (= a 1) true false)) ; comment\n" +
+                "  (define-fun s () String \"a\"\")\")\n" +
+                ")";
+
+        final var model = GetModelResponse.fromString(response).orElseThrow().getModel();
+        Assert.assertEquals(3, model.size());
+        Assert.assertEquals("x () Int\n    (- 1)", model.getTerm("x"));
+        Assert.assertEquals("|y z| ((a Int)) Bool (ite (= a 1) true false)", model.getTerm("|y z|"));
+        Assert.assertEquals("s () String \"a\"\")\"", model.getTerm("s"));
+
+        Assert.assertTrue(GetModelResponse.fromString("(error \"no model\")").isEmpty());
+        Assert.assertTrue(GetModelResponse.fromString("((define-fun-rec f () Int 1))").isEmpty());
+    }
+
+    @Test
+    public void unsatCoreFastPathTest() {
+        final var labels = GetUnsatCoreResponse.fromString("(_LABEL_0 |_LABEL 1|\n_LABEL_2)")
+                .orElseThrow().getLabels();
+        Assert.assertEquals(Set.of("_LABEL_0", "|_LABEL 1|", "_LABEL_2"), Set.copyOf(labels));
+
+        Assert.assertTrue(GetUnsatCoreResponse.fromString("(error \"no core\")").isEmpty());
+    }
+
+    @Test
+    public void tokensTest() {
+        final var tokens = SExprTokens.tokenize("(a |b c| \"d\"\"e\" ; f\n#b01)\r\n");
+        Assert.assertTrue(tokens.isComplete());
+        Assert.assertEquals("(a |b c| \"d\"\"e\" ; f\n#b01)", tokens.text());
+
+        final List<String> texts = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            texts.add(tokens.get(i));
+        }
+        Assert.assertEquals(List.of("(", "a", "|b c|", "\"d\"\"e\"", "#b01", ")"), texts);
+
+        Assert.assertFalse(SExprTokens.tokenize("(a \"b)").isComplete());
+        Assert.assertTrue(GetModelResponse.fromString("((define-fun a () Int |1))").isEmpty());
+    }
+
+    @Test
+    public void modelLiteralsTest() {
+        final var response = "(\n" +
+                "  (define-fun b () Bool false)\n" +
+                "  (define-fun i () Int (- 12))\n" +
+                "  (define-fun r () Real (- (/ 1.0 3.0)))\n" +
+                "  (define-fun d () Real 2.5)\n" +
+                "  (define-fun x () (_ BitVec 8) #x1f)\n" +
+                "  (define-fun y () (_ BitVec 4) #b1010)\n" +
+                "  (define-fun z () (_ BitVec 8) (_ bv200 8))\n" +
+                "  (define-fun a () (Array Int Int) ((as const (Array Int Int)) 0))\n" +
+                "  (define-fun j () Int (+ 1 2))\n" +
+                ")";
+        final Map<String, Type> types = Map.of(
+                "b", BoolExprs.Bool(),
+                "i", IntExprs.Int(),
+                "r", RatExprs.Rat(),
+                "d", RatExprs.Rat(),
+                "x", BvExprs.BvType(8),
+                "y", BvExprs.BvType(4),
+                "z", BvExprs.BvType(8)
+        );
+
+        final var model = GetModelResponse.fromString(response).orElseThrow().getModel();
+        final var termTransformer = new GenericSmtLibTermTransformer(new GenericSmtLibSymbolTable());
+        for (final var entry : types.entrySet()) {
+            final var literal = model.getLiteral(entry.getKey());
+            Assert.assertNotNull(entry.getKey(), literal);
+            Assert.assertEquals(entry.getKey(),
+                    termTransformer.toLitExpr(model.getTerm(entry.getKey()), entry.getValue(), model),
+                    literal);
+        }
+
+        // Terms that are not literals are left to the term transformer
+        Assert.assertNull(model.getLiteral("a"));
+        Assert.assertNull(model.getLiteral("j"));
+        Assert.assertEquals(9, model.size());
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.smtlib;
+
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibSymbolTable;
+import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibTermTransformer;
+import hu.bme.mit.theta.solver.smtlib.impl.generic.GenericSmtLibTransformationManager;
+import hu.bme.mit.theta.solver.smtlib.solver.model.SmtLibModel;
+import hu.bme.mit.theta.solver.smtlib.solver.transformer.SmtLibSymbolTable;
+import hu.bme.mit.theta.solver.smtlib.solver.transformer.SmtLibTransformationManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+
+public class SmtLibSharedTermTest {
+
+    private SmtLibSymbolTable symbolTable;
+    private SmtLibTransformationManager transformationManager;
+
+    private Expr<IntType> x;
+    private Expr<IntType> y;
+
+    @Before
+    public void init() {
+        symbolTable = new GenericSmtLibSymbolTable();
+        transformationManager = new GenericSmtLibTransformationManager(symbolTable);
+
+        final ConstDecl<IntType> xd = Const("x", Int());
+        final ConstDecl<IntType> yd = Const("y", Int());
+        x = xd.getRef();
+        y = yd.getRef();
+    }
+
+    @Test
+    public void testNoSharing() {
+        final Expr<BoolType> expr = And(Eq(Add(x, y), Int(1)), Gt(x, Int(0)));
+
+        Assert.assertEquals(transformationManager.toTerm(expr),
+                transformationManager.toSharedTerm(expr));
+    }
+
+    @Test
+    public void testSharedSubtermEmittedOnce() {
+        final Expr<IntType> shared = Add(x, y);
+        final Expr<BoolType> expr = And(Eq(shared, Int(1)), Gt(shared, Int(0)));
+
+        final String sharedTerm = transformationManager.toSharedTerm(expr);
+        final String addTerm = transformationManager.toTerm(shared);
+
+        Assert.assertEquals(2, countOccurrences(transformationManager.toTerm(expr), addTerm));
+        Assert.assertEquals(1, countOccurrences(sharedTerm, addTerm));
+        Assert.assertTrue(sharedTerm.startsWith("(let ("));
+        Assert.assertEquals(expr, parse(sharedTerm));
+    }
+
+    @Test
+    public void testNestedLetsInDependencyOrder() {
+        final Expr<IntType> inner = Add(x, y);
+        final Expr<IntType> outer = Mul(inner, inner);
+        final Expr<BoolType> expr = And(Eq(outer, Int(4)), Gt(outer, inner));
+
+        final String sharedTerm = transformationManager.toSharedTerm(expr);
+
+        // The inner term is bound in an outer let, as the binding of the outer term refers to it
+        Assert.assertEquals(2, countOccurrences(sharedTerm, "(let ("));
+        final int innerBinding = sharedTerm.indexOf(transformationManager.toTerm(inner));
+        final int outerBinding = sharedTerm.indexOf("(*");
+        Assert.assertTrue(innerBinding >= 0);
+        Assert.assertTrue(innerBinding < outerBinding);
+        Assert.assertTrue(sharedTerm.indexOf("(let (", innerBinding) < outerBinding);
+        Assert.assertEquals(expr, parse(sharedTerm));
+    }
+
+    @Test
+    public void testPlainTermAfterSharedTerm() {
+        final Expr<IntType> shared = Add(x, y);
+        final Expr<BoolType> expr = And(Eq(shared, Int(1)), Gt(shared, Int(0)));
+
+        final String plainTerm = transformationManager.toTerm(expr);
+        transformationManager.toSharedTerm(expr);
+
+        // The bindings of a shared serialization do not leak into later plain terms
+        Assert.assertEquals(plainTerm, transformationManager.toTerm(expr));
+    }
+
+    private Expr<?> parse(final String term) {
+        final var termTransformer = new GenericSmtLibTermTransformer(symbolTable);
+        return termTransformer.toExpr(term, Bool(), new SmtLibModel(Map.of()));
+    }
+
+    private static int countOccurrences(final String text, final String pattern) {
+        int count = 0;
+        int index = text.indexOf(pattern);
+        while (index >= 0) {
+            count++;
+            index = text.indexOf(pattern, index + 1);
+        }
+        return count;
+    }
+}
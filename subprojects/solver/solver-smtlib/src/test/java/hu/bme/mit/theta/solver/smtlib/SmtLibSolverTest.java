@@ -163,6 +163,29 @@ public final class SmtLibSolverTest {
         solver.pop();
     }
 
+    @Test
+    public void testCheckAssumptions() {
+        final Solver solver = solverFactory.createSolver();
+
+        final ConstDecl<IntType> cx = Const("x", IntExprs.Int());
+        final ConstDecl<IntType> cy = Const("y", IntExprs.Int());
+        final Expr<BoolType> gt = IntExprs.Gt(cx.getRef(), cy.getRef());
+        final Expr<BoolType> lt = IntExprs.Lt(cx.getRef(), cy.getRef());
+        final Expr<BoolType> pos = IntExprs.Gt(cx.getRef(), IntExprs.Int(0));
+
+        solver.add(IntExprs.Eq(cx.getRef(), IntExprs.Add(cy.getRef(), IntExprs.Int(1))));
+
+        assertTrue(solver.check(List.of(gt, pos)).isSat());
+        assertTrue(solver.getModel().eval(cx).isPresent());
+
+        assertTrue(solver.check(List.of(pos, lt)).isUnsat());
+        assertEquals(List.of(lt), List.copyOf(solver.getUnsatAssumptions()));
+
+        // Assumptions do not change the state of the solver
+        assertTrue(solver.check().isSat());
+        assertEquals(1, solver.getAssertions().size());
+    }
+
     @Test
     public void testUnsatCore() {
         final UCSolver solver = solverFactory.createUCSolver();
@@ -0,0 +1,240 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.smtlib.solver.binary;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SmtLibSolverBinaryPoolTest {
+
+    private static final String ECHO = "(echo \"theta-pool-reset\")";
+
+    @Test
+    public void testReuse() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(1)) {
+            final var first = pool.acquire("key", () -> launch(launched));
+            // Only the process of the caller is launched
+            assertEquals(1, launched.size());
+            assertEquals(0, pool.getIdleCount("key"));
+
+            first.issueCommand("(check-sat)");
+            assertEquals("sat", first.readResponse());
+            first.close();
+            assertEquals(1, pool.getIdleCount("key"));
+            assertTrue(launched.get(0).alive);
+
+            final var second = pool.acquire("key", () -> launch(launched));
+            assertEquals(1, launched.size());
+            assertEquals(0, pool.getIdleCount("key"));
+            second.close();
+            assertTrue(launched.get(0).alive);
+            assertEquals(List.of("(check-sat)", "(reset)", ECHO, "(reset)", ECHO),
+                    launched.get(0).commands);
+        }
+        assertFalse(launched.get(0).alive);
+    }
+
+    @Test
+    public void testFullPoolDiscards() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(1)) {
+            final var first = pool.acquire("key", () -> launch(launched));
+            final var second = pool.acquire("key", () -> launch(launched));
+            first.close();
+            second.close();
+            // The pool is full, so the second returned process is discarded and not replaced
+            assertEquals(2, launched.size());
+            assertEquals(1, pool.getIdleCount("key"));
+            assertTrue(launched.get(0).alive);
+            assertFalse(launched.get(1).alive);
+        }
+    }
+
+    @Test
+    public void testKeys() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(2)) {
+            pool.acquire("a", () -> launch(launched)).close();
+            pool.acquire("b", () -> launch(launched)).close();
+            assertEquals(2, launched.size());
+            assertEquals(1, pool.getIdleCount("a"));
+            assertEquals(1, pool.getIdleCount("b"));
+        }
+    }
+
+    @Test
+    public void testUncleanNotReused() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(2)) {
+            final var unanswered = pool.acquire("key", () -> launch(launched));
+            final var interrupted = pool.acquire("key", () -> launch(launched));
+            final var failing = pool.acquire("key", () -> launch(launched));
+            assertEquals(3, launched.size());
+            assertEquals(0, pool.getIdleCount("key"));
+
+            unanswered.issueCommand("(check-sat)");
+            unanswered.close();
+            interrupted.interrupt();
+            interrupted.close();
+            launched.get(2).resetResponse = "(error \"unsupported\")";
+            failing.close();
+
+            // The discarded processes are replaced while the pool is not full
+            assertEquals(5, launched.size());
+            assertEquals(2, pool.getIdleCount("key"));
+            launched.subList(0, 3).forEach(binary -> assertFalse(binary.alive));
+            launched.subList(3, 5).forEach(binary -> assertTrue(binary.alive));
+        }
+    }
+
+    @Test
+    public void testSilentResetReused() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(1)) {
+            final var binary = pool.acquire("key", () -> launch(launched));
+            // The reset turns print-success off, and the solver prints the echo without quotes
+            launched.get(0).resetResponse = null;
+            launched.get(0).quoteEcho = false;
+            binary.close();
+            assertTrue(launched.get(0).alive);
+            assertEquals(1, pool.getIdleCount("key"));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testUnresponsiveNotReused() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(1, 100, Duration.ofHours(1),
+                Duration.ofMillis(100))) {
+            final var binary = pool.acquire("key", () -> launch(launched));
+            // The solver answers neither the reset nor the echo
+            launched.get(0).resetResponse = null;
+            launched.get(0).silent = true;
+            binary.close();
+            // Terminated after the timeout and replaced
+            assertFalse(launched.get(0).alive);
+            assertEquals(2, launched.size());
+            assertEquals(1, pool.getIdleCount("key"));
+        }
+    }
+
+    @Test
+    public void testLifetime() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(1, 2, Duration.ofHours(1))) {
+            pool.acquire("key", () -> launch(launched)).close();
+            final var process = launched.get(0);
+            assertTrue(process.alive);
+            pool.acquire("key", () -> launch(launched)).close();
+            // Used twice, so it is discarded (and replaced) when returned
+            assertFalse(process.alive);
+            assertEquals(2, launched.size());
+            assertEquals(1, pool.getIdleCount("key"));
+        }
+    }
+
+    @Test
+    public void testDeadProcessNotHandedOut() throws Exception {
+        final var launched = new ArrayList<FakeBinary>();
+        try (final var pool = SmtLibSolverBinaryPool.create(1)) {
+            pool.acquire("key", () -> launch(launched)).close();
+            launched.get(0).alive = false;
+            final var binary = pool.acquire("key", () -> launch(launched));
+            assertTrue(binary.isAlive());
+            // One process for the caller and one in place of the dead one
+            assertEquals(3, launched.size());
+            assertEquals(1, pool.getIdleCount("key"));
+        }
+    }
+
+    private static FakeBinary launch(final List<FakeBinary> launched) {
+        final var binary = new FakeBinary();
+        launched.add(binary);
+        return binary;
+    }
+
+    /**
+     * Answers every command at once, except that the reset is not answered if its response is null,
+     * and nothing is answered if it is silent. Reading blocks until there is a response or the
+     * binary is interrupted.
+     */
+    private static final class FakeBinary implements SmtLibSolverBinary {
+        private final List<String> commands = new ArrayList<>();
+        private final List<String> responses = new ArrayList<>();
+        private String resetResponse = "success";
+        private boolean quoteEcho = true;
+        private boolean silent = false;
+        private volatile boolean alive = true;
+
+        @Override
+        public synchronized void issueCommand(final String command) {
+            commands.add(command);
+            if (silent) {
+                return;
+            }
+            if (command.equals("(reset)")) {
+                if (resetResponse != null) {
+                    responses.add(resetResponse);
+                }
+            } else if (command.startsWith("(echo ")) {
+                final String text = command.substring(6, command.length() - 1);
+                responses.add(quoteEcho ? text : text.replace("\"", ""));
+            } else {
+                responses.add("sat");
+            }
+        }
+
+        @Override
+        public synchronized String readResponse() {
+            while (responses.isEmpty()) {
+                if (!alive) {
+                    throw new SmtLibSolverBinaryException("Solver process exited");
+                }
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    throw new SmtLibSolverBinaryException(e);
+                }
+            }
+            return responses.remove(0);
+        }
+
+        @Override
+        public synchronized void interrupt() {
+            alive = false;
+            notifyAll();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+
+        @Override
+        public synchronized void close() {
+            alive = false;
+            notifyAll();
+        }
+    }
+}
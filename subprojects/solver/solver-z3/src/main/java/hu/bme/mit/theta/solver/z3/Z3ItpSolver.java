@@ -164,6 +164,11 @@ final class Z3ItpSolver implements ItpSolver, Solver {
         return solver.check();
     }
 
+    @Override
+    public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+        return solver.check(assumptions);
+    }
+
     @Override
     public void push() {
         markers.push();
@@ -197,6 +202,11 @@ final class Z3ItpSolver implements ItpSolver, Solver {
         return solver.getModel();
     }
 
+    @Override
+    public Collection<Expr<BoolType>> getUnsatAssumptions() {
+        return solver.getUnsatAssumptions();
+    }
+
     @Override
     public Collection<Expr<BoolType>> getAssertions() {
         return solver.getAssertions();
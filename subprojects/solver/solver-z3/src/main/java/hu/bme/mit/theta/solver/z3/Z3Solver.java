@@ -18,6 +18,7 @@ package hu.bme.mit.theta.solver.z3;
 import com.google.common.collect.ImmutableList;
 import com.microsoft.z3.FuncDecl;
 import com.microsoft.z3.Status;
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.common.container.Containers;
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.decl.Decl;
@@ -64,6 +65,8 @@ final class Z3Solver implements UCSolver, Solver {
 
     private Valuation model;
     private Collection<Expr<BoolType>> unsatCore;
+    private Map<com.microsoft.z3.Expr, Expr<BoolType>> checkedAssumptions;
+    private Collection<Expr<BoolType>> unsatAssumptions;
     private SolverStatus status;
 
     public Z3Solver(final Z3SymbolTable symbolTable,
@@ -115,8 +118,29 @@ final class Z3Solver implements UCSolver, Solver {
 
     @Override
     public SolverStatus check() {
-        final Status z3Status = z3Solver.check();
+        final Status z3Status = AnalysisBudget.current().runInterruptibly(z3Solver::check,
+                z3Context::interrupt);
+        clearState();
+        status = transformStatus(z3Status);
+        return status;
+    }
+
+    @Override
+    public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+        checkNotNull(assumptions);
+        final Map<com.microsoft.z3.Expr, Expr<BoolType>> terms = Containers.createMap();
+        for (final Expr<BoolType> assumption : assumptions) {
+            terms.put(transformationManager.toTerm(assumption), assumption);
+        }
+        final com.microsoft.z3.BoolExpr[] z3Assumptions = terms.keySet()
+                .toArray(new com.microsoft.z3.BoolExpr[0]);
+
+        // Z3 replaces assumptions that are not literals by fresh literals internally
+        final Status z3Status = AnalysisBudget.current().runInterruptibly(
+                () -> z3Solver.check(z3Assumptions), z3Context::interrupt);
+        clearState();
         status = transformStatus(z3Status);
+        checkedAssumptions = terms;
         return status;
     }
 
@@ -217,6 +241,33 @@ final class Z3Solver implements UCSolver, Solver {
         return unsatCore;
     }
 
+    @Override
+    public Collection<Expr<BoolType>> getUnsatAssumptions() {
+        checkState(status == SolverStatus.UNSAT && checkedAssumptions != null,
+                "Cannot get unsat assumptions if status is not UNSAT after checking assumptions");
+
+        if (unsatAssumptions == null) {
+            unsatAssumptions = extractUnsatAssumptions();
+        }
+
+        return Collections.unmodifiableCollection(unsatAssumptions);
+    }
+
+    private Collection<Expr<BoolType>> extractUnsatAssumptions() {
+        assert status == SolverStatus.UNSAT;
+        assert unsatAssumptions == null;
+
+        final Collection<Expr<BoolType>> unsatAssumptions = new LinkedList<>();
+        // The unsat core also contains the labels of tracked expressions, those are skipped
+        for (final com.microsoft.z3.Expr term : z3Solver.getUnsatCore()) {
+            final Expr<BoolType> assumption = checkedAssumptions.get(term);
+            if (assumption != null) {
+                unsatAssumptions.add(assumption);
+            }
+        }
+        return unsatAssumptions;
+    }
+
     @Override
     public Collection<Expr<BoolType>> getAssertions() {
         return assertions.toCollection();
@@ -226,6 +277,8 @@ final class Z3Solver implements UCSolver, Solver {
         status = null;
         model = null;
         unsatCore = null;
+        checkedAssumptions = null;
+        unsatAssumptions = null;
     }
 
     @Override
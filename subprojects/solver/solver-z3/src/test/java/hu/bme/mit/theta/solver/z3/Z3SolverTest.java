@@ -115,6 +115,29 @@ public final class Z3SolverTest {
         solver.pop();
     }
 
+    @Test
+    public void testCheckAssumptions() {
+        final Solver solver = Z3SolverFactory.getInstance().createSolver();
+
+        final ConstDecl<IntType> cx = Const("x", Int());
+        final ConstDecl<IntType> cy = Const("y", Int());
+        final Expr<BoolType> gt = IntExprs.Gt(cx.getRef(), cy.getRef());
+        final Expr<BoolType> lt = IntExprs.Lt(cx.getRef(), cy.getRef());
+        final Expr<BoolType> pos = IntExprs.Gt(cx.getRef(), Int(0));
+
+        solver.add(Eq(cx.getRef(), Add(cy.getRef(), Int(1))));
+
+        assertTrue(solver.check(List.of(gt, pos)).isSat());
+        assertTrue(solver.getModel().eval(cx).isPresent());
+
+        assertTrue(solver.check(List.of(pos, lt)).isUnsat());
+        assertEquals(List.of(lt), List.copyOf(solver.getUnsatAssumptions()));
+
+        // Assumptions do not change the state of the solver
+        assertTrue(solver.check().isSat());
+        assertEquals(1, solver.getAssertions().size());
+    }
+
     @Test
     public void testFunc() {
         // Arrange
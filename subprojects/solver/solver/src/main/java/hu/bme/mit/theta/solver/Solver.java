@@ -18,6 +18,8 @@ package hu.bme.mit.theta.solver;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 
+import java.util.Collection;
+
 /**
  * Common interface for SMT solvers.
  * <p>
@@ -25,7 +27,9 @@ import hu.bme.mit.theta.core.type.booltype.BoolType;
  * method to check their satisfiability. The result can be queried by {@link #getStatus()}. If the
  * expressions are satisfiable, a satisfying assignment can be obtained by {@link #getModel()}.
  * <p>
- * The solver can also support incremental solving by {@link #push()} and {@link #pop()}.
+ * The solver can also support incremental solving by {@link #push()} and {@link #pop()}. Queries
+ * that only differ in a few expressions can also be checked by {@link #check(Collection)}, passing
+ * the differing expressions as assumptions, which does not modify the state of the solver.
  */
 public interface Solver extends SolverBase {
 
@@ -46,4 +50,25 @@ public interface Solver extends SolverBase {
             add(assertion);
         }
     }
+
+    /**
+     * Check if the currently added expressions are satisfiable together with the given
+     * assumptions. The assumptions are not added to the solver, they only hold for this check.
+     * The result can be queried by {@link #getStatus()}, {@link #getModel()} and
+     * {@link #getUnsatAssumptions()}.
+     *
+     * @param assumptions Expressions assumed to hold
+     * @return Status
+     */
+    SolverStatus check(Collection<? extends Expr<BoolType>> assumptions);
+
+    /**
+     * Get a (not necessarily minimal) subset of the assumptions of the last
+     * {@link #check(Collection)} that is unsatisfiable together with the currently added
+     * expressions. Should only be called if {@link #check(Collection)} was already called and the
+     * result is UNSAT.
+     *
+     * @return Unsatisfiable assumptions
+     */
+    Collection<Expr<BoolType>> getUnsatAssumptions();
 }
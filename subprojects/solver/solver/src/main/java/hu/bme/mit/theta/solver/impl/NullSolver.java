@@ -47,6 +47,11 @@ public final class NullSolver implements Solver {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void push() {
         throw new UnsupportedOperationException();
@@ -72,6 +77,11 @@ public final class NullSolver implements Solver {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Collection<Expr<BoolType>> getUnsatAssumptions() {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Collection<Expr<BoolType>> getAssertions() {
         throw new UnsupportedOperationException();
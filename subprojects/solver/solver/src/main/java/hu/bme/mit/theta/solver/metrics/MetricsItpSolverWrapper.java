@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.metrics;
+
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.Interpolant;
+import hu.bme.mit.theta.solver.ItpMarker;
+import hu.bme.mit.theta.solver.ItpMarkerTree;
+import hu.bme.mit.theta.solver.ItpPattern;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.SolverStatus;
+
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Interpolating solver that records the number and duration of the calls to another solver as
+ * metrics.
+ */
+public final class MetricsItpSolverWrapper implements ItpSolver {
+
+    private final ItpSolver solver;
+
+    MetricsItpSolverWrapper(final ItpSolver solver) {
+        this.solver = checkNotNull(solver);
+    }
+
+    @Override
+    public ItpPattern createTreePattern(final ItpMarkerTree<? extends ItpMarker> root) {
+        return solver.createTreePattern(root);
+    }
+
+    @Override
+    public ItpMarker createMarker() {
+        return solver.createMarker();
+    }
+
+    @Override
+    public void add(final ItpMarker marker, final Expr<BoolType> assertion) {
+        SolverMetrics.add().time(() -> solver.add(marker, assertion));
+    }
+
+    @Override
+    public Interpolant getInterpolant(final ItpPattern pattern) {
+        return SolverMetrics.interpolant().time(() -> solver.getInterpolant(pattern));
+    }
+
+    @Override
+    public Collection<? extends ItpMarker> getMarkers() {
+        return solver.getMarkers();
+    }
+
+    @Override
+    public SolverStatus check() {
+        return SolverMetrics.check(solver::check);
+    }
+
+    @Override
+    public void push() {
+        solver.push();
+    }
+
+    @Override
+    public void pop(final int n) {
+        solver.pop(n);
+    }
+
+    @Override
+    public void reset() {
+        solver.reset();
+    }
+
+    @Override
+    public SolverStatus getStatus() {
+        return solver.getStatus();
+    }
+
+    @Override
+    public Valuation getModel() {
+        return SolverMetrics.model().time(solver::getModel);
+    }
+
+    @Override
+    public Collection<Expr<BoolType>> getAssertions() {
+        return solver.getAssertions();
+    }
+
+    @Override
+    public void close() throws Exception {
+        solver.close();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.metrics;
+
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.UCSolver;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Factory wrapping the solvers of another factory, so that their calls are recorded in the
+ * global {@link hu.bme.mit.theta.common.metrics.MetricRegistry}.
+ */
+public final class MetricsSolverWrapperFactory implements SolverFactory {
+
+    private final SolverFactory solverFactory;
+
+    private MetricsSolverWrapperFactory(final SolverFactory solverFactory) {
+        this.solverFactory = checkNotNull(solverFactory);
+    }
+
+    public static MetricsSolverWrapperFactory create(final SolverFactory solverFactory) {
+        return new MetricsSolverWrapperFactory(solverFactory);
+    }
+
+    @Override
+    public Solver createSolver() {
+        return new MetricsSolverWrapper(solverFactory.createSolver());
+    }
+
+    @Override
+    public UCSolver createUCSolver() {
+        return new MetricsUCSolverWrapper(solverFactory.createUCSolver());
+    }
+
+    @Override
+    public ItpSolver createItpSolver() {
+        return new MetricsItpSolverWrapper(solverFactory.createItpSolver());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.metrics;
+
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
+import hu.bme.mit.theta.common.metrics.Timer;
+import hu.bme.mit.theta.solver.SolverStatus;
+
+import java.util.function.Supplier;
+
+/**
+ * Metrics recorded by the solver wrappers of this package. The metrics are looked up in the
+ * {@link MetricRegistry#current() current} registry on each call, so a solver records into the
+ * registry of the analysis that is using it.
+ */
+final class SolverMetrics {
+
+    private SolverMetrics() {
+    }
+
+    // Adding assertions includes transforming them to the representation of the solver
+    static Timer add() {
+        return MetricRegistry.current().timer("solver.add");
+    }
+
+    static Timer model() {
+        return MetricRegistry.current().timer("solver.getModel");
+    }
+
+    static Timer unsatCore() {
+        return MetricRegistry.current().timer("solver.getUnsatCore");
+    }
+
+    static Timer interpolant() {
+        return MetricRegistry.current().timer("solver.getInterpolant");
+    }
+
+    static SolverStatus check(final Supplier<SolverStatus> check) {
+        final MetricRegistry metrics = MetricRegistry.current();
+        final SolverStatus status = metrics.timer("solver.check").time(check);
+        if (status.isSat()) {
+            metrics.counter("solver.check.sat").increment();
+        } else if (status.isUnsat()) {
+            metrics.counter("solver.check.unsat").increment();
+        }
+        return status;
+    }
+
+}
@@ -39,6 +39,11 @@ class SolverStub implements Solver {
         return null;
     }
 
+    @Override
+    public SolverStatus check(final Collection<? extends Expr<BoolType>> assumptions) {
+        return null;
+    }
+
     @Override
     public void push() {
         ++nPush;
@@ -64,6 +69,11 @@ class SolverStub implements Solver {
         return null;
     }
 
+    @Override
+    public Collection<Expr<BoolType>> getUnsatAssumptions() {
+        return null;
+    }
+
     @Override
     public Collection<Expr<BoolType>> getAssertions() {
         return null;
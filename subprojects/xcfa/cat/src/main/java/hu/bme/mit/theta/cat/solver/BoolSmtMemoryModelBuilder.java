@@ -27,8 +27,13 @@ import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.abstracttype.EqExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverStatus;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -44,12 +49,27 @@ import static com.google.common.collect.Lists.reverse;
 import static hu.bme.mit.theta.core.decl.Decls.Const;
 import static hu.bme.mit.theta.core.type.abstracttype.AbstractExprs.Eq;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Xor;
 
+/**
+ * Memory model builder encoding every tuple of every relation as a Bool constant.
+ * <p>
+ * In the default (eager) mode, acyclicity is encoded through the transitive closure of the
+ * relation, and the constraints are built once for the final set of events.
+ * <p>
+ * In lazy mode (see {@link #createLazy(MemoryModel)}), acyclicity is not encoded up front. Instead,
+ * {@link #check(Solver)} looks for cycles in the models of the solver, and excludes each cycle
+ * found by a lemma, until the model is acyclic or the constraints become unsatisfiable. The lazy
+ * mode is also incremental: events can be added after {@link #addConstraints}, which can then be
+ * called again. Constants of existing tuples, facts and cycle lemmas are kept, and only the
+ * constraints that depend on the whole set of events are guarded by an activation literal, which
+ * {@link #check(Solver)} assumes for the latest set of events.
+ */
 public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
 
     private List<Expr<BoolType>> solver;
@@ -57,14 +77,20 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
     private final Map<Tuple2<String, Integer>, Supplier<Map<TupleN<Integer>, Expr<BoolType>>>> rules;
     private final Map<String, Relation> relations;
     private final List<String> emptyAssertions;
+    private final boolean lazy;
+    private final List<String> acyclicAssertions;
+    private int generation = 0;
+    private ConstDecl<BoolType> activationLiteral = null;
 
-    private BoolSmtMemoryModelBuilder(final MemoryModel memoryModel) {
+    private BoolSmtMemoryModelBuilder(final MemoryModel memoryModel, final boolean lazy) {
         super(memoryModel);
         this.solver = new ArrayList<>();
         primitives = new ArrayList<>();
         relations = new LinkedHashMap<>();
         rules = new LinkedHashMap<>();
         emptyAssertions = new ArrayList<>();
+        this.lazy = lazy;
+        acyclicAssertions = new ArrayList<>();
         memoryModel.applyRules(this);
     }
 
@@ -100,6 +126,10 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
 
     @Override
     public void assertAcyclic(final String ruleDerivation) {
+        if (lazy) {
+            acyclicAssertions.add(ruleDerivation);
+            return;
+        }
         final RuleDerivation.Element element = new RuleDerivation.Element(ruleDerivation, 2);
         addRule(new RuleDerivation.Transitive("acyclic_" + ruleDerivation, element));
         assertIrreflexive("acyclic_" + ruleDerivation);
@@ -119,7 +149,106 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
     }
 
     public static BoolSmtMemoryModelBuilder create(final MemoryModel memoryModel) {
-        return new BoolSmtMemoryModelBuilder(memoryModel);
+        return new BoolSmtMemoryModelBuilder(memoryModel, false);
+    }
+
+    public static BoolSmtMemoryModelBuilder createLazy(final MemoryModel memoryModel) {
+        return new BoolSmtMemoryModelBuilder(memoryModel, true);
+    }
+
+    /**
+     * Checks the constraints added to the solver. In lazy mode, cycles of the relations asserted
+     * to be acyclic are excluded from the models by lemmas until an acyclic model is found.
+     *
+     * @param solver the solver containing the constraints of the builder
+     * @return the status of the solver
+     * @throws IllegalStateException if the constraints were not built yet by {@link #addConstraints}
+     */
+    public SolverStatus check(final Solver solver) {
+        checkState(generation > 0, "Constraints must be built before checking!");
+        while (true) {
+            final SolverStatus status = activationLiteral == null ? solver.check()
+                    : solver.check(List.of(activationLiteral.getRef()));
+            if (!status.isSat()) {
+                return status;
+            }
+            final Collection<Expr<BoolType>> lemmas = getCycleLemmas(solver.getModel());
+            if (lemmas.isEmpty()) {
+                return status;
+            }
+            lemmas.forEach(solver::add);
+        }
+    }
+
+    /**
+     * Returns a lemma for a cycle in each relation that is asserted to be acyclic but has a cycle
+     * in the given model. The lemmas only refer to tuple constants, so they stay valid when new
+     * events are added.
+     *
+     * @param model the model of the solver
+     * @return the lemmas excluding the cycles, empty if the model is consistent
+     * @throws IllegalStateException if the constraints were not built yet by {@link #addConstraints}
+     */
+    public Collection<Expr<BoolType>> getCycleLemmas(final Valuation model) {
+        checkState(generation > 0, "Constraints must be built before looking for cycles!");
+        final List<Expr<BoolType>> lemmas = new ArrayList<>();
+        for (final String acyclicAssertion : acyclicAssertions) {
+            final Map<TupleN<Integer>, ConstDecl<BoolType>> elements = relations.get(
+                    acyclicAssertion).getElements();
+            final Map<Integer, List<Integer>> successors = new HashMap<>();
+            for (final TupleN<Integer> edge : getNumbered(acyclicAssertion, model)) {
+                successors.computeIfAbsent(edge.get(0), i -> new ArrayList<>()).add(edge.get(1));
+            }
+            findCycle(successors).ifPresent(cycle -> {
+                final List<Expr<BoolType>> edges = new ArrayList<>();
+                for (int i = 0; i < cycle.size(); i++) {
+                    final TupleN<Integer> edge = TupleN.of(cycle.get(i),
+                            cycle.get((i + 1) % cycle.size()));
+                    edges.add(elements.get(edge).getRef());
+                }
+                lemmas.add(Not(And(edges)));
+            });
+        }
+        return lemmas;
+    }
+
+    private static Optional<List<Integer>> findCycle(final Map<Integer, List<Integer>> successors) {
+        final Set<Integer> finished = new HashSet<>();
+        for (final Integer start : successors.keySet()) {
+            if (finished.contains(start)) {
+                continue;
+            }
+            // Iterative DFS, the path is kept on a stack together with the next successor index
+            final List<Integer> path = new ArrayList<>();
+            final List<Integer> nextSuccessor = new ArrayList<>();
+            final Set<Integer> onPath = new HashSet<>();
+            path.add(start);
+            nextSuccessor.add(0);
+            onPath.add(start);
+            while (!path.isEmpty()) {
+                final int top = path.size() - 1;
+                final Integer node = path.get(top);
+                final List<Integer> nodeSuccessors = successors.getOrDefault(node, List.of());
+                final int next = nextSuccessor.get(top);
+                if (next < nodeSuccessors.size()) {
+                    nextSuccessor.set(top, next + 1);
+                    final Integer successor = nodeSuccessors.get(next);
+                    if (onPath.contains(successor)) {
+                        return Optional.of(List.copyOf(path.subList(path.indexOf(successor), path.size())));
+                    } else if (!finished.contains(successor)) {
+                        path.add(successor);
+                        nextSuccessor.add(0);
+                        onPath.add(successor);
+                    }
+                } else {
+                    path.remove(top);
+                    nextSuccessor.remove(top);
+                    onPath.remove(node);
+                    finished.add(node);
+                }
+            }
+        }
+        return Optional.empty();
     }
 
     @Override
@@ -151,6 +280,11 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
     public Expr<BoolType> getRfConstraints(List<Tuple2<Integer, ConstDecl<?>>> writeConst,
                                            List<Tuple2<Integer, ConstDecl<?>>> readConst) {
         checkState(relations.containsKey("rf"), "Read-from not defined!");
+        checkState(lazy || generation == 0,
+                "Constraints can only be built again for new events in lazy mode!");
+        // Constraints that stay valid when new events are added (only used in lazy mode)
+        final List<Expr<BoolType>> permanent = lazy ? new ArrayList<>() : solver;
+        solver = lazy ? new ArrayList<>() : solver;
         final int maxid = primitives.size();
         if (relations.containsKey("id")) {
             final Relation id = relations.get("id");
@@ -158,12 +292,18 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
                 id.addFact(TupleN.of(i, i));
             }
         }
-        relations.forEach((s, relation) -> relation.createElements(maxid, solver));
+        for (String acyclicAssertion : acyclicAssertions) {
+            relations.putIfAbsent(acyclicAssertion, new Relation(2, acyclicAssertion));
+        }
+        relations.forEach((s, relation) -> {
+            relation.createElements(maxid);
+            relation.addFacts(permanent, solver);
+        });
 
         for (Map.Entry<Tuple2<String, Integer>, Supplier<Map<TupleN<Integer>, Expr<BoolType>>>> rule : rules.entrySet()) {
             relations.putIfAbsent(rule.getKey().get1(),
                     new Relation(rule.getKey().get2(), rule.getKey().get1()));
-            relations.get(rule.getKey().get1()).createElements(maxid, solver);
+            relations.get(rule.getKey().get1()).createElements(maxid);
             final Map<TupleN<Integer>, Expr<BoolType>> exprs = rule.getValue().get();
             final Relation relation = relations.get(rule.getKey().get1());
             final Map<TupleN<Integer>, ConstDecl<BoolType>> elements = relation.getElements();
@@ -280,7 +420,13 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
             solver.add(constraint);
         }
 
-        return And(solver);
+        generation++;
+        if (!lazy) {
+            return And(solver);
+        }
+        activationLiteral = Const("memory_model_" + generation, Bool());
+        permanent.add(Imply(activationLiteral.getRef(), And(solver)));
+        return And(permanent);
     }
 
     @Override
@@ -301,7 +447,7 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
             if (!param.relations.containsKey(rule)) {
                 param.relations.put(rule,
                         new Relation(derivation.getArity(), derivation.getRule()));
-                param.relations.get(rule).createElements(param.primitives.size(), null);
+                param.relations.get(rule).createElements(param.primitives.size());
             }
             return param.relations.get(rule).getElements().entrySet().stream()
                     .map(e -> Map.entry(e.getKey(), e.getValue().getRef()))
@@ -435,6 +581,8 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
         private int counter = 0;
         private final Map<TupleN<Integer>, ConstDecl<BoolType>> elements;
         private final Optional<Set<TupleN<Integer>>> knownTruths;
+        private final Set<TupleN<Integer>> assertedTruths;
+        private int maxId = 0;
 
         private Relation(int arity, String name) {
             this.arity = arity;
@@ -442,6 +590,7 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
             elements = new LinkedHashMap<>();
             knownTruths = groundRelations.contains(name) ? Optional.of(new LinkedHashSet<>())
                     : Optional.empty();
+            assertedTruths = new HashSet<>();
         }
 
         private void addFact(TupleN<Integer> fact) {
@@ -450,17 +599,30 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
             knownTruths.get().add(fact);
         }
 
-        private void createElements(final int maxId, List<Expr<BoolType>> solver) {
-            if (elements.size() != 0) {
+        /*
+         * Creates the constants of the tuples over the first maxId primitives that do not exist yet.
+         */
+        private void createElements(final int maxId) {
+            if (maxId <= this.maxId) {
                 return;
             }
+            this.maxId = maxId;
             final List<TupleN<Integer>> lists = createLists(new ArrayList<>(), new Stack<>(), arity,
                     maxId);
             for (TupleN<Integer> list : lists) {
-                final StringJoiner stringJoiner = new StringJoiner(", ");
-                list.forEach(o -> stringJoiner.add(Integer.toString((Integer) o)));
-                elements.put(list, Const(name + "(" + stringJoiner + ")", BoolType.getInstance()));
+                if (!elements.containsKey(list)) {
+                    final StringJoiner stringJoiner = new StringJoiner(", ");
+                    list.forEach(o -> stringJoiner.add(Integer.toString((Integer) o)));
+                    elements.put(list, Const(name + "(" + stringJoiner + ")", BoolType.getInstance()));
+                }
             }
+        }
+
+        /*
+         * Known facts are asserted only once, in the permanent constraints, while the closed-world
+         * assumption (every other tuple is false) is added to the solver for every set of events.
+         */
+        private void addFacts(List<Expr<BoolType>> permanent, List<Expr<BoolType>> solver) {
             if (knownTruths.isPresent()) {
                 for (TupleN<Integer> objects : Sets.difference(elements.keySet(),
                         knownTruths.get())) {
@@ -471,7 +633,9 @@ public class BoolSmtMemoryModelBuilder extends MemoryModelBuilder {
                 for (TupleN<Integer> objects : knownTruths.get()) {
                     // true
 //					System.err.println("Adding fact " + elements.get(objects).getRef());
-                    solver.add(elements.get(objects).getRef());
+                    if (assertedTruths.add(objects)) {
+                        permanent.add(elements.get(objects).getRef());
+                    }
                 }
             }
         }
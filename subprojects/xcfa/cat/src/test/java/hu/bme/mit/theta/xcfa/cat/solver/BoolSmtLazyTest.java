@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xcfa.cat.solver;
+
+import hu.bme.mit.theta.cat.models.CoherenceMemory;
+import hu.bme.mit.theta.cat.models.NoassertMemory;
+import hu.bme.mit.theta.cat.solver.BoolSmtMemoryModelBuilder;
+import hu.bme.mit.theta.cat.solver.MemoryModel;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverStatus;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+import hu.bme.mit.theta.xcfa.cat.solver.programs.Program;
+import hu.bme.mit.theta.xcfa.cat.solver.programs.W2R2;
+import hu.bme.mit.theta.xcfa.cat.solver.programs.W2R2WR;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that the lazy encoding of acyclicity gives the same verdicts as the eager one.
+ */
+@RunWith(Parameterized.class)
+public class BoolSmtLazyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public MemoryModel memoryModel;
+
+    @Parameterized.Parameter(value = 1)
+    public Program program;
+
+    @Parameterized.Parameter(value = 2)
+    public int minLemmaRounds;
+
+    // Coherence forbids both programs with a different cycle for each order of the two writes to
+    // the same variable, so at least two cycles have to be excluded
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {new NoassertMemory(), new W2R2(), 0},
+                {new CoherenceMemory(), new W2R2(), 2},
+                {new NoassertMemory(), new W2R2WR(), 0},
+                {new CoherenceMemory(), new W2R2WR(), 2},
+        });
+    }
+
+    @Test
+    public void testSameVerdictAsEager() {
+        final Solver eagerSolver = Z3SolverFactory.getInstance().createSolver();
+        program.generateProgram(BoolSmtMemoryModelBuilder.create(memoryModel), eagerSolver);
+        final SolverStatus eager = eagerSolver.check();
+
+        final BoolSmtMemoryModelBuilder builder = BoolSmtMemoryModelBuilder.createLazy(memoryModel);
+        final AtomicInteger checks = new AtomicInteger();
+        final Solver lazySolver = countChecks(Z3SolverFactory.getInstance().createSolver(), checks);
+        program.generateProgram(builder, lazySolver);
+        final SolverStatus lazy = builder.check(lazySolver);
+
+        Assert.assertEquals(eager.isSat(), lazy.isSat());
+        if (lazy.isSat()) {
+            Assert.assertTrue(builder.getCycleLemmas(lazySolver.getModel()).isEmpty());
+        }
+        // Each lemma round is followed by another check
+        final int lemmaRounds = checks.get() - 1;
+        Assert.assertTrue("Lemma rounds: " + lemmaRounds, lemmaRounds >= minLemmaRounds);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCycleLemmasNeedConstraints() {
+        BoolSmtMemoryModelBuilder.createLazy(memoryModel)
+                .getCycleLemmas(ImmutableValuation.empty());
+    }
+
+    private static Solver countChecks(final Solver solver, final AtomicInteger checks) {
+        return (Solver) Proxy.newProxyInstance(Solver.class.getClassLoader(),
+                new Class<?>[]{Solver.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("check")) {
+                        checks.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(solver, args);
+                    } catch (final InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
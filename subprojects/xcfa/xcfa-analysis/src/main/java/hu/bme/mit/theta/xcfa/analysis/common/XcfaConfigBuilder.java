@@ -27,12 +27,14 @@ import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.bmc.BoundedChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplState;
 import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
 import hu.bme.mit.theta.analysis.expr.ExprState;
@@ -58,6 +60,7 @@ import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
 import hu.bme.mit.theta.analysis.pred.PredPrec;
 import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
@@ -481,6 +484,28 @@ public class XcfaConfigBuilder {
         return XcfaConfig.create(checker, prec);
     }
 
+    /**
+     * Builds a bounded model checker (with k-induction, if requested) instead of a CEGAR loop. The
+     * domain and refinement of the builder are ignored, the abstraction solver is used for BMC and
+     * the refinement solver for the induction checks.
+     */
+    public XcfaConfig<XcfaState<ExplState>, XcfaAction, UnitPrec> buildBounded(final XCFA xcfa,
+                                                                              final boolean kInduction,
+                                                                              final int maxBound) {
+        final XcfaToMonolithicExpr encoding = XcfaToMonolithicExpr.create(xcfa);
+        final SafetyChecker<XcfaState<ExplState>, XcfaAction, UnitPrec> checker;
+        if (kInduction) {
+            checker = BoundedChecker.create(encoding.getMonolithicExpr(),
+                    abstractionSolverFactory.createSolver(), refinementSolverFactory.createSolver(),
+                    encoding::getState, encoding::getAction, maxBound, logger);
+        } else {
+            checker = BoundedChecker.create(encoding.getMonolithicExpr(),
+                    abstractionSolverFactory.createSolver(), encoding::getState,
+                    encoding::getAction, maxBound, logger);
+        }
+        return XcfaConfig.create(checker, UnitPrec.getInstance());
+    }
+
     private XcfaPrec getProdPrec(InitPrec initPrec, XCFA xcfa) {
         ExplPrec explPrec = ExplPrec.empty();
         PredPrec predPrec = PredPrec.of();
@@ -0,0 +1,178 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xcfa.analysis.common;
+
+import hu.bme.mit.theta.analysis.algorithm.bmc.MonolithicExpr;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.StmtUnfoldResult;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
+import hu.bme.mit.theta.xcfa.model.XcfaLabel;
+import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.NonDetStmt;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory.indexing;
+
+/**
+ * Encodes a single-threaded XCFA with a single (inlined) procedure as a {@link MonolithicExpr}
+ * for bounded model checking, similarly to the encoding of CFAs: the location and the last edge
+ * are stored in auxiliary integer variables, and each edge becomes a branch of a single
+ * nondeterministic statement that executes the labels of the edge in sequence.
+ */
+public final class XcfaToMonolithicExpr {
+
+    private final VarDecl<IntType> locVar;
+    private final VarDecl<IntType> edgeVar;
+    private final List<XcfaLocation> locs;
+    private final List<XcfaEdge> edges;
+    private final Set<VarDecl<?>> vars;
+    private final MonolithicExpr monolithicExpr;
+
+    private XcfaToMonolithicExpr(final XCFA xcfa) {
+        checkArgument(isSupported(xcfa), "Only XCFAs with a single process and a single procedure,"
+                + " without calls, stores, fences and thread operations are supported.");
+        final XcfaProcedure procedure = xcfa.getMainProcess().getMainProcedure();
+        this.locVar = Var("__xcfa_loc_", Int());
+        this.edgeVar = Var("__xcfa_edge_", Int());
+        this.locs = new ArrayList<>(procedure.getLocs());
+        this.edges = new ArrayList<>(procedure.getEdges());
+        this.vars = new HashSet<>(xcfa.getGlobalVars());
+        this.vars.addAll(xcfa.getMainProcess().getThreadLocalVars());
+        this.vars.addAll(procedure.getLocalVars());
+
+        final Map<XcfaLocation, Integer> locIds = new HashMap<>();
+        for (int i = 0; i < locs.size(); i++) {
+            locIds.put(locs.get(i), i);
+        }
+
+        final List<Stmt> branches = new ArrayList<>(edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            final XcfaEdge edge = edges.get(i);
+            final List<Stmt> stmts = new ArrayList<>();
+            stmts.add(Assume(Eq(locVar.getRef(), Int(locIds.get(edge.getSource())))));
+            for (final XcfaLabel label : edge.getLabels()) {
+                stmts.add(label.getStmt());
+            }
+            stmts.add(Assign(locVar, Int(locIds.get(edge.getTarget()))));
+            stmts.add(Assign(edgeVar, Int(i)));
+            branches.add(SequenceStmt(stmts));
+        }
+
+        final Expr<BoolType> initExpr = Eq(locVar.getRef(), Int(locIds.get(procedure.getInitLoc())));
+        final Expr<BoolType> propExpr = procedure.getErrorLoc() == null ? True()
+                : Neq(locVar.getRef(), Int(locIds.get(procedure.getErrorLoc())));
+        if (branches.isEmpty()) {
+            monolithicExpr = MonolithicExpr.create(initExpr, False(), propExpr, indexing(0));
+        } else {
+            final StmtUnfoldResult result = StmtUtils.toExpr(NonDetStmt(branches), indexing(0));
+            monolithicExpr = MonolithicExpr.create(initExpr, And(result.getExprs()), propExpr,
+                    result.getIndexing());
+        }
+    }
+
+    public static XcfaToMonolithicExpr create(final XCFA xcfa) {
+        return new XcfaToMonolithicExpr(xcfa);
+    }
+
+    /**
+     * Checks if the XCFA can be encoded, i.e., it has a single process with a single procedure and
+     * no labels that would be encoded as skip although they have effects: procedure calls, stores,
+     * fences, and starting or joining threads.
+     */
+    public static boolean isSupported(final XCFA xcfa) {
+        return xcfa.getProcesses().size() == 1
+                && xcfa.getMainProcess().getProcedures().size() == 1
+                && xcfa.getMainProcess().getMainProcedure().getEdges().stream()
+                .flatMap(edge -> edge.getLabels().stream())
+                .allMatch(XcfaToMonolithicExpr::isSupported);
+    }
+
+    private static boolean isSupported(final XcfaLabel label) {
+        if (label instanceof XcfaLabel.SequenceLabel) {
+            return ((XcfaLabel.SequenceLabel) label).getLabels().stream()
+                    .allMatch(XcfaToMonolithicExpr::isSupported);
+        } else if (label instanceof XcfaLabel.NondetLabel) {
+            return ((XcfaLabel.NondetLabel) label).getLabels().stream()
+                    .allMatch(XcfaToMonolithicExpr::isSupported);
+        }
+        return !(label instanceof XcfaLabel.ProcedureCallXcfaLabel
+                || label instanceof XcfaLabel.StoreXcfaLabel
+                || label instanceof XcfaLabel.FenceXcfaLabel
+                || label instanceof XcfaLabel.StartThreadXcfaLabel
+                || label instanceof XcfaLabel.JoinThreadXcfaLabel);
+    }
+
+    public MonolithicExpr getMonolithicExpr() {
+        return monolithicExpr;
+    }
+
+    /**
+     * Maps a valuation of the encoding back to an XCFA state, dropping the auxiliary variables.
+     */
+    public XcfaState<ExplState> getState(final Valuation valuation) {
+        final XcfaLocation loc = locs.get(getInt(valuation, locVar));
+        final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+        for (final Map.Entry<Decl<?>, LitExpr<?>> entry : valuation.toMap().entrySet()) {
+            if (vars.contains(entry.getKey())) {
+                builder.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return XcfaState.create(loc, ExplState.of(builder.build()));
+    }
+
+    /**
+     * Gets the action leading from the first valuation to the second one.
+     */
+    public XcfaAction getAction(final Valuation source, final Valuation target) {
+        return XcfaAction.create(edges.get(getInt(target, edgeVar)));
+    }
+
+    private static int getInt(final Valuation valuation, final VarDecl<IntType> var) {
+        final var value = valuation.eval(var);
+        checkArgument(value.isPresent(), "No value for %s", var.getName());
+        return ((IntLitExpr) value.get()).getValue().intValue();
+    }
+}
@@ -33,13 +33,20 @@ public class XcfaPorLts extends PorLts<XcfaState<?>, XcfaAction, XcfaEdge> {
 
     private final XCFA xcfa;
 
+    private final Set<VarDecl<? extends Type>> globalVars;
+
     private final XcfaLts simpleXcfaLts = new XcfaLts();
 
     private final Random random = new Random();
 
     public XcfaPorLts(XCFA xcfa) {
         this.xcfa = xcfa;
+        this.globalVars = new HashSet<>(xcfa.getGlobalVars());
         collectBackwardTransitions();
+        precomputeSharedObjects(xcfa.getProcesses().stream()
+                .flatMap(process -> process.getProcedures().stream())
+                .flatMap(procedure -> procedure.getEdges().stream())
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -98,7 +105,7 @@ public class XcfaPorLts extends PorLts<XcfaState<?>, XcfaAction, XcfaEdge> {
     protected Set<VarDecl<? extends Type>> getDirectlyUsedSharedObjects(XcfaEdge edge) {
         Set<VarDecl<?>> vars = new HashSet<>();
         edge.getLabels().forEach(label -> LabelUtils.getVars(label).forEach(usedVar -> {
-            if (xcfa.getGlobalVars().contains(usedVar)) {
+            if (globalVars.contains(usedVar)) {
                 vars.add(usedVar);
             }
         }));
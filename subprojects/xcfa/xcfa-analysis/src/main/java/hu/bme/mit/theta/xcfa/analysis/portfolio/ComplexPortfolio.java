@@ -20,7 +20,7 @@ import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.common.Tuple2;
 import hu.bme.mit.theta.common.logging.Logger;
-import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.BitwiseChecker;
 import hu.bme.mit.theta.frontend.transformation.grammar.preprocess.BitwiseOption;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder;
@@ -54,7 +54,7 @@ public class ComplexPortfolio extends AbstractPortfolio {
     public ComplexPortfolio(Logger.Level logLevel, String modelName, String smtlibhome,
                             XcfaConfigBuilder.Algorithm algorithm) throws Exception {
         super(logLevel, modelName, smtlibhome); // registers solver factories
-        if (ArchitectureConfig.multiThreading) {
+        if (FrontendContext.current().isMultiThreading()) {
             this.algorithm = algorithm;
             search = XcfaConfigBuilder.Search.BFS;
         } else {
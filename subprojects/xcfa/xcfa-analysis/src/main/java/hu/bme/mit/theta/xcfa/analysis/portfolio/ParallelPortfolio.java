@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.analysis.portfolio;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder;
+import hu.bme.mit.theta.xcfa.analysis.portfolio.common.AbstractPortfolio;
+import hu.bme.mit.theta.xcfa.analysis.portfolio.common.CegarConfiguration;
+import hu.bme.mit.theta.xcfa.analysis.portfolio.common.PortfolioTimeoutException;
+import hu.bme.mit.theta.xcfa.analysis.portfolio.common.Result;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Runs the configurations of the {@link SequentialPortfolio} at the same time, each on its own
+ * thread and with its own solvers, and takes the result of the first one to succeed. The time
+ * limit is split evenly between the configurations. For more information, see doc/portfolio.md
+ */
+public class ParallelPortfolio extends AbstractPortfolio {
+
+    private final List<CegarConfiguration> configurations;
+    private final long sumTime = 900 * 1000; // in ms, with initialization time
+
+    public ParallelPortfolio(Logger.Level logLevel, String modelName, String smtlibhome)
+            throws Exception {
+        super(logLevel, modelName, smtlibhome); // registers solver factories
+
+        configurations = List.of(
+                new CegarConfiguration(
+                        XcfaConfigBuilder.Domain.EXPL,
+                        XcfaConfigBuilder.Refinement.SEQ_ITP,
+                        XcfaConfigBuilder.Search.ERR,
+                        XcfaConfigBuilder.PredSplit.WHOLE,
+                        XcfaConfigBuilder.Algorithm.SINGLETHREAD,
+                        1,
+                        XcfaConfigBuilder.InitPrec.EMPTY,
+                        PruneStrategy.LAZY,
+                        false,
+                        "Z3", "Z3"
+                ),
+                new CegarConfiguration(
+                        XcfaConfigBuilder.Domain.PRED_CART,
+                        XcfaConfigBuilder.Refinement.BW_BIN_ITP,
+                        XcfaConfigBuilder.Search.ERR,
+                        XcfaConfigBuilder.PredSplit.WHOLE,
+                        XcfaConfigBuilder.Algorithm.SINGLETHREAD,
+                        1,
+                        XcfaConfigBuilder.InitPrec.EMPTY,
+                        PruneStrategy.LAZY,
+                        false,
+                        "Z3", "Z3"
+                ),
+                new CegarConfiguration(
+                        XcfaConfigBuilder.Domain.EXPL,
+                        XcfaConfigBuilder.Refinement.NWT_IT_WP,
+                        XcfaConfigBuilder.Search.ERR,
+                        XcfaConfigBuilder.PredSplit.WHOLE,
+                        XcfaConfigBuilder.Algorithm.SINGLETHREAD,
+                        1,
+                        XcfaConfigBuilder.InitPrec.EMPTY,
+                        PruneStrategy.LAZY,
+                        false,
+                        "Z3", "Z3"
+                )
+        );
+    }
+
+    @Override
+    public SafetyResult<?, ?> executeAnalysis(XCFA xcfa, Duration initializationTime)
+            throws Exception {
+        logger.write(Logger.Level.MAINSTEP, "Executing parallel portfolio...");
+        logger.write(Logger.Level.MAINSTEP, System.lineSeparator());
+        long analysisTime = sumTime - initializationTime.toMillis();
+        long timeout = analysisTime / configurations.size();
+
+        Tuple2<Result, Optional<SafetyResult<?, ?>>> result =
+                executeConfigurationsInParallel(configurations, xcfa, timeout);
+        if (result.get1().equals(Result.SUCCESS)) {
+            checkState(result.get2().isPresent());
+            logger.write(Logger.Level.MAINSTEP, "Parallel portfolio successful");
+            logger.write(Logger.Level.MAINSTEP, System.lineSeparator());
+
+            SafetyResult<?, ?> safetyResult = result.get2().get();
+            outputResultFiles(safetyResult, "Z3");
+            return safetyResult;
+        }
+        logger.write(Logger.Level.MAINSTEP, "Parallel portfolio was unsuccessful");
+        logger.write(Logger.Level.MAINSTEP, System.lineSeparator());
+
+        if (result.get1().equals(Result.TIMEOUT)) {
+            throw new PortfolioTimeoutException("Parallel portfolio timed out");
+        }
+
+        return null;
+    }
+}
@@ -22,5 +22,6 @@ package hu.bme.mit.theta.xcfa.analysis.portfolio;
 public enum Portfolio {
     NONE,
     SEQUENTIAL,
+    PARALLEL,
     COMPLEX
 }
@@ -18,6 +18,7 @@ package hu.bme.mit.theta.xcfa.analysis.portfolio.common;
 
 import com.google.common.base.Stopwatch;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.common.AnalysisBudget;
 import hu.bme.mit.theta.common.OsHelper;
 import hu.bme.mit.theta.common.Tuple2;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
@@ -28,23 +29,42 @@ import hu.bme.mit.theta.solver.z3.Z3SolverManager;
 import hu.bme.mit.theta.xcfa.analysis.utils.OutputHandler;
 import hu.bme.mit.theta.xcfa.model.XCFA;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Base class of portfolio classes {@link #executeConfiguration(CegarConfiguration, XCFA, long)} is
  * already implemented and can/should be used by subclasses {@link #executeAnalysis} is not
  * implemented and should be the "main" method in the subclasses (concrete portfolios) Uses 2
- * threads when executing analysis Uses thread.stop() if analysis times out - use at your own risk
+ * threads when executing analysis Uses thread.stop() if a timed out analysis does not stop after
+ * it is cancelled - use at your own risk
  */
 public abstract class AbstractPortfolio {
 
+    private static final long PARALLEL_POLL_INTERVAL = 500; // in ms
+    // the process cpu time is measured by running ps, so it is checked less often
+    private static final long PROCESS_CPU_TIME_POLL_INTERVAL = 10000; // in ms
+    private static final long CANCELLATION_GRACE_PERIOD = 5000; // in ms
+    private static final int SOLVER_POOL_SIZE = 1; // idle SMT-LIB processes kept per solver
+
     protected final ConsoleLogger logger;
     protected final String modelName;
     protected final String smtlibHome;
 
+    private Path metricsOut = null;
+    private int executedConfigurations = 0;
+
     public AbstractPortfolio(Logger.Level logLevel, String modelName, String smtlibHome)
             throws Exception {
         logger = new ConsoleLogger(logLevel);
@@ -53,6 +73,19 @@ public abstract class AbstractPortfolio {
         this.smtlibHome = smtlibHome;
     }
 
+    /**
+     * Records the metrics of each executed configuration (including its solver calls), and writes
+     * them to a file of its own next to the given path: the index of the configuration is appended
+     * to the file name (e.g., metrics.json becomes metrics-0.json, metrics-1.json, ...), in the
+     * order the configurations are started
+     *
+     * @param metricsOut the path of the metrics files (CSV if it ends with .csv, JSON otherwise),
+     *                   or null not to record metrics
+     */
+    public void setMetricsOut(Path metricsOut) {
+        this.metricsOut = metricsOut;
+    }
+
     /**
      * Not implemented by the base class, should be used as the main method for concrete portfolios
      *
@@ -86,7 +119,8 @@ public abstract class AbstractPortfolio {
     /**
      * The main reason this class exists - all subclasses should use this method to execute their
      * given configurations Handles solver lifecycles, threads, etc. Uses 2 threads when executing
-     * analysis Uses thread.stop() if analysis times out - use at your own risk
+     * analysis If the analysis times out, it is cancelled first (see {@link AnalysisBudget}), and
+     * thread.stop() is only used if it does not stop in time - use at your own risk
      *
      * @param configuration the configuration to execute
      * @param xcfa          the model to execute the analysis on
@@ -109,7 +143,8 @@ public abstract class AbstractPortfolio {
 
         CegarAnalysisThread cegarAnalysisThread;
         try {
-            cegarAnalysisThread = new CegarAnalysisThread(xcfa, logger, configuration);
+            cegarAnalysisThread = new CegarAnalysisThread(xcfa, logger, configuration,
+                    metricsOut != null);
         } catch (Exception e) {
             e.printStackTrace();
             return Tuple2.of(Result.UNKNOWN, Optional.empty());
@@ -140,6 +175,16 @@ public abstract class AbstractPortfolio {
             e.printStackTrace();
         }
 
+        if (cegarAnalysisThread.isAlive()) {
+            // ask the analysis to stop at its next checkpoint first
+            cegarAnalysisThread.cancel();
+            try {
+                cegarAnalysisThread.join(CANCELLATION_GRACE_PERIOD);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+
         if (cegarAnalysisThread.isAlive()) {
             Stopwatch dieTimer = Stopwatch.createStarted();
             cegarAnalysisThread.interrupt();
@@ -206,6 +251,7 @@ public abstract class AbstractPortfolio {
                 .writeCsvLine(configuration, timeout, timeTaken, cpuTimeTaken, result);
         OutputHandler.getInstance()
                 .writeTxtLine(configuration, timeout, timeTaken, cpuTimeTaken, result);
+        writeMetrics(cegarAnalysisThread);
         try {
             closeAndRegisterAllSolverManagers(smtlibHome, logger);
         } catch (Exception e) {
@@ -215,6 +261,220 @@ public abstract class AbstractPortfolio {
         return Tuple2.of(result, Optional.ofNullable(safetyResult));
     }
 
+    /**
+     * Executes the given configurations in parallel (one thread each), and returns the result of
+     * the first one to succeed; the rest are cancelled. Each configuration uses its own solvers,
+     * so they do not interfere with each other or with the globally registered solvers.
+     * <p>
+     * Each configuration has the given timeout as its own budget, measured as the cpu time of its
+     * thread and the threads it starts (or as wall-clock time, if thread cpu time is not
+     * supported). As the solver processes of SMT-LIB solvers are not measured by the thread cpu
+     * time, the configurations are also cancelled when the cpu time of the whole process (see
+     * {@link CpuTimeKeeper}) exceeds the sum of their budgets. No global Z3 parameters are set
+     * anywhere, so unlike {@link #executeConfiguration}, this does not reset them (which would
+     * also affect the configurations running concurrently). Threads are never stopped
+     * forcefully: cancelled analyses stop at their next checkpoint (and their running solver calls
+     * are interrupted), but if they do not finish, they are abandoned (they are daemon threads).
+     *
+     * @param configurations the configurations to execute
+     * @param xcfa           the model to execute the analysis on
+     * @param timeout        per configuration, in ms
+     * @return the result of the first successful configuration, or the timeout/last result if none
+     * of them succeeded
+     */
+    protected Tuple2<Result, Optional<SafetyResult<?, ?>>> executeConfigurationsInParallel(
+            List<CegarConfiguration> configurations, XCFA xcfa, long timeout) {
+        checkArgument(!configurations.isEmpty(), "No configurations given");
+
+        logger.write(Logger.Level.RESULT, "Executing in parallel ");
+        for (CegarConfiguration configuration : configurations) {
+            logger.write(Logger.Level.RESULT, System.lineSeparator());
+            logger.write(Logger.Level.RESULT, configuration.toString());
+        }
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+        logger.write(Logger.Level.RESULT,
+                "Timeout is set to " + timeout / 1000.0 + " sec (cputime) per configuration...");
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+
+        BlockingQueue<CegarAnalysisThread> finishedThreads = new LinkedBlockingQueue<>();
+        List<CegarAnalysisThread> running = new ArrayList<>();
+        for (CegarConfiguration configuration : configurations) {
+            try {
+                CegarAnalysisThread thread = new CegarAnalysisThread(xcfa, logger, configuration,
+                        createSolverManagers(smtlibHome, logger), finishedThreads,
+                        metricsOut != null);
+                thread.setName("analysis-worker-" + running.size());
+                thread.setDaemon(true);
+                running.add(thread);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        if (running.isEmpty()) {
+            return Tuple2.of(Result.UNKNOWN, Optional.empty());
+        }
+        Tuple2<Result, Optional<SafetyResult<?, ?>>> result =
+                race(running, finishedThreads, timeout, logger);
+        running.forEach(this::writeMetrics);
+        return result;
+    }
+
+    /**
+     * Writes the metrics of the given analysis thread, if metrics are recorded (see
+     * {@link #setMetricsOut(Path)})
+     */
+    private void writeMetrics(CegarAnalysisThread thread) {
+        if (metricsOut == null) {
+            return;
+        }
+        String fileName = metricsOut.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        String indexedFileName = extension == -1
+                ? fileName + "-" + executedConfigurations
+                : fileName.substring(0, extension) + "-" + executedConfigurations
+                + fileName.substring(extension);
+        executedConfigurations++;
+        Path path = metricsOut.resolveSibling(indexedFileName);
+        try {
+            thread.getMetrics().writeTo(path);
+            logger.write(Logger.Level.RESULT,
+                    "Metrics of " + thread.getConfiguration() + " written to " + path);
+            logger.write(Logger.Level.RESULT, System.lineSeparator());
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + path);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts the given analysis threads and waits for the first one to succeed, cancelling the
+     * ones exceeding their budget and, at the end, the rest of them. The budget of each thread is
+     * checked every {@value #PARALLEL_POLL_INTERVAL} ms, the cpu time of the whole process only
+     * every {@value #PROCESS_CPU_TIME_POLL_INTERVAL} ms
+     *
+     * @param threads         the threads to start
+     * @param finishedThreads the queue the threads add themselves to when they finish
+     * @param timeout         per thread, in ms, or -1 for no timeout
+     * @return the result of the first successful thread, or the timeout/last result if none of
+     * them succeeded
+     */
+    static Tuple2<Result, Optional<SafetyResult<?, ?>>> race(
+            List<CegarAnalysisThread> threads, BlockingQueue<CegarAnalysisThread> finishedThreads,
+            long timeout, Logger logger) {
+        List<CegarAnalysisThread> running = new ArrayList<>(threads);
+        long startCpuTime = timeout == -1 ? 0 : CpuTimeKeeper.getCurrentCpuTime();
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        boolean threadCpuTime = threadMXBean.isThreadCpuTimeSupported();
+        if (threadCpuTime && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        long sumTimeout = timeout == -1 ? -1 : timeout * running.size();
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        long lastProcessCpuTimeCheck = 0;
+        running.forEach(Thread::start);
+
+        CegarAnalysisThread winner = null;
+        Result lastResult = Result.UNKNOWN;
+        boolean timedOut = false;
+        try {
+            while (winner == null && !running.isEmpty()) {
+                CegarAnalysisThread finished =
+                        finishedThreads.poll(PARALLEL_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (finished != null) {
+                    running.remove(finished);
+                    logParallelResult(finished, stopwatch, timeout, logger);
+                    lastResult = finished.getResult();
+                    timedOut |= lastResult == Result.TIMEOUT;
+                    if (lastResult == Result.SUCCESS) {
+                        winner = finished;
+                    }
+                } else if (timeout != -1) {
+                    boolean sumExceeded = false;
+                    long elapsed = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+                    if (elapsed - lastProcessCpuTimeCheck >= PROCESS_CPU_TIME_POLL_INTERVAL) {
+                        lastProcessCpuTimeCheck = elapsed;
+                        sumExceeded = (CpuTimeKeeper.getCurrentCpuTime() - startCpuTime) * 1000
+                                > sumTimeout;
+                    }
+                    for (CegarAnalysisThread thread : running) {
+                        long usedTime = threadCpuTime
+                                ? thread.measureCpuTime(threadMXBean)
+                                : elapsed;
+                        if (sumExceeded || usedTime > timeout) {
+                            thread.cancel(); // reported as TIMEOUT when it finishes
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        // cancel the rest, and wait a bit for them to finish (not necessary, but they
+        // might hold on to a lot of memory)
+        CpuTimeKeeper.saveSolverTimes();
+        running.forEach(CegarAnalysisThread::cancel);
+        for (CegarAnalysisThread thread : running) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            if (thread.isAlive()) {
+                System.err.println("Cancelled thread " + thread.getName()
+                        + " did not finish, abandoning it; possible resource leak");
+            }
+        }
+        stopwatch.stop();
+
+        if (winner != null) {
+            return Tuple2.of(Result.SUCCESS, Optional.ofNullable(winner.getSafetyResult()));
+        } else {
+            return Tuple2.of(timedOut ? Result.TIMEOUT : lastResult, Optional.empty());
+        }
+    }
+
+    private static void logParallelResult(CegarAnalysisThread thread, Stopwatch stopwatch,
+                                          long timeout, Logger logger) {
+        long timeTaken = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        // cpu time of the threads of the configuration, it does not contain the time of SMT-LIB
+        // solver processes
+        long cpuTimeTaken = (thread.getCpuTime() == -1 ? timeTaken : thread.getCpuTime()) / 1000;
+
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+        logger.write(Logger.Level.RESULT, "Execution done in " + thread.getName() + ", result: ");
+        logger.write(Logger.Level.RESULT, thread.getResult().toString());
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+        logger.write(Logger.Level.RESULT, thread.getConfiguration().toString());
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+        logger.write(Logger.Level.RESULT, "Time taken in this configuration: ");
+        logger.write(Logger.Level.RESULT, cpuTimeTaken + " sec (thread cputime)");
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+        logger.write(Logger.Level.RESULT, System.lineSeparator());
+
+        OutputHandler.getInstance().writeCsvLine(thread.getConfiguration(), timeout, timeTaken,
+                cpuTimeTaken, thread.getResult());
+        OutputHandler.getInstance().writeTxtLine(thread.getConfiguration(), timeout, timeTaken,
+                cpuTimeTaken, thread.getResult());
+    }
+
+    /**
+     * Creates solver managers that are not registered globally, for an analysis running in
+     * parallel with others
+     */
+    private static List<SolverManager> createSolverManagers(String home, Logger logger)
+            throws Exception {
+        List<SolverManager> solverManagers = new ArrayList<>();
+        solverManagers.add(Z3SolverManager.create());
+        if (OsHelper.getOs().equals(OsHelper.OperatingSystem.LINUX)) {
+            solverManagers.add(
+                    SmtLibSolverManager.create(Path.of(home), logger, SOLVER_POOL_SIZE));
+        }
+        return solverManagers;
+    }
+
     /**
      * We can only keep track of cpu time by using {@link CpuTimeKeeper}, which this method calls
      * properly also, it is important to close all unused solvers, so they don't take up time/leave
@@ -232,7 +492,8 @@ public abstract class AbstractPortfolio {
         SolverManager.registerSolverManager(Z3SolverManager.create());
         if (OsHelper.getOs().equals(OsHelper.OperatingSystem.LINUX)) {
             final var homePath = Path.of(home);
-            final var smtLibSolverManager = SmtLibSolverManager.create(homePath, logger);
+            final var smtLibSolverManager = SmtLibSolverManager.create(homePath, logger,
+                    SOLVER_POOL_SIZE);
             SolverManager.registerSolverManager(smtLibSolverManager);
         }
     }
@@ -246,7 +507,8 @@ public abstract class AbstractPortfolio {
         SolverManager.registerSolverManager(Z3SolverManager.create());
         if (OsHelper.getOs().equals(OsHelper.OperatingSystem.LINUX)) {
             final var homePath = Path.of(home);
-            final var smtLibSolverManager = SmtLibSolverManager.create(homePath, logger);
+            final var smtLibSolverManager = SmtLibSolverManager.create(homePath, logger,
+                    SOLVER_POOL_SIZE);
             SolverManager.registerSolverManager(smtLibSolverManager);
         }
     }
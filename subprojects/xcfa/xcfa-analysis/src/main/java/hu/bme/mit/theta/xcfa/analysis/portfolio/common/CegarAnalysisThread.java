@@ -17,16 +17,32 @@
 package hu.bme.mit.theta.xcfa.analysis.portfolio.common;
 
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.common.AnalysisBudget;
+import hu.bme.mit.theta.common.exception.BudgetExceededException;
 import hu.bme.mit.theta.common.exception.NotSolvableException;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
+import hu.bme.mit.theta.solver.SolverManager;
 import hu.bme.mit.theta.solver.UnknownSolverStatusException;
 import hu.bme.mit.theta.solver.smtlib.solver.SmtLibSolverException;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfig;
 import hu.bme.mit.theta.xcfa.model.XCFA;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+
 /**
  * the "analysis thread" for portfolios - {@link AbstractPortfolio} uses this thread class to call
  * and manage the analysis (the steps in the portfolio) (e.g. handling/issuing timeouts)
+ * <p>
+ * Each analysis thread runs in a thread group of its own, which the threads started by the
+ * analysis (e.g., the workers of parallel abstractors and refiners) join, so that the cpu time of
+ * the whole configuration can be measured.
  */
 class CegarAnalysisThread extends Thread {
 
@@ -35,16 +51,120 @@ class CegarAnalysisThread extends Thread {
     private final ConsoleLogger logger;
     private final XcfaConfig<?, ?, ?> xcfaConfig;
 
+    private final Collection<SolverManager> solverManagers;
+    private final BlockingQueue<CegarAnalysisThread> finishedThreads;
+
     private volatile Result result = Result.UNKNOWN;
     private volatile SafetyResult<?, ?> safetyResult;
+    private final AnalysisBudget budget = AnalysisBudget.create();
+    private final MetricRegistry metrics = MetricRegistry.create();
+    private volatile boolean cancelled = false;
+    private volatile long cpuTime = -1;
 
-    CegarAnalysisThread(XCFA xcfa, ConsoleLogger logger, CegarConfiguration configuration)
+    private final ThreadGroup threadGroup;
+    // last measured cpu time of each thread of the group, kept after the thread terminates
+    private final Map<Long, Long> threadCpuTimes = new HashMap<>();
+
+    /**
+     * @param solverMetrics whether the solver calls are recorded in the metrics of this thread
+     */
+    CegarAnalysisThread(XCFA xcfa, ConsoleLogger logger, CegarConfiguration configuration,
+                        boolean solverMetrics) throws Exception {
+        super(new ThreadGroup("analysis"), "analysis-worker");
+        this.threadGroup = getThreadGroup();
+        this.xcfa = xcfa;
+        this.logger = logger;
+        this.configuration = configuration;
+        this.safetyResult = null;
+        this.solverManagers = List.of();
+        this.finishedThreads = null;
+        xcfaConfig = configuration.buildConfiguration(xcfa, logger, null, solverMetrics);
+    }
+
+    /**
+     * Creates an analysis thread that owns its solvers (used when several configurations run
+     * concurrently)
+     *
+     * @param solverManagers  the solver managers of this thread only - they are closed when the
+     *                        analysis finishes
+     * @param finishedThreads the thread adds itself to this queue when the analysis finishes
+     * @param solverMetrics   whether the solver calls are recorded in the metrics of this thread
+     */
+    CegarAnalysisThread(XCFA xcfa, ConsoleLogger logger, CegarConfiguration configuration,
+                        Collection<SolverManager> solverManagers,
+                        BlockingQueue<CegarAnalysisThread> finishedThreads, boolean solverMetrics)
             throws Exception {
+        super(new ThreadGroup("analysis"), "analysis-worker");
+        this.threadGroup = getThreadGroup();
         this.xcfa = xcfa;
         this.logger = logger;
         this.configuration = configuration;
         this.safetyResult = null;
-        xcfaConfig = configuration.buildConfiguration(xcfa, logger);
+        this.solverManagers = List.copyOf(solverManagers);
+        this.finishedThreads = finishedThreads;
+        xcfaConfig = configuration.buildConfiguration(xcfa, logger, this.solverManagers,
+                solverMetrics);
+    }
+
+    /**
+     * Creates an analysis thread for an already built configuration, without solvers of its own
+     *
+     * @param finishedThreads the thread adds itself to this queue when the analysis finishes
+     */
+    CegarAnalysisThread(CegarConfiguration configuration, XcfaConfig<?, ?, ?> xcfaConfig,
+                        BlockingQueue<CegarAnalysisThread> finishedThreads) {
+        super(new ThreadGroup("analysis"), "analysis-worker");
+        this.threadGroup = getThreadGroup();
+        this.xcfa = null;
+        this.logger = null;
+        this.configuration = configuration;
+        this.safetyResult = null;
+        this.solverManagers = List.of();
+        this.finishedThreads = finishedThreads;
+        this.xcfaConfig = xcfaConfig;
+    }
+
+    public CegarConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return the cpu time used by this thread and the threads it started in ms (not including the
+     * solver processes), or -1 if the analysis has not finished yet or thread cpu time is not
+     * supported
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Measures the cpu time used by this thread and the threads it started so far, in ms. Threads
+     * that terminated count with their time at the last measurement.
+     */
+    synchronized long measureCpuTime(ThreadMXBean threadMXBean) {
+        Thread[] threads = new Thread[threadGroup.activeCount() + 1];
+        int count;
+        while ((count = threadGroup.enumerate(threads, true)) == threads.length) {
+            threads = new Thread[threads.length * 2];
+        }
+        for (int i = 0; i < count; i++) {
+            long time = threadMXBean.getThreadCpuTime(threads[i].getId());
+            if (time != -1) {
+                threadCpuTimes.put(threads[i].getId(), time);
+            }
+        }
+        long sum = 0;
+        for (long time : threadCpuTimes.values()) {
+            sum += time;
+        }
+        return sum / 1_000_000;
+    }
+
+    /**
+     * @return the metrics recorded by the analysis of this thread (and the threads it starts)
+     */
+    public MetricRegistry getMetrics() {
+        return metrics;
     }
 
     public Result getResult() {
@@ -62,15 +182,38 @@ class CegarAnalysisThread extends Thread {
      */
     @Override
     public void run() {
+        try {
+            // arg-cex check is thread-confined, the setting of the constructing thread is not used
+            configuration.setUpArgCexCheck();
+            analyze();
+        } finally {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean.isThreadCpuTimeSupported()) {
+                cpuTime = measureCpuTime(threadMXBean);
+            }
+            closeSolverManagers();
+            if (cancelled && result != Result.SUCCESS) {
+                timeout();
+            }
+            if (finishedThreads != null) {
+                finishedThreads.add(this);
+            }
+        }
+    }
+
+    private void analyze() {
         try {
             try {
-                safetyResult = xcfaConfig.check();
+                safetyResult = metrics.call(() -> xcfaConfig.check(budget));
 
                 if (safetyResult.isUnsafe() || safetyResult.isSafe()) {
                     result = Result.SUCCESS;
                 } else {
                     result = Result.UNKNOWN;
                 }
+            } catch (BudgetExceededException bee) {
+                safetyResult = null;
+                result = Result.TIMEOUT;
             } catch (NotSolvableException nse) {
                 safetyResult = null;
                 result = Result.STUCK;
@@ -95,6 +238,33 @@ class CegarAnalysisThread extends Thread {
         }
     }
 
+    /**
+     * Asks the analysis to stop without stopping the thread: the budget of the analysis is
+     * cancelled, which interrupts the running solver call (if any), and the analysis stops at its
+     * next checkpoint (see {@link AnalysisBudget}). The solvers are closed by the thread itself
+     * when it finishes. Unless the analysis succeeds in the meantime, the result is set to
+     * timeout.
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        budget.cancel();
+        interrupt();
+    }
+
+    private void closeSolverManagers() {
+        for (SolverManager solverManager : solverManagers) {
+            try {
+                solverManager.close();
+            } catch (Exception e) {
+                System.err.println("Could not close solver; possible resource leak");
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Has to be called explicitly to set the results to timeout after the thread itself is dead
      */
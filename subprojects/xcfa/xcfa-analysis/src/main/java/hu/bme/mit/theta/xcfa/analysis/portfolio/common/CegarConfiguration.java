@@ -21,11 +21,14 @@ import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.SolverManager;
+import hu.bme.mit.theta.solver.metrics.MetricsSolverWrapperFactory;
 import hu.bme.mit.theta.solver.validator.SolverValidatorWrapperFactory;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfig;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder;
 import hu.bme.mit.theta.xcfa.model.XCFA;
 
+import java.util.Collection;
+
 /**
  * This is a wrapper and extension to the {@link XcfaConfig} class It stores and is capable of
  * returning the information an {@link XcfaConfig} stores, but it also stores information on the
@@ -98,17 +101,51 @@ public class CegarConfiguration {
     }
 
     /**
-     * Sets up arg-cex check (if it is enabled) and builds configuration
+     * Sets up arg-cex check (if it is enabled) for the current thread (and the threads it starts)
      */
-    public XcfaConfig<?, ?, ?> buildConfiguration(XCFA xcfa, ConsoleLogger logger)
-            throws Exception {
-        // set up Arg-Cex check
+    public void setUpArgCexCheck() {
         if (!argCexCheck) {
             ArgCexCheckHandler.instance.setArgCexCheck(false, false);
         } else {
             ArgCexCheckHandler.instance.setArgCexCheck(true,
                     refinement.equals(XcfaConfigBuilder.Refinement.MULTI_SEQ));
         }
+    }
+
+    /**
+     * Sets up arg-cex check (if it is enabled) and builds configuration
+     */
+    public XcfaConfig<?, ?, ?> buildConfiguration(XCFA xcfa, ConsoleLogger logger)
+            throws Exception {
+        return buildConfiguration(xcfa, logger, null);
+    }
+
+    /**
+     * Sets up arg-cex check (if it is enabled) and builds configuration, resolving the solvers
+     * from the given solver managers instead of the globally registered ones (so that
+     * configurations running concurrently do not share solvers)
+     *
+     * @param solverManagers the solver managers to resolve the solvers from, or null to use the
+     *                       globally registered ones
+     */
+    public XcfaConfig<?, ?, ?> buildConfiguration(XCFA xcfa, ConsoleLogger logger,
+                                                  Collection<? extends SolverManager> solverManagers)
+            throws Exception {
+        return buildConfiguration(xcfa, logger, solverManagers, false);
+    }
+
+    /**
+     * Sets up arg-cex check (if it is enabled) and builds configuration, see
+     * {@link #buildConfiguration(XCFA, ConsoleLogger, Collection)}
+     *
+     * @param solverMetrics whether the solver calls are recorded in the metric registry of the
+     *                      analysis (see {@link MetricsSolverWrapperFactory})
+     */
+    public XcfaConfig<?, ?, ?> buildConfiguration(XCFA xcfa, ConsoleLogger logger,
+                                                  Collection<? extends SolverManager> solverManagers,
+                                                  boolean solverMetrics)
+            throws Exception {
+        setUpArgCexCheck();
 
         try {
             SolverFactory refinementSolverFactory;
@@ -117,8 +154,12 @@ public class CegarConfiguration {
                 refinementSolverFactory = SolverValidatorWrapperFactory.create(refinementSolver);
                 abstractionSolverFactory = SolverValidatorWrapperFactory.create(abstractionSolver);
             } else {
-                refinementSolverFactory = SolverManager.resolveSolverFactory(refinementSolver);
-                abstractionSolverFactory = SolverManager.resolveSolverFactory(abstractionSolver);
+                refinementSolverFactory = resolveSolverFactory(refinementSolver, solverManagers);
+                abstractionSolverFactory = resolveSolverFactory(abstractionSolver, solverManagers);
+            }
+            if (solverMetrics) {
+                refinementSolverFactory = MetricsSolverWrapperFactory.create(refinementSolverFactory);
+                abstractionSolverFactory = MetricsSolverWrapperFactory.create(abstractionSolverFactory);
             }
             return new XcfaConfigBuilder(domain, refinement, refinementSolverFactory,
                     abstractionSolverFactory, algorithm)
@@ -131,6 +172,20 @@ public class CegarConfiguration {
         }
     }
 
+    private static SolverFactory resolveSolverFactory(String name,
+                                                      Collection<? extends SolverManager> solverManagers)
+            throws Exception {
+        if (solverManagers == null) {
+            return SolverManager.resolveSolverFactory(name);
+        }
+        for (SolverManager solverManager : solverManagers) {
+            if (solverManager.managesSolver(name)) {
+                return solverManager.getSolverFactory(name);
+            }
+        }
+        throw new UnsupportedOperationException("Solver " + name + " not supported");
+    }
+
     @Override
     public String toString() {
         return "Configuration{" +
@@ -43,7 +43,7 @@ public final class CpuTimeKeeper {
      * SolverManager.closeAll()) and it saves the cpu time of these processes, before they are
      * closed and adds it to the cpu time measured in getCurrentCpuTime()
      */
-    public static void saveSolverTimes() {
+    public static synchronized void saveSolverTimes() {
         long pid = ProcessHandle.current().pid();
         try {
             Process process = Runtime.getRuntime().exec("ps --ppid " + pid + " -o %p%x");
@@ -63,7 +63,7 @@ public final class CpuTimeKeeper {
     /**
      * Measures the time spent in this process and child processes (solver processes)
      */
-    public static long getCurrentCpuTime() {
+    public static synchronized long getCurrentCpuTime() {
         long pid = ProcessHandle.current().pid();
         long cputime = 0;
         try {
@@ -21,6 +21,7 @@ import hu.bme.mit.theta.core.stmt.AssignStmt;
 import hu.bme.mit.theta.core.stmt.AssumeStmt;
 import hu.bme.mit.theta.core.stmt.HavocStmt;
 import hu.bme.mit.theta.core.stmt.SkipStmt;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.transformation.CStmtCounter;
 import hu.bme.mit.theta.xcfa.model.XCFA;
 import hu.bme.mit.theta.xcfa.model.XcfaLabel;
@@ -72,9 +73,10 @@ public class ModelStatistics {
 
         ret.cyclomaticComplexity = cfa.getEdges().size() - cfa.getLocs().size() + 2;
 
-        ret.forLoops = CStmtCounter.getForLoops();
-        ret.whileLoops = CStmtCounter.getWhileLoops();
-        ret.branches = CStmtCounter.getWhileLoops();
+        final CStmtCounter stmtCounter = FrontendContext.current().getStmtCounter();
+        ret.forLoops = stmtCounter.getForLoops();
+        ret.whileLoops = stmtCounter.getWhileLoops();
+        ret.branches = stmtCounter.getWhileLoops();
 
         return ret;
     }
@@ -131,9 +133,10 @@ public class ModelStatistics {
 
         ret.cyclomaticComplexity = ret.edgeCount - ret.locCount + 2;
 
-        ret.forLoops = CStmtCounter.getForLoops();
-        ret.whileLoops = CStmtCounter.getWhileLoops();
-        ret.branches = CStmtCounter.getWhileLoops();
+        final CStmtCounter stmtCounter = FrontendContext.current().getStmtCounter();
+        ret.forLoops = stmtCounter.getForLoops();
+        ret.whileLoops = stmtCounter.getWhileLoops();
+        ret.branches = stmtCounter.getWhileLoops();
         return ret;
     }
 
@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package hu.bme.mit.theta.xcfa.analysis.portfolio.common;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.analysis.unit.UnitState;
+import hu.bme.mit.theta.common.AnalysisBudget;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfig;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder;
+import hu.bme.mit.theta.xcfa.analysis.utils.OutputHandler;
+import hu.bme.mit.theta.xcfa.analysis.utils.OutputOptions;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelPortfolioTest {
+
+    private static final CegarConfiguration CONFIGURATION = new CegarConfiguration(
+            XcfaConfigBuilder.Domain.EXPL,
+            XcfaConfigBuilder.Refinement.SEQ_ITP,
+            XcfaConfigBuilder.Search.ERR,
+            XcfaConfigBuilder.PredSplit.WHOLE,
+            XcfaConfigBuilder.Algorithm.SINGLETHREAD,
+            1,
+            XcfaConfigBuilder.InitPrec.EMPTY,
+            PruneStrategy.LAZY,
+            false,
+            "Z3", "Z3"
+    );
+
+    @BeforeClass
+    public static void setUp() {
+        OutputHandler.create(OutputOptions.NONE, new File("model"));
+    }
+
+    @Test
+    public void testFirstResultWins() {
+        final SafetyResult<UnitState, Action> slowResult = safe();
+        final SafetyResult<UnitState, Action> fastResult = safe();
+        final BlockingQueue<CegarAnalysisThread> finished = new LinkedBlockingQueue<>();
+        final CegarAnalysisThread slow = thread(finishingAfter(5000, slowResult), finished);
+        final CegarAnalysisThread fast = thread(finishingAfter(0, fastResult), finished);
+
+        final Tuple2<Result, Optional<SafetyResult<?, ?>>> result =
+                AbstractPortfolio.race(List.of(slow, fast), finished, -1,
+                        NullLogger.getInstance());
+
+        assertEquals(Result.SUCCESS, result.get1());
+        assertSame(fastResult, result.get2().orElseThrow());
+        assertFalse(slow.isAlive());
+        assertEquals(Result.TIMEOUT, slow.getResult());
+    }
+
+    @Test
+    public void testFailedConfigurationDoesNotWin() {
+        final SafetyResult<UnitState, Action> expected = safe();
+        final BlockingQueue<CegarAnalysisThread> finished = new LinkedBlockingQueue<>();
+        final CegarAnalysisThread failing = thread(prec -> {
+            throw new IllegalStateException("Analysis failed");
+        }, finished);
+        final CegarAnalysisThread succeeding = thread(finishingAfter(200, expected), finished);
+
+        final Tuple2<Result, Optional<SafetyResult<?, ?>>> result =
+                AbstractPortfolio.race(List.of(failing, succeeding), finished, -1,
+                        NullLogger.getInstance());
+
+        assertEquals(Result.SUCCESS, result.get1());
+        assertSame(expected, result.get2().orElseThrow());
+        assertEquals(Result.UNKNOWN, failing.getResult());
+    }
+
+    @Test
+    public void testLosersAreCancelled() {
+        final BlockingQueue<CegarAnalysisThread> finished = new LinkedBlockingQueue<>();
+        final CegarAnalysisThread loser1 = thread(neverFinishing(), finished);
+        final CegarAnalysisThread loser2 = thread(neverFinishing(), finished);
+        final CegarAnalysisThread winner = thread(finishingAfter(200, safe()), finished);
+
+        final Tuple2<Result, Optional<SafetyResult<?, ?>>> result =
+                AbstractPortfolio.race(List.of(loser1, loser2, winner), finished, -1,
+                        NullLogger.getInstance());
+
+        assertEquals(Result.SUCCESS, result.get1());
+        for (CegarAnalysisThread loser : List.of(loser1, loser2)) {
+            assertFalse(loser.isAlive());
+            assertEquals(Result.TIMEOUT, loser.getResult());
+            assertNull(loser.getSafetyResult());
+        }
+    }
+
+    @Test
+    public void testTimeoutWithoutWinner() {
+        final BlockingQueue<CegarAnalysisThread> finished = new LinkedBlockingQueue<>();
+        final CegarAnalysisThread thread = thread(neverFinishing(), finished);
+
+        final Tuple2<Result, Optional<SafetyResult<?, ?>>> result =
+                AbstractPortfolio.race(List.of(thread), finished, 100, NullLogger.getInstance());
+
+        assertEquals(Result.TIMEOUT, result.get1());
+        assertFalse(result.get2().isPresent());
+        assertFalse(thread.isAlive());
+    }
+
+    @Test(timeout = 10000)
+    public void testTimeoutCountsWorkerThreads() {
+        final BlockingQueue<CegarAnalysisThread> finished = new LinkedBlockingQueue<>();
+        // The analysis thread only waits, the work is done by a worker thread it starts
+        final CegarAnalysisThread thread = thread(prec -> {
+            final AtomicBoolean stop = new AtomicBoolean(false);
+            final ExecutorService worker = Executors.newSingleThreadExecutor();
+            try {
+                worker.submit(() -> {
+                    while (!stop.get()) {
+                        Thread.onSpinWait();
+                    }
+                });
+                while (true) {
+                    AnalysisBudget.current().checkpoint();
+                    LockSupport.parkNanos(1_000_000);
+                }
+            } finally {
+                stop.set(true);
+                worker.shutdown();
+            }
+        }, finished);
+
+        final Tuple2<Result, Optional<SafetyResult<?, ?>>> result =
+                AbstractPortfolio.race(List.of(thread), finished, 200, NullLogger.getInstance());
+
+        assertEquals(Result.TIMEOUT, result.get1());
+        assertFalse(thread.isAlive());
+        assertTrue(thread.getCpuTime() >= 200);
+    }
+
+    private static CegarAnalysisThread thread(SafetyChecker<UnitState, Action, UnitPrec> checker,
+                                              BlockingQueue<CegarAnalysisThread> finished) {
+        CegarAnalysisThread thread = new CegarAnalysisThread(CONFIGURATION,
+                XcfaConfig.create(checker, UnitPrec.getInstance()), finished);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static SafetyResult<UnitState, Action> safe() {
+        return SafetyResult.safe(ARG.create((state1, state2) -> true));
+    }
+
+    private static SafetyChecker<UnitState, Action, UnitPrec> finishingAfter(
+            long millis, SafetyResult<UnitState, Action> result) {
+        return prec -> {
+            final long end = System.nanoTime() + millis * 1_000_000;
+            while (System.nanoTime() < end) {
+                AnalysisBudget.current().checkpoint();
+                LockSupport.parkNanos(1_000_000);
+            }
+            return result;
+        };
+    }
+
+    private static SafetyChecker<UnitState, Action, UnitPrec> neverFinishing() {
+        return prec -> {
+            while (true) {
+                AnalysisBudget.current().checkpoint();
+            }
+        };
+    }
+}
@@ -41,15 +41,19 @@ import hu.bme.mit.theta.common.CliUtils;
 import hu.bme.mit.theta.common.OsHelper;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
+import hu.bme.mit.theta.common.metrics.Timer;
 import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.utils.ExprInterner;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.chc.ChcFrontend;
 import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
-import hu.bme.mit.theta.frontend.transformation.grammar.function.FunctionVisitor;
 import hu.bme.mit.theta.frontend.transformation.model.statements.CProgram;
 import hu.bme.mit.theta.frontend.transformation.model.statements.CStatement;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.SolverManager;
+import hu.bme.mit.theta.solver.metrics.MetricsSolverWrapperFactory;
 import hu.bme.mit.theta.solver.smtlib.SmtLibSolverManager;
 import hu.bme.mit.theta.solver.validator.SolverValidatorWrapperFactory;
 import hu.bme.mit.theta.solver.z3.Z3SolverManager;
@@ -57,9 +61,12 @@ import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfig;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaConfigBuilder;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaPrec;
 import hu.bme.mit.theta.xcfa.analysis.common.XcfaState;
+import hu.bme.mit.theta.xcfa.analysis.common.XcfaToMonolithicExpr;
 import hu.bme.mit.theta.xcfa.analysis.portfolio.ComplexPortfolio;
+import hu.bme.mit.theta.xcfa.analysis.portfolio.ParallelPortfolio;
 import hu.bme.mit.theta.xcfa.analysis.portfolio.Portfolio;
 import hu.bme.mit.theta.xcfa.analysis.portfolio.SequentialPortfolio;
+import hu.bme.mit.theta.xcfa.analysis.portfolio.common.AbstractPortfolio;
 import hu.bme.mit.theta.xcfa.analysis.portfolio.common.CpuTimeKeeper;
 import hu.bme.mit.theta.xcfa.analysis.portfolio.common.PortfolioTimeoutException;
 import hu.bme.mit.theta.xcfa.analysis.utils.OutputHandler;
@@ -92,6 +99,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
@@ -99,6 +107,7 @@ public class XcfaCli {
 
     private static final String JAR_NAME = "theta-xcfa-cli.jar";
     private final String[] args;
+    private final MetricRegistry metricRegistry = MetricRegistry.create();
 
     //////////// CONFIGURATION OPTIONS BEGIN ////////////
 
@@ -143,6 +152,9 @@ public class XcfaCli {
     @Parameter(names = "--no-arg-cex-check")
     boolean noArgCexCheck = false;
 
+    @Parameter(names = "--hash-cons", description = "Intern expressions (hash-consing), so that structurally equal expressions built during the analysis are shared")
+    boolean hashCons = false;
+
     //////////// CEGAR configuration options ////////////
 
     @Parameter(names = "--domain", description = "Abstract domain")
@@ -172,6 +184,9 @@ public class XcfaCli {
     @Parameter(names = "--metrics", description = "Print metrics about the CFA without running the algorithm (only valid together with the -legacy switch)")
     boolean metrics = false;
 
+    @Parameter(names = "--metrics-out", description = "Write hot-path metrics (solver calls, coverage checks, refinement) to this file (CSV if it ends with .csv, JSON otherwise), also in benchmark mode, whose table has fixed columns; portfolios write one file per configuration, with the index of the configuration appended to the file name")
+    String metricsOut = null;
+
     @Parameter(names = "--stacktrace", description = "Print full stack trace in case of exception (only valid together with the -legacy switch)")
     boolean stacktrace = false;
 
@@ -183,6 +198,12 @@ public class XcfaCli {
     @Parameter(names = "--bmc", description = "Use experimental BMC algorithm")
     boolean bmc = false;
 
+    @Parameter(names = "--kinduction", description = "Use k-induction on top of BMC (only for single-threaded programs with a single procedure, without calls, stores and fences)")
+    boolean kInduction = false;
+
+    @Parameter(names = "--maxbound", description = "Maximal bound for BMC and k-induction (-1: unbounded)")
+    int maxBound = -1;
+
     //////////// Legacy (CFA-only) options ////////////
 
     @Parameter(names = "--precgranularity", description = "Precision granularity (only valid together with the -legacy switch)")
@@ -275,6 +296,9 @@ public class XcfaCli {
 
         SimpleLbePass.level = lbeLevel;
         FunctionInlining.inlining = inlining;
+        if (hashCons) {
+            ExprInterner.enable();
+        }
 
         // TODO later we might want to merge these two flags
         if (witnessOnly) {
@@ -292,13 +316,14 @@ public class XcfaCli {
         /// Starting frontend
         final Stopwatch sw = Stopwatch.createStarted();
 
+        final XcfaPassManager passManager = XcfaPassManager.create();
         XCFA.Builder xcfaBuilder = null;
         XCFA xcfa = null;
         if (input != null) {
             try {
                 CharStream input = CharStreams.fromStream(new FileInputStream(this.input));
                 if (chc) {
-                    XcfaPassManager.removeProcedurePass(new UnusedVarRemovalPass());
+                    passManager.removeProcedurePass(new UnusedVarRemovalPass());
                     ChcFrontend chcFrontend;
                     if (chcTransformation == null) { // try forward, fallback to backward
                         chcFrontend = new ChcFrontend(ChcFrontend.ChcTransformation.FORWARD);
@@ -321,10 +346,11 @@ public class XcfaCli {
                     final CParser parser = new CParser(tokens);
                     final CParser.CompilationUnitContext context = parser.compilationUnit();
 
-                    CStatement program = context.accept(FunctionVisitor.instance);
+                    final FrontendContext frontendContext = FrontendContext.current();
+                    CStatement program = context.accept(frontendContext.getFunctionVisitor());
                     checkState(program instanceof CProgram, "Parsing did not return a program!");
 
-                    FrontendXcfaBuilder frontendXcfaBuilder = new FrontendXcfaBuilder();
+                    FrontendXcfaBuilder frontendXcfaBuilder = new FrontendXcfaBuilder(frontendContext);
 
                     xcfaBuilder = frontendXcfaBuilder.buildXcfa((CProgram) program);
                 }
@@ -335,9 +361,9 @@ public class XcfaCli {
             }
         } else {
             try (FileInputStream fis = new FileInputStream(model)) {
-                XcfaPassManager.clearXCFAPasses();
-                XcfaPassManager.clearProcessPasses();
-                XcfaPassManager.clearProcedurePasses();
+                passManager.clearXCFAPasses();
+                passManager.clearProcessPasses();
+                passManager.clearProcedurePasses();
                 final CFA cfa = CfaDslManager.createCfa(fis);
                 xcfaBuilder = XCFA.builder();
                 final XcfaProcess.Builder processBuilder = XcfaProcess.builder();
@@ -381,6 +407,7 @@ public class XcfaCli {
                 System.exit(-80);
             }
         }
+        xcfaBuilder.setPassManager(passManager);
 
         try {
             if (legacy) {
@@ -388,6 +415,7 @@ public class XcfaCli {
                 try {
                     if (xcfa == null) {
                         xcfa = xcfaBuilder.build();
+                        logPassTimes(passManager);
                     }
                     cfa = xcfa.createCFA();
                 } catch (IllegalStateException e) {
@@ -438,6 +466,10 @@ public class XcfaCli {
                     if (stacktrace) {
                         args.add("--stacktrace");
                     }
+                    if (metricsOut != null) {
+                        args.add("--metrics-out");
+                        args.add(metricsOut);
+                    }
 
                     CfaCli.main((String[]) args.toArray());
                     return;
@@ -447,6 +479,7 @@ public class XcfaCli {
             // write cfa into file and output statistics about (X)CFA and C input file
             if (xcfa == null) {
                 xcfa = xcfaBuilder.build();
+                logPassTimes(passManager);
             }
             OutputHandler.getInstance().writeXcfa(xcfa);
             OutputHandler.getInstance().writeInputStatistics(xcfa);
@@ -482,48 +515,60 @@ public class XcfaCli {
                     }
                     break;
                 case SEQUENTIAL:
-                    SequentialPortfolio sequentialPortfolio = new SequentialPortfolio(logLevel,
-                            this.input.getName(), home);
-                    try {
-                        sequentialPortfolio.executeAnalysis(xcfa,
-                                initTime); // check(configuration);
-                    } catch (PortfolioTimeoutException pte) {
-                        System.err.println(pte.getMessage());
-                        long elapsed = sw.elapsed(TimeUnit.MILLISECONDS);
-                        sw.stop();
-                        System.out.println("walltime: " + elapsed + " ms");
-                        System.out.println("cputime: " + CpuTimeKeeper.getCurrentCpuTime() + " s");
-                        System.exit(-43); // portfolio timeout
-                    }
+                    executePortfolio(new SequentialPortfolio(logLevel, this.input.getName(), home),
+                            xcfa, initTime, sw);
+                    break;
+                case PARALLEL:
+                    executePortfolio(new ParallelPortfolio(logLevel, this.input.getName(), home),
+                            xcfa, initTime, sw);
                     break;
                 case COMPLEX:
-                    ComplexPortfolio complexPortfolio = new ComplexPortfolio(logLevel,
-                            this.input.getName(), home, algorithm);
-                    try {
-                        complexPortfolio.executeAnalysis(xcfa, initTime);
-                    } catch (PortfolioTimeoutException pte) {
-                        System.err.println(pte.getMessage());
-                        long elapsed = sw.elapsed(TimeUnit.MILLISECONDS);
-                        sw.stop();
-                        System.out.println("walltime: " + elapsed + " ms");
-                        System.out.println("cputime: " + CpuTimeKeeper.getCurrentCpuTime() + " s");
-                        System.exit(-43); // portfolio timeout
-                    }
+                    executePortfolio(new ComplexPortfolio(logLevel, this.input.getName(), home,
+                            algorithm), xcfa, initTime, sw);
                     break;
                 default:
                     throw new IllegalStateException("Unexpected value: " + portfolio);
             }
 
-            long elapsed = sw.elapsed(TimeUnit.MILLISECONDS);
-            sw.stop();
-            System.out.println("walltime: " + elapsed + " ms");
-            System.out.println("cputime: " + CpuTimeKeeper.getCurrentCpuTime() + " s");
+            printTimes(sw);
 
         } catch (final Throwable ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Executes the given portfolio, and exits with the portfolio timeout exit code if it times out
+     */
+    private void executePortfolio(final AbstractPortfolio portfolio, final XCFA xcfa,
+                                  final Duration initTime, final Stopwatch sw)
+            throws Exception {
+        if (metricsOut != null) {
+            portfolio.setMetricsOut(Path.of(metricsOut));
+        }
+        try {
+            portfolio.executeAnalysis(xcfa, initTime);
+        } catch (PortfolioTimeoutException pte) {
+            System.err.println(pte.getMessage());
+            printTimes(sw);
+            System.exit(-43); // portfolio timeout
+        }
+    }
+
+    private static void printTimes(final Stopwatch sw) {
+        long elapsed = sw.elapsed(TimeUnit.MILLISECONDS);
+        sw.stop();
+        System.out.println("walltime: " + elapsed + " ms");
+        System.out.println("cputime: " + CpuTimeKeeper.getCurrentCpuTime() + " s");
+    }
+
+    private void logPassTimes(final XcfaPassManager passManager) {
+        for (final Timer timer : passManager.getPassTimers()) {
+            logger.write(Logger.Level.INFO, "Pass %s: %d runs, %d ms%n", timer.getName(),
+                    timer.getCount(), TimeUnit.NANOSECONDS.toMillis(timer.getTotalNanos()));
+        }
+    }
+
     public static void registerAllSolverManagers(String home, Logger logger) throws Exception {
         CpuTimeKeeper.saveSolverTimes();
         SolverManager.closeAll();
@@ -550,9 +595,12 @@ public class XcfaCli {
             abstractionSolverFactory = SolverManager.resolveSolverFactory(abstractionSolver);
         }
 
-        final XcfaConfig<?, ?, ?> configuration = buildConfiguration(xcfa, abstractionSolverFactory,
-                refinementSolverFactory);
+        final XcfaConfig<?, ?, ?> configuration = buildConfiguration(xcfa,
+                withMetrics(abstractionSolverFactory), withMetrics(refinementSolverFactory));
         SafetyResult<?, ?> status = check(configuration);
+        if (metricsOut != null) {
+            metricRegistry.writeTo(Path.of(metricsOut));
+        }
         if (status != null && status.isUnsafe()) {
             OutputHandler.getInstance().writeCounterexamples(status, refinementSolver);
         } else if (status != null && status.isSafe()) {
@@ -560,6 +608,10 @@ public class XcfaCli {
         }
     }
 
+    private SolverFactory withMetrics(final SolverFactory solverFactory) {
+        return metricsOut != null ? MetricsSolverWrapperFactory.create(solverFactory) : solverFactory;
+    }
+
     private XcfaConfig<?, ?, ?> buildConfiguration(XCFA xcfa,
                                                    SolverFactory abstractionSolverFactory, SolverFactory refinementSolverFactory)
             throws Exception {
@@ -576,7 +628,16 @@ public class XcfaCli {
 
         // Build configuration
         try {
-            if (bmc) {
+            final boolean monolithic = XcfaToMonolithicExpr.isSupported(xcfa);
+            checkArgument(!kInduction || monolithic, "K-induction is only supported for"
+                    + " single-threaded programs with a single procedure, without calls, stores"
+                    + " and fences.");
+            if ((bmc || kInduction) && monolithic) {
+                return new XcfaConfigBuilder(domain, refinement, refinementSolverFactory,
+                        abstractionSolverFactory, algorithm)
+                        .logger(logger).buildBounded(xcfa, kInduction, maxBound);
+            } else if (bmc) {
+                // Concurrent programs have no monolithic encoding yet, their paths are enumerated
                 final Solver solver1 = refinementSolverFactory.createSolver(); // TODO handle separate solvers in a nicer way
                 final Solver solver2 = abstractionSolverFactory.createSolver(); // TODO handle separate solvers in a nicer way
                 final ExplStmtAnalysis domainAnalysis = ExplStmtAnalysis.create(solver2, True(),
@@ -607,7 +668,7 @@ public class XcfaCli {
 
     private SafetyResult<?, ?> check(XcfaConfig<?, ?, ?> configuration) throws Exception {
         try {
-            return configuration.check();
+            return metricRegistry.call(configuration::check);
         } catch (final NotSolvableException exception) {
             System.err.println("Configuration failed (stuck)");
             System.exit(-30);
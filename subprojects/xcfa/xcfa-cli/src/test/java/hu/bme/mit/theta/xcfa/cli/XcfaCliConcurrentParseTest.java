@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xcfa.cli;
+
+import hu.bme.mit.theta.c.frontend.dsl.gen.CLexer;
+import hu.bme.mit.theta.c.frontend.dsl.gen.CParser;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.frontend.FrontendContext;
+import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
+import hu.bme.mit.theta.frontend.transformation.model.statements.CProgram;
+import hu.bme.mit.theta.frontend.transformation.model.statements.CStatement;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+import hu.bme.mit.theta.xcfa.model.XcfaProcess;
+import hu.bme.mit.theta.xcfa.model.utils.FrontendXcfaBuilder;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Parses programs concurrently, each with a frontend context of its own, and checks that they do
+ * not see each other's state: the result is the same as parsing them one by one.
+ */
+public class XcfaCliConcurrentParseTest {
+
+    private static final String STRUCT = "/c/litmustest/singlethread/09struct.c";
+    private static final String RECURSIVE = "/c/litmustest/singlethread/17recursive.c";
+    private static final int ROUNDS = 4;
+
+    @Test
+    public void testContextsAreIsolated() throws Exception {
+        ArchitectureConfig.arithmetic = ArchitectureConfig.ArithmeticType.efficient;
+        final Parsed structAlone = parse(STRUCT);
+        final Parsed recursiveAlone = parse(RECURSIVE);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < ROUNDS; i++) {
+                final CyclicBarrier start = new CyclicBarrier(2);
+                final Future<Parsed> struct = executor.submit(() -> {
+                    start.await();
+                    return parse(STRUCT);
+                });
+                final Future<Parsed> recursive = executor.submit(() -> {
+                    start.await();
+                    return parse(RECURSIVE);
+                });
+
+                // Variable names include the ids of the calls, and the names of the anonymous
+                // locations include ids of their own, all of which are counted per context
+                assertEquals(structAlone.varNames, struct.get().varNames);
+                assertEquals(recursiveAlone.varNames, recursive.get().varNames);
+                assertEquals(structAlone.locNames, struct.get().locNames);
+                assertEquals(recursiveAlone.locNames, recursive.get().locNames);
+                assertEquals(structAlone.context.getStmtCounter().getBranches(),
+                        struct.get().context.getStmtCounter().getBranches());
+                assertEquals(recursiveAlone.context.getStmtCounter().getBranches(),
+                        recursive.get().context.getStmtCounter().getBranches());
+                assertNotNull(struct.get().context.getStruct("A"));
+                assertNull(recursive.get().context.getStruct("A"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testContextIsNotInherited() throws Exception {
+        final FrontendContext context = FrontendContext.create();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The worker thread is started while the context is bound
+            final Future<FrontendContext> inherited = context.call(
+                    () -> executor.submit(FrontendContext::current));
+            assertNotSame(context, inherited.get());
+            // Explicit binding holds for the work only, the worker does not keep the context
+            final Future<FrontendContext> bound = executor.submit(
+                    () -> context.call(FrontendContext::current));
+            assertSame(context, bound.get());
+            assertNotSame(context, executor.submit(FrontendContext::current).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Parsed parse(final String filepath) {
+        final FrontendContext frontendContext = FrontendContext.create();
+        try (final InputStream inputStream = getClass().getResourceAsStream(filepath)) {
+            checkState(inputStream != null, "Missing test input " + filepath);
+            final CLexer lexer = new CLexer(CharStreams.fromStream(inputStream));
+            final CParser parser = new CParser(new CommonTokenStream(lexer));
+            final CStatement program = parser.compilationUnit()
+                    .accept(frontendContext.getFunctionVisitor());
+            checkState(program instanceof CProgram, "Parsing did not return a program!");
+            final FrontendXcfaBuilder frontendXcfaBuilder = new FrontendXcfaBuilder(frontendContext);
+            final XCFA.Builder builder = frontendXcfaBuilder.buildXcfa((CProgram) program);
+            final List<String> locNames = getLocNames(builder);
+            final XCFA xcfa = frontendContext.call(builder::build);
+            return new Parsed(frontendContext, getVarNames(xcfa), locNames);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<String> getVarNames(final XCFA xcfa) {
+        final List<VarDecl<?>> vars = new ArrayList<>(xcfa.getGlobalVars());
+        for (final XcfaProcess process : xcfa.getProcesses()) {
+            for (final XcfaProcedure procedure : process.getProcedures()) {
+                vars.addAll(procedure.getParams().keySet());
+                vars.addAll(procedure.getLocalVars());
+            }
+        }
+        final Set<String> names = new TreeSet<>();
+        vars.forEach(var -> names.add(var.getName()));
+        return names;
+    }
+
+    /**
+     * Names of the locations created by the frontend, before the passes run.
+     */
+    private static List<String> getLocNames(final XCFA.Builder builder) {
+        final List<String> names = new ArrayList<>();
+        for (final XcfaProcess.Builder process : builder.getProcesses()) {
+            for (final XcfaProcedure.Builder procedure : process.getProcedures()) {
+                procedure.getLocs().forEach(loc -> names.add(loc.getName()));
+            }
+        }
+        return names;
+    }
+
+    private static final class Parsed {
+        private final FrontendContext context;
+        private final Set<String> varNames;
+        private final List<String> locNames;
+
+        private Parsed(final FrontendContext context, final Set<String> varNames,
+                       final List<String> locNames) {
+            this.context = context;
+            this.varNames = varNames;
+            this.locNames = locNames;
+        }
+    }
+}
@@ -17,9 +17,8 @@ package hu.bme.mit.theta.xcfa.cli;
 
 import hu.bme.mit.theta.c.frontend.dsl.gen.CLexer;
 import hu.bme.mit.theta.c.frontend.dsl.gen.CParser;
-import hu.bme.mit.theta.frontend.FrontendMetadata;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
-import hu.bme.mit.theta.frontend.transformation.grammar.function.FunctionVisitor;
 import hu.bme.mit.theta.frontend.transformation.model.statements.CProgram;
 import hu.bme.mit.theta.frontend.transformation.model.statements.CStatement;
 import hu.bme.mit.theta.xcfa.model.XCFA;
@@ -69,8 +68,7 @@ public class XcfaCliParseTest {
     @Test
     public void test() throws IOException {
         ArchitectureConfig.arithmetic = ArchitectureConfig.ArithmeticType.efficient;
-        ArchitectureConfig.multiThreading = false;
-        FrontendMetadata.clear();
+        final FrontendContext frontendContext = FrontendContext.create();
         final InputStream inputStream = getClass().getResourceAsStream(filepath);
         assert inputStream != null;
         final CharStream input = CharStreams.fromStream(inputStream);
@@ -81,9 +79,10 @@ public class XcfaCliParseTest {
 
         final CParser.CompilationUnitContext context = parser.compilationUnit();
 
-        CStatement program = context.accept(FunctionVisitor.instance);
+        CStatement program = context.accept(frontendContext.getFunctionVisitor());
         checkState(program instanceof CProgram, "Parsing did not return a program!");
-        FrontendXcfaBuilder frontendXcfaBuilder = new FrontendXcfaBuilder();
-        XCFA xcfa = frontendXcfaBuilder.buildXcfa((CProgram) program).build();
+        FrontendXcfaBuilder frontendXcfaBuilder = new FrontendXcfaBuilder(frontendContext);
+        XCFA xcfa = frontendContext.call(
+                () -> frontendXcfaBuilder.buildXcfa((CProgram) program).build());
     }
 }
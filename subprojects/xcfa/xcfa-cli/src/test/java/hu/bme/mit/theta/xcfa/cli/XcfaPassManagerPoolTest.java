@@ -0,0 +1,196 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xcfa.cli;
+
+import hu.bme.mit.theta.c.frontend.dsl.gen.CLexer;
+import hu.bme.mit.theta.c.frontend.dsl.gen.CParser;
+import hu.bme.mit.theta.frontend.FrontendContext;
+import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
+import hu.bme.mit.theta.frontend.transformation.model.statements.CProgram;
+import hu.bme.mit.theta.frontend.transformation.model.statements.CStatement;
+import hu.bme.mit.theta.xcfa.model.XCFA;
+import hu.bme.mit.theta.xcfa.model.XcfaEdge;
+import hu.bme.mit.theta.xcfa.model.XcfaLocation;
+import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
+import hu.bme.mit.theta.xcfa.model.XcfaProcess;
+import hu.bme.mit.theta.xcfa.model.utils.FrontendXcfaBuilder;
+import hu.bme.mit.theta.xcfa.passes.XcfaPassManager;
+import hu.bme.mit.theta.xcfa.passes.procedurepass.EliminateSelfLoops;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that running the procedure passes on several threads builds the same XCFA as running
+ * them on a single thread.
+ */
+@RunWith(Parameterized.class)
+public class XcfaPassManagerPoolTest {
+
+    private static final int THREADS = 4;
+
+    @Parameterized.Parameter(0)
+    public String filepath;
+
+    private ArchitectureConfig.ArithmeticType arithmetic;
+
+    @Parameterized.Parameters()
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {"/c/litmustest/singlethread/17recursive.c"},
+                {"/c/litmustest/singlethread/18multithread.c"},
+                {"/c/litmustest/singlethread/20testinline.c"},
+                {"/c/litmustest/singlethread/21namecollision.c"},
+        });
+    }
+
+    @Before
+    public void setArithmetic() {
+        arithmetic = ArchitectureConfig.arithmetic;
+        ArchitectureConfig.arithmetic = ArchitectureConfig.ArithmeticType.efficient;
+    }
+
+    @After
+    public void restoreArithmetic() {
+        ArchitectureConfig.arithmetic = arithmetic;
+    }
+
+    @Test
+    public void testSameXcfaAsSingleThreaded() throws IOException {
+        final ForkJoinPool singleThreaded = new ForkJoinPool(1);
+        final ForkJoinPool multiThreaded = new ForkJoinPool(THREADS);
+        try {
+            final XCFA expected = build(singleThreaded);
+            final XCFA actual = build(multiThreaded);
+            assertTrue(expected.getProcesses().stream()
+                    .anyMatch(process -> process.getProcedures().size() > 1));
+            assertEquals(describe(expected), describe(actual));
+        } finally {
+            singleThreaded.shutdown();
+            multiThreaded.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameSelfLoopCopiesAsSingleThreaded() {
+        final ForkJoinPool singleThreaded = new ForkJoinPool(1);
+        final ForkJoinPool multiThreaded = new ForkJoinPool(THREADS);
+        try {
+            final List<String> expected = eliminateSelfLoops(singleThreaded);
+            final List<String> actual = eliminateSelfLoops(multiThreaded);
+            assertTrue(expected.stream().anyMatch(name -> name.contains("selfloop")));
+            assertEquals(expected, actual);
+        } finally {
+            singleThreaded.shutdown();
+            multiThreaded.shutdown();
+        }
+    }
+
+    /**
+     * Runs {@link EliminateSelfLoops} on procedures with several self loops each, and returns the
+     * names of the resulting locations.
+     */
+    private static List<String> eliminateSelfLoops(final ForkJoinPool pool) {
+        final List<XcfaProcedure.Builder> procedures = new ArrayList<>();
+        for (int i = 0; i < 2 * THREADS; ++i) {
+            final XcfaProcedure.Builder procedure = XcfaProcedure.builder();
+            procedure.setName("proc" + i);
+            final XcfaLocation init = procedure.addLoc(XcfaLocation.create("init" + i));
+            final XcfaLocation loop = procedure.addLoc(XcfaLocation.create("loop" + i));
+            final XcfaLocation end = procedure.addLoc(XcfaLocation.create("final" + i));
+            procedure.setInitLoc(init);
+            procedure.setFinalLoc(end);
+            procedure.addEdge(XcfaEdge.of(init, init, List.of()));
+            procedure.addEdge(XcfaEdge.of(init, loop, List.of()));
+            procedure.addEdge(XcfaEdge.of(loop, loop, List.of()));
+            procedure.addEdge(XcfaEdge.of(loop, end, List.of()));
+            procedures.add(procedure);
+        }
+        final XcfaPassManager passManager = XcfaPassManager.create(pool);
+        passManager.clearProcedurePasses();
+        passManager.addProcedurePass(new EliminateSelfLoops());
+        final List<String> names = new ArrayList<>();
+        for (final XcfaProcedure.Builder procedure : passManager.run(procedures)) {
+            procedure.getLocs().forEach(loc -> names.add(loc.getName()));
+        }
+        return names;
+    }
+
+    private XCFA build(final ForkJoinPool pool) throws IOException {
+        final FrontendContext frontendContext = FrontendContext.create();
+        try (final InputStream inputStream = getClass().getResourceAsStream(filepath)) {
+            checkState(inputStream != null, "Missing test input " + filepath);
+            final CLexer lexer = new CLexer(CharStreams.fromStream(inputStream));
+            final CParser parser = new CParser(new CommonTokenStream(lexer));
+            final CStatement program = parser.compilationUnit()
+                    .accept(frontendContext.getFunctionVisitor());
+            checkState(program instanceof CProgram, "Parsing did not return a program!");
+            final FrontendXcfaBuilder frontendXcfaBuilder = new FrontendXcfaBuilder(frontendContext);
+            return frontendContext.call(() -> {
+                final XCFA.Builder builder = frontendXcfaBuilder.buildXcfa((CProgram) program);
+                builder.setPassManager(XcfaPassManager.create(pool));
+                return builder.build();
+            });
+        }
+    }
+
+    /**
+     * Describes the structure of an XCFA, including the names of the locations, which are created
+     * by the frontend and the passes with counters of the input and of the procedure.
+     */
+    private static String describe(final XCFA xcfa) {
+        final StringBuilder sb = new StringBuilder();
+        for (final XcfaProcess process : xcfa.getProcesses()) {
+            sb.append("process ").append(process.getName()).append('\n');
+            for (final XcfaProcedure procedure : process.getProcedures()) {
+                final List<XcfaLocation> locs = procedure.getLocs();
+                sb.append("procedure ").append(procedure.getName())
+                        .append(" params ").append(procedure.getParams().keySet())
+                        .append(" vars ").append(procedure.getLocalVars())
+                        .append(" locs ").append(locs.size())
+                        .append(" init ").append(locs.indexOf(procedure.getInitLoc()))
+                        .append(" error ").append(locs.indexOf(procedure.getErrorLoc()))
+                        .append(" final ").append(locs.indexOf(procedure.getFinalLoc()))
+                        .append('\n');
+                for (final XcfaLocation loc : locs) {
+                    sb.append("loc ").append(loc.getName()).append('\n');
+                }
+                for (final XcfaEdge edge : procedure.getEdges()) {
+                    sb.append(locs.indexOf(edge.getSource())).append(" -> ")
+                            .append(locs.indexOf(edge.getTarget())).append(' ')
+                            .append(edge.getLabels()).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -182,6 +182,7 @@ public final class XCFA {
         private XcfaProcess.Builder mainProcess;
         private String name;
         private boolean dynamic;
+        private XcfaPassManager passManager = null;
 
         private XCFA built = null;
 
@@ -235,22 +236,30 @@ public final class XCFA {
             this.dynamic = dynamic;
         }
 
+        // passManager (the default pipeline is used if not set)
+        public void setPassManager(final XcfaPassManager passManager) {
+            checkNotBuilt();
+            this.passManager = passManager;
+        }
+
         public XCFA build() {
             if (built != null) {
                 return built;
             }
 
             checkState(mainProcess != null, "Main process must be set.");
-            Builder builder = XcfaPassManager.run(this);
+            final XcfaPassManager manager = passManager != null ? passManager
+                    : XcfaPassManager.create();
+            Builder builder = manager.run(this);
             XCFA xcfa = new XCFA(builder);
             built = xcfa;
             return xcfa;
         }
 
-        public void runProcessPasses() {
+        public void runProcessPasses(final XcfaPassManager passManager) {
             final ArrayList<XcfaProcess.Builder> newProcesses = new ArrayList<>();
             for (XcfaProcess.Builder process : processes) {
-                final XcfaProcess.Builder newProc = XcfaPassManager.run(process);
+                final XcfaProcess.Builder newProc = passManager.run(process);
                 newProcesses.add(newProc);
                 if (mainProcess == process) {
                     mainProcess = newProc;
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -41,7 +42,14 @@ public final class XcfaLocation {
     }
 
     public static XcfaLocation copyOf(final XcfaLocation from) {
-        XcfaLocation xcfaLocation = create(from.getName());
+        return copyOf(from, from.getName());
+    }
+
+    /**
+     * Create a location with the given name and the metadata of another location.
+     */
+    public static XcfaLocation copyOf(final XcfaLocation from, final String name) {
+        XcfaLocation xcfaLocation = create(name);
         FrontendMetadata.lookupMetadata(from).forEach((s, o) -> {
             FrontendMetadata.create(xcfaLocation, s, o);
         });
@@ -52,18 +60,10 @@ public final class XcfaLocation {
         return new XcfaLocation(name);
     }
 
-    private static int counter = 0;
+    private static final AtomicInteger counter = new AtomicInteger();
 
     public static int uniqeCounter() {
-        return counter++;
-    }
-
-    public static XcfaLocation uniqeCopyOf(final XcfaLocation from) {
-        XcfaLocation xcfaLocation = create(from.getName() + uniqeCounter());
-        FrontendMetadata.lookupMetadata(from).forEach((s, o) -> {
-            FrontendMetadata.create(xcfaLocation, s, o);
-        });
-        return xcfaLocation;
+        return counter.getAndIncrement();
     }
 
     public String getName() {
@@ -274,6 +274,8 @@ public final class XcfaProcedure {
         private XcfaLocation finalLoc;
 
         private XcfaProcedure built = null;
+        private int version = 0;
+        private int locNameCounter = 0;
 
         private Builder() {
             params = new LinkedHashMap<>();
@@ -335,15 +337,24 @@ public final class XcfaProcedure {
             checkState(built == null, "A Procedure was already built.");
         }
 
+        /**
+         * Get the version of the builder, which changes on every modification made through the
+         * builder. Passes can use it to detect whether a procedure changed since they last saw it.
+         */
+        public int getVersion() {
+            return version;
+        }
+
 
         // params
-        public LinkedHashMap<VarDecl<?>, Direction> getParams() {
-            return params;
+        public Map<VarDecl<?>, Direction> getParams() {
+            return Collections.unmodifiableMap(params);
         }
 
         public void createParam(final Direction direction, final VarDecl<?> param) {
             checkNotBuilt();
             params.put(param, direction);
+            version++;
         }
 
         public void addParamInitLoc(XcfaLabel.ProcedureCallXcfaLabel callLabel,
@@ -363,32 +374,36 @@ public final class XcfaProcedure {
             if (paramAssignments.isEmpty()) {
                 paramInitLocs.put(callLabel, initLoc);
             } else {
-                XcfaLocation paramLoc = XcfaLocation.uniqeCopyOf(initLoc);
+                XcfaLocation paramLoc = XcfaLocation.copyOf(initLoc, createLocName("param"));
                 addLoc(paramLoc);
                 addEdge(XcfaEdge.of(paramLoc, initLoc, paramAssignments));
                 paramInitLocs.put(callLabel, paramLoc);
             }
+            version++;
         }
 
         // localVars
         public Map<VarDecl<?>, Optional<LitExpr<?>>> getLocalVars() {
-            return localVars;
+            return Collections.unmodifiableMap(localVars);
         }
 
         public void createVar(final VarDecl<?> var, final LitExpr<?> initValue) {
             checkNotBuilt();
             localVars.put(var, Optional.ofNullable(initValue));
             altVars.put(var, XcfaProcedure.getAltVar(var));
+            version++;
         }
 
         public void removeVar(final VarDecl<?> var) {
             localVars.remove(var);
             altVars.remove(var);
+            version++;
         }
 
         // rtype
         public void setRetType(Type retType) {
             this.retType = retType;
+            version++;
         }
 
         public Type getRetType() {
@@ -397,7 +412,25 @@ public final class XcfaProcedure {
 
         // locs
         public List<XcfaLocation> getLocs() {
-            return locs;
+            return Collections.unmodifiableList(locs);
+        }
+
+        /**
+         * Get a location name that is not used in this procedure yet, made of the name of the
+         * procedure, the given kind and a counter of this procedure (e.g., main_tmp3). The names
+         * do not depend on other procedures, so they are the same whatever order the procedures
+         * are processed in.
+         */
+        public String createLocName(final String kind) {
+            String locName;
+            do {
+                locName = name + "_" + kind + locNameCounter++;
+            } while (hasLocNamed(locName));
+            return locName;
+        }
+
+        private boolean hasLocNamed(final String locName) {
+            return locs.stream().anyMatch(loc -> loc.getName().equals(locName));
         }
 
         public void removeLoc(XcfaLocation loc) {
@@ -405,23 +438,25 @@ public final class XcfaProcedure {
             checkArgument(loc != finalLoc, "Cannot remove finalloc!");
             checkArgument(loc != errorLoc, "Cannot remove errorloc!");
             locs.remove(loc);
+            version++;
         }
 
         public XcfaLocation addLoc(XcfaLocation loc) {
             checkNotBuilt();
             if (!locs.contains(loc)) {
-                checkState(locs.stream().noneMatch(l -> l.getName().equals(loc.getName())));
+                checkState(!hasLocNamed(loc.getName()));
                 checkArgument(
                         loc.getIncomingEdges().size() == 0 && loc.getOutgoingEdges().size() == 0,
                         "Loc already part of an XCFA procedure!");
                 locs.add(loc);
+                version++;
             }
             return loc;
         }
 
         // edges
         public List<XcfaEdge> getEdges() {
-            return edges;
+            return Collections.unmodifiableList(edges);
         }
 
         public void addEdge(XcfaEdge e) {
@@ -432,6 +467,7 @@ public final class XcfaProcedure {
                 edges.add(e);
                 e.getSource().addOutgoingEdge(e);
                 e.getTarget().addIncomingEdge(e);
+                version++;
             }
         }
 
@@ -442,6 +478,7 @@ public final class XcfaProcedure {
 
         public void setName(String name) {
             this.name = name;
+            version++;
         }
 
         // initLoc
@@ -457,6 +494,7 @@ public final class XcfaProcedure {
             checkArgument(finalLoc == null || !finalLoc.equals(initLoc),
                     "Init location cannot be the same as final location.");
             this.initLoc = initLoc;
+            version++;
         }
 
         // errorLoc
@@ -477,6 +515,7 @@ public final class XcfaProcedure {
                 this.errorLoc.setErrorLoc(false);
             }
             this.errorLoc = errorLoc;
+            version++;
         }
 
         // finalLoc
@@ -493,6 +532,7 @@ public final class XcfaProcedure {
                     "Final location cannot be the same as init location.");
             this.finalLoc = finalLoc;
             finalLoc.setEndLoc(true);
+            version++;
         }
 
         public XcfaProcedure build(XcfaProcess process) {
@@ -517,6 +557,7 @@ public final class XcfaProcedure {
             edges.remove(xcfaEdge);
             xcfaEdge.getTarget().removeIncomingEdge(xcfaEdge);
             xcfaEdge.getSource().removeOutgoingEdge(xcfaEdge);
+            version++;
         }
     }
 
@@ -247,14 +247,12 @@ public final class XcfaProcess {
             return process;
         }
 
-        public void runProcedurePasses() {
-            final ArrayList<XcfaProcedure.Builder> newProcs = new ArrayList<>();
-            for (XcfaProcedure.Builder procedure : procedures) {
-                final XcfaProcedure.Builder newProc = XcfaPassManager.run(procedure);
-                if (mainProcedure == procedure) {
-                    mainProcedure = newProc;
+        public void runProcedurePasses(final XcfaPassManager passManager) {
+            final List<XcfaProcedure.Builder> newProcs = passManager.run(procedures);
+            for (int i = 0; i < procedures.size(); ++i) {
+                if (mainProcedure == procedures.get(i)) {
+                    mainProcedure = newProcs.get(i);
                 }
-                newProcs.add(newProc);
             }
             procedures.clear();
             procedures.addAll(newProcs);
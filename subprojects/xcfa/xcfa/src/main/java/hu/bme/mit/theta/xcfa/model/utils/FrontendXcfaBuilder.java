@@ -26,6 +26,7 @@ import hu.bme.mit.theta.core.type.arraytype.ArrayReadExpr;
 import hu.bme.mit.theta.core.type.arraytype.ArrayType;
 import hu.bme.mit.theta.core.type.arraytype.ArrayWriteExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
 import hu.bme.mit.theta.frontend.transformation.grammar.expression.Dereference;
 import hu.bme.mit.theta.frontend.transformation.grammar.expression.Reference;
@@ -77,6 +78,7 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static hu.bme.mit.theta.core.decl.Decls.Var;
 import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
@@ -93,8 +95,13 @@ import static hu.bme.mit.theta.xcfa.model.XcfaLabel.Stmt;
 public class FrontendXcfaBuilder extends
         CStatementVisitorBase<FrontendXcfaBuilder.ParamPack, XcfaLocation> {
 
+    private final FrontendContext context;
     private final Map<String, XcfaLocation> locationLut = new LinkedHashMap<>();
 
+    public FrontendXcfaBuilder(final FrontendContext context) {
+        this.context = checkNotNull(context);
+    }
+
     private XcfaLocation getLoc(final XcfaProcedure.Builder builder, final String name) {
         if (name == null) {
             return getAnonymousLoc(builder);
@@ -106,7 +113,7 @@ public class FrontendXcfaBuilder extends
     }
 
     private XcfaLocation getAnonymousLoc(final XcfaProcedure.Builder builder) {
-        return getLoc(builder, "__loc_" + XcfaLocation.uniqeCounter());
+        return getLoc(builder, "__loc_" + context.nextLocId());
     }
 
     protected <T> void propagateMetadata(CStatement source, T newOwner) {
@@ -115,41 +122,43 @@ public class FrontendXcfaBuilder extends
 
 
     public XCFA.Builder buildXcfa(CProgram cProgram) {
-        XCFA.Builder builder = XCFA.builder();
-        builder.setDynamic(true);
-
-        List<XcfaLabel> initStmtList = new ArrayList<>();
-        for (Tuple2<CDeclaration, VarDecl<?>> globalDeclaration : cProgram.getGlobalDeclarations()) {
-            CComplexType type = CComplexType.getType(globalDeclaration.get2().getRef());
-            if (type instanceof CVoid || type instanceof CStruct) {
-                System.err.println(
-                        "WARNING: Not handling init expression of " + globalDeclaration.get1()
-                                + " as it is non initializable");
-                continue;
-            }
-            builder.addGlobalVar(globalDeclaration.get2(), type.getNullValue());
-            if (globalDeclaration.get1().getInitExpr() != null) {
-                initStmtList.add(Stmt(
-                        Assign(cast(globalDeclaration.get2(), globalDeclaration.get2().getType()),
-                                cast(type.castTo(globalDeclaration.get1().getInitExpr().getExpression()),
-                                        globalDeclaration.get2().getType()))));
-            } else {
-                initStmtList.add(Stmt(
-                        Assign(cast(globalDeclaration.get2(), globalDeclaration.get2().getType()),
-                                cast(type.getNullValue(), globalDeclaration.get2().getType()))));
+        return context.call(() -> {
+            XCFA.Builder builder = XCFA.builder();
+            builder.setDynamic(true);
+
+            List<XcfaLabel> initStmtList = new ArrayList<>();
+            for (Tuple2<CDeclaration, VarDecl<?>> globalDeclaration : cProgram.getGlobalDeclarations()) {
+                CComplexType type = CComplexType.getType(globalDeclaration.get2().getRef());
+                if (type instanceof CVoid || type instanceof CStruct) {
+                    System.err.println(
+                            "WARNING: Not handling init expression of " + globalDeclaration.get1()
+                                    + " as it is non initializable");
+                    continue;
+                }
+                builder.addGlobalVar(globalDeclaration.get2(), type.getNullValue());
+                if (globalDeclaration.get1().getInitExpr() != null) {
+                    initStmtList.add(Stmt(
+                            Assign(cast(globalDeclaration.get2(), globalDeclaration.get2().getType()),
+                                    cast(type.castTo(globalDeclaration.get1().getInitExpr().getExpression()),
+                                            globalDeclaration.get2().getType()))));
+                } else {
+                    initStmtList.add(Stmt(
+                            Assign(cast(globalDeclaration.get2(), globalDeclaration.get2().getType()),
+                                    cast(type.getNullValue(), globalDeclaration.get2().getType()))));
+                }
             }
-        }
-        XcfaProcess.Builder procBuilder = XcfaProcess.builder();
-        for (CFunction function : cProgram.getFunctions()) {
-            XcfaProcedure.Builder build = handleFunction(function, initStmtList);
-            procBuilder.addProcedure(build);
-            if (build.getName().equals("main")) {
-                procBuilder.setMainProcedure(build);
+            XcfaProcess.Builder procBuilder = XcfaProcess.builder();
+            for (CFunction function : cProgram.getFunctions()) {
+                XcfaProcedure.Builder build = handleFunction(function, initStmtList);
+                procBuilder.addProcedure(build);
+                if (build.getName().equals("main")) {
+                    procBuilder.setMainProcedure(build);
+                }
             }
-        }
-        builder.addProcess(procBuilder);
-        builder.setMainProcess(procBuilder);
-        return builder;
+            builder.addProcess(procBuilder);
+            builder.setMainProcess(procBuilder);
+            return builder;
+        });
     }
 
     private XcfaProcedure.Builder handleFunction(CFunction function, List<XcfaLabel> param) {
@@ -225,7 +234,7 @@ public class FrontendXcfaBuilder extends
 
         Expr<?> lValue = statement.getlValue();
         CStatement rValue = statement.getrValue();
-        Map<Type, VarDecl<ArrayType<?, ?>>> memoryMaps = CAssignment.getMemoryMaps();
+        Map<Type, VarDecl<ArrayType<?, ?>>> memoryMaps = context.getMemoryMaps();
 
         XcfaLocation initLoc = getLoc(builder, statement.getId());
         builder.addLoc(initLoc);
@@ -372,7 +381,7 @@ public class FrontendXcfaBuilder extends
         propagateMetadata(statement, edge);
         edge = XcfaEdge.of(initLoc, breakLoc, List.of());
         XcfaLocation unreachableLoc = XcfaLocation.create(
-                "Unreachable" + XcfaLocation.uniqeCounter());
+                "Unreachable" + context.nextLocId());
         builder.addLoc(unreachableLoc);
         propagateMetadata(statement, unreachableLoc);
         builder.addEdge(edge);
@@ -481,7 +490,7 @@ public class FrontendXcfaBuilder extends
         propagateMetadata(statement, edge);
         edge = XcfaEdge.of(initLoc, continueLoc, List.of());
         XcfaLocation unreachableLoc = XcfaLocation.create(
-                "Unreachable" + XcfaLocation.uniqeCounter());
+                "Unreachable" + context.nextLocId());
         builder.addLoc(unreachableLoc);
         propagateMetadata(statement, unreachableLoc);
         builder.addEdge(edge);
@@ -665,7 +674,7 @@ public class FrontendXcfaBuilder extends
         edge = XcfaEdge.of(initLoc, getLoc(builder, statement.getLabel()), List.of());
         builder.addLoc(getLoc(builder, statement.getLabel()));
         XcfaLocation unreachableLoc = XcfaLocation.create(
-                "Unreachable" + XcfaLocation.uniqeCounter());
+                "Unreachable" + context.nextLocId());
         builder.addLoc(unreachableLoc);
         propagateMetadata(statement, unreachableLoc);
         builder.addEdge(edge);
@@ -16,6 +16,10 @@
 
 package hu.bme.mit.theta.xcfa.passes;
 
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
+import hu.bme.mit.theta.common.metrics.Timer;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.xcfa.model.XCFA;
 import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
 import hu.bme.mit.theta.xcfa.model.XcfaProcess;
@@ -45,17 +49,78 @@ import hu.bme.mit.theta.xcfa.passes.xcfapass.RemoveUnusedGlobals;
 import hu.bme.mit.theta.xcfa.passes.xcfapass.XcfaPass;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs the XCFA, process and procedure passes on the builder of an XCFA. Process passes run after
+ * the procedure passes of their process, and XCFA passes after the process passes (bottom-up), so
+ * e.g. function inlining always sees the result of the call graph analysis.
+ * <p>
+ * Consecutive procedure-local passes (see {@link ProcedurePass#isProcedureLocal()}) run on the
+ * procedures of a process in parallel on a fork/join pool, each procedure going through them in
+ * order; other procedure passes run on one procedure after the other, after every procedure went
+ * through the preceding passes. Idempotent procedure-local passes are skipped on procedures that
+ * did not change since a pass of the same class last ran on them. The time spent in each pass is recorded in a metric
+ * registry (see {@link #getPassTimers()}).
+ * <p>
+ * A manager holds the state of the pipeline run (e.g., whether functions were already inlined),
+ * so it should not be used for several XCFAs at the same time.
+ */
 public class XcfaPassManager {
 
-    private static final List<ProcedurePass> procedurePasses = new ArrayList<>();
-    private static final List<ProcessPass> processPasses = new ArrayList<>();
-    private static final List<XcfaPass> xcfaPasses = new ArrayList<>();
+    private static final String METRIC_PREFIX = "xcfa.pass.";
 
     private static final boolean bottomUp = true;
 
-    static {
+    private final List<ProcedurePass> procedurePasses = new ArrayList<>();
+    private final List<ProcessPass> processPasses = new ArrayList<>();
+    private final List<XcfaPass> xcfaPasses = new ArrayList<>();
+
+    private final ForkJoinPool pool;
+    private final MetricRegistry metrics;
+    private final Map<String, Timer> passTimers = new LinkedHashMap<>();
+    // The version of each procedure after an idempotent pass last ran on it; passes of the same
+    // class are interchangeable, so e.g. a repeated pass is skipped if nothing changed in between
+    private final Map<Tuple2<Class<?>, XcfaProcedure.Builder>, Integer> versionsAfterPass =
+            new ConcurrentHashMap<>();
+
+    private volatile boolean postInlining = false;
+
+    private XcfaPassManager(final ForkJoinPool pool, final MetricRegistry metrics) {
+        this.pool = checkNotNull(pool);
+        this.metrics = checkNotNull(metrics);
+    }
+
+    /**
+     * Create a pass manager with the default passes, running procedure passes on the common
+     * fork/join pool and recording the pass times in the current metric registry.
+     */
+    public static XcfaPassManager create() {
+        return create(ForkJoinPool.commonPool());
+    }
+
+    public static XcfaPassManager create(final ForkJoinPool pool) {
+        return create(pool, MetricRegistry.current());
+    }
+
+    public static XcfaPassManager create(final ForkJoinPool pool, final MetricRegistry metrics) {
+        final XcfaPassManager passManager = new XcfaPassManager(pool, metrics);
+        passManager.addDefaultPasses();
+        return passManager;
+    }
+
+    private void addDefaultPasses() {
         procedurePasses.addAll(List.of(
                 new EliminateSelfLoops(),
                 new PthreadCallsToThreadStmts(),
@@ -98,80 +163,201 @@ public class XcfaPassManager {
                 new DemoteThreadLocalGlobals())));
     }
 
-    public static void addProcedurePass(ProcedurePass pass) {
+    public void addProcedurePass(ProcedurePass pass) {
         procedurePasses.add(pass);
     }
 
-    public static void removeProcedurePass(ProcedurePass pass) {
+    public void removeProcedurePass(ProcedurePass pass) {
         procedurePasses.removeIf(p -> p.getClass().isInstance(pass));
     }
 
-    public static void addProcessPass(ProcessPass pass) {
+    public void addProcessPass(ProcessPass pass) {
         processPasses.add(pass);
     }
 
-    public static void removeProcessPass(ProcessPass pass) {
+    public void removeProcessPass(ProcessPass pass) {
         processPasses.removeIf(p -> p.getClass().isInstance(pass));
     }
 
-    public static void addXcfaPass(XcfaPass pass) {
+    public void addXcfaPass(XcfaPass pass) {
         xcfaPasses.add(pass);
     }
 
-    public static void removeXcfaPass(XcfaPass pass) {
+    public void removeXcfaPass(XcfaPass pass) {
         xcfaPasses.removeIf(p -> p.getClass().isInstance(pass));
     }
 
-    public static void clearProcedurePasses() {
+    public void clearProcedurePasses() {
         procedurePasses.clear();
     }
 
-    public static void clearProcessPasses() {
+    public void clearProcessPasses() {
         processPasses.clear();
     }
 
-    public static void clearXCFAPasses() {
+    public void clearXCFAPasses() {
         xcfaPasses.clear();
     }
 
-    public static XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-        XcfaProcedure.Builder runningBuilder = builder;
-        for (ProcedurePass procedurePass : procedurePasses) {
-            if (FunctionInlining.inlining != FunctionInlining.InlineFunctions.ON
-                    || !procedurePass.isPostInlining() || ProcedurePass.postInlining) {
-                runningBuilder = procedurePass.run(runningBuilder);
+    /**
+     * Set whether function inlining already happened, after which the post-inlining procedure
+     * passes also run when inlining is turned on.
+     */
+    public void setPostInlining(final boolean postInlining) {
+        this.postInlining = postInlining;
+    }
+
+    /**
+     * Get the timers of the passes that ran, in the order of their first run. Passes of the same
+     * class share a timer, and the time of a process pass includes the procedure passes it runs.
+     */
+    public Collection<Timer> getPassTimers() {
+        synchronized (passTimers) {
+            return List.copyOf(passTimers.values());
+        }
+    }
+
+    public XcfaProcedure.Builder run(final XcfaProcedure.Builder builder) {
+        return run(List.of(builder)).get(0);
+    }
+
+    /**
+     * Run the procedure passes on procedures of the same process.
+     *
+     * @return The resulting procedures, in the order of the given ones
+     */
+    public List<XcfaProcedure.Builder> run(final List<XcfaProcedure.Builder> procedures) {
+        final List<XcfaProcedure.Builder> builders = new ArrayList<>(procedures);
+        int i = 0;
+        while (i < procedurePasses.size()) {
+            if (procedurePasses.get(i).isProcedureLocal()) {
+                int j = i;
+                while (j < procedurePasses.size() && procedurePasses.get(j).isProcedureLocal()) {
+                    ++j;
+                }
+                runLocalPasses(procedurePasses.subList(i, j), builders);
+                i = j;
+            } else {
+                final ProcedurePass procedurePass = procedurePasses.get(i);
+                builders.replaceAll(builder -> runPass(procedurePass, builder));
+                ++i;
             }
         }
-        return runningBuilder;
+        return builders;
     }
 
-    public static XcfaProcess.Builder run(XcfaProcess.Builder builder) {
+    public XcfaProcess.Builder run(XcfaProcess.Builder builder) {
         if (bottomUp) {
-            builder.runProcedurePasses();
+            builder.runProcedurePasses(this);
         }
 
         for (ProcessPass processPass : processPasses) {
-            builder = processPass.run(builder);
+            final XcfaProcess.Builder input = builder;
+            builder = timer(processPass).time(() -> processPass.run(input, this));
         }
 
         if (!bottomUp) {
-            builder.runProcedurePasses();
+            builder.runProcedurePasses(this);
         }
         return builder;
     }
 
-    public static XCFA.Builder run(XCFA.Builder builder) {
-        if (bottomUp) {
-            builder.runProcessPasses();
+    public XCFA.Builder run(XCFA.Builder builder) {
+        postInlining = false;
+        try {
+            if (bottomUp) {
+                builder.runProcessPasses(this);
+            }
+
+            for (XcfaPass xcfaPass : xcfaPasses) {
+                final XCFA.Builder input = builder;
+                builder = timer(xcfaPass).time(() -> xcfaPass.run(input));
+            }
+
+            if (!bottomUp) {
+                builder.runProcessPasses(this);
+            }
+            return builder;
+        } finally {
+            versionsAfterPass.clear();
         }
+    }
 
-        for (XcfaPass xcfaPass : xcfaPasses) {
-            builder = xcfaPass.run(builder);
+    private void runLocalPasses(final List<ProcedurePass> passes,
+                                final List<XcfaProcedure.Builder> builders) {
+        if (builders.size() <= 1) {
+            builders.replaceAll(builder -> runPasses(passes, builder));
+            return;
         }
 
-        if (!bottomUp) {
-            builder.runProcessPasses();
+        // The tasks run with the frontend context of the calling thread
+        final FrontendContext context = FrontendContext.current();
+        final List<Callable<XcfaProcedure.Builder>> tasks = builders.stream()
+                .map(builder -> (Callable<XcfaProcedure.Builder>) () -> context.call(
+                        () -> runPasses(passes, builder)))
+                .collect(Collectors.toList());
+        final List<Future<XcfaProcedure.Builder>> futures = pool.invokeAll(tasks);
+        RuntimeException exception = null;
+        for (int i = 0; i < futures.size(); ++i) {
+            try {
+                builders.set(i, futures.get(i).get());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exception = new RuntimeException(e);
+            } catch (final ExecutionException e) {
+                if (exception == null) {
+                    exception = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private XcfaProcedure.Builder runPasses(final List<ProcedurePass> passes,
+                                            XcfaProcedure.Builder builder) {
+        for (ProcedurePass procedurePass : passes) {
+            builder = runPass(procedurePass, builder);
         }
         return builder;
     }
+
+    private XcfaProcedure.Builder runPass(final ProcedurePass procedurePass,
+                                          final XcfaProcedure.Builder builder) {
+        if (FunctionInlining.inlining == FunctionInlining.InlineFunctions.ON
+                && procedurePass.isPostInlining() && !postInlining) {
+            return builder;
+        }
+
+        final boolean skippable = procedurePass.isProcedureLocal() && procedurePass.isIdempotent();
+        if (skippable) {
+            final Integer version = versionsAfterPass.get(
+                    Tuple2.of(procedurePass.getClass(), builder));
+            if (version != null && version == builder.getVersion()) {
+                metrics.counter(METRIC_PREFIX + getName(procedurePass) + ".skipped").increment();
+                return builder;
+            }
+        }
+
+        final XcfaProcedure.Builder result = timer(procedurePass).time(
+                () -> procedurePass.run(builder));
+        if (skippable) {
+            versionsAfterPass.put(Tuple2.of(procedurePass.getClass(), result),
+                    result.getVersion());
+        }
+        return result;
+    }
+
+    private Timer timer(final Object pass) {
+        final String name = getName(pass);
+        synchronized (passTimers) {
+            return passTimers.computeIfAbsent(name, n -> metrics.timer(METRIC_PREFIX + n));
+        }
+    }
+
+    private static String getName(final Object pass) {
+        return pass.getClass().getSimpleName();
+    }
 }
@@ -82,4 +82,9 @@ public class AddHavocRange extends ProcedurePass {
     public boolean isPostInlining() {
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+}
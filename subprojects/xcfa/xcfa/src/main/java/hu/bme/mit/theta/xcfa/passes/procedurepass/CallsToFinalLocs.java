@@ -32,12 +32,10 @@ public class CallsToFinalLocs extends ProcedurePass {
     private static final List<String> abortFunc = List.of("abort", "exit");
     public boolean postInlining = false;
 
-    private int nameCounter = 0;
-
     @Override
     public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-        XcfaLocation errorLoc = XcfaLocation.create(builder.getName() + "_error" + nameCounter++);
-        XcfaLocation finalLoc = XcfaLocation.create(builder.getName() + "_final" + nameCounter++);
+        XcfaLocation errorLoc = XcfaLocation.create(builder.createLocName("error"));
+        XcfaLocation finalLoc = XcfaLocation.create(builder.createLocName("final"));
         builder.addLoc(errorLoc);
         builder.addLoc(finalLoc);
         XcfaLocation oldFinalLoc = builder.getFinalLoc();
@@ -78,4 +76,9 @@ public class CallsToFinalLocs extends ProcedurePass {
     public boolean isPostInlining() {
         return true;
     }
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
 }
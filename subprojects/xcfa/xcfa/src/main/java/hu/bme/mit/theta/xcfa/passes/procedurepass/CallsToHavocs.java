@@ -93,4 +93,9 @@ public class CallsToHavocs extends ProcedurePass {
     public boolean isPostInlining() {
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+}
@@ -44,4 +44,14 @@ public class ConditionalFinalsToAssumes extends ProcedurePass {
     public boolean isPostInlining() {
         return true;
     }
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
 }
@@ -29,10 +29,10 @@ public class EliminateSelfLoops extends ProcedurePass {
 
     @Override
     public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-        Set<XcfaEdge> selfLoops = builder.getEdges().stream()
+        List<XcfaEdge> selfLoops = builder.getEdges().stream()
                 .filter(xcfaEdge -> xcfaEdge.getSource() == xcfaEdge.getTarget())
-                .collect(Collectors.toSet());
-        Map<XcfaLocation, List<XcfaEdge>> locSelfLoops = new HashMap<>();
+                .collect(Collectors.toList());
+        Map<XcfaLocation, List<XcfaEdge>> locSelfLoops = new LinkedHashMap<>();
         for (XcfaEdge selfLoop : selfLoops) {
             List<XcfaEdge> loops = locSelfLoops.getOrDefault(selfLoop.getSource(),
                     new ArrayList<>());
@@ -43,7 +43,7 @@ public class EliminateSelfLoops extends ProcedurePass {
             for (XcfaEdge selfLoop : locSelfLoops.get(source)) {
                 builder.removeEdge(selfLoop);
             }
-            XcfaLocation target = XcfaLocation.uniqeCopyOf(source);
+            XcfaLocation target = XcfaLocation.copyOf(source, builder.createLocName("selfloop"));
             builder.addLoc(target);
             for (XcfaEdge selfLoop : locSelfLoops.get(source)) {
                 builder.addEdge(XcfaEdge.of(source, target, selfLoop.getLabels()));
@@ -52,4 +52,14 @@ public class EliminateSelfLoops extends ProcedurePass {
         }
         return builder;
     }
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
 }
@@ -110,6 +110,7 @@ public class EmptyEdgeRemovalPass extends ProcedurePass {
             while (!sequenceEnd) {
                 XcfaLocation nextLocation = currentEdge.getTarget();
                 if (hasNoLoops(nextLocation) // has no loop edges
+                        && nextLocation != builder.getInitLoc() // not the initial location
                         && !nextLocation.isEndLoc() // not a final location
                         && !nextLocation.isErrorLoc() // not an error location
                         && hasNIncomingEdge(nextLocation, 1)
@@ -165,7 +166,7 @@ public class EmptyEdgeRemovalPass extends ProcedurePass {
 
                 for (XcfaLocation loc : sequence) {
                     if (loc != startingLocation) {
-                        builder.getLocs().remove(loc);
+                        builder.removeLoc(loc);
                     }
                 }
             }
@@ -192,4 +193,13 @@ public class EmptyEdgeRemovalPass extends ProcedurePass {
                 .noneMatch(xcfaEdge -> xcfaEdge.getSource() == xcfaEdge.getTarget());
     }
 
-}
\ No newline at end of file
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
+}
@@ -270,4 +270,13 @@ public class FpFunctionsToExprs extends ProcedurePass {
         return builder;
     }
 
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
 }
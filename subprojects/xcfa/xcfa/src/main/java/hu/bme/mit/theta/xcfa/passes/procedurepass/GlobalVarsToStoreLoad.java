@@ -20,8 +20,8 @@ import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.stmt.AssignStmt;
 import hu.bme.mit.theta.core.stmt.HavocStmt;
 import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
-import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CComplexType;
 import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaLabel;
@@ -45,7 +45,7 @@ public class GlobalVarsToStoreLoad extends ProcedurePass {
 
     @Override
     public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-        if (!ArchitectureConfig.multiThreading) {
+        if (!FrontendContext.current().isMultiThreading()) {
             return builder;
         }
         Map<VarDecl<?>, VarDecl<?>> varLut = new LinkedHashMap<>();
@@ -18,7 +18,7 @@ package hu.bme.mit.theta.xcfa.passes.procedurepass;
 
 import com.google.common.collect.Sets;
 import hu.bme.mit.theta.core.decl.VarDecl;
-import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaLabel;
 import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
@@ -33,7 +33,7 @@ public class NoReadVarRemovalPass extends ProcedurePass {
 
     @Override
     public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-        if (ArchitectureConfig.multiThreading) {
+        if (FrontendContext.current().isMultiThreading()) {
             return builder;
         }
 
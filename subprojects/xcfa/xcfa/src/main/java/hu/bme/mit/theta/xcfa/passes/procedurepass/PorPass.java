@@ -16,7 +16,7 @@
 
 package hu.bme.mit.theta.xcfa.passes.procedurepass;
 
-import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaLabel;
 import hu.bme.mit.theta.xcfa.model.XcfaLocation;
@@ -30,7 +30,7 @@ public class PorPass extends ProcedurePass {
 
     @Override
     public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-        if (!ArchitectureConfig.multiThreading) {
+        if (!FrontendContext.current().isMultiThreading()) {
             return builder;
         }
         for (XcfaEdge edge : new ArrayList<>(builder.getEdges())) {
@@ -44,14 +44,14 @@ public class PorPass extends ProcedurePass {
                         removed = true;
                     }
                     if (newLabels.size() > 0) {
-                        XcfaLocation tmp = XcfaLocation.create("tmp" + XcfaLocation.uniqeCounter());
+                        XcfaLocation tmp = XcfaLocation.create(builder.createLocName("tmp"));
                         builder.addLoc(tmp);
                         builder.addEdge(
                                 edge.withSource(source).withLabels(newLabels).withTarget(tmp));
                         source = tmp;
                         newLabels.clear();
                     }
-                    XcfaLocation tmp = XcfaLocation.create("tmp" + XcfaLocation.uniqeCounter());
+                    XcfaLocation tmp = XcfaLocation.create(builder.createLocName("tmp"));
                     builder.addLoc(tmp);
                     builder.addEdge(
                             edge.withSource(source).withLabels(List.of(label)).withTarget(tmp));
@@ -72,4 +72,9 @@ public class PorPass extends ProcedurePass {
     public boolean isPostInlining() {
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+}
@@ -20,12 +20,28 @@ import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
 
 public abstract class ProcedurePass {
 
-    public static boolean postInlining = false;
-
     public abstract XcfaProcedure.Builder run(XcfaProcedure.Builder builder);
 
     public boolean isPostInlining() {
         return false;
     }
 
+    /**
+     * Whether the pass only reads and modifies the procedure it is run on (and the metadata of its
+     * elements), so that it can run on several procedures in parallel. Passes depending on state
+     * shared between procedures (e.g., metadata derived from other procedures) must return false.
+     */
+    public boolean isProcedureLocal() {
+        return false;
+    }
+
+    /**
+     * Whether running the pass again on its own result leaves the procedure unchanged. Procedure
+     * local idempotent passes are skipped on procedures that did not change since a pass of the
+     * same class last ran on them, so all instances of such a pass must behave the same.
+     */
+    public boolean isIdempotent() {
+        return false;
+    }
+
 }
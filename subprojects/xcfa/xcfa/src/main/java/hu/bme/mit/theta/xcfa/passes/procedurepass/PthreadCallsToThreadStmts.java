@@ -19,8 +19,8 @@ package hu.bme.mit.theta.xcfa.passes.procedurepass;
 import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
-import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
 import hu.bme.mit.theta.frontend.transformation.grammar.expression.Reference;
 import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaLabel;
@@ -107,7 +107,7 @@ public class PthreadCallsToThreadStmts extends ProcedurePass {
             }
         }
         if (foundAny) {
-            ArchitectureConfig.multiThreading = true;
+            FrontendContext.current().setMultiThreading(true);
         }
         return builder;
     }
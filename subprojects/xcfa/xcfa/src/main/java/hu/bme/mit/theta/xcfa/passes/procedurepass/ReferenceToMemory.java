@@ -25,8 +25,8 @@ import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.type.anytype.RefExpr;
 import hu.bme.mit.theta.core.type.arraytype.ArrayReadExpr;
 import hu.bme.mit.theta.core.type.arraytype.ArrayType;
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
-import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
 import hu.bme.mit.theta.frontend.transformation.grammar.expression.Dereference;
 import hu.bme.mit.theta.frontend.transformation.grammar.expression.Reference;
 import hu.bme.mit.theta.frontend.transformation.model.types.complex.CComplexType;
@@ -70,7 +70,7 @@ public class ReferenceToMemory extends ProcedurePass {
 
         Set<RefExpr<?>> dereferenced = FrontendMetadata.lookupMetadata("dereferenced", true)
                 .stream().map(o -> (RefExpr<?>) o).collect(Collectors.toSet());
-        if (dereferenced.size() > 0 && ArchitectureConfig.multiThreading) {
+        if (dereferenced.size() > 0 && FrontendContext.current().isMultiThreading()) {
             throw new UnsupportedOperationException("Pointers and multithreading do not yet mix!");
         }
         for (RefExpr<?> refExpr : dereferenced) {
@@ -16,8 +16,8 @@
 
 package hu.bme.mit.theta.xcfa.passes.procedurepass;
 
+import hu.bme.mit.theta.frontend.FrontendContext;
 import hu.bme.mit.theta.frontend.FrontendMetadata;
-import hu.bme.mit.theta.frontend.transformation.ArchitectureConfig;
 import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaLocation;
 import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
@@ -34,7 +34,7 @@ public class RemoveDeadEnds extends ProcedurePass {
     // TODO: thread start and procedure call should not be dead-end! Use-case: while(1) pthread_create(..);
     @Override
     public XcfaProcedure.Builder run(XcfaProcedure.Builder builder) {
-        if (ArchitectureConfig.multiThreading) {
+        if (FrontendContext.current().isMultiThreading()) {
             Set<XcfaEdge> reachableEdges = new LinkedHashSet<>();
             filterReachableEdges(builder.getInitLoc(), reachableEdges);
             for (XcfaEdge edge : new ArrayList<>(builder.getEdges())) {
@@ -113,4 +113,14 @@ public class RemoveDeadEnds extends ProcedurePass {
     public boolean isPostInlining() {
         return true;
     }
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
 }
@@ -94,4 +94,14 @@ public class SimplifyExprs extends ProcedurePass {
     public boolean isPostInlining() {
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
+}
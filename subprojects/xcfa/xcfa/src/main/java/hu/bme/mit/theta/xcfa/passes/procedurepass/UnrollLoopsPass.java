@@ -49,7 +49,7 @@ public class UnrollLoopsPass extends ProcedurePass {
                     .forEach(xcfaEdge -> toDuplicate.add(xcfaEdge.getTarget()));
             if (!toDuplicate.isEmpty()) {
                 for (XcfaLocation location : toDuplicate) {
-                    XcfaLocation copy = XcfaLocation.uniqeCopyOf(location);
+                    XcfaLocation copy = XcfaLocation.copyOf(location, builder.createLocName("unroll"));
                     builder.addLoc(copy);
                     for (XcfaEdge incomingEdge : new LinkedHashSet<>(location.getIncomingEdges())) {
                         builder.removeEdge(incomingEdge);
@@ -75,7 +75,7 @@ public class UnrollLoopsPass extends ProcedurePass {
         Map<XcfaLocation, XcfaLocation> locationLut = new LinkedHashMap<>();
         Map<XcfaLocation, XcfaLocation> lastLocationLut = new LinkedHashMap<>();
         originalLocs.forEach(location -> {
-            XcfaLocation copy = XcfaLocation.uniqeCopyOf(location);
+            XcfaLocation copy = XcfaLocation.copyOf(location, builder.createLocName("unroll"));
             locationLut.put(location, copy);
             lastLocationLut.put(location, locationCopies.get(location).peek());
             locationCopies.get(location).push(copy);
@@ -81,4 +81,14 @@ public class UnusedVarRemovalPass extends ProcedurePass {
             }
         }
     }
+
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
 }
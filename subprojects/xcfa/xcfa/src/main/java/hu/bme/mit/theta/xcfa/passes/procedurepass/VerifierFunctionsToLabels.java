@@ -82,4 +82,8 @@ public class VerifierFunctionsToLabels extends ProcedurePass {
         return true;
     }
 
+    @Override
+    public boolean isProcedureLocal() {
+        return true;
+    }
 }
@@ -21,6 +21,7 @@ import hu.bme.mit.theta.xcfa.model.XcfaEdge;
 import hu.bme.mit.theta.xcfa.model.XcfaLabel;
 import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
 import hu.bme.mit.theta.xcfa.model.XcfaProcess;
+import hu.bme.mit.theta.xcfa.passes.XcfaPassManager;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,7 +29,7 @@ import java.util.stream.Collectors;
 public class AnalyzeCallGraph extends ProcessPass {
 
     @Override
-    public XcfaProcess.Builder run(XcfaProcess.Builder builder) {
+    public XcfaProcess.Builder run(XcfaProcess.Builder builder, XcfaPassManager passManager) {
         Map<XcfaProcedure.Builder, Set<XcfaProcedure.Builder>> calledBy = new LinkedHashMap<>();
         for (XcfaProcedure.Builder procedure : builder.getProcedures()) {
             calledBy.put(procedure, new LinkedHashSet<>());
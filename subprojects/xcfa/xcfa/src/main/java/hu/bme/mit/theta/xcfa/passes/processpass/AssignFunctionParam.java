@@ -39,11 +39,11 @@ public class AssignFunctionParam extends ProcessPass {
     private final Map<XcfaProcedure.Builder, Map<XcfaLabel.ProcedureCallXcfaLabel, XcfaProcedure.Builder>> procedureCalls = new LinkedHashMap<>();
 
     @Override
-    public XcfaProcess.Builder run(XcfaProcess.Builder builder) {
+    public XcfaProcess.Builder run(XcfaProcess.Builder builder, XcfaPassManager passManager) {
         if (FunctionInlining.inlining == FunctionInlining.InlineFunctions.ON) {
             return builder;
         }
-        XcfaProcess.Builder builtBuilder = buildProcesses(builder);
+        XcfaProcess.Builder builtBuilder = buildProcesses(builder, passManager);
         for (XcfaProcedure.Builder procedure : builtBuilder.getProcedures()) {
             edgesToAdd.clear();
             edgesToRemove.clear();
@@ -74,7 +74,8 @@ public class AssignFunctionParam extends ProcessPass {
         return builtBuilder;
     }
 
-    private XcfaProcess.Builder buildProcesses(XcfaProcess.Builder builder) {
+    private XcfaProcess.Builder buildProcesses(XcfaProcess.Builder builder,
+                                               XcfaPassManager passManager) {
         XcfaProcess.Builder newBuilder = XcfaProcess.builder();
         newBuilder.setName(builder.getName());
         newBuilder.getThreadLocalVars().putAll(builder.getThreadLocalVars());
@@ -89,9 +90,13 @@ public class AssignFunctionParam extends ProcessPass {
                 }
             }
             UnusedVarRemovalPass.removeUnusedVars(procBuilder, usedVars);
-            newBuilder.addProcedure(XcfaPassManager.run(procBuilder));
-            if (procBuilder == builder.getMainProcedure()) {
-                newBuilder.setMainProcedure(procBuilder);
+        }
+        final List<XcfaProcedure.Builder> procedures = builder.getProcedures();
+        final List<XcfaProcedure.Builder> processed = passManager.run(procedures);
+        for (int i = 0; i < procedures.size(); ++i) {
+            newBuilder.addProcedure(processed.get(i));
+            if (procedures.get(i) == builder.getMainProcedure()) {
+                newBuilder.setMainProcedure(processed.get(i));
             }
         }
         return newBuilder;
@@ -100,14 +105,15 @@ public class AssignFunctionParam extends ProcessPass {
     private void assignParams(XcfaProcedure.Builder callingProcedure,
                               XcfaLabel.ProcedureCallXcfaLabel callLabel, XcfaProcedure.Builder calledProcedure) {
         Map<XcfaLabel.ProcedureCallXcfaLabel, XcfaProcedure.Builder> callLabels = procedureCalls.getOrDefault(
-                calledProcedure, new HashMap<>());
+                calledProcedure, new LinkedHashMap<>());
         callLabels.put(callLabel, callingProcedure);
         procedureCalls.put(calledProcedure, callLabels);
     }
 
     private void assignReturns(XcfaProcedure.Builder procedure, XcfaEdge edge,
                                List<XcfaLabel> retStmts) {
-        XcfaLocation middle = XcfaLocation.uniqeCopyOf(edge.getSource());
+        XcfaLocation middle = XcfaLocation.copyOf(edge.getSource(),
+                procedure.createLocName("ret"));
         procedure.addLoc(middle);
         edgesToRemove.add(edge);
         edgesToAdd.add(XcfaEdge.of(edge.getSource(), middle, edge.getLabels()));
@@ -31,7 +31,6 @@ import hu.bme.mit.theta.xcfa.model.XcfaLocation;
 import hu.bme.mit.theta.xcfa.model.XcfaProcedure;
 import hu.bme.mit.theta.xcfa.model.XcfaProcess;
 import hu.bme.mit.theta.xcfa.passes.XcfaPassManager;
-import hu.bme.mit.theta.xcfa.passes.procedurepass.ProcedurePass;
 import hu.bme.mit.theta.xcfa.passes.procedurepass.UnusedVarRemovalPass;
 
 import java.util.ArrayList;
@@ -42,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -63,11 +63,11 @@ public class FunctionInlining extends ProcessPass {
     private final Set<Tuple2<XcfaLabel, XcfaEdge>> alreadyHandled = new LinkedHashSet<>();
 
     @Override
-    public XcfaProcess.Builder run(XcfaProcess.Builder builder) {
+    public XcfaProcess.Builder run(XcfaProcess.Builder builder, XcfaPassManager passManager) {
         if (inlining != InlineFunctions.ON) {
             return builder;
         }
-        ProcedurePass.postInlining = true;
+        passManager.setPostInlining(true);
         XcfaProcess.Builder newBuilder = XcfaProcess.builder();
         newBuilder.setName(builder.getName());
         newBuilder.getThreadLocalVars().putAll(builder.getThreadLocalVars());
@@ -99,15 +99,21 @@ public class FunctionInlining extends ProcessPass {
 
         for (XcfaProcedure.Builder procBuilder : alreadyInlined) {
             UnusedVarRemovalPass.removeUnusedVars(procBuilder, usedVars);
-            newBuilder.addProcedure(XcfaPassManager.run(procBuilder));
-            if (procBuilder == newMainProc) {
-                newBuilder.setMainProcedure(procBuilder);
+        }
+        final List<XcfaProcedure.Builder> inlined = new ArrayList<>(alreadyInlined);
+        final List<XcfaProcedure.Builder> processed = passManager.run(inlined);
+        for (int i = 0; i < inlined.size(); ++i) {
+            newBuilder.addProcedure(processed.get(i));
+            if (inlined.get(i) == newMainProc) {
+                newBuilder.setMainProcedure(processed.get(i));
             }
         }
 
-        FrontendMetadata.lookupMetadata("shouldInline", false).stream()
+        final List<XcfaProcedure.Builder> notInlined = FrontendMetadata.lookupMetadata(
+                        "shouldInline", false).stream()
                 .filter(o -> o instanceof XcfaProcedure.Builder).map(o -> (XcfaProcedure.Builder) o)
-                .forEach(procedure -> newBuilder.addProcedure(XcfaPassManager.run(procedure)));
+                .collect(Collectors.toList());
+        passManager.run(notInlined).forEach(newBuilder::addProcedure);
 
         return newBuilder;
 
@@ -184,7 +190,7 @@ public class FunctionInlining extends ProcessPass {
             XcfaLocation start = xcfaEdge.getSource();
             XcfaLocation end = xcfaEdge.getTarget();
             if (i > 0) {
-                XcfaLocation loc1 = XcfaLocation.create("inline" + XcfaLocation.uniqeCounter());
+                XcfaLocation loc1 = XcfaLocation.create(procBuilder.createLocName("inline"));
                 FrontendMetadata.lookupMetadata(xcfaEdge).forEach((s, o) -> {
                     FrontendMetadata.create(loc1, s, o);
                 });
@@ -197,7 +203,7 @@ public class FunctionInlining extends ProcessPass {
                 start = loc1;
             }
             if (i < xcfaEdge.getLabels().size() - 1) {
-                XcfaLocation loc1 = XcfaLocation.create("inline" + XcfaLocation.uniqeCounter());
+                XcfaLocation loc1 = XcfaLocation.create(procBuilder.createLocName("inline"));
                 FrontendMetadata.lookupMetadata(xcfaEdge).forEach((s, o) -> {
                     FrontendMetadata.create(loc1, s, o);
                 });
@@ -225,7 +231,7 @@ public class FunctionInlining extends ProcessPass {
                     .forEach((varDecl, direction) -> procBuilder.createVar(varDecl, null));
             Map<XcfaLocation, XcfaLocation> locationLut = new LinkedHashMap<>();
             procedure.getLocs().forEach(loc -> {
-                XcfaLocation copy = XcfaLocation.uniqeCopyOf(loc);
+                XcfaLocation copy = XcfaLocation.copyOf(loc, procBuilder.createLocName("inline"));
                 locationLut.put(loc, copy);
                 procBuilder.addLoc(copy);
             });
@@ -17,10 +17,15 @@
 package hu.bme.mit.theta.xcfa.passes.processpass;
 
 import hu.bme.mit.theta.xcfa.model.XcfaProcess;
+import hu.bme.mit.theta.xcfa.passes.XcfaPassManager;
 
 public abstract class ProcessPass {
 
-    public abstract XcfaProcess.Builder run(XcfaProcess.Builder builder);
-
+    /**
+     * Run the pass on a process. Passes that rebuild procedures run the procedure passes on them
+     * using the given pass manager.
+     */
+    public abstract XcfaProcess.Builder run(XcfaProcess.Builder builder,
+                                            XcfaPassManager passManager);
 
 }
@@ -15,38 +15,77 @@
  */
 package hu.bme.mit.theta.xsts.analysis;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hu.bme.mit.theta.analysis.LTS;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.Tuple2;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
 import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.booltype.FalseExpr;
+import hu.bme.mit.theta.core.utils.StmtUtils;
 import hu.bme.mit.theta.xsts.XSTS;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * LTS for XSTS. The transitions are compiled once into actions with their variables, and the
+ * actions optimized by the statement optimizer are memoized for each transition and relevant
+ * valuation of the state (see {@link XstsStmtOptimizer#getRelevantValuation}). Actions that are
+ * optimized to an unsatisfiable assumption are not returned. The memoization can be bounded or
+ * turned off with the cache size.
+ */
 public final class XstsLts<S extends ExprState> implements LTS<XstsState<S>, XstsAction> {
 
-    private final NonDetStmt trans;
-    private final NonDetStmt env;
-    private final NonDetStmt init;
+    public static final long DEFAULT_OPTIMIZED_ACTION_CACHE_SIZE = 100_000;
+
+    private final List<Transition> trans;
+    private final List<Transition> env;
+    private final List<Transition> init;
 
     private final XstsStmtOptimizer<S> stmtOptimizer;
 
-    private XstsLts(final XSTS xsts, final XstsStmtOptimizer<S> stmtOptimizer) {
-        trans = xsts.getTran();
-        env = xsts.getEnv();
-        init = xsts.getInit();
+    private final Cache<Tuple2<Transition, Valuation>, Optional<XstsAction>> optimizedActions;
 
-        this.stmtOptimizer = stmtOptimizer;
+    private XstsLts(final XSTS xsts, final XstsStmtOptimizer<S> stmtOptimizer,
+                    final long optimizedActionCacheSize) {
+        checkArgument(optimizedActionCacheSize >= 0, "Cache size must be non-negative");
+        trans = compile(xsts.getTran());
+        env = compile(xsts.getEnv());
+        init = compile(xsts.getInit());
+
+        this.stmtOptimizer = checkNotNull(stmtOptimizer);
+        this.optimizedActions = optimizedActionCacheSize == 0 ? null : CacheBuilder.newBuilder()
+                .maximumSize(optimizedActionCacheSize).build();
     }
 
     public static <S extends ExprState> LTS<XstsState<S>, XstsAction> create(final XSTS xsts,
                                                                              final XstsStmtOptimizer<S> stmtOptimizer) {
-        return new XstsLts<>(xsts, stmtOptimizer);
+        return create(xsts, stmtOptimizer, DEFAULT_OPTIMIZED_ACTION_CACHE_SIZE);
+    }
+
+    /**
+     * Creates the LTS memoizing at most the given number of optimized actions (0: no memoization).
+     */
+    public static <S extends ExprState> LTS<XstsState<S>, XstsAction> create(final XSTS xsts,
+                                                                             final XstsStmtOptimizer<S> stmtOptimizer,
+                                                                             final long optimizedActionCacheSize) {
+        return new XstsLts<>(xsts, stmtOptimizer, optimizedActionCacheSize);
     }
 
     @Override
     public Collection<XstsAction> getEnabledActionsFor(XstsState<S> state) {
-        NonDetStmt enabledSet;
+        List<Transition> enabledSet;
         if (!state.isInitialized()) {
             enabledSet = init;
         } else if (state.lastActionWasEnv()) {
@@ -55,9 +94,60 @@ public final class XstsLts<S extends ExprState> implements LTS<XstsState<S>, Xst
             enabledSet = env;
         }
 
-        return enabledSet.getStmts().stream()
-                .map(stmt -> stmtOptimizer.optimizeStmt(state, stmt))
-                .map(XstsAction::create)
-                .collect(Collectors.toList());
+        final List<XstsAction> actions = new ArrayList<>(enabledSet.size());
+        for (final Transition transition : enabledSet) {
+            getAction(state, transition).ifPresent(actions::add);
+        }
+        return actions;
+    }
+
+    private Optional<XstsAction> getAction(final XstsState<S> state, final Transition transition) {
+        final Optional<Valuation> relevantValuation = stmtOptimizer.getRelevantValuation(state,
+                transition.vars);
+        if (optimizedActions == null || relevantValuation.isEmpty()) {
+            return optimize(state, transition);
+        }
+
+        final Tuple2<Transition, Valuation> key = Tuple2.of(transition, relevantValuation.get());
+        Optional<XstsAction> action = optimizedActions.getIfPresent(key);
+        if (action == null) {
+            action = optimize(state, transition);
+            optimizedActions.put(key, action);
+        }
+        return action;
+    }
+
+    private Optional<XstsAction> optimize(final XstsState<S> state, final Transition transition) {
+        final Stmt optimizedStmt = stmtOptimizer.optimizeStmt(state, transition.stmt);
+        if (optimizedStmt instanceof AssumeStmt
+                && ((AssumeStmt) optimizedStmt).getCond() instanceof FalseExpr) {
+            // The guard conflicts with the state, the action could only lead to bottom
+            return Optional.empty();
+        } else if (optimizedStmt.equals(transition.stmt)) {
+            // The compiled action is reused, so its unfolding is only computed once
+            return Optional.of(transition.action);
+        } else {
+            return Optional.of(XstsAction.create(optimizedStmt));
+        }
+    }
+
+    private static List<Transition> compile(final NonDetStmt stmts) {
+        final List<Transition> transitions = new ArrayList<>(stmts.getStmts().size());
+        for (final Stmt stmt : stmts.getStmts()) {
+            transitions.add(new Transition(stmt));
+        }
+        return transitions;
+    }
+
+    private static final class Transition {
+        private final Stmt stmt;
+        private final Set<VarDecl<?>> vars;
+        private final XstsAction action;
+
+        private Transition(final Stmt stmt) {
+            this.stmt = stmt;
+            this.vars = StmtUtils.getVars(stmt);
+            this.action = XstsAction.create(stmt);
+        }
     }
 }
@@ -17,8 +17,13 @@ package hu.bme.mit.theta.xsts.analysis;
 
 import hu.bme.mit.theta.analysis.stmtoptimizer.StmtOptimizer;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.stmt.Stmt;
 
+import java.util.Collection;
+import java.util.Optional;
+
 public class XstsStmtOptimizer<S extends ExprState> implements StmtOptimizer<XstsState<S>> {
 
     private final StmtOptimizer<S> stmtOptimizer;
@@ -36,4 +41,10 @@ public class XstsStmtOptimizer<S extends ExprState> implements StmtOptimizer<Xst
     public Stmt optimizeStmt(final XstsState<S> state, final Stmt stmt) {
         return stmtOptimizer.optimizeStmt(state.getState(), stmt);
     }
+
+    @Override
+    public Optional<Valuation> getRelevantValuation(final XstsState<S> state,
+                                                    final Collection<? extends VarDecl<?>> vars) {
+        return stmtOptimizer.getRelevantValuation(state.getState(), vars);
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xsts.analysis;
+
+import hu.bme.mit.theta.analysis.algorithm.bmc.MonolithicExpr;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.StmtUnfoldResult;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+import hu.bme.mit.theta.xsts.XSTS;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.stmt.Stmts.NonDetStmt;
+import static hu.bme.mit.theta.core.stmt.Stmts.SequenceStmt;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.utils.indexings.VarIndexingFactory.indexing;
+
+/**
+ * Encodes an XSTS as a {@link MonolithicExpr} for bounded model checking. An auxiliary phase
+ * variable tells whether the initialization, the environmental or the internal transition comes
+ * next, so that the steps of the encoding correspond to the actions of {@link XstsLts}, and the
+ * property is also checked in the intermediate states (just like in the abstraction-based
+ * configurations).
+ */
+public final class XstsToMonolithicExpr {
+
+    private static final int UNINITIALIZED = 0;
+    private static final int LAST_INTERNAL = 1;
+    private static final int LAST_ENV = 2;
+
+    private final XSTS xsts;
+    private final VarDecl<IntType> phaseVar;
+    private final MonolithicExpr monolithicExpr;
+
+    private XstsToMonolithicExpr(final XSTS xsts) {
+        this.xsts = checkNotNull(xsts);
+        this.phaseVar = Var("__xsts_phase_", Int());
+
+        final Stmt trans = NonDetStmt(List.of(
+                step(UNINITIALIZED, xsts.getInit(), LAST_INTERNAL),
+                step(LAST_INTERNAL, xsts.getEnv(), LAST_ENV),
+                step(LAST_ENV, xsts.getTran(), LAST_INTERNAL)));
+        final StmtUnfoldResult result = StmtUtils.toExpr(trans, indexing(0));
+        final var initExpr = And(Eq(phaseVar.getRef(), Int(UNINITIALIZED)), xsts.getInitFormula());
+        monolithicExpr = MonolithicExpr.create(initExpr, And(result.getExprs()), xsts.getProp(),
+                result.getIndexing());
+    }
+
+    public static XstsToMonolithicExpr create(final XSTS xsts) {
+        return new XstsToMonolithicExpr(xsts);
+    }
+
+    public MonolithicExpr getMonolithicExpr() {
+        return monolithicExpr;
+    }
+
+    /**
+     * Maps a valuation of the encoding back to an XSTS state, dropping the auxiliary variables.
+     */
+    public XstsState<ExplState> getState(final Valuation valuation) {
+        final int phase = getPhase(valuation);
+        final ImmutableValuation.Builder builder = ImmutableValuation.builder();
+        for (final Map.Entry<Decl<?>, LitExpr<?>> entry : valuation.toMap().entrySet()) {
+            if (xsts.getVars().contains(entry.getKey())) {
+                builder.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return XstsState.of(ExplState.of(builder.build()), phase != LAST_INTERNAL,
+                phase != UNINITIALIZED);
+    }
+
+    /**
+     * Gets the action leading from the first valuation to the second one.
+     */
+    public XstsAction getAction(final Valuation source, final Valuation target) {
+        switch (getPhase(source)) {
+            case UNINITIALIZED:
+                return XstsAction.create(xsts.getInit());
+            case LAST_INTERNAL:
+                return XstsAction.create(xsts.getEnv());
+            case LAST_ENV:
+                return XstsAction.create(xsts.getTran());
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    private Stmt step(final int phase, final Stmt stmt, final int nextPhase) {
+        return SequenceStmt(List.of(Assume(Eq(phaseVar.getRef(), Int(phase))), stmt,
+                Assign(phaseVar, Int(nextPhase))));
+    }
+
+    private int getPhase(final Valuation valuation) {
+        final var value = valuation.eval(phaseVar);
+        checkArgument(value.isPresent(), "No value for %s", phaseVar.getName());
+        return ((IntLitExpr) value.get()).getValue().intValue();
+    }
+}
@@ -24,6 +24,7 @@ import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
+import hu.bme.mit.theta.analysis.algorithm.bmc.BoundedChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
@@ -61,6 +62,7 @@ import hu.bme.mit.theta.analysis.prod2.Prod2Prec;
 import hu.bme.mit.theta.analysis.prod2.Prod2State;
 import hu.bme.mit.theta.analysis.prod2.prod2explpred.*;
 import hu.bme.mit.theta.analysis.stmtoptimizer.DefaultStmtOptimizer;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
@@ -76,6 +78,7 @@ import hu.bme.mit.theta.xsts.analysis.XstsLts;
 import hu.bme.mit.theta.xsts.analysis.XstsState;
 import hu.bme.mit.theta.xsts.analysis.XstsStatePredicate;
 import hu.bme.mit.theta.xsts.analysis.XstsStmtOptimizer;
+import hu.bme.mit.theta.xsts.analysis.XstsToMonolithicExpr;
 import hu.bme.mit.theta.xsts.analysis.autoexpl.XstsAutoExpl;
 import hu.bme.mit.theta.xsts.analysis.autoexpl.XstsNewAtomsAutoExpl;
 import hu.bme.mit.theta.xsts.analysis.autoexpl.XstsNewOperandsAutoExpl;
@@ -93,6 +96,10 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 
 public class XstsConfigBuilder {
 
+    public enum Algorithm {
+        CEGAR, BMC, KINDUCTION
+    }
+
     public enum Domain {
         EXPL, PRED_BOOL, PRED_CART, PRED_SPLIT, EXPL_PRED_BOOL, EXPL_PRED_CART, EXPL_PRED_SPLIT, EXPL_PRED_COMBINED
     }
@@ -164,6 +171,8 @@ public class XstsConfigBuilder {
     }
 
     private Logger logger = NullLogger.getInstance();
+    private Algorithm algorithm = Algorithm.CEGAR;
+    private int maxBound = -1;
     private final SolverFactory abstractionSolverFactory;
     private final SolverFactory refinementSolverFactory;
     private final Domain domain;
@@ -174,6 +183,7 @@ public class XstsConfigBuilder {
     private InitPrec initPrec = InitPrec.EMPTY;
     private PruneStrategy pruneStrategy = PruneStrategy.LAZY;
     private OptimizeStmts optimizeStmts = OptimizeStmts.ON;
+    private long optimizedActionCacheSize = XstsLts.DEFAULT_OPTIMIZED_ACTION_CACHE_SIZE;
     private AutoExpl autoExpl = AutoExpl.NEWOPERANDS;
 
     public XstsConfigBuilder(final Domain domain, final Refinement refinement,
@@ -189,6 +199,19 @@ public class XstsConfigBuilder {
         return this;
     }
 
+    public XstsConfigBuilder algorithm(final Algorithm algorithm) {
+        this.algorithm = algorithm;
+        return this;
+    }
+
+    /**
+     * Maximal bound for BMC and k-induction (-1: unbounded)
+     */
+    public XstsConfigBuilder maxBound(final int maxBound) {
+        this.maxBound = maxBound;
+        return this;
+    }
+
     public XstsConfigBuilder search(final Search search) {
         this.search = search;
         return this;
@@ -219,12 +242,21 @@ public class XstsConfigBuilder {
         return this;
     }
 
+    public XstsConfigBuilder optimizedActionCacheSize(final long optimizedActionCacheSize) {
+        this.optimizedActionCacheSize = optimizedActionCacheSize;
+        return this;
+    }
+
     public XstsConfigBuilder autoExpl(final AutoExpl autoExpl) {
         this.autoExpl = autoExpl;
         return this;
     }
 
     public XstsConfig<? extends State, ? extends Action, ? extends Prec> build(final XSTS xsts) {
+        if (algorithm != Algorithm.CEGAR) {
+            return buildBounded(xsts);
+        }
+
         final Solver abstractionSolver = abstractionSolverFactory.createSolver();
         final Expr<BoolType> negProp = Not(xsts.getProp());
 
@@ -232,7 +264,8 @@ public class XstsConfigBuilder {
             final LTS<XstsState<ExplState>, XstsAction> lts;
             if (optimizeStmts == OptimizeStmts.ON) {
                 lts = XstsLts.create(xsts,
-                        XstsStmtOptimizer.create(ExplStmtOptimizer.getInstance()));
+                        XstsStmtOptimizer.create(ExplStmtOptimizer.getInstance()),
+                        optimizedActionCacheSize);
             } else {
                 lts = XstsLts.create(xsts, XstsStmtOptimizer.create(DefaultStmtOptimizer.create()));
             }
@@ -315,7 +348,8 @@ public class XstsConfigBuilder {
             final LTS<XstsState<PredState>, XstsAction> lts;
             if (optimizeStmts == OptimizeStmts.ON) {
                 lts = XstsLts.create(xsts,
-                        XstsStmtOptimizer.create(PredStmtOptimizer.getInstance()));
+                        XstsStmtOptimizer.create(PredStmtOptimizer.getInstance()),
+                        optimizedActionCacheSize);
             } else {
                 lts = XstsLts.create(xsts, XstsStmtOptimizer.create(DefaultStmtOptimizer.create()));
             }
@@ -381,7 +415,7 @@ public class XstsConfigBuilder {
                 lts = XstsLts.create(xsts, XstsStmtOptimizer.create(
                         Prod2ExplPredStmtOptimizer.create(
                                 ExplStmtOptimizer.getInstance()
-                        )));
+                        )), optimizedActionCacheSize);
             } else {
                 lts = XstsLts.create(xsts, XstsStmtOptimizer.create(DefaultStmtOptimizer.create()));
             }
@@ -481,5 +515,18 @@ public class XstsConfigBuilder {
         }
     }
 
-
-}
\ No newline at end of file
+    private XstsConfig<XstsState<ExplState>, XstsAction, UnitPrec> buildBounded(final XSTS xsts) {
+        final XstsToMonolithicExpr encoding = XstsToMonolithicExpr.create(xsts);
+        final SafetyChecker<XstsState<ExplState>, XstsAction, UnitPrec> checker;
+        if (algorithm == Algorithm.KINDUCTION) {
+            checker = BoundedChecker.create(encoding.getMonolithicExpr(),
+                    abstractionSolverFactory.createSolver(), refinementSolverFactory.createSolver(),
+                    encoding::getState, encoding::getAction, maxBound, logger);
+        } else {
+            checker = BoundedChecker.create(encoding.getMonolithicExpr(),
+                    abstractionSolverFactory.createSolver(), encoding::getState,
+                    encoding::getAction, maxBound, logger);
+        }
+        return XstsConfig.create(checker, UnitPrec.getInstance());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright 2023 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.xsts.analysis;
+
+import com.google.common.collect.ImmutableList;
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStmtOptimizer;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.ImmutableValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.stmt.AssumeStmt;
+import hu.bme.mit.theta.core.stmt.IfStmt;
+import hu.bme.mit.theta.core.stmt.NonDetStmt;
+import hu.bme.mit.theta.core.stmt.SequenceStmt;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.FalseExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+import hu.bme.mit.theta.xsts.XSTS;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assume;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+
+public class XstsLtsTest {
+
+    private final VarDecl<IntType> x = Var("x", Int());
+    private final VarDecl<IntType> y = Var("y", Int());
+    private final VarDecl<BoolType> b = Var("b", Bool());
+
+    private final XSTS xsts = createXsts();
+    private final XstsStmtOptimizer<ExplState> stmtOptimizer = XstsStmtOptimizer.create(
+            ExplStmtOptimizer.getInstance());
+
+    @Test
+    public void testEnabledActionsMatchUnoptimizedPath() {
+        final LTS<XstsState<ExplState>, XstsAction> lts = XstsLts.create(xsts, stmtOptimizer);
+        // The second round is served from the cache
+        for (int round = 0; round < 2; round++) {
+            for (final XstsState<ExplState> state : createStates()) {
+                assertEquals(state.toString(), getExpectedStmts(state),
+                        getStmts(lts.getEnabledActionsFor(state)));
+            }
+        }
+    }
+
+    @Test
+    public void testCacheDoesNotChangeActions() {
+        final LTS<XstsState<ExplState>, XstsAction> cached = XstsLts.create(xsts, stmtOptimizer);
+        final LTS<XstsState<ExplState>, XstsAction> small = XstsLts.create(xsts, stmtOptimizer, 2);
+        final LTS<XstsState<ExplState>, XstsAction> uncached = XstsLts.create(xsts, stmtOptimizer,
+                0);
+        for (final XstsState<ExplState> state : createStates()) {
+            final Collection<XstsAction> expected = uncached.getEnabledActionsFor(state);
+            assertEquals(state.toString(), expected, cached.getEnabledActionsFor(state));
+            assertEquals(state.toString(), expected, small.getEnabledActionsFor(state));
+        }
+    }
+
+    @Test
+    public void testRelevantValuationDeterminesOptimizedStmt() {
+        final List<Stmt> stmts = new ArrayList<>();
+        stmts.addAll(xsts.getInit().getStmts());
+        stmts.addAll(xsts.getTran().getStmts());
+        stmts.addAll(xsts.getEnv().getStmts());
+        for (final XstsState<ExplState> state : createStates()) {
+            for (final Stmt stmt : stmts) {
+                final Valuation relevant = stmtOptimizer.getRelevantValuation(state,
+                        StmtUtils.getVars(stmt)).orElseThrow();
+                final XstsState<ExplState> projected = XstsState.of(ExplState.of(relevant),
+                        state.lastActionWasEnv(), state.isInitialized());
+                assertEquals(state + " " + stmt, stmtOptimizer.optimizeStmt(state, stmt),
+                        stmtOptimizer.optimizeStmt(projected, stmt));
+            }
+        }
+    }
+
+    /**
+     * Optimizes each statement directly, dropping the ones that are optimized to an unsatisfiable
+     * assumption.
+     */
+    private List<List<Stmt>> getExpectedStmts(final XstsState<ExplState> state) {
+        final NonDetStmt enabledSet;
+        if (!state.isInitialized()) {
+            enabledSet = xsts.getInit();
+        } else if (state.lastActionWasEnv()) {
+            enabledSet = xsts.getTran();
+        } else {
+            enabledSet = xsts.getEnv();
+        }
+        return enabledSet.getStmts().stream()
+                .map(stmt -> stmtOptimizer.optimizeStmt(state, stmt))
+                .filter(stmt -> !(stmt instanceof AssumeStmt
+                        && ((AssumeStmt) stmt).getCond() instanceof FalseExpr))
+                .map(ImmutableList::of)
+                .collect(Collectors.toList());
+    }
+
+    private static List<List<Stmt>> getStmts(final Collection<XstsAction> actions) {
+        return actions.stream().map(XstsAction::getStmts).collect(Collectors.toList());
+    }
+
+    private XSTS createXsts() {
+        final NonDetStmt init = NonDetStmt.of(ImmutableList.of(SequenceStmt.of(ImmutableList.of(
+                Assign(x, Int(0)), Assign(y, Int(0)), Assign(b, False())))));
+        final NonDetStmt tran = NonDetStmt.of(ImmutableList.of(
+                SequenceStmt.of(ImmutableList.of(Assume(Lt(x.getRef(), Int(2))),
+                        Assign(x, Add(x.getRef(), Int(1))))),
+                SequenceStmt.of(ImmutableList.of(Assume(b.getRef()),
+                        Assign(y, Add(y.getRef(), x.getRef())))),
+                IfStmt.of(Gt(y.getRef(), Int(1)), Assign(b, False()), Assign(b, True()))));
+        final NonDetStmt env = NonDetStmt.of(ImmutableList.of(Assume(Not(b.getRef())),
+                Assign(y, y.getRef())));
+        return new XSTS(Map.of(), Set.of(), init, tran, env, True(), True());
+    }
+
+    /**
+     * All combinations of the flags with total valuations of small values, partial valuations and
+     * the top state.
+     */
+    private List<XstsState<ExplState>> createStates() {
+        final List<Valuation> valuations = new ArrayList<>();
+        valuations.add(ImmutableValuation.empty());
+        for (int i = 0; i < 3; i++) {
+            valuations.add(ImmutableValuation.builder().put(x, Int(i)).build());
+            for (int j = 0; j < 3; j++) {
+                for (final boolean bool : new boolean[]{false, true}) {
+                    valuations.add(ImmutableValuation.builder().put(x, Int(i)).put(y, Int(j))
+                            .put(b, Bool(bool)).build());
+                }
+            }
+        }
+        final List<XstsState<ExplState>> states = new ArrayList<>();
+        for (final Valuation valuation : valuations) {
+            for (final boolean lastActionWasEnv : new boolean[]{false, true}) {
+                for (final boolean initialized : new boolean[]{false, true}) {
+                    states.add(XstsState.of(ExplState.of(valuation), lastActionWasEnv,
+                            initialized));
+                }
+            }
+        }
+        return states;
+    }
+}
@@ -21,6 +21,8 @@ import com.beust.jcommander.ParameterException;
 import com.google.common.base.Stopwatch;
 import hu.bme.mit.theta.analysis.Trace;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+import hu.bme.mit.theta.analysis.algorithm.bmc.BoundedStatistics;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
 import hu.bme.mit.theta.analysis.algorithm.runtimecheck.ArgCexCheckHandler;
 import hu.bme.mit.theta.analysis.expr.refinement.PruneStrategy;
@@ -31,17 +33,21 @@ import hu.bme.mit.theta.common.OsHelper;
 import hu.bme.mit.theta.common.logging.ConsoleLogger;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.NullLogger;
+import hu.bme.mit.theta.common.metrics.MetricRegistry;
 import hu.bme.mit.theta.common.table.BasicTableWriter;
 import hu.bme.mit.theta.common.table.TableWriter;
 import hu.bme.mit.theta.common.visualization.Graph;
 import hu.bme.mit.theta.common.visualization.writer.GraphvizWriter;
+import hu.bme.mit.theta.core.utils.ExprInterner;
 import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.SolverManager;
+import hu.bme.mit.theta.solver.metrics.MetricsSolverWrapperFactory;
 import hu.bme.mit.theta.solver.smtlib.SmtLibSolverManager;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 import hu.bme.mit.theta.solver.z3.Z3SolverManager;
 import hu.bme.mit.theta.xsts.XSTS;
 import hu.bme.mit.theta.xsts.analysis.XstsAction;
+import hu.bme.mit.theta.xsts.analysis.XstsLts;
 import hu.bme.mit.theta.xsts.analysis.XstsState;
 import hu.bme.mit.theta.xsts.analysis.concretizer.XstsStateSequence;
 import hu.bme.mit.theta.xsts.analysis.concretizer.XstsTraceConcretizerUtil;
@@ -63,6 +69,13 @@ public class XstsCli {
     private static final String JAR_NAME = "theta-xsts-cli.jar";
     private final String[] args;
     private final TableWriter writer;
+    private final MetricRegistry metricRegistry = MetricRegistry.create();
+
+    @Parameter(names = {"--algorithm"}, description = "Verification algorithm")
+    Algorithm algorithm = Algorithm.CEGAR;
+
+    @Parameter(names = {"--maxbound"}, description = "Maximal bound for BMC and k-induction (-1: unbounded)")
+    int maxBound = -1;
 
     @Parameter(names = {"--domain"}, description = "Abstract domain")
     Domain domain = Domain.PRED_CART;
@@ -101,6 +114,12 @@ public class XstsCli {
     @Parameter(names = "--optimizestmts", description = "Turn statement optimization on or off")
     OptimizeStmts optimizeStmts = OptimizeStmts.ON;
 
+    @Parameter(names = "--optimized-action-cache", description = "Maximal number of memoized optimized actions (0: no memoization)")
+    long optimizedActionCacheSize = XstsLts.DEFAULT_OPTIMIZED_ACTION_CACHE_SIZE;
+
+    @Parameter(names = "--hash-cons", description = "Intern expressions (hash-consing), so that structurally equal expressions built during the analysis are shared")
+    boolean hashCons = false;
+
     @Parameter(names = {"--loglevel"}, description = "Detailedness of logging")
     Logger.Level logLevel = Logger.Level.SUBSTEP;
 
@@ -114,6 +133,9 @@ public class XstsCli {
             "--header"}, description = "Print only a header (for benchmarks)", help = true)
     boolean headerOnly = false;
 
+    @Parameter(names = "--metrics-out", description = "Write hot-path metrics (solver calls, coverage checks, refinement) to this file (CSV if it ends with .csv, JSON otherwise), also in benchmark mode, whose table has fixed columns")
+    String metricsOut = null;
+
     @Parameter(names = "--metrics", description = "Print metrics about the XSTS without running the algorithm")
     boolean metrics = false;
 
@@ -172,6 +194,10 @@ public class XstsCli {
             return;
         }
 
+        if (hashCons) {
+            ExprInterner.enable();
+        }
+
         try {
             final Stopwatch sw = Stopwatch.createStarted();
             final XSTS xsts = loadModel();
@@ -185,6 +211,9 @@ public class XstsCli {
             final SafetyResult<?, ?> status = check(configuration);
             sw.stop();
             printResult(status, xsts, sw.elapsed(TimeUnit.MILLISECONDS));
+            if (metricsOut != null) {
+                metricRegistry.writeTo(Path.of(metricsOut));
+            }
             if (status.isUnsafe() && cexfile != null) {
                 writeCex(status.asUnsafe(), xsts);
             }
@@ -199,7 +228,7 @@ public class XstsCli {
 
     private SafetyResult<?, ?> check(XstsConfig<?, ?, ?> configuration) throws Exception {
         try {
-            return configuration.check();
+            return metricRegistry.call(configuration::check);
         } catch (final Exception ex) {
             String message = ex.getMessage() == null ? "(no message)" : ex.getMessage();
             throw new Exception(
@@ -257,12 +286,18 @@ public class XstsCli {
                 abstractionSolver);
         SolverFactory refinementSolverFactory = SolverManager.resolveSolverFactory(
                 refinementSolver);
+        if (metricsOut != null) {
+            abstractionSolverFactory = MetricsSolverWrapperFactory.create(abstractionSolverFactory);
+            refinementSolverFactory = MetricsSolverWrapperFactory.create(refinementSolverFactory);
+        }
 
         try {
             return new XstsConfigBuilder(domain, refinement, abstractionSolverFactory,
                     refinementSolverFactory)
+                    .algorithm(algorithm).maxBound(maxBound)
                     .maxEnum(maxEnum).autoExpl(autoExpl).initPrec(initPrec).pruneStrategy(pruneStrategy)
-                    .search(search).predSplit(predSplit).optimizeStmts(optimizeStmts).logger(logger)
+                    .search(search).predSplit(predSplit).optimizeStmts(optimizeStmts)
+                    .optimizedActionCacheSize(optimizedActionCacheSize).logger(logger)
                     .build(xsts);
         } catch (final Exception ex) {
             throw new Exception("Could not create configuration: " + ex.getMessage(), ex);
@@ -271,17 +306,30 @@ public class XstsCli {
 
     private void printResult(final SafetyResult<?, ?> status, final XSTS sts,
                              final long totalTimeMs) {
-        final CegarStatistics stats = (CegarStatistics) status.getStats().get();
+        final Statistics stats = status.getStats().get();
         if (benchmarkMode) {
             writer.cell(status.isSafe());
             writer.cell(totalTimeMs);
-            writer.cell(stats.getAlgorithmTimeMs());
-            writer.cell(stats.getAbstractorTimeMs());
-            writer.cell(stats.getRefinerTimeMs());
-            writer.cell(stats.getIterations());
-            writer.cell(status.getArg().size());
-            writer.cell(status.getArg().getDepth());
-            writer.cell(status.getArg().getMeanBranchingFactor());
+            if (stats instanceof BoundedStatistics) {
+                // Bounded checkers report the time of the BMC and induction checks, and build no ARG
+                final BoundedStatistics boundedStats = (BoundedStatistics) stats;
+                writer.cell(boundedStats.getAlgorithmTimeMs());
+                writer.cell(boundedStats.getBmcTimeMs());
+                writer.cell(boundedStats.getInductionTimeMs());
+                writer.cell(boundedStats.getBound());
+                writer.cell("");
+                writer.cell("");
+                writer.cell("");
+            } else {
+                final CegarStatistics cegarStats = (CegarStatistics) stats;
+                writer.cell(cegarStats.getAlgorithmTimeMs());
+                writer.cell(cegarStats.getAbstractorTimeMs());
+                writer.cell(cegarStats.getRefinerTimeMs());
+                writer.cell(cegarStats.getIterations());
+                writer.cell(status.getArg().size());
+                writer.cell(status.getArg().getDepth());
+                writer.cell(status.getArg().getMeanBranchingFactor());
+            }
             if (status.isUnsafe()) {
                 writer.cell(status.asUnsafe().getTrace().length() + "");
             } else {
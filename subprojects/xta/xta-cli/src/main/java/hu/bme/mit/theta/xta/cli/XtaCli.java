@@ -27,6 +27,7 @@ import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.utils.ArgVisualizer;
 import hu.bme.mit.theta.analysis.utils.TraceVisualizer;
+import hu.bme.mit.theta.analysis.zone.DbmBackend;
 import hu.bme.mit.theta.common.CliUtils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.table.BasicTableWriter;
@@ -60,6 +61,9 @@ public final class XtaCli {
     @Parameter(names = {"--search", "-s"}, description = "Search strategy", required = true)
     SearchStrategy searchStrategy;
 
+    @Parameter(names = "--dbm", description = "Representation of the difference bound matrices of clock zones")
+    DbmBackend dbmBackend = DbmBackend.FLAT;
+
     @Parameter(names = {"--benchmark", "-b"}, description = "Benchmark mode (only print metrics)")
     Boolean benchmarkMode = false;
 
@@ -107,6 +111,8 @@ public final class XtaCli {
             return;
         }
 
+        DbmBackend.select(dbmBackend);
+
         try {
             final XtaSystem system = loadModel();
             final SafetyChecker<?, ?, UnitPrec> checker = LazyXtaCheckerFactory.create(system,